@@ -0,0 +1,62 @@
+package com.akyro.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import analytics.AnalyticsEngine;
+import analytics.WorkoutComparison;
+import generator.WorkloadGenerator;
+import model.Exercise;
+import model.Workout;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyticsEngineBenchmark {
+    @Param({ "5", "20", "100", "1000" })
+    public int exercises;
+
+    private AnalyticsEngine engine;
+    private Workout workout;
+    private Workout other;
+
+    @Setup
+    public void setUp() {
+        WorkloadGenerator generator = BenchmarkData.generator(exercises).exerciseNames(exercises * 4);
+        engine = new AnalyticsEngine();
+        workout = generator.next();
+        other = generator.next();
+    }
+
+    @Benchmark
+    public double calculateVolumeBreakdown() {
+        engine.calculateVolumeBreakdown(workout);
+        return engine.getPushPercentage();
+    }
+
+    @Benchmark
+    public List<Map.Entry<Exercise, Double>> topNExercises() {
+        return engine.topNExercises(workout, 3);
+    }
+
+    @Benchmark
+    public WorkoutComparison compareWorkouts() {
+        return engine.compareWorkouts(workout, other);
+    }
+}
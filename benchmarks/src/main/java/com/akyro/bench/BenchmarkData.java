@@ -0,0 +1,27 @@
+package com.akyro.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import generator.WorkloadGenerator;
+
+// Every benchmark draws its workouts from the same seed, so runs measure the same data
+final class BenchmarkData {
+    static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    static WorkloadGenerator generator(int exercisesPerWorkout) {
+        return new WorkloadGenerator(SEED).exercisesPerWorkout(exercisesPerWorkout, exercisesPerWorkout);
+    }
+
+    static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
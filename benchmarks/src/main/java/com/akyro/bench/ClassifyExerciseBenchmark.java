@@ -0,0 +1,46 @@
+package com.akyro.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.Exercise;
+
+// Scores are per classification, over the generator's push/pull/legs/core mix of muscle groups
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassifyExerciseBenchmark {
+    private static final int EXERCISES = 1024;
+
+    private Exercise[] exercises;
+
+    @Setup
+    public void setUp() {
+        exercises = BenchmarkData.generator(8).workouts(EXERCISES / 8)
+                .flatMap(workout -> workout.getExercises().stream())
+                .toArray(Exercise[]::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EXERCISES)
+    public void classifyExercise(Blackhole blackhole) {
+        for (Exercise exercise : exercises) {
+            blackhole.consume(exercise.classifyExercise());
+        }
+    }
+}
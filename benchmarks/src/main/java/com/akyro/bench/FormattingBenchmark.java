@@ -0,0 +1,84 @@
+package com.akyro.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ui.FormatUtils;
+import ui.ReportWriter;
+
+// FormatUtils (String.format) against ReportWriter's hand-rolled path for the same values; scores are per value.
+// Half the values are whole numbers and half have cents, as in volume and weight columns.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormattingBenchmark {
+    private static final int VALUES = 1024;
+
+    private double[] numbers;
+    private double[] fractions;
+    private ReportWriter report;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        numbers = new double[VALUES];
+        fractions = new double[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            numbers[i] = i % 2 == 0 ? random.nextInt(1_000_000) : random.nextInt(1_000_000) + 0.01 * random.nextInt(100);
+            fractions[i] = random.nextDouble();
+        }
+        report = new ReportWriter(new PrintStream(OutputStream.nullOutputStream()), false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void formatNumber(Blackhole blackhole) {
+        for (double value : numbers) {
+            blackhole.consume(FormatUtils.formatNumber(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void formatPercent(Blackhole blackhole) {
+        for (double value : fractions) {
+            blackhole.consume(FormatUtils.formatPercent(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void reportWriterNumber() {
+        for (double value : numbers) {
+            report.appendNumber(value);
+        }
+        report.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void reportWriterPercent() {
+        for (double value : fractions) {
+            report.appendPercent(value);
+        }
+        report.flush();
+    }
+}
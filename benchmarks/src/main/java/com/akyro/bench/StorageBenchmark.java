@@ -0,0 +1,95 @@
+package com.akyro.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import generator.WorkloadGenerator;
+import model.Workout;
+import storage.WorkoutStorage;
+
+// Saves, single loads and full-history loads against a data directory already holding `history` workouts.
+// Only the catalog is attached, so saveWorkout measures the file write plus one index update.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StorageBenchmark {
+    @Param({ "5", "20", "100" })
+    public int exercises;
+
+    @Param({ "100", "1000" })
+    public int history;
+
+    private Path dataDir;
+    private WorkoutStorage storage;
+    private List<String> files;
+    private Workout workout;
+    private int nextLoad;
+    private int saves;
+    private String saved;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("storage-bench");
+        WorkloadGenerator generator = BenchmarkData.generator(exercises);
+        // Written straight to disk so setup doesn't pay for a catalog update per file
+        generator.writeJsonFiles(dataDir, history);
+        storage = new WorkoutStorage(dataDir);
+        storage.getCatalog().size();
+        files = storage.getSavedWorkouts();
+        Collections.shuffle(files, new Random(BenchmarkData.SEED));
+        workout = generator.next();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteRecursively(dataDir);
+    }
+
+    // Keeps the history size fixed; a few microseconds per call on millisecond-scale saves
+    @TearDown(Level.Invocation)
+    public void deleteSaved() {
+        if (saved != null) {
+            storage.deleteWorkout(saved);
+            saved = null;
+        }
+    }
+
+    @Benchmark
+    public String saveWorkout() {
+        workout.setName("Saved " + saves++);
+        saved = storage.save(workout).fileName();
+        return saved;
+    }
+
+    @Benchmark
+    public Workout loadWorkout() {
+        return storage.loadWorkout(files.get(nextLoad++ % files.size()));
+    }
+
+    @Benchmark
+    public List<Workout> loadAllWorkouts() {
+        return storage.loadAllWorkouts();
+    }
+}
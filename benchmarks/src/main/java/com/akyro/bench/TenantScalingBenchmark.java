@@ -0,0 +1,79 @@
+package com.akyro.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import generator.WorkloadGenerator;
+import model.Workout;
+import storage.TenantRegistry;
+import storage.WorkoutStorage;
+
+// Eight threads save and delete workouts spread over a varying number of tenants. With one tenant every
+// write goes through the same catalog; with more, the threads split across independent storages and the
+// aggregate ops/s should grow until the disk or the cores run out.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TenantScalingBenchmark {
+    @Param({ "1", "2", "4", "8" })
+    public int tenants;
+
+    private Path root;
+    private TenantRegistry registry;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("tenant-bench");
+        registry = new TenantRegistry(root);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private WorkoutStorage storage;
+        private Workout workout;
+
+        @Setup(Level.Trial)
+        public void setUp(TenantScalingBenchmark benchmark, ThreadParams thread) {
+            int index = thread.getThreadIndex();
+            storage = benchmark.registry.storage("athlete-" + index % benchmark.tenants);
+            workout = new WorkloadGenerator(BenchmarkData.SEED + index).next();
+        }
+    }
+
+    @Benchmark
+    public boolean saveAndDelete(Client client) {
+        String fileName = client.storage.save(client.workout).fileName();
+        return fileName != null && client.storage.deleteWorkout(fileName);
+    }
+}
@@ -0,0 +1,105 @@
+package com.akyro.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import analytics.ExerciseColumns;
+import analytics.OneRepMaxFormula;
+import analytics.VolumeKernels;
+import model.Exercise;
+import model.Workout;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class VolumeKernelBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int exercises;
+
+    private List<Workout> workouts;
+    private ExerciseColumns columns;
+    private double[] estimates;
+    private VolumeKernels scalar;
+    private VolumeKernels vector;
+
+    @Setup
+    public void setUp() {
+        workouts = BenchmarkData.generator(8).workouts(exercises / 8).toList();
+        columns = ExerciseColumns.from(workouts);
+        estimates = new double[columns.size()];
+        scalar = VolumeKernels.scalar();
+        vector = VolumeKernels.best();
+        if (!vector.isVectorized()) {
+            throw new IllegalStateException("Run with --add-modules=jdk.incubator.vector");
+        }
+    }
+
+    @Benchmark
+    public double volumeObjectLoop() {
+        double total = 0;
+        for (Workout w : workouts) {
+            for (Exercise e : w.getExercises()) {
+                total += e.calculateTotalVolume();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double volumeScalarKernel() {
+        return scalar.totalVolume(columns);
+    }
+
+    @Benchmark
+    public double volumeVectorKernel() {
+        return vector.totalVolume(columns);
+    }
+
+    @Benchmark
+    public double[] categoryObjectLoop() {
+        double[] volumes = new double[ExerciseColumns.CATEGORY_COUNT];
+        for (Workout w : workouts) {
+            for (Exercise e : w.getExercises()) {
+                volumes[ExerciseColumns.categoryIndex(e.classifyExercise())] += e.calculateTotalVolume();
+            }
+        }
+        return volumes;
+    }
+
+    @Benchmark
+    public double[] categoryScalarKernel() {
+        return scalar.categoryVolumes(columns);
+    }
+
+    @Benchmark
+    public double[] categoryVectorKernel() {
+        return vector.categoryVolumes(columns);
+    }
+
+    @Benchmark
+    public double[] oneRepMaxScalarKernel() {
+        scalar.estimateOneRepMax(columns, OneRepMaxFormula.EPLEY, estimates);
+        return estimates;
+    }
+
+    @Benchmark
+    public double[] oneRepMaxVectorKernel() {
+        vector.estimateOneRepMax(columns, OneRepMaxFormula.EPLEY, estimates);
+        return estimates;
+    }
+}
@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Time-to-first-output for each start-up variant, as the median over several runs.
+#
+#   mvn -Pappcds package            # jar, target/lib and target/lift-metrics.jsa
+#   mvn -Pnative package            # optional, needs GraalVM: target/lift-metrics
+#   scripts/startup-time.sh [runs]
+#
+# "help" never touches Jackson, "list" loads the catalog through it and "menu" is the interactive UI's
+# first screen.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-10}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAR=$(ls target/lift-metrics-*.jar 2>/dev/null | head -n 1)
+CDS=target/lift-metrics.jsa
+NATIVE=target/lift-metrics
+DATA=$(mktemp -d)
+trap 'rm -rf "$DATA"' EXIT
+
+if [[ -z "$JAR" || ! -d target/lib ]]; then
+    echo "Build first: mvn -Pappcds package" >&2
+    exit 1
+fi
+"$JAVA" -jar "$JAR" --data "$DATA" import src/build/cds-training.json > /dev/null
+
+# Milliseconds until the command prints its first line; the process is left to finish on its own
+first_output_ms() {
+    local start end
+    start=$(date +%s%N)
+    { IFS= read -r _ || true; } < <("$@" < /dev/null 2> /dev/null)
+    end=$(date +%s%N)
+    echo $(((end - start) / 1000000))
+}
+
+median_ms() {
+    local samples=()
+    for ((i = 0; i < RUNS; i++)); do
+        samples+=("$(first_output_ms "$@")")
+    done
+    printf '%s\n' "${samples[@]}" | sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+report() {
+    local variant=$1
+    shift
+    printf '%-10s help %5s ms   list %5s ms   menu %5s ms\n' "$variant" \
+        "$(median_ms "$@" help)" \
+        "$(median_ms "$@" --data "$DATA" list)" \
+        "$(median_ms "$@")"
+}
+
+report "jar" "$JAVA" -jar "$JAR"
+if [[ -f "$CDS" ]]; then
+    report "appcds" "$JAVA" -XX:SharedArchiveFile="$CDS" -jar "$JAR"
+fi
+if [[ -x "$NATIVE" ]]; then
+    report "native" "$NATIVE"
+fi
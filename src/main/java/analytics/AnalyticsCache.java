@@ -0,0 +1,184 @@
+package analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import metrics.CacheCounter;
+import metrics.Metrics;
+import model.Exercise;
+import model.Workout;
+
+// Results are keyed by a snapshot of the workout's contents, compared field by field, so any edit misses
+// naturally and two workouts can only share an entry if they are identical. Each entry is
+// a future, so a result being computed in the background or by another thread is waited for, not recomputed.
+public class AnalyticsCache {
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+    // Summed over every cache in the process, for the stats screen and JMX
+    private static final CacheCounter COUNTER = Metrics.cache("analytics");
+
+    private final AnalyticsEngine engine;
+    private final Map<Object, CompletableFuture<?>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public AnalyticsCache(AnalyticsEngine engine) {
+        this(engine, DEFAULT_MAX_ENTRIES);
+    }
+
+    public AnalyticsCache(AnalyticsEngine engine, int maxEntries) {
+        this.engine = engine;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, CompletableFuture<?>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public WorkoutAnalytics analyze(Workout workout) {
+        return get(key(workout), () -> engine.analyze(workout));
+    }
+
+    public WorkoutComparison compare(Workout a, Workout b) {
+        return get(new ComparisonKey(key(a), key(b)), () -> engine.compareWorkouts(a, b));
+    }
+
+    // Starts the analysis on the executor so a later analyze(workout) finds it ready. The workout is copied
+    // first, so it can go on being edited meanwhile. Cancelling the future drops it from the cache and skips
+    // the work if it has not started.
+    public CompletableFuture<WorkoutAnalytics> prefetchAnalyze(Workout workout, Executor executor) {
+        Workout copy = copyOf(workout);
+        return prefetch(key(copy), () -> engine.analyze(copy), executor);
+    }
+
+    public CompletableFuture<WorkoutComparison> prefetchCompare(Workout a, Workout b, Executor executor) {
+        Workout copyA = copyOf(a);
+        Workout copyB = copyOf(b);
+        return prefetch(new ComparisonKey(key(copyA), key(copyB)), () -> engine.compareWorkouts(copyA, copyB),
+                executor);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double hitRate() {
+        long total = getHits() + getMisses();
+        return total == 0 ? 0 : (double) getHits() / total;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private <T> T get(Object key, Supplier<T> compute) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> existing = claim(key, future);
+        if (existing == null) {
+            complete(key, future, compute);
+        }
+        try {
+            return (existing == null ? future : existing).join();
+        } catch (CancellationException e) { // A prefetch was cancelled while this thread waited for it
+            return compute.get();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private <T> CompletableFuture<T> prefetch(Object key, Supplier<T> compute, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> existing = claim(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        future.whenComplete((result, failure) -> {
+            if (future.isCancelled()) {
+                synchronized (this) {
+                    entries.remove(key, future);
+                }
+            }
+        });
+        executor.execute(() -> {
+            if (!future.isDone()) {
+                complete(key, future, compute);
+            }
+        });
+        return future;
+    }
+
+    // Puts the future in the cache and returns null, or returns the entry already there and counts a hit
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> claim(Object key, CompletableFuture<T> future) {
+        synchronized (this) {
+            CompletableFuture<?> cached = entries.get(key);
+            if (cached != null && !cached.isCancelled()) {
+                hits.increment();
+                COUNTER.hit();
+                return (CompletableFuture<T>) cached;
+            }
+            entries.put(key, future);
+        }
+        misses.increment();
+        COUNTER.miss();
+        return null;
+    }
+
+    // Failures are not cached: the next call computes again
+    private <T> void complete(Object key, CompletableFuture<T> future, Supplier<T> compute) {
+        try {
+            future.complete(compute.get());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entries.remove(key, future);
+            }
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static Workout copyOf(Workout workout) {
+        Workout copy = new Workout();
+        copy.setName(workout.getName());
+        copy.setDate(workout.getDate());
+        ArrayList<Exercise> exercises = new ArrayList<>(workout.size());
+        for (Exercise e : workout.getExercises()) {
+            exercises.add(new Exercise(e.getName(), e.getSets(), e.getReps(), e.getWeight(), e.getMuscleGroup()));
+        }
+        copy.setExercises(exercises);
+        return copy;
+    }
+
+    private static WorkoutKey key(Workout workout) {
+        List<ExerciseKey> exercises = new ArrayList<>(workout.size());
+        for (Exercise e : workout.getExercises()) {
+            exercises.add(new ExerciseKey(e.getName(), e.getSets(), e.getReps(), e.getWeight(), e.getMuscleGroup()));
+        }
+        return new WorkoutKey(workout.getName(), workout.getDate(), exercises);
+    }
+
+    private record WorkoutKey(String name, LocalDate date, List<ExerciseKey> exercises) {
+    }
+
+    private record ExerciseKey(String name, int sets, int reps, double weight, String muscleGroup) {
+    }
+
+    private record ComparisonKey(WorkoutKey a, WorkoutKey b) {
+    }
+}
@@ -8,9 +8,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import jdk.jfr.FlightRecorder;
+
+import metrics.Metrics;
+import metrics.OperationTimer;
 import model.Exercise;
+import model.ExerciseNames;
 import model.Workout;
 
 public class AnalyticsEngine {
@@ -19,8 +23,20 @@ public class AnalyticsEngine {
     private double legsVolume;
     private Exercise highestVolumeExercise;
     private Exercise lowestVolumeExercise;
+    private final VolumeKernels kernels = VolumeKernels.best();
+    private static final int RANKED_EXERCISES = 3;
+    private static final OperationTimer ANALYZE = Metrics.timer("analytics", "analyze");
+    private static final OperationTimer COMPARE = Metrics.timer("analytics", "compare");
+    private static final OperationTimer HISTORY_BY_CATEGORY = Metrics.timer("analytics", "historyByCategory");
+    private static final OperationTimer HISTORY_BY_EXERCISE = Metrics.timer("analytics", "historyByExercise");
 
     public void calculateVolumeBreakdown(Workout workout) {
+        AnalyticsEvent event = beginEvent();
+        breakdown(workout);
+        commit(event, "volumeBreakdown", workout);
+    }
+
+    private void breakdown(Workout workout) {
         pushVolume = 0;
         pullVolume = 0;
         legsVolume = 0;
@@ -50,6 +66,22 @@ public class AnalyticsEngine {
         }
     }
 
+    public synchronized WorkoutAnalytics analyze(Workout workout) {
+        long start = System.nanoTime();
+        AnalyticsEvent event = beginEvent();
+        calculateVolumeBreakdown(workout);
+        ExerciseShare highest = null;
+        if (highestVolumeExercise != null) {
+            highest = new ExerciseShare(highestVolumeExercise.getName(),
+                    highestVolumeExercise.calculateTotalVolume(), 0);
+        }
+        WorkoutAnalytics analytics = new WorkoutAnalytics(shares(topNExercises(workout, RANKED_EXERCISES)),
+                shares(bottomNExercises(workout, RANKED_EXERCISES)), volumePercentageSplit(), highest);
+        ANALYZE.record(start);
+        commit(event, "analyze", workout);
+        return analytics;
+    }
+
     public Map<Exercise, Double> getExerciseVolumePercentages(Workout workout) {
         Map<Exercise, Double> percentages = new HashMap<>();
         double totalVolume = workout.calculateTotalWorkoutVolume();
@@ -67,6 +99,7 @@ public class AnalyticsEngine {
     }
 
     public Map<Exercise, Double> getSortedExerciseVolumePercentages(Workout workout) {
+        AnalyticsEvent event = beginEvent();
         Map<Exercise, Double> percentages = new HashMap<>();
         List<Map.Entry<Exercise, Double>> sortedPercentages = new ArrayList<>();
         double totalVolume = workout.calculateTotalWorkoutVolume();
@@ -88,6 +121,7 @@ public class AnalyticsEngine {
         for (Map.Entry<Exercise, Double> entry : sortedPercentages) {
             rankedExercises.put(entry.getKey(), entry.getValue());
         }
+        commit(event, "rankExercises", workout);
         return rankedExercises;
 
     }
@@ -121,19 +155,52 @@ public class AnalyticsEngine {
         return ppl;
     }
 
+    public Map<String, Double> historyVolumeByCategory(List<Workout> workouts) {
+        long start = System.nanoTime();
+        AnalyticsEvent event = beginEvent();
+        double[] volumes = kernels.categoryVolumes(ExerciseColumns.from(workouts));
+        Map<String, Double> ppl = new LinkedHashMap<>();
+        ppl.put("Push", volumes[ExerciseColumns.PUSH]);
+        ppl.put("Pull", volumes[ExerciseColumns.PULL]);
+        ppl.put("Legs", volumes[ExerciseColumns.LEGS]);
+        ppl.put("Other", volumes[ExerciseColumns.OTHER]);
+        HISTORY_BY_CATEGORY.record(start);
+        commit(event, "historyByCategory", workouts);
+        return ppl;
+    }
+
+    public Map<String, Double> volumeByExercise(List<Workout> workouts, ExerciseNameIndex names) {
+        long start = System.nanoTime();
+        AnalyticsEvent event = beginEvent();
+        Map<String, Double> volumes = new HashMap<>();
+        for (Workout workout : workouts) {
+            for (Exercise e : workout.getExercises()) {
+                volumes.merge(names.canonicalName(e.getName()), e.calculateTotalVolume(), Double::sum);
+            }
+        }
+        HISTORY_BY_EXERCISE.record(start);
+        commit(event, "historyByExercise", workouts);
+        return volumes;
+    }
+
     public WorkoutComparison compareWorkouts(Workout a, Workout b) {
+        long start = System.nanoTime();
+        AnalyticsEvent event = beginEvent();
         double aVolume = a.calculateTotalWorkoutVolume();
         double bVolume = b.calculateTotalWorkoutVolume();
         double volumeDifference = Math.abs(bVolume - aVolume);
-        Set<String> namesA = getExerciseNames(a);
-        Set<String> namesB = getExerciseNames(b);
+        Map<String, String> namesA = getExerciseNames(a);
+        Map<String, String> namesB = getExerciseNames(b);
 
-        List<String> uniqueToA = uniqueExercises(namesA, namesB);
-        List<String> uniqueToB = uniqueExercises(namesB, namesA);
-        List<String> commonExercises = commonExercises(namesA, namesB);
+        List<String> uniqueToA = uniqueExercises(namesA, namesB.keySet());
+        List<String> uniqueToB = uniqueExercises(namesB, namesA.keySet());
+        List<String> commonExercises = commonExercises(namesA, namesB.keySet());
 
-        return new WorkoutComparison(aVolume, bVolume, volumeDifference,
+        WorkoutComparison comparison = new WorkoutComparison(aVolume, bVolume, volumeDifference,
                 uniqueToA, uniqueToB, commonExercises);
+        COMPARE.record(start);
+        commit(event, "compare", List.of(a, b));
+        return comparison;
     }
 
     public double getPushPercentage() {
@@ -156,6 +223,54 @@ public class AnalyticsEngine {
         return lowestVolumeExercise;
     }
 
+    private List<ExerciseShare> shares(List<Map.Entry<Exercise, Double>> ranked) {
+        List<ExerciseShare> shares = new ArrayList<>();
+        for (Map.Entry<Exercise, Double> entry : ranked) {
+            Exercise e = entry.getKey();
+            shares.add(new ExerciseShare(e.getName(), e.calculateTotalVolume(), entry.getValue()));
+        }
+        return shares;
+    }
+
+    // Null unless Flight Recorder is running, so unrecorded runs never load JFR (see WorkoutStorage)
+    private static AnalyticsEvent beginEvent() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        AnalyticsEvent event = new AnalyticsEvent();
+        event.begin();
+        return event;
+    }
+
+    private static boolean shouldCommit(AnalyticsEvent event) {
+        if (event == null) {
+            return false;
+        }
+        event.end();
+        return event.shouldCommit();
+    }
+
+    // The workout sizes are only counted when a recording wants the event
+    private static void commit(AnalyticsEvent event, String operation, Workout workout) {
+        if (shouldCommit(event)) {
+            event.operation = operation;
+            event.workouts = 1;
+            event.exerciseCount = workout.getExercises().size();
+            event.commit();
+        }
+    }
+
+    private static void commit(AnalyticsEvent event, String operation, List<Workout> workouts) {
+        if (shouldCommit(event)) {
+            event.operation = operation;
+            event.workouts = workouts.size();
+            for (Workout workout : workouts) {
+                event.exerciseCount += workout.getExercises().size();
+            }
+            event.commit();
+        }
+    }
+
     private double totalVolume() {
         double totalVolume = pushVolume + pullVolume + legsVolume;
         if (totalVolume == 0) {
@@ -164,22 +279,32 @@ public class AnalyticsEngine {
         return totalVolume;
     }
 
-    private Set<String> getExerciseNames(Workout workout) {
-        return workout.getExercises()
-                .stream()
-                .map(Exercise::getName)
-                .collect(Collectors.toSet());
+    // Canonical key -> name as first written in the workout
+    private Map<String, String> getExerciseNames(Workout workout) {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (Exercise e : workout.getExercises()) {
+            names.putIfAbsent(ExerciseNames.normalize(e.getName()), e.getName());
+        }
+        return names;
     }
 
-    private List<String> commonExercises(Set<String> a, Set<String> b) {
-        Set<String> exercises = new HashSet<>(a);
+    private List<String> commonExercises(Map<String, String> a, Set<String> b) {
+        Set<String> exercises = new HashSet<>(a.keySet());
         exercises.retainAll(b);
-        return new ArrayList<>(exercises);
+        return displayNames(a, exercises);
     }
 
-    private List<String> uniqueExercises(Set<String> a, Set<String> b) {
-        Set<String> exercises = new HashSet<>(a);
+    private List<String> uniqueExercises(Map<String, String> a, Set<String> b) {
+        Set<String> exercises = new HashSet<>(a.keySet());
         exercises.removeAll(b);
-        return new ArrayList<>(exercises);
+        return displayNames(a, exercises);
+    }
+
+    private List<String> displayNames(Map<String, String> names, Set<String> keys) {
+        List<String> display = new ArrayList<>();
+        for (String key : keys) {
+            display.add(names.get(key));
+        }
+        return display;
     }
 }
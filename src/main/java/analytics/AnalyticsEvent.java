@@ -0,0 +1,24 @@
+package analytics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.akyro.Analytics")
+@Label("Analytics Computation")
+@Category({ "Lift Metrics", "Analytics" })
+@Description("One AnalyticsEngine computation over a workout, a pair of workouts or a history")
+@StackTrace(false)
+class AnalyticsEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Workouts")
+    int workouts;
+
+    @Label("Exercises")
+    int exerciseCount;
+}
@@ -0,0 +1,84 @@
+package analytics;
+
+import java.util.List;
+
+import model.Exercise;
+import model.Workout;
+
+public class ExerciseColumns {
+    public static final int PUSH = 0;
+    public static final int PULL = 1;
+    public static final int LEGS = 2;
+    public static final int OTHER = 3;
+    public static final int CATEGORY_COUNT = 4;
+
+    private final double[] weights;
+    private final int[] sets;
+    private final int[] reps;
+    private final int[] categories;
+    private final int size;
+
+    public ExerciseColumns(double[] weights, int[] sets, int[] reps, int[] categories) {
+        if (sets.length != weights.length || reps.length != weights.length
+                || categories.length != weights.length) {
+            throw new IllegalArgumentException("Columns must all have the same length");
+        }
+        this.weights = weights;
+        this.sets = sets;
+        this.reps = reps;
+        this.categories = categories;
+        this.size = weights.length;
+    }
+
+    public static ExerciseColumns from(List<Workout> workouts) {
+        int size = 0;
+        for (Workout workout : workouts) {
+            size += workout.size();
+        }
+        double[] weights = new double[size];
+        int[] sets = new int[size];
+        int[] reps = new int[size];
+        int[] categories = new int[size];
+
+        int i = 0;
+        for (Workout workout : workouts) {
+            for (Exercise e : workout.getExercises()) {
+                weights[i] = e.getWeight();
+                sets[i] = e.getSets();
+                reps[i] = e.getReps();
+                categories[i] = categoryIndex(e.classifyExercise());
+                i++;
+            }
+        }
+        return new ExerciseColumns(weights, sets, reps, categories);
+    }
+
+    public static int categoryIndex(String category) {
+        return switch (category) {
+            case "Push" -> PUSH;
+            case "Pull" -> PULL;
+            case "Legs" -> LEGS;
+            default -> OTHER;
+        };
+    }
+
+    public double[] weights() {
+        return weights;
+    }
+
+    public int[] sets() {
+        return sets;
+    }
+
+    public int[] reps() {
+        return reps;
+    }
+
+    public int[] categories() {
+        return categories;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,52 @@
+package analytics;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.Exercise;
+import model.ExerciseNames;
+import model.Workout;
+
+public class ExerciseDictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    public int idOf(String exerciseName) {
+        return ids.computeIfAbsent(ExerciseNames.normalize(exerciseName), k -> ids.size());
+    }
+
+    public BitSet encode(Workout workout) {
+        BitSet exercises = new BitSet(ids.size());
+        for (Exercise e : workout.getExercises()) {
+            exercises.set(idOf(e.getName()));
+        }
+        return exercises;
+    }
+
+    // Only reads the dictionary, so threads can share one once it is built. Names it has not seen are numbered past
+    // its ids for this call alone, so they still count towards the union of a Jaccard similarity.
+    public BitSet encodeQuery(Workout workout) {
+        BitSet exercises = new BitSet(ids.size());
+        Map<String, Integer> unseen = new HashMap<>();
+        for (Exercise e : workout.getExercises()) {
+            String key = ExerciseNames.normalize(e.getName());
+            Integer id = ids.get(key);
+            exercises.set(id != null ? id : unseen.computeIfAbsent(key, k -> ids.size() + unseen.size()));
+        }
+        return exercises;
+    }
+
+    // For names that are canonical keys already, such as a CatalogEntry's
+    public BitSet encodeKeys(Collection<String> exerciseKeys) {
+        BitSet exercises = new BitSet(ids.size());
+        for (String key : exerciseKeys) {
+            exercises.set(ids.computeIfAbsent(key, k -> ids.size()));
+        }
+        return exercises;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,196 @@
+package analytics;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import model.Exercise;
+import model.ExerciseNames;
+import model.Workout;
+import storage.StorageListener;
+import storage.WorkoutStorage;
+
+// Fuzzy lookup of the exercise names logged so far. The saved names are kept on disk through an IndexJournal, like
+// the other history indexes, so a new name appends a line rather than rewriting the list.
+public class ExerciseNameIndex implements StorageListener {
+    private static final String INDEX_NAME = "exercise-names";
+    private static final double MIN_SCORE = 0.3;
+
+    private final WorkoutStorage storage;
+    // Canonical key -> first spelling seen in a saved workout, as kept on disk
+    private final IndexJournal<String> names;
+
+    // The search structures, over the saved names and any added directly; ids follow the order names were added
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final List<String> displayNames = new ArrayList<>();
+    private final List<Integer> trigramCounts = new ArrayList<>();
+    private final Map<String, List<Integer>> postings = new HashMap<>();
+    private final TreeMap<String, Integer> sortedKeys = new TreeMap<>();
+
+    public ExerciseNameIndex(WorkoutStorage storage) {
+        this.storage = storage;
+        this.names = new IndexJournal<>(storage, INDEX_NAME, String.class, "exercise name index");
+    }
+
+    // The storage keeps one ExerciseNameIndex per storage; attaching again returns it
+    public static ExerciseNameIndex attach(WorkoutStorage storage) {
+        return storage.attach(ExerciseNameIndex.class, ExerciseNameIndex::new);
+    }
+
+    @Override
+    public synchronized void workoutSaved(String fileName, Workout workout) {
+        if (!ensureLoaded()) {
+            record(workout);
+            names.save();
+        }
+    }
+
+    // Names stay known after a delete; suggesting a name nobody logs any more is harmless
+    @Override
+    public synchronized void workoutDeleted(String fileName, Workout workout) {
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        ids.clear();
+        keys.clear();
+        displayNames.clear();
+        trigramCounts.clear();
+        postings.clear();
+        sortedKeys.clear();
+        build();
+    }
+
+    // Known to this instance only, until a saved workout logs it
+    public synchronized void add(String exerciseName) {
+        String key = ExerciseNames.normalize(exerciseName);
+        if (key.isEmpty() || ids.containsKey(key)) {
+            return;
+        }
+        int id = keys.size();
+        ids.put(key, id);
+        keys.add(key);
+        displayNames.add(exerciseName.trim());
+        sortedKeys.put(key, id);
+
+        Set<String> trigrams = trigrams(key);
+        trigramCounts.add(trigrams.size());
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, k -> new ArrayList<>()).add(id);
+        }
+    }
+
+    public synchronized String canonicalName(String exerciseName) {
+        ensureLoaded();
+        Integer id = ids.get(ExerciseNames.normalize(exerciseName));
+        return id == null ? exerciseName.trim() : displayNames.get(id);
+    }
+
+    public synchronized List<String> search(String query, int limit) {
+        ensureLoaded();
+        String key = ExerciseNames.normalize(query);
+        if (key.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (key.length() < 3) { // Too short for trigrams, fall back to a prefix scan
+            List<String> matches = new ArrayList<>();
+            for (int id : sortedKeys.subMap(key, key + Character.MAX_VALUE).values()) {
+                if (matches.size() == limit) {
+                    break;
+                }
+                matches.add(displayNames.get(id));
+            }
+            return matches;
+        }
+
+        Set<String> queryTrigrams = trigrams(key);
+        int[] shared = new int[keys.size()];
+        List<Integer> touched = new ArrayList<>();
+        for (String trigram : queryTrigrams) {
+            List<Integer> matching = postings.get(trigram);
+            if (matching == null) {
+                continue;
+            }
+            for (int id : matching) {
+                if (shared[id]++ == 0) {
+                    touched.add(id);
+                }
+            }
+        }
+
+        List<double[]> scored = new ArrayList<>();
+        for (int id : touched) {
+            double score = 2.0 * shared[id] / (queryTrigrams.size() + trigramCounts.get(id));
+            if (keys.get(id).startsWith(key)) {
+                score += 1;
+            }
+            if (score >= MIN_SCORE) {
+                scored.add(new double[] { score, id });
+            }
+        }
+        // Equal scores go by key, so the order doesn't depend on the order names were added in
+        scored.sort((a, b) -> a[0] != b[0] ? Double.compare(b[0], a[0])
+                : keys.get((int) a[1]).compareTo(keys.get((int) b[1])));
+
+        List<String> matches = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, scored.size()); i++) {
+            matches.add(displayNames.get((int) scored.get(i)[1]));
+        }
+        return matches;
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return keys.size();
+    }
+
+    private void record(Workout workout) {
+        for (Exercise e : workout.getExercises()) {
+            add(e.getName());
+            String key = ExerciseNames.normalize(e.getName());
+            if (!key.isEmpty() && names.get(key) == null) {
+                names.put(key, displayNames.get(ids.get(key)));
+            }
+        }
+    }
+
+    // Returns true if the saved names had to be rebuilt, which already covers any change being notified
+    private boolean ensureLoaded() {
+        if (names.isCurrent()) {
+            return false;
+        }
+        if (names.load()) {
+            names.entries().values().forEach(this::add);
+            return false;
+        }
+        build();
+        return true;
+    }
+
+    // Adds every name on disk to those already known, and saves them as a new snapshot
+    private void build() {
+        names.clear();
+        if (!Files.isDirectory(storage.getDataDirectory())) {
+            return;
+        }
+        for (Workout workout : storage.scan(this).values()) {
+            record(workout);
+        }
+        names.snapshot();
+    }
+
+    private static Set<String> trigrams(String key) {
+        String padded = "  " + key + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
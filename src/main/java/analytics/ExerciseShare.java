@@ -0,0 +1,25 @@
+package analytics;
+
+public class ExerciseShare {
+    private final String name;
+    private final double volume;
+    private final double share;
+
+    public ExerciseShare(String name, double volume, double share) {
+        this.name = name;
+        this.volume = volume;
+        this.share = share;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
@@ -0,0 +1,23 @@
+package analytics;
+
+final class Hashing {
+    private Hashing() {
+
+    }
+
+    // FNV-1a over the UTF-16 chars, then a SplitMix64 finalizer so every bit is usable
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,45 @@
+package analytics;
+
+import storage.WorkoutStorage;
+
+// The derived indexes every front end attaches, so saves and deletes from any of them keep all indexes current
+public class HistoryIndexes {
+    private final VolumeRollups rollups;
+    private final PersonalRecords personalRecords;
+    private final ExerciseNameIndex exerciseNames;
+    private final TrendTracker trends;
+    private final SketchStore sketches;
+
+    private HistoryIndexes(WorkoutStorage storage) {
+        this.rollups = VolumeRollups.attach(storage);
+        this.personalRecords = PersonalRecords.attach(storage);
+        this.exerciseNames = ExerciseNameIndex.attach(storage);
+        this.trends = TrendTracker.attach(storage);
+        this.sketches = SketchStore.attach(storage);
+    }
+
+    // A storage the indexes are already attached to keeps its existing instances
+    public static HistoryIndexes attach(WorkoutStorage storage) {
+        return new HistoryIndexes(storage);
+    }
+
+    public VolumeRollups rollups() {
+        return rollups;
+    }
+
+    public PersonalRecords personalRecords() {
+        return personalRecords;
+    }
+
+    public ExerciseNameIndex exerciseNames() {
+        return exerciseNames;
+    }
+
+    public TrendTracker trends() {
+        return trends;
+    }
+
+    public SketchStore sketches() {
+        return sketches;
+    }
+}
@@ -0,0 +1,206 @@
+package analytics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import storage.WorkoutStorage;
+
+// A key to value index kept as name.json, a snapshot, and name.journal, the entries changed since, one JSON line
+// each. Saving a change appends only the entries it touched, so its cost follows the change rather than the
+// history; the journal is folded into a new snapshot once it outgrows the index. The snapshot and every line carry
+// the catalog's generation they match, so an index that missed files written outside this storage is rebuilt.
+final class IndexJournal<V> {
+    private static final int MIN_COMPACTION = 256;
+    private static final String GENERATION = "generation";
+    private static final String ENTRIES = "entries";
+
+    private final WorkoutStorage storage;
+    private final String name;
+    private final String description;
+    private final Class<V> valueType;
+    private TreeMap<String, V> entries;
+    // Keys put or removed since the last save
+    private final TreeSet<String> changed = new TreeSet<>();
+    // Lines in the journal, counting each entry of a line that holds several
+    private int journalLength;
+    // The catalog generation the index on disk matches
+    private String generation;
+    // The catalog's count of outside changes when the index last matched the files
+    private long outsideChanges;
+
+    IndexJournal(WorkoutStorage storage, String name, Class<V> valueType, String description) {
+        this.storage = storage;
+        this.name = name;
+        this.valueType = valueType;
+        this.description = description;
+    }
+
+    // Reads the snapshot and replays the journal. Returns false if there is no snapshot on disk, the index could
+    // not be read or it does not match the catalog's generation, and the caller has to rebuild it; a journal alone
+    // only holds part of the index.
+    boolean load() {
+        changed.clear();
+        journalLength = 0;
+        entries = null;
+        generation = null;
+        outsideChanges = storage.getCatalog().outsideChanges();
+        if (!Files.exists(snapshotFile())) {
+            return false;
+        }
+        try {
+            JsonNode snapshot = storage.readJson(snapshotFile(), JsonNode.class);
+            if (!snapshot.has(GENERATION)) { // Written before indexes carried a generation
+                return false;
+            }
+            entries = storage.getMapper().readerFor(storage.getMapper().getTypeFactory()
+                    .constructMapType(TreeMap.class, String.class, valueType)).readValue(snapshot.get(ENTRIES));
+            generation = replay(snapshot.get(GENERATION).asText());
+            if (!generation.equals(storage.getCatalog().generation())) {
+                entries = null;
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to read " + description + ", rebuilding: " + e.getMessage());
+            entries = null;
+            return false;
+        }
+    }
+
+    // Loaded, and the catalog found no files changed behind this storage's back since
+    boolean isCurrent() {
+        return entries != null && outsideChanges == storage.getCatalog().outsideChanges();
+    }
+
+    // Live view; changes made through it must be reported with put or remove to be saved
+    TreeMap<String, V> entries() {
+        return entries;
+    }
+
+    V get(String key) {
+        return entries.get(key);
+    }
+
+    // Also for a value that was changed in place
+    void put(String key, V value) {
+        entries.put(key, value);
+        changed.add(key);
+    }
+
+    void remove(String key) {
+        entries.remove(key);
+        changed.add(key);
+    }
+
+    // Starts an empty index for a rebuild; finish it with snapshot()
+    void clear() {
+        entries = new TreeMap<>();
+        changed.clear();
+        generation = null;
+        outsideChanges = storage.getCatalog().outsideChanges();
+    }
+
+    // Appends one line holding every entry changed since the last save, null for the removed ones. A save that
+    // changed no entry still records the catalog's new generation, so the next load can trust the index.
+    void save() {
+        String current = storage.getCatalog().generation();
+        if (changed.isEmpty() && current.equals(generation)) {
+            return;
+        }
+        ObjectNode line = storage.getMapper().createObjectNode();
+        line.put(GENERATION, current);
+        ObjectNode values = line.putObject(ENTRIES);
+        for (String key : changed) {
+            values.set(key, storage.getMapper().valueToTree(entries.get(key)));
+        }
+        journalLength += Math.max(1, changed.size());
+        changed.clear();
+        generation = current;
+        if (journalLength > Math.max(MIN_COMPACTION, entries.size())) {
+            snapshot();
+            return;
+        }
+        try {
+            Files.createDirectories(storage.getIndexDirectory());
+            Files.writeString(journalFile(), line + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Failed to save " + description + ": " + e.getMessage());
+        }
+    }
+
+    // Writes the whole index as the new snapshot and starts an empty journal
+    void snapshot() {
+        changed.clear();
+        try {
+            Files.createDirectories(storage.getIndexDirectory());
+            Path temporary = snapshotFile().resolveSibling(name + ".json.tmp");
+            generation = storage.getCatalog().generation();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put(GENERATION, generation);
+            snapshot.put(ENTRIES, entries);
+            storage.writeCompactJson(temporary, snapshot);
+            Files.move(temporary, snapshotFile(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(journalFile());
+            journalLength = 0;
+        } catch (IOException e) {
+            System.err.println("Failed to save " + description + ": " + e.getMessage());
+        }
+    }
+
+    // Drops the index from memory and disk, so the next load rebuilds it
+    void delete() {
+        entries = null;
+        changed.clear();
+        generation = null;
+        try {
+            Files.deleteIfExists(snapshotFile());
+            Files.deleteIfExists(journalFile());
+        } catch (IOException e) {
+            System.err.println("Failed to invalidate " + description + ": " + e.getMessage());
+        }
+    }
+
+    // Returns the generation of the last line, the one the replayed index matches
+    private String replay(String matched) throws IOException {
+        if (!Files.exists(journalFile())) {
+            return matched;
+        }
+        // A line cut short by a crash fails the whole load, so the index is rebuilt rather than missing a change
+        for (String text : Files.readAllLines(journalFile(), StandardCharsets.UTF_8)) {
+            JsonNode line = storage.getMapper().readTree(text);
+            matched = line.path(GENERATION).asText();
+            int changes = 0;
+            for (Map.Entry<String, JsonNode> change : line.path(ENTRIES).properties()) {
+                if (change.getValue().isNull()) {
+                    entries.remove(change.getKey());
+                } else {
+                    entries.put(change.getKey(), storage.getMapper().treeToValue(change.getValue(), valueType));
+                }
+                changes++;
+            }
+            journalLength += Math.max(1, changes);
+        }
+        return matched;
+    }
+
+    private Path snapshotFile() {
+        return storage.getIndexDirectory().resolve(name + ".json");
+    }
+
+    private Path journalFile() {
+        return storage.getIndexDirectory().resolve(name + ".journal");
+    }
+}
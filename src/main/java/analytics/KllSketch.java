@@ -0,0 +1,234 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// KLL quantile sketch: level h holds items of weight 2^h; full levels are sorted and halved upward. Each level is
+// a buffer that doubles when full, so adds and compactions work in place instead of copying the level each time.
+public class KllSketch {
+    private static final int DEFAULT_K = 200;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private int k;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private List<Level> levels = new ArrayList<>();
+    // Alternates which half survives a compaction, keeping the rank error unbiased
+    private boolean keepOdd;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    private static final class Level {
+        private double[] items;
+        private int size;
+
+        private Level(double[] items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        private void add(double value) {
+            ensureCapacity(size + 1);
+            items[size++] = value;
+        }
+
+        private void addAll(double[] values, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(values, 0, items, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed > items.length) {
+                items = Arrays.copyOf(items, Math.max(needed, Math.max(MIN_LEVEL_CAPACITY, items.length * 2)));
+            }
+        }
+    }
+
+    public KllSketch(int k) {
+        this.k = k;
+        levels.add(new Level(new double[0], 0));
+    }
+
+    public void add(double value) {
+        levels.get(0).add(value);
+        count++;
+        min = Double.isNaN(min) ? value : Math.min(min, value);
+        max = Double.isNaN(max) ? value : Math.max(max, value);
+        compress();
+    }
+
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        while (levels.size() < other.levels.size()) {
+            levels.add(new Level(new double[0], 0));
+        }
+        for (int h = 0; h < other.levels.size(); h++) {
+            Level theirs = other.levels.get(h);
+            levels.get(h).addAll(theirs.items, theirs.size);
+        }
+        count += other.count;
+        min = Double.isNaN(min) ? other.min : Math.min(min, other.min);
+        max = Double.isNaN(max) ? other.max : Math.max(max, other.max);
+        compress();
+    }
+
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q <= 0) {
+            return min;
+        }
+        if (q >= 1) {
+            return max;
+        }
+        int total = getRetainedItems();
+        double[] values = new double[total];
+        long[] weights = new long[total];
+        Integer[] order = new Integer[total];
+        int i = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            Level level = levels.get(h);
+            for (int j = 0; j < level.size; j++) {
+                values[i] = level.items[j];
+                weights[i] = 1L << h;
+                order[i] = i;
+                i++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        long totalWeight = 0;
+        for (long weight : weights) {
+            totalWeight += weight;
+        }
+        double target = q * totalWeight;
+        long cumulative = 0;
+        for (int index : order) {
+            cumulative += weights[index];
+            if (cumulative >= target) {
+                return values[index];
+            }
+        }
+        return max;
+    }
+
+    @JsonIgnore
+    public int getRetainedItems() {
+        int retained = 0;
+        for (Level level : levels) {
+            retained += level.size;
+        }
+        return retained;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public void setK(int k) {
+        this.k = k;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public void setMin(double min) {
+        this.min = min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+    // Each level trimmed to its items, so the stored form does not depend on how far the buffers grew
+    public List<double[]> getLevels() {
+        List<double[]> trimmed = new ArrayList<>(levels.size());
+        for (Level level : levels) {
+            trimmed.add(Arrays.copyOf(level.items, level.size));
+        }
+        return trimmed;
+    }
+
+    public void setLevels(List<double[]> levels) {
+        this.levels = new ArrayList<>(levels.size());
+        for (double[] items : levels) {
+            this.levels.add(new Level(items, items.length));
+        }
+    }
+
+    public boolean isKeepOdd() {
+        return keepOdd;
+    }
+
+    public void setKeepOdd(boolean keepOdd) {
+        this.keepOdd = keepOdd;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.size() - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+    }
+
+    private void compress() {
+        while (true) {
+            int level = -1;
+            for (int h = 0; h < levels.size(); h++) {
+                if (levels.get(h).size >= capacity(h)) {
+                    level = h;
+                    break;
+                }
+            }
+            if (level < 0) {
+                return;
+            }
+            compact(level);
+        }
+    }
+
+    private void compact(int h) {
+        if (h + 1 == levels.size()) {
+            levels.add(new Level(new double[0], 0));
+        }
+        Level level = levels.get(h);
+        Level above = levels.get(h + 1);
+        double[] items = level.items;
+        int size = level.size;
+        Arrays.sort(items, 0, size);
+
+        // An odd item out stays behind so the promoted half has an even count
+        int offset = keepOdd ? 1 : 0;
+        keepOdd = !keepOdd;
+        int promoted = size / 2;
+        above.ensureCapacity(above.size + promoted);
+        for (int i = 0; i < promoted; i++) {
+            above.items[above.size++] = items[2 * i + offset];
+        }
+        if (size % 2 == 1) {
+            items[0] = items[size - 1];
+        }
+        level.size = size % 2;
+    }
+}
@@ -0,0 +1,184 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Flow;
+
+import model.Exercise;
+import model.ExerciseSnapshot;
+import model.Workout;
+import model.WorkoutEvent;
+
+// Keeps a loaded workout's split and ranking current from its event stream instead of recomputing
+// them on every view: category sums update in O(1) and the ranking in O(log n) per event. Events arrive on
+// another thread and can be dropped, so every read first checks the workout's sequence number and rebuilds from
+// the workout itself when an event is late or missing.
+public class LiveAnalytics implements Flow.Subscriber<WorkoutEvent> {
+    private static final Comparator<Ranked> BY_VOLUME = Comparator
+            .comparingDouble((Ranked ranked) -> ranked.volume).reversed()
+            .thenComparingLong(ranked -> ranked.order);
+
+    private final double[] categoryVolumes = new double[ExerciseColumns.CATEGORY_COUNT];
+    private final TreeSet<Ranked> ranking = new TreeSet<>(BY_VOLUME);
+    private final Map<Exercise, Ranked> ranked = new IdentityHashMap<>();
+    private final Workout workout;
+    private double totalVolume;
+    private long nextOrder;
+    private long eventsSeen;
+    // Sequence number of the last change reflected in the totals
+    private long syncedTo;
+    private Flow.Subscription subscription;
+
+    private static class Ranked {
+        private final long order;
+        private final String name;
+        private final int category;
+        private final double volume;
+
+        private Ranked(long order, String name, int category, double volume) {
+            this.order = order;
+            this.name = name;
+            this.category = category;
+            this.volume = volume;
+        }
+    }
+
+    public LiveAnalytics(Workout workout) {
+        this.workout = workout;
+        reseed();
+    }
+
+    // Seeds from the workout's current exercises, then follows its edits
+    public static LiveAnalytics attach(Workout workout) {
+        LiveAnalytics live = new LiveAnalytics(workout);
+        workout.events().subscribe(live);
+        return live;
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized void onNext(WorkoutEvent event) {
+        eventsSeen++;
+        if (event.getSequence() != syncedTo + 1) {
+            // Already covered by a resync, or one was dropped before it; the next read resyncs
+            return;
+        }
+        switch (event.getType()) {
+            case ADDED, EDITED -> add(event.getExercise(), event.getAfter());
+            case REMOVED -> remove(event.getExercise());
+        }
+        syncedTo = event.getSequence();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        System.err.println("Live analytics stopped: " + throwable.getMessage());
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    public synchronized void cancel() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    public synchronized double getTotalVolume() {
+        sync();
+        return totalVolume;
+    }
+
+    public synchronized double categoryVolume(String category) {
+        sync();
+        return categoryVolumes[ExerciseColumns.categoryIndex(category)];
+    }
+
+    // Same denominator as AnalyticsEngine: Other volume counts toward neither the split nor its total
+    public synchronized Map<String, Double> volumePercentageSplit() {
+        sync();
+        double push = categoryVolumes[ExerciseColumns.PUSH];
+        double pull = categoryVolumes[ExerciseColumns.PULL];
+        double legs = categoryVolumes[ExerciseColumns.LEGS];
+        double total = push + pull + legs;
+        Map<String, Double> ppl = new LinkedHashMap<>();
+        ppl.put("Push", total > 0 ? push / total : 0);
+        ppl.put("Pull", total > 0 ? pull / total : 0);
+        ppl.put("Legs", total > 0 ? legs / total : 0);
+        return ppl;
+    }
+
+    public synchronized List<ExerciseShare> topExercises(int n) {
+        sync();
+        List<ExerciseShare> top = new ArrayList<>(Math.min(n, ranking.size()));
+        for (Ranked entry : ranking) {
+            if (top.size() == n) {
+                break;
+            }
+            top.add(new ExerciseShare(entry.name, entry.volume, share(entry.volume)));
+        }
+        return top;
+    }
+
+    public synchronized long getEventsSeen() {
+        return eventsSeen;
+    }
+
+    private void sync() {
+        if (syncedTo != workout.getEventSequence()) {
+            reseed();
+        }
+    }
+
+    private void reseed() {
+        Arrays.fill(categoryVolumes, 0);
+        ranking.clear();
+        ranked.clear();
+        totalVolume = 0;
+        // Read under the workout's lock so the sequence number matches the exercises
+        synchronized (workout) {
+            syncedTo = workout.getEventSequence();
+            for (Exercise exercise : workout.getExercises()) {
+                add(exercise, ExerciseSnapshot.of(exercise));
+            }
+        }
+    }
+
+    // Replaces whatever was counted for the exercise, so an event that races a resync is harmless
+    private void add(Exercise exercise, ExerciseSnapshot snapshot) {
+        remove(exercise);
+        Ranked entry = new Ranked(nextOrder++, snapshot.getName(),
+                ExerciseColumns.categoryIndex(snapshot.getCategory()), snapshot.getVolume());
+        categoryVolumes[entry.category] += entry.volume;
+        totalVolume += entry.volume;
+        ranked.put(exercise, entry);
+        ranking.add(entry);
+    }
+
+    private void remove(Exercise exercise) {
+        Ranked entry = ranked.remove(exercise);
+        if (entry == null) {
+            return;
+        }
+        ranking.remove(entry);
+        categoryVolumes[entry.category] -= entry.volume;
+        totalVolume -= entry.volume;
+    }
+
+    // Exercise shares are of the whole workout, as in AnalyticsEngine.topNExercises
+    private double share(double volume) {
+        return totalVolume > 0 ? volume / totalVolume : 0;
+    }
+}
@@ -0,0 +1,48 @@
+package analytics;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+public class MinHash {
+    private final long[] multipliers;
+    private final long[] increments;
+
+    public MinHash(int numHashes, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        multipliers = new long[numHashes];
+        increments = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            multipliers[i] = random.nextLong() | 1;
+            increments[i] = random.nextLong();
+        }
+    }
+
+    public int[] signature(BitSet ids) {
+        int[] signature = new int[multipliers.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            for (int i = 0; i < signature.length; i++) {
+                int hash = (int) (Hashing.mix(id * multipliers[i] + increments[i]) >>> 33);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    public static double estimate(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i] && a[i] != Integer.MAX_VALUE) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    public int numHashes() {
+        return multipliers.length;
+    }
+}
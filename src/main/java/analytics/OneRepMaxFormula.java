@@ -0,0 +1,18 @@
+package analytics;
+
+public enum OneRepMaxFormula {
+    EPLEY, BRZYCKI, LOMBARDI;
+
+    private static final int BRZYCKI_MAX_REPS = 36;
+
+    public double estimate(double weight, int reps) {
+        if (reps <= 1) {
+            return weight;
+        }
+        return switch (this) {
+            case EPLEY -> weight * (1 + reps / 30.0);
+            case BRZYCKI -> weight * 36 / (37 - Math.min(reps, BRZYCKI_MAX_REPS));
+            case LOMBARDI -> weight * Math.pow(reps, 0.10);
+        };
+    }
+}
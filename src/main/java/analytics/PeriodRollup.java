@@ -0,0 +1,82 @@
+package analytics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import model.Exercise;
+import model.Workout;
+
+public class PeriodRollup {
+    private int workouts;
+    private RollupBucket total = new RollupBucket();
+    private Map<String, RollupBucket> categories = new TreeMap<>();
+    private Map<String, RollupBucket> muscleGroups = new TreeMap<>();
+
+    public void add(Workout workout) {
+        workouts++;
+        for (Exercise e : workout.getExercises()) {
+            total.add(e);
+            categories.computeIfAbsent(e.classifyExercise(), k -> new RollupBucket()).add(e);
+            muscleGroups.computeIfAbsent(e.getMuscleGroup(), k -> new RollupBucket()).add(e);
+        }
+    }
+
+    public void subtract(Workout workout) {
+        workouts--;
+        for (Exercise e : workout.getExercises()) {
+            total.subtract(e);
+            subtract(categories, e.classifyExercise(), e);
+            subtract(muscleGroups, e.getMuscleGroup(), e);
+        }
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return workouts <= 0;
+    }
+
+    public int getWorkouts() {
+        return workouts;
+    }
+
+    public void setWorkouts(int workouts) {
+        this.workouts = workouts;
+    }
+
+    public RollupBucket getTotal() {
+        return total;
+    }
+
+    public void setTotal(RollupBucket total) {
+        this.total = total;
+    }
+
+    public Map<String, RollupBucket> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, RollupBucket> categories) {
+        this.categories = new TreeMap<>(categories);
+    }
+
+    public Map<String, RollupBucket> getMuscleGroups() {
+        return muscleGroups;
+    }
+
+    public void setMuscleGroups(Map<String, RollupBucket> muscleGroups) {
+        this.muscleGroups = new TreeMap<>(muscleGroups);
+    }
+
+    private void subtract(Map<String, RollupBucket> buckets, String key, Exercise exercise) {
+        RollupBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        bucket.subtract(exercise);
+        if (bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+}
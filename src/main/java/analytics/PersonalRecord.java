@@ -0,0 +1,126 @@
+package analytics;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import model.Exercise;
+
+public class PersonalRecord {
+    private String exerciseName;
+    private double maxWeight;
+    private int maxWeightReps;
+    private double maxVolume;
+    // Pareto frontier of (weight, reps): heavier entries always have fewer reps
+    private TreeMap<Double, Integer> maxRepsByWeight = new TreeMap<>();
+    private EnumMap<OneRepMaxFormula, Double> estimatedOneRepMax = new EnumMap<>(OneRepMaxFormula.class);
+
+    public PersonalRecord() {
+
+    }
+
+    public PersonalRecord(String exerciseName) {
+        this.exerciseName = exerciseName;
+    }
+
+    public void update(Exercise exercise) {
+        double weight = exercise.getWeight();
+        int reps = exercise.getReps();
+
+        if (weight > maxWeight || (weight == maxWeight && reps > maxWeightReps)) {
+            maxWeight = weight;
+            maxWeightReps = reps;
+        }
+        maxVolume = Math.max(maxVolume, exercise.calculateTotalVolume());
+        updateFrontier(weight, reps);
+        for (OneRepMaxFormula formula : OneRepMaxFormula.values()) {
+            estimatedOneRepMax.merge(formula, formula.estimate(weight, reps), Math::max);
+        }
+    }
+
+    // Whether the set holds any part of this record, so that taking it away could lower the record
+    public boolean isSetBy(Exercise exercise) {
+        double weight = exercise.getWeight();
+        int reps = exercise.getReps();
+        if ((weight == maxWeight && reps == maxWeightReps) || exercise.calculateTotalVolume() == maxVolume
+                || Integer.valueOf(reps).equals(maxRepsByWeight.get(weight))) {
+            return true;
+        }
+        for (OneRepMaxFormula formula : OneRepMaxFormula.values()) {
+            if (formula.estimate(weight, reps) == estimatedOneRepMax(formula)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int maxRepsAt(double weight) {
+        Map.Entry<Double, Integer> entry = maxRepsByWeight.ceilingEntry(weight);
+        return entry == null ? 0 : entry.getValue();
+    }
+
+    public double estimatedOneRepMax(OneRepMaxFormula formula) {
+        return estimatedOneRepMax.getOrDefault(formula, 0.0);
+    }
+
+    public String getExerciseName() {
+        return exerciseName;
+    }
+
+    public void setExerciseName(String exerciseName) {
+        this.exerciseName = exerciseName;
+    }
+
+    public double getMaxWeight() {
+        return maxWeight;
+    }
+
+    public void setMaxWeight(double maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    public int getMaxWeightReps() {
+        return maxWeightReps;
+    }
+
+    public void setMaxWeightReps(int maxWeightReps) {
+        this.maxWeightReps = maxWeightReps;
+    }
+
+    public double getMaxVolume() {
+        return maxVolume;
+    }
+
+    public void setMaxVolume(double maxVolume) {
+        this.maxVolume = maxVolume;
+    }
+
+    public TreeMap<Double, Integer> getMaxRepsByWeight() {
+        return maxRepsByWeight;
+    }
+
+    public void setMaxRepsByWeight(TreeMap<Double, Integer> maxRepsByWeight) {
+        this.maxRepsByWeight = maxRepsByWeight;
+    }
+
+    public EnumMap<OneRepMaxFormula, Double> getEstimatedOneRepMax() {
+        return estimatedOneRepMax;
+    }
+
+    public void setEstimatedOneRepMax(EnumMap<OneRepMaxFormula, Double> estimatedOneRepMax) {
+        this.estimatedOneRepMax = estimatedOneRepMax;
+    }
+
+    private void updateFrontier(double weight, int reps) {
+        Map.Entry<Double, Integer> heavier = maxRepsByWeight.ceilingEntry(weight);
+        if (heavier != null && heavier.getValue() >= reps) {
+            return;
+        }
+        Iterator<Integer> lighter = maxRepsByWeight.headMap(weight, true).descendingMap().values().iterator();
+        while (lighter.hasNext() && lighter.next() <= reps) {
+            lighter.remove();
+        }
+        maxRepsByWeight.put(weight, reps);
+    }
+}
@@ -0,0 +1,138 @@
+package analytics;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.Exercise;
+import model.ExerciseNames;
+import model.Workout;
+import storage.StorageListener;
+import storage.WorkoutQuery;
+import storage.WorkoutStorage;
+
+public class PersonalRecords implements StorageListener {
+    private static final String INDEX_NAME = "records";
+
+    private final WorkoutStorage storage;
+    private final IndexJournal<PersonalRecord> records;
+
+    public PersonalRecords(WorkoutStorage storage) {
+        this.storage = storage;
+        this.records = new IndexJournal<>(storage, INDEX_NAME, PersonalRecord.class, "personal record index");
+    }
+
+    // The storage keeps one PersonalRecords per storage; attaching again returns it
+    public static PersonalRecords attach(WorkoutStorage storage) {
+        return storage.attach(PersonalRecords.class, PersonalRecords::new);
+    }
+
+    @Override
+    public synchronized void workoutSaved(String fileName, Workout workout) {
+        if (!ensureLoaded()) {
+            for (Exercise e : workout.getExercises()) {
+                record(e);
+            }
+            records.save();
+        }
+    }
+
+    // Records can't be un-merged, so a delete drops the index and the next lookup rebuilds it
+    @Override
+    public synchronized void workoutDeleted(String fileName, Workout workout) {
+        records.delete();
+    }
+
+    // Only a set the edit took away can lower a record, and only if it held it. Those exercises are recomputed from
+    // the workouts that log them; every other exercise just takes the new sets.
+    @Override
+    public synchronized void workoutReplaced(String fileName, Workout previous, Workout workout) {
+        if (!ensureLoaded()) {
+            Set<String> lowered = new HashSet<>();
+            for (Exercise e : previous.getExercises()) {
+                PersonalRecord record = records.get(key(e.getName()));
+                if (record != null && record.isSetBy(e) && !hasSet(workout, e)) {
+                    lowered.add(key(e.getName()));
+                }
+            }
+            for (Exercise e : workout.getExercises()) {
+                if (!lowered.contains(key(e.getName()))) {
+                    record(e);
+                }
+            }
+            lowered.forEach(this::recompute);
+            records.save();
+        }
+    }
+
+    public synchronized PersonalRecord get(String exerciseName) {
+        ensureLoaded();
+        return records.get(key(exerciseName));
+    }
+
+    public synchronized List<PersonalRecord> all() {
+        ensureLoaded();
+        return new ArrayList<>(records.entries().values());
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        records.clear();
+        if (!Files.isDirectory(storage.getDataDirectory())) {
+            return;
+        }
+        for (Workout workout : storage.scan(this).values()) {
+            for (Exercise e : workout.getExercises()) {
+                record(e);
+            }
+        }
+        records.snapshot();
+    }
+
+    private void recompute(String exerciseKey) {
+        records.remove(exerciseKey);
+        for (Workout workout : storage.scan(this, WorkoutQuery.all().exerciseKey(exerciseKey)).values()) {
+            for (Exercise e : workout.getExercises()) {
+                if (key(e.getName()).equals(exerciseKey)) {
+                    record(e);
+                }
+            }
+        }
+    }
+
+    private static boolean hasSet(Workout workout, Exercise set) {
+        for (Exercise e : workout.getExercises()) {
+            if (key(e.getName()).equals(key(set.getName())) && e.getWeight() == set.getWeight()
+                    && e.getReps() == set.getReps() && e.getSets() == set.getSets()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void record(Exercise exercise) {
+        String key = key(exercise.getName());
+        PersonalRecord record = records.get(key);
+        if (record == null) {
+            record = new PersonalRecord(exercise.getName());
+        }
+        record.update(exercise);
+        records.put(key, record);
+    }
+
+    // An index keyed by older normalization rules is rebuilt once
+    private boolean ensureLoaded() {
+        if (records.isCurrent()
+                || (records.load() && records.entries().keySet().stream().allMatch(ExerciseNames::isCanonical))) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    private static String key(String exerciseName) {
+        return ExerciseNames.normalize(exerciseName);
+    }
+}
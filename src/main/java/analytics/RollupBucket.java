@@ -0,0 +1,63 @@
+package analytics;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import model.Exercise;
+
+public class RollupBucket {
+    private double volume;
+    private long sets;
+    private long reps;
+    private long exercises;
+
+    public void add(Exercise exercise) {
+        volume += exercise.calculateTotalVolume();
+        sets += exercise.getSets();
+        reps += (long) exercise.getSets() * exercise.getReps();
+        exercises++;
+    }
+
+    public void subtract(Exercise exercise) {
+        volume -= exercise.calculateTotalVolume();
+        sets -= exercise.getSets();
+        reps -= (long) exercise.getSets() * exercise.getReps();
+        exercises--;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return exercises <= 0;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public void setVolume(double volume) {
+        this.volume = volume;
+    }
+
+    public long getSets() {
+        return sets;
+    }
+
+    public void setSets(long sets) {
+        this.sets = sets;
+    }
+
+    public long getReps() {
+        return reps;
+    }
+
+    public void setReps(long reps) {
+        this.reps = reps;
+    }
+
+    public long getExercises() {
+        return exercises;
+    }
+
+    public void setExercises(long exercises) {
+        this.exercises = exercises;
+    }
+}
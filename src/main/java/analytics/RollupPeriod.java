@@ -0,0 +1,17 @@
+package analytics;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+public enum RollupPeriod {
+    DAY, WEEK, MONTH;
+
+    public String key(LocalDate date) {
+        return switch (this) {
+            case DAY -> date.toString();
+            case WEEK -> String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR),
+                    date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> String.format("%d-%02d", date.getYear(), date.getMonthValue());
+        };
+    }
+}
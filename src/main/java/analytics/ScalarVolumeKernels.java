@@ -0,0 +1,56 @@
+package analytics;
+
+class ScalarVolumeKernels implements VolumeKernels {
+    static final ScalarVolumeKernels INSTANCE = new ScalarVolumeKernels();
+
+    @Override
+    public double totalVolume(ExerciseColumns columns) {
+        return totalVolume(columns, 0);
+    }
+
+    @Override
+    public double[] categoryVolumes(ExerciseColumns columns) {
+        double[] volumes = new double[ExerciseColumns.CATEGORY_COUNT];
+        addCategoryVolumes(columns, 0, volumes);
+        return volumes;
+    }
+
+    @Override
+    public void estimateOneRepMax(ExerciseColumns columns, OneRepMaxFormula formula, double[] out) {
+        estimateOneRepMax(columns, formula, 0, out);
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return false;
+    }
+
+    static double totalVolume(ExerciseColumns columns, int from) {
+        double[] weights = columns.weights();
+        int[] sets = columns.sets();
+        int[] reps = columns.reps();
+        double total = 0;
+        for (int i = from; i < columns.size(); i++) {
+            total += weights[i] * (sets[i] * reps[i]);
+        }
+        return total;
+    }
+
+    static void addCategoryVolumes(ExerciseColumns columns, int from, double[] volumes) {
+        double[] weights = columns.weights();
+        int[] sets = columns.sets();
+        int[] reps = columns.reps();
+        int[] categories = columns.categories();
+        for (int i = from; i < columns.size(); i++) {
+            volumes[categories[i]] += weights[i] * (sets[i] * reps[i]);
+        }
+    }
+
+    static void estimateOneRepMax(ExerciseColumns columns, OneRepMaxFormula formula, int from, double[] out) {
+        double[] weights = columns.weights();
+        int[] reps = columns.reps();
+        for (int i = from; i < columns.size(); i++) {
+            out[i] = formula.estimate(weights[i], reps[i]);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package analytics;
+
+import model.Workout;
+
+public class SimilarityMatch {
+    private final Workout workout;
+    private final int index;
+    private final double similarity;
+
+    public SimilarityMatch(Workout workout, int index, double similarity) {
+        this.workout = workout;
+        this.index = index;
+        this.similarity = similarity;
+    }
+
+    public Workout getWorkout() {
+        return workout;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+}
@@ -0,0 +1,5 @@
+package analytics;
+
+public enum SimilarityMode {
+    EXACT, APPROXIMATE
+}
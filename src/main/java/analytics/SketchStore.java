@@ -0,0 +1,230 @@
+package analytics;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import model.Workout;
+import storage.StorageListener;
+import storage.WorkoutQuery;
+import storage.WorkoutStorage;
+
+// One mergeable sketch per month on disk; queries stream them through a single accumulator. A marker file, written
+// after every change, holds the catalog generation the sketches match, so sketches left half built by a crash or
+// missing files written outside this storage are rebuilt.
+public class SketchStore implements StorageListener {
+    private static final String SKETCH_DIR = "sketches";
+    private static final String MARKER = "generation";
+    private static final RollupPeriod BUCKET = RollupPeriod.MONTH;
+
+    private final WorkoutStorage storage;
+    private boolean checked;
+    // The catalog's count of outside changes when the marker last matched the files
+    private long outsideChanges;
+
+    public SketchStore(WorkoutStorage storage) {
+        this.storage = storage;
+    }
+
+    // The storage keeps one SketchStore per storage; attaching again returns it
+    public static SketchStore attach(WorkoutStorage storage) {
+        return storage.attach(SketchStore.class, SketchStore::new);
+    }
+
+    @Override
+    public synchronized void workoutSaved(String fileName, Workout workout) {
+        if (ensureBuilt()) {
+            return;
+        }
+        add(workout);
+    }
+
+    private void add(Workout workout) {
+        String bucket = BUCKET.key(workout.getDate());
+        WorkoutSketch sketch = read(bucket);
+        if (sketch == null) {
+            sketch = new WorkoutSketch();
+        }
+        sketch.merge(WorkoutSketch.of(workout));
+        write(bucket, sketch);
+        mark();
+    }
+
+    // Sketches can't subtract, so the deleted workout's month is rebuilt from what remains
+    @Override
+    public synchronized void workoutDeleted(String fileName, Workout workout) {
+        if (ensureBuilt()) {
+            return;
+        }
+        rebuildMonth(workout.getDate());
+        mark();
+    }
+
+    // The file already holds the new version, so rebuilding both months from disk counts it exactly once
+    @Override
+    public synchronized void workoutReplaced(String fileName, Workout previous, Workout workout) {
+        if (ensureBuilt()) {
+            return;
+        }
+        rebuildMonth(previous.getDate());
+        if (!BUCKET.key(previous.getDate()).equals(BUCKET.key(workout.getDate()))) {
+            rebuildMonth(workout.getDate());
+        }
+        mark();
+    }
+
+    private void rebuildMonth(LocalDate date) {
+        LocalDate monthStart = date.withDayOfMonth(1);
+        WorkoutSketch sketch = new WorkoutSketch();
+        for (Workout remaining : storage.scan(this, WorkoutQuery.all()
+                .between(monthStart, monthStart.plusMonths(1).minusDays(1))).values()) {
+            sketch.add(remaining);
+        }
+        write(BUCKET.key(date), sketch);
+    }
+
+    public synchronized WorkoutSketch summarize() {
+        return summarize(null, null);
+    }
+
+    public synchronized WorkoutSketch summarize(LocalDate from, LocalDate to) {
+        ensureBuilt();
+        String first = from == null ? null : BUCKET.key(from);
+        String last = to == null ? null : BUCKET.key(to);
+        WorkoutSketch summary = new WorkoutSketch();
+        for (String bucket : buckets()) {
+            if ((first != null && bucket.compareTo(first) < 0) || (last != null && bucket.compareTo(last) > 0)) {
+                continue;
+            }
+            WorkoutSketch sketch = read(bucket);
+            if (sketch != null) {
+                summary.merge(sketch);
+            }
+        }
+        return summary;
+    }
+
+    // Builds every month in memory and writes each once; the marker goes last, so an interrupted rebuild is redone
+    @Override
+    public synchronized void rebuild() {
+        try {
+            Files.deleteIfExists(sketchDirectory().resolve(MARKER));
+        } catch (IOException e) {
+            System.err.println("Failed to clear sketches: " + e.getMessage());
+        }
+        Map<String, WorkoutSketch> sketches = new TreeMap<>();
+        for (Workout workout : storage.scan(this).values()) {
+            sketches.computeIfAbsent(BUCKET.key(workout.getDate()), bucket -> new WorkoutSketch()).add(workout);
+        }
+        outsideChanges = storage.getCatalog().outsideChanges();
+        for (String bucket : buckets()) {
+            if (!sketches.containsKey(bucket)) {
+                write(bucket, new WorkoutSketch());
+            }
+        }
+        sketches.forEach(this::write);
+        mark();
+        checked = true;
+    }
+
+    // Rebuilds the sketches unless the marker matches the catalog; returns true if it did
+    private boolean ensureBuilt() {
+        long seen = storage.getCatalog().outsideChanges();
+        if (checked && outsideChanges == seen) {
+            return false;
+        }
+        if (storage.getCatalog().generation().equals(readMarker())) {
+            checked = true;
+            outsideChanges = seen;
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    private String readMarker() {
+        Path marker = sketchDirectory().resolve(MARKER);
+        try {
+            return Files.exists(marker) ? Files.readString(marker) : null;
+        } catch (IOException e) {
+            System.err.println("Failed to read sketches, rebuilding: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Records that the sketches on disk now match the catalog
+    private void mark() {
+        try {
+            Files.createDirectories(sketchDirectory());
+            Path temporary = sketchDirectory().resolve(MARKER + ".tmp");
+            Files.writeString(temporary, storage.getCatalog().generation());
+            Files.move(temporary, sketchDirectory().resolve(MARKER), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Failed to save sketches: " + e.getMessage());
+        }
+    }
+
+    private List<String> buckets() {
+        List<String> buckets = new ArrayList<>();
+        Path dir = sketchDirectory();
+        if (!Files.isDirectory(dir)) {
+            return buckets;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path entry : stream) {
+                String name = entry.getFileName().toString();
+                buckets.add(name.substring(0, name.length() - ".json".length()));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list sketches: " + e.getMessage());
+        }
+        buckets.sort(null);
+        return buckets;
+    }
+
+    private WorkoutSketch read(String bucket) {
+        Path file = sketchFile(bucket);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return storage.readJson(file, WorkoutSketch.class);
+        } catch (IOException e) {
+            System.err.println("Failed to read sketch " + bucket + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Written beside the bucket and moved over it, so a reader never sees half a sketch
+    private void write(String bucket, WorkoutSketch sketch) {
+        try {
+            Files.createDirectories(sketchFile(bucket).getParent());
+            if (sketch.getWorkouts() == 0) {
+                Files.deleteIfExists(sketchFile(bucket));
+                return;
+            }
+            Path temporary = sketchFile(bucket).resolveSibling(bucket + ".json.tmp");
+            storage.writeCompactJson(temporary, sketch);
+            Files.move(temporary, sketchFile(bucket), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Failed to save sketch " + bucket + ": " + e.getMessage());
+        }
+    }
+
+    private Path sketchFile(String bucket) {
+        return sketchDirectory().resolve(bucket + ".json");
+    }
+
+    private Path sketchDirectory() {
+        return storage.getIndexDirectory().resolve(SKETCH_DIR);
+    }
+}
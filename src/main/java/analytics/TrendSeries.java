@@ -0,0 +1,144 @@
+package analytics;
+
+import java.time.LocalDate;
+
+public class TrendSeries {
+    private static final int CAPACITY = TrendWindow.CHRONIC.sessions();
+
+    private double[] volumes = new double[CAPACITY];
+    private double[] topWeights = new double[CAPACITY];
+    private int head;
+    private int count;
+    private long sessions;
+    // Running window sums, indexed by TrendWindow ordinal
+    private double[] volumeSums = new double[TrendWindow.values().length];
+    private double[] topWeightSums = new double[TrendWindow.values().length];
+    private double acuteLoad;
+    private double chronicLoad;
+    private LocalDate lastDate;
+
+    public void add(LocalDate date, double volume, double topWeight) {
+        for (TrendWindow window : TrendWindow.values()) {
+            if (count >= window.sessions()) {
+                int leaving = Math.floorMod(head - window.sessions(), CAPACITY);
+                volumeSums[window.ordinal()] -= volumes[leaving];
+                topWeightSums[window.ordinal()] -= topWeights[leaving];
+            }
+            volumeSums[window.ordinal()] += volume;
+            topWeightSums[window.ordinal()] += topWeight;
+        }
+        volumes[head] = volume;
+        topWeights[head] = topWeight;
+        head = (head + 1) % CAPACITY;
+        count = Math.min(count + 1, CAPACITY);
+
+        if (sessions == 0) {
+            acuteLoad = volume;
+            chronicLoad = volume;
+        } else {
+            acuteLoad += TrendWindow.ACUTE.alpha() * (volume - acuteLoad);
+            chronicLoad += TrendWindow.CHRONIC.alpha() * (volume - chronicLoad);
+        }
+        sessions++;
+        lastDate = date;
+    }
+
+    public double averageVolume(TrendWindow window) {
+        int n = Math.min(count, window.sessions());
+        return n == 0 ? 0 : volumeSums[window.ordinal()] / n;
+    }
+
+    public double averageTopWeight(TrendWindow window) {
+        int n = Math.min(count, window.sessions());
+        return n == 0 ? 0 : topWeightSums[window.ordinal()] / n;
+    }
+
+    // Above ~1.5 the last week's load is spiking relative to the last month
+    public double acuteChronicRatio() {
+        return chronicLoad == 0 ? 0 : acuteLoad / chronicLoad;
+    }
+
+    public double latestVolume() {
+        return count == 0 ? 0 : volumes[Math.floorMod(head - 1, CAPACITY)];
+    }
+
+    public double[] getVolumes() {
+        return volumes;
+    }
+
+    public void setVolumes(double[] volumes) {
+        this.volumes = volumes;
+    }
+
+    public double[] getTopWeights() {
+        return topWeights;
+    }
+
+    public void setTopWeights(double[] topWeights) {
+        this.topWeights = topWeights;
+    }
+
+    public int getHead() {
+        return head;
+    }
+
+    public void setHead(int head) {
+        this.head = head;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public long getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(long sessions) {
+        this.sessions = sessions;
+    }
+
+    public double[] getVolumeSums() {
+        return volumeSums;
+    }
+
+    public void setVolumeSums(double[] volumeSums) {
+        this.volumeSums = volumeSums;
+    }
+
+    public double[] getTopWeightSums() {
+        return topWeightSums;
+    }
+
+    public void setTopWeightSums(double[] topWeightSums) {
+        this.topWeightSums = topWeightSums;
+    }
+
+    public double getAcuteLoad() {
+        return acuteLoad;
+    }
+
+    public void setAcuteLoad(double acuteLoad) {
+        this.acuteLoad = acuteLoad;
+    }
+
+    public double getChronicLoad() {
+        return chronicLoad;
+    }
+
+    public void setChronicLoad(double chronicLoad) {
+        this.chronicLoad = chronicLoad;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    public void setLastDate(LocalDate lastDate) {
+        this.lastDate = lastDate;
+    }
+}
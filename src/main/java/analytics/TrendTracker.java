@@ -0,0 +1,204 @@
+package analytics;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import model.Exercise;
+import model.ExerciseNames;
+import model.Workout;
+import storage.StorageListener;
+import storage.WorkoutQuery;
+import storage.WorkoutStorage;
+
+public class TrendTracker implements StorageListener {
+    private static final String INDEX_NAME = "trends";
+    private static final String EXERCISE_PREFIX = "exercise:";
+    private static final String MUSCLE_GROUP_PREFIX = "muscle:";
+
+    private final WorkoutStorage storage;
+    private final IndexJournal<TrendSeries> series;
+
+    public TrendTracker(WorkoutStorage storage) {
+        this.storage = storage;
+        this.series = new IndexJournal<>(storage, INDEX_NAME, TrendSeries.class, "trend index");
+    }
+
+    // The storage keeps one TrendTracker per storage; attaching again returns it
+    public static TrendTracker attach(WorkoutStorage storage) {
+        return storage.attach(TrendTracker.class, TrendTracker::new);
+    }
+
+    // Ring buffers only take sessions in date order, so a series the session is backdated in is recomputed; every
+    // other series the workout touches just takes it as its latest
+    @Override
+    public synchronized void workoutSaved(String fileName, Workout workout) {
+        if (ensureLoaded()) {
+            return;
+        }
+        for (Map.Entry<String, double[]> entry : sessionTotals(workout).entrySet()) {
+            if (isAfter(entry.getKey(), workout.getDate())) {
+                recompute(entry.getKey());
+            } else {
+                add(entry.getKey(), workout.getDate(), entry.getValue());
+            }
+        }
+        series.save();
+    }
+
+    // Only the series the workout was a session of are recomputed
+    @Override
+    public synchronized void workoutDeleted(String fileName, Workout workout) {
+        if (ensureLoaded()) {
+            return;
+        }
+        sessionTotals(workout).keySet().forEach(this::recompute);
+        series.save();
+    }
+
+    // Only the series whose session totals the edit changed are touched. A series the workout newly appears in takes
+    // the session as its latest when it is; the others are recomputed from the workouts that log that exercise or
+    // muscle group.
+    @Override
+    public synchronized void workoutReplaced(String fileName, Workout previous, Workout workout) {
+        if (ensureLoaded()) {
+            return;
+        }
+        Map<String, double[]> before = sessionTotals(previous);
+        Map<String, double[]> after = sessionTotals(workout);
+        boolean sameDate = Objects.equals(previous.getDate(), workout.getDate());
+        Set<String> keys = new TreeSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        for (String key : keys) {
+            double[] was = before.get(key);
+            double[] now = after.get(key);
+            if (sameDate && was != null && now != null && Arrays.equals(was, now)) {
+                continue;
+            }
+            if (was == null && !isAfter(key, workout.getDate())) {
+                add(key, workout.getDate(), now);
+            } else {
+                recompute(key);
+            }
+        }
+        series.save();
+    }
+
+    public synchronized TrendSeries exercise(String exerciseName) {
+        ensureLoaded();
+        return series.get(EXERCISE_PREFIX + ExerciseNames.normalize(exerciseName));
+    }
+
+    public synchronized TrendSeries muscleGroup(String muscleGroup) {
+        ensureLoaded();
+        return series.get(MUSCLE_GROUP_PREFIX + muscleGroup.toLowerCase(Locale.ROOT));
+    }
+
+    public synchronized Map<String, TrendSeries> muscleGroups() {
+        ensureLoaded();
+        Map<String, TrendSeries> groups = new TreeMap<>();
+        for (Map.Entry<String, TrendSeries> entry : series.entries().subMap(MUSCLE_GROUP_PREFIX,
+                MUSCLE_GROUP_PREFIX + Character.MAX_VALUE).entrySet()) {
+            groups.put(entry.getKey().substring(MUSCLE_GROUP_PREFIX.length()), entry.getValue());
+        }
+        return groups;
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        series.clear();
+        if (!Files.isDirectory(storage.getDataDirectory())) {
+            return;
+        }
+        List<Workout> workouts = new ArrayList<>(storage.scan(this).values());
+        workouts.sort(Comparator.comparing(Workout::getDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+        for (Workout workout : workouts) {
+            record(workout);
+        }
+        series.snapshot();
+    }
+
+    private void record(Workout workout) {
+        for (Map.Entry<String, double[]> entry : sessionTotals(workout).entrySet()) {
+            add(entry.getKey(), workout.getDate(), entry.getValue());
+        }
+    }
+
+    private void add(String key, LocalDate date, double[] totals) {
+        TrendSeries existing = series.get(key);
+        if (existing == null) {
+            existing = new TrendSeries();
+        }
+        existing.add(date, totals[0], totals[1]);
+        series.put(key, existing);
+    }
+
+    private void recompute(String key) {
+        WorkoutQuery query = key.startsWith(EXERCISE_PREFIX)
+                ? WorkoutQuery.all().exerciseKey(key.substring(EXERCISE_PREFIX.length()))
+                : WorkoutQuery.all().muscleGroup(key.substring(MUSCLE_GROUP_PREFIX.length()));
+        List<Workout> workouts = new ArrayList<>(storage.scan(this, query).values());
+        workouts.sort(Comparator.comparing(Workout::getDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+        TrendSeries recomputed = new TrendSeries();
+        for (Workout workout : workouts) {
+            double[] totals = sessionTotals(workout).get(key);
+            if (totals != null) {
+                recomputed.add(workout.getDate(), totals[0], totals[1]);
+            }
+        }
+        if (recomputed.getSessions() == 0) {
+            series.remove(key);
+        } else {
+            series.put(key, recomputed);
+        }
+    }
+
+    // One sample per exercise and muscle group per session, even if logged more than once
+    private static Map<String, double[]> sessionTotals(Workout workout) {
+        Map<String, double[]> sessionTotals = new HashMap<>();
+        for (Exercise e : workout.getExercises()) {
+            accumulate(sessionTotals, EXERCISE_PREFIX + ExerciseNames.normalize(e.getName()), e);
+            accumulate(sessionTotals, MUSCLE_GROUP_PREFIX + e.getMuscleGroup(), e);
+        }
+        return sessionTotals;
+    }
+
+    private static void accumulate(Map<String, double[]> sessionTotals, String key, Exercise exercise) {
+        double[] totals = sessionTotals.computeIfAbsent(key, k -> new double[2]);
+        totals[0] += exercise.calculateTotalVolume();
+        totals[1] = Math.max(totals[1], exercise.getWeight());
+    }
+
+    private boolean isAfter(String key, LocalDate date) {
+        TrendSeries existing = series.get(key);
+        return existing != null && existing.getLastDate() != null && date.isBefore(existing.getLastDate());
+    }
+
+    // An index keyed by older normalization rules is rebuilt once
+    private boolean ensureLoaded() {
+        if (series.isCurrent() || (series.load() && canonicalKeys())) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    private boolean canonicalKeys() {
+        for (String key : series.entries().subMap(EXERCISE_PREFIX, EXERCISE_PREFIX + Character.MAX_VALUE).keySet()) {
+            if (!ExerciseNames.isCanonical(key.substring(EXERCISE_PREFIX.length()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package analytics;
+
+public enum TrendWindow {
+    ACUTE(7), CHRONIC(28);
+
+    private final int sessions;
+
+    TrendWindow(int sessions) {
+        this.sessions = sessions;
+    }
+
+    public int sessions() {
+        return sessions;
+    }
+
+    // EWMA smoothing factor for an N-session window
+    public double alpha() {
+        return 2.0 / (sessions + 1);
+    }
+}
@@ -0,0 +1,101 @@
+package analytics;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+class VectorVolumeKernels implements VolumeKernels {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    // Same lane count as DOUBLES so int columns line up with the weight column
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    @Override
+    public double totalVolume(ExerciseColumns columns) {
+        double[] weights = columns.weights();
+        int upper = DOUBLES.loopBound(columns.size());
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            sum = sum.add(DoubleVector.fromArray(DOUBLES, weights, i).mul(setsTimesReps(columns, i)));
+        }
+        return sum.reduceLanes(VectorOperators.ADD) + ScalarVolumeKernels.totalVolume(columns, i);
+    }
+
+    @Override
+    public double[] categoryVolumes(ExerciseColumns columns) {
+        double[] weights = columns.weights();
+        int[] categories = columns.categories();
+        int upper = DOUBLES.loopBound(columns.size());
+        // One accumulator per category in locals; a DoubleVector[] would box on every iteration
+        DoubleVector push = DoubleVector.zero(DOUBLES);
+        DoubleVector pull = DoubleVector.zero(DOUBLES);
+        DoubleVector legs = DoubleVector.zero(DOUBLES);
+        DoubleVector other = DoubleVector.zero(DOUBLES);
+
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector volume = DoubleVector.fromArray(DOUBLES, weights, i).mul(setsTimesReps(columns, i));
+            DoubleVector category = toDoubles(IntVector.fromArray(INTS, categories, i));
+            push = push.add(volume, category.eq(ExerciseColumns.PUSH));
+            pull = pull.add(volume, category.eq(ExerciseColumns.PULL));
+            legs = legs.add(volume, category.eq(ExerciseColumns.LEGS));
+            other = other.add(volume, category.eq(ExerciseColumns.OTHER));
+        }
+
+        double[] volumes = new double[ExerciseColumns.CATEGORY_COUNT];
+        volumes[ExerciseColumns.PUSH] = push.reduceLanes(VectorOperators.ADD);
+        volumes[ExerciseColumns.PULL] = pull.reduceLanes(VectorOperators.ADD);
+        volumes[ExerciseColumns.LEGS] = legs.reduceLanes(VectorOperators.ADD);
+        volumes[ExerciseColumns.OTHER] = other.reduceLanes(VectorOperators.ADD);
+        ScalarVolumeKernels.addCategoryVolumes(columns, i, volumes);
+        return volumes;
+    }
+
+    @Override
+    public void estimateOneRepMax(ExerciseColumns columns, OneRepMaxFormula formula, double[] out) {
+        if (formula != OneRepMaxFormula.EPLEY && formula != OneRepMaxFormula.BRZYCKI) {
+            ScalarVolumeKernels.estimateOneRepMax(columns, formula, 0, out);
+            return;
+        }
+        double[] weights = columns.weights();
+        int[] reps = columns.reps();
+        int upper = DOUBLES.loopBound(columns.size());
+
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector weight = DoubleVector.fromArray(DOUBLES, weights, i);
+            IntVector repVector = IntVector.fromArray(INTS, reps, i);
+            VectorMask<Double> singles = repVector.compare(VectorOperators.LE, 1).cast(DOUBLES);
+
+            DoubleVector estimate;
+            if (formula == OneRepMaxFormula.EPLEY) {
+                estimate = weight.mul(toDoubles(repVector).div(30.0).add(1));
+            } else {
+                IntVector denominator = IntVector.broadcast(INTS, 37).sub(repVector.min(36));
+                estimate = weight.mul(36).div(toDoubles(denominator));
+            }
+            estimate.blend(weight, singles).intoArray(out, i);
+        }
+        ScalarVolumeKernels.estimateOneRepMax(columns, formula, i, out);
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+    private static DoubleVector setsTimesReps(ExerciseColumns columns, int i) {
+        IntVector sets = IntVector.fromArray(INTS, columns.sets(), i);
+        IntVector reps = IntVector.fromArray(INTS, columns.reps(), i);
+        return toDoubles(sets.mul(reps));
+    }
+
+    private static DoubleVector toDoubles(IntVector ints) {
+        return (DoubleVector) ints.convertShape(VectorOperators.I2D, DOUBLES, 0);
+    }
+}
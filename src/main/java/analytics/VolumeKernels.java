@@ -0,0 +1,29 @@
+package analytics;
+
+public interface VolumeKernels {
+    double totalVolume(ExerciseColumns columns);
+
+    // Indexed by ExerciseColumns.PUSH, PULL, LEGS and OTHER
+    double[] categoryVolumes(ExerciseColumns columns);
+
+    void estimateOneRepMax(ExerciseColumns columns, OneRepMaxFormula formula, double[] out);
+
+    boolean isVectorized();
+
+    static VolumeKernels scalar() {
+        return ScalarVolumeKernels.INSTANCE;
+    }
+
+    // The Vector API is an incubator module, so only touch it when the JVM was started with it
+    static VolumeKernels best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return scalar();
+        }
+        try {
+            return (VolumeKernels) Class.forName("analytics.VectorVolumeKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return scalar();
+        }
+    }
+}
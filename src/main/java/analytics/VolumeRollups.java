@@ -0,0 +1,127 @@
+package analytics;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+import model.Workout;
+import storage.StorageListener;
+import storage.WorkoutStorage;
+
+// Buckets of every period share one index, keyed by period and bucket, e.g. MONTH:2026-03
+public class VolumeRollups implements StorageListener {
+    private static final String INDEX_NAME = "rollups";
+
+    private final WorkoutStorage storage;
+    private final IndexJournal<PeriodRollup> index;
+
+    public VolumeRollups(WorkoutStorage storage) {
+        this.storage = storage;
+        this.index = new IndexJournal<>(storage, INDEX_NAME, PeriodRollup.class, "rollup index");
+    }
+
+    // The storage keeps one VolumeRollups per storage; attaching again returns it
+    public static VolumeRollups attach(WorkoutStorage storage) {
+        return storage.attach(VolumeRollups.class, VolumeRollups::new);
+    }
+
+    @Override
+    public synchronized void workoutSaved(String fileName, Workout workout) {
+        if (!ensureLoaded()) { // A rebuild already picked up the new file
+            apply(workout, true);
+            index.save();
+        }
+    }
+
+    @Override
+    public synchronized void workoutDeleted(String fileName, Workout workout) {
+        if (!ensureLoaded()) {
+            apply(workout, false);
+            index.save();
+        }
+    }
+
+    public synchronized List<Map.Entry<String, PeriodRollup>> range(RollupPeriod period,
+            LocalDate from, LocalDate to) {
+        ensureLoaded();
+        List<Map.Entry<String, PeriodRollup>> result = new ArrayList<>();
+        for (Map.Entry<String, PeriodRollup> entry : index.entries()
+                .subMap(key(period, from), true, key(period, to), true).entrySet()) {
+            result.add(Map.entry(bucket(period, entry.getKey()), entry.getValue()));
+        }
+        return result;
+    }
+
+    public synchronized List<Map.Entry<String, PeriodRollup>> latest(RollupPeriod period, int n) {
+        ensureLoaded();
+        List<Map.Entry<String, PeriodRollup>> result = new ArrayList<>();
+        for (Map.Entry<String, PeriodRollup> entry : buckets(period).descendingMap().entrySet()) {
+            if (result.size() == n) {
+                break;
+            }
+            result.add(Map.entry(bucket(period, entry.getKey()), entry.getValue()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        index.clear();
+        if (!Files.isDirectory(storage.getDataDirectory())) {
+            return;
+        }
+        for (Workout workout : storage.scan(this).values()) {
+            apply(workout, true);
+        }
+        index.snapshot();
+    }
+
+    private void apply(Workout workout, boolean add) {
+        LocalDate date = workout.getDate();
+        for (RollupPeriod period : RollupPeriod.values()) {
+            String key = key(period, date);
+            PeriodRollup rollup = index.get(key);
+            if (add) {
+                if (rollup == null) {
+                    rollup = new PeriodRollup();
+                }
+                rollup.add(workout);
+                index.put(key, rollup);
+                continue;
+            }
+            if (rollup != null) {
+                rollup.subtract(workout);
+                if (rollup.isEmpty()) {
+                    index.remove(key);
+                } else {
+                    index.put(key, rollup);
+                }
+            }
+        }
+    }
+
+    private boolean ensureLoaded() {
+        if (index.isCurrent() || index.load()) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    private NavigableMap<String, PeriodRollup> buckets(RollupPeriod period) {
+        return index.entries().subMap(period + ":", true, period + ":" + Character.MAX_VALUE, false);
+    }
+
+    private static String key(RollupPeriod period, LocalDate date) {
+        return period + ":" + period.key(date);
+    }
+
+    private static String bucket(RollupPeriod period, String key) {
+        return key.substring(period.name().length() + 1);
+    }
+}
@@ -0,0 +1,36 @@
+package analytics;
+
+import java.util.List;
+import java.util.Map;
+
+// Immutable snapshot of one workout's analytics, safe to cache and share
+public class WorkoutAnalytics {
+    private final List<ExerciseShare> topExercises;
+    private final List<ExerciseShare> bottomExercises;
+    private final Map<String, Double> volumeSplit;
+    private final ExerciseShare highestVolumeExercise;
+
+    public WorkoutAnalytics(List<ExerciseShare> topExercises, List<ExerciseShare> bottomExercises,
+            Map<String, Double> volumeSplit, ExerciseShare highestVolumeExercise) {
+        this.topExercises = List.copyOf(topExercises);
+        this.bottomExercises = List.copyOf(bottomExercises);
+        this.volumeSplit = Map.copyOf(volumeSplit);
+        this.highestVolumeExercise = highestVolumeExercise;
+    }
+
+    public List<ExerciseShare> getTopExercises() {
+        return topExercises;
+    }
+
+    public List<ExerciseShare> getBottomExercises() {
+        return bottomExercises;
+    }
+
+    public Map<String, Double> getVolumeSplit() {
+        return volumeSplit;
+    }
+
+    public ExerciseShare getHighestVolumeExercise() {
+        return highestVolumeExercise;
+    }
+}
@@ -0,0 +1,152 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import model.Workout;
+
+public class WorkoutSimilarity {
+    private static final int NUM_HASHES = 128;
+    private static final int ROWS_PER_BAND = 4;
+    private static final long SEED = 0x5eed;
+
+    private final List<Workout> history;
+    private final ExerciseDictionary dictionary = new ExerciseDictionary();
+    private final List<long[]> exerciseBits = new ArrayList<>();
+    private MinHash minHash;
+    private List<int[]> signatures;
+    private List<Map<Long, List<Integer>>> bands;
+
+    public WorkoutSimilarity(List<Workout> history) {
+        this.history = history;
+        for (Workout workout : history) {
+            exerciseBits.add(dictionary.encode(workout).toLongArray());
+        }
+    }
+
+    private WorkoutSimilarity() {
+        this.history = null;
+    }
+
+    // For a history known only by its canonical exercise keys, such as the catalog's entries, so no workout file has
+    // to be read to search it. Matches carry the index into the list and no workout.
+    public static WorkoutSimilarity ofExerciseNames(List<? extends Collection<String>> history) {
+        WorkoutSimilarity similarity = new WorkoutSimilarity();
+        for (Collection<String> exercises : history) {
+            similarity.exerciseBits.add(similarity.dictionary.encodeKeys(exercises).toLongArray());
+        }
+        return similarity;
+    }
+
+    // A target that is itself in the history of workouts is left out of its matches. A history of exercise names
+    // can't tell which entry is the target's saved copy, so the caller leaves that out.
+    public List<SimilarityMatch> mostSimilar(Workout target, int n, SimilarityMode mode) {
+        BitSet targetBits = dictionary.encodeQuery(target);
+        List<SimilarityMatch> matches = new ArrayList<>();
+
+        if (mode == SimilarityMode.EXACT) {
+            long[] words = targetBits.toLongArray();
+            for (int i = 0; i < exerciseBits.size(); i++) {
+                if (workout(i) != target) {
+                    matches.add(new SimilarityMatch(workout(i), i, jaccard(words, exerciseBits.get(i))));
+                }
+            }
+        } else {
+            buildSignatures();
+            int[] signature = minHash.signature(targetBits);
+            for (int i : candidates(signature)) {
+                if (workout(i) != target) {
+                    matches.add(new SimilarityMatch(workout(i), i, MinHash.estimate(signature, signatures.get(i))));
+                }
+            }
+        }
+
+        matches.sort((a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()));
+        return matches.subList(0, Math.min(n, matches.size()));
+    }
+
+    public double[][] similarityMatrix(SimilarityMode mode) {
+        int size = exerciseBits.size();
+        double[][] matrix = new double[size][size];
+        if (mode == SimilarityMode.APPROXIMATE) {
+            buildSignatures();
+        }
+        for (int i = 0; i < size; i++) {
+            matrix[i][i] = 1;
+            for (int j = i + 1; j < size; j++) {
+                double similarity = mode == SimilarityMode.EXACT
+                        ? jaccard(exerciseBits.get(i), exerciseBits.get(j))
+                        : MinHash.estimate(signatures.get(i), signatures.get(j));
+                matrix[i][j] = similarity;
+                matrix[j][i] = similarity;
+            }
+        }
+        return matrix;
+    }
+
+    public static double jaccard(long[] a, long[] b) {
+        int intersection = 0;
+        int union = 0;
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            intersection += Long.bitCount(a[i] & b[i]);
+            union += Long.bitCount(a[i] | b[i]);
+        }
+        for (int i = common; i < a.length; i++) {
+            union += Long.bitCount(a[i]);
+        }
+        for (int i = common; i < b.length; i++) {
+            union += Long.bitCount(b[i]);
+        }
+        return union == 0 ? 0 : (double) intersection / union;
+    }
+
+    // MinHash signatures and LSH buckets are only worth building once approximate mode is used
+    private void buildSignatures() {
+        if (signatures != null) {
+            return;
+        }
+        minHash = new MinHash(NUM_HASHES, SEED);
+        signatures = new ArrayList<>();
+        bands = new ArrayList<>();
+        for (int band = 0; band < NUM_HASHES / ROWS_PER_BAND; band++) {
+            bands.add(new HashMap<>());
+        }
+        for (int i = 0; i < exerciseBits.size(); i++) {
+            int[] signature = minHash.signature(BitSet.valueOf(exerciseBits.get(i)));
+            signatures.add(signature);
+            for (int band = 0; band < bands.size(); band++) {
+                bands.get(band).computeIfAbsent(bandKey(signature, band), k -> new ArrayList<>()).add(i);
+            }
+        }
+    }
+
+    private Workout workout(int index) {
+        return history == null ? null : history.get(index);
+    }
+
+    private Set<Integer> candidates(int[] signature) {
+        Set<Integer> candidates = new HashSet<>();
+        for (int band = 0; band < bands.size(); band++) {
+            List<Integer> bucket = bands.get(band).get(bandKey(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        return candidates;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS_PER_BAND; row < (band + 1) * ROWS_PER_BAND; row++) {
+            key = key * 31 + signature[row];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,94 @@
+package analytics;
+
+import model.Exercise;
+import model.ExerciseNames;
+import model.Workout;
+
+public class WorkoutSketch {
+    private long workouts;
+    private HyperLogLog distinctExercises = new HyperLogLog();
+    private CountMinSketch exerciseFrequency = new CountMinSketch();
+    private KllSketch weights = new KllSketch();
+    private KllSketch volumes = new KllSketch();
+
+    public static WorkoutSketch of(Workout workout) {
+        WorkoutSketch sketch = new WorkoutSketch();
+        sketch.add(workout);
+        return sketch;
+    }
+
+    public void add(Workout workout) {
+        workouts++;
+        for (Exercise e : workout.getExercises()) {
+            String name = ExerciseNames.normalize(e.getName());
+            distinctExercises.add(name);
+            exerciseFrequency.add(name, 1);
+            weights.add(e.getWeight());
+            volumes.add(e.calculateTotalVolume());
+        }
+    }
+
+    public void merge(WorkoutSketch other) {
+        workouts += other.workouts;
+        distinctExercises.merge(other.distinctExercises);
+        exerciseFrequency.merge(other.exerciseFrequency);
+        weights.merge(other.weights);
+        volumes.merge(other.volumes);
+    }
+
+    public long estimateDistinctExercises() {
+        return distinctExercises.estimate();
+    }
+
+    public long estimateFrequency(String exerciseName) {
+        return exerciseFrequency.estimate(ExerciseNames.normalize(exerciseName));
+    }
+
+    public double weightQuantile(double q) {
+        return weights.quantile(q);
+    }
+
+    public double volumeQuantile(double q) {
+        return volumes.quantile(q);
+    }
+
+    public long getWorkouts() {
+        return workouts;
+    }
+
+    public void setWorkouts(long workouts) {
+        this.workouts = workouts;
+    }
+
+    public HyperLogLog getDistinctExercises() {
+        return distinctExercises;
+    }
+
+    public void setDistinctExercises(HyperLogLog distinctExercises) {
+        this.distinctExercises = distinctExercises;
+    }
+
+    public CountMinSketch getExerciseFrequency() {
+        return exerciseFrequency;
+    }
+
+    public void setExerciseFrequency(CountMinSketch exerciseFrequency) {
+        this.exerciseFrequency = exerciseFrequency;
+    }
+
+    public KllSketch getWeights() {
+        return weights;
+    }
+
+    public void setWeights(KllSketch weights) {
+        this.weights = weights;
+    }
+
+    public KllSketch getVolumes() {
+        return volumes;
+    }
+
+    public void setVolumes(KllSketch volumes) {
+        this.volumes = volumes;
+    }
+}
@@ -0,0 +1,444 @@
+package generator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import model.Exercise;
+import model.Workout;
+import storage.CsvColumn;
+import storage.CsvExporter;
+import storage.WorkoutStorage;
+
+// Synthetic training histories for benchmarks and load tests. Everything is derived from the seed, so the same
+// seed and settings always produce the same workouts in the same order.
+//
+// Athletes rotate push/pull/leg days every one to three days. Exercises are drawn from a catalogue of up to
+// several thousand names (plain movements plus equipment and variant combinations) with Zipf-distributed
+// popularity, mostly from the day's category with some core work mixed in. Weights follow a
+// progressive-overload curve over the athlete's training age, with a deload every ninth week.
+//
+// Configure before the first workout is generated.
+public class WorkloadGenerator {
+    private static final int DEFAULT_EXERCISE_NAMES = 2000;
+    private static final LocalDate DEFAULT_START = LocalDate.of(2020, 1, 6);
+    private static final double DEFAULT_SKEW = 1.1;
+    private static final double SPLIT_CATEGORY_SHARE = 0.85;
+    private static final double MAX_GAIN = 0.5;
+    private static final double GAIN_WEEKS = 78;
+    private static final int DELOAD_EVERY_WEEKS = 9;
+    private static final double DELOAD = 0.9;
+    private static final int WRITE_BATCH = 4096;
+
+    private final long seed;
+    private final SplittableRandom random;
+    private int exerciseNameCount = DEFAULT_EXERCISE_NAMES;
+    private int minExercises = 4;
+    private int maxExercises = 8;
+    private int athleteCount = 1;
+    private LocalDate start = DEFAULT_START;
+    private double skew = DEFAULT_SKEW;
+
+    private List<CatalogueName> catalogue;
+    private double[][] cumulativeWeights;
+    private int[][] namesByCategory;
+    private Athlete[] athletes;
+    private long generated;
+
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public WorkloadGenerator exerciseNames(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Need at least one exercise name");
+        }
+        exerciseNameCount = count;
+        return this;
+    }
+
+    public WorkloadGenerator exercisesPerWorkout(int min, int max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Need 1 <= min <= max exercises per workout");
+        }
+        minExercises = min;
+        maxExercises = max;
+        return this;
+    }
+
+    // Workouts are dealt to athletes round-robin; each has their own calendar, strength and progress
+    public WorkloadGenerator athletes(int count) {
+        athleteCount = count;
+        return this;
+    }
+
+    public WorkloadGenerator startingOn(LocalDate start) {
+        this.start = start;
+        return this;
+    }
+
+    // Zipf exponent for exercise popularity; higher means a few exercises dominate
+    public WorkloadGenerator skew(double skew) {
+        this.skew = skew;
+        return this;
+    }
+
+    // The catalogue in popularity order
+    public List<String> exerciseNameCatalogue() {
+        ensureInitialized();
+        List<String> names = new ArrayList<>(catalogue.size());
+        catalogue.forEach(entry -> names.add(entry.name));
+        return names;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public Workout next() {
+        ensureInitialized();
+        Athlete athlete = athletes[(int) (generated++ % athletes.length)];
+        Split split = Split.values()[athlete.sessions++ % Split.values().length];
+        LocalDate date = athlete.nextDate;
+        athlete.nextDate = date.plusDays(1 + random.nextInt(3));
+        double weeks = (date.toEpochDay() - athlete.firstDate.toEpochDay()) / 7.0;
+        double progress = (1 + MAX_GAIN * (1 - Math.exp(-weeks / GAIN_WEEKS)))
+                * ((int) weeks % DELOAD_EVERY_WEEKS == DELOAD_EVERY_WEEKS - 1 ? DELOAD : 1);
+
+        Workout workout = new Workout(split.workoutName);
+        workout.setDate(date);
+        int exercises = minExercises + random.nextInt(maxExercises - minExercises + 1);
+        Set<Integer> chosen = new HashSet<>();
+        for (int i = 0; i < exercises; i++) {
+            Category category = random.nextDouble() < SPLIT_CATEGORY_SHARE ? split.category : Category.CORE;
+            int index = sample(category);
+            for (int retry = 0; retry < 3 && !chosen.add(index); retry++) {
+                index = sample(category);
+            }
+            CatalogueName entry = catalogue.get(index);
+            Movement movement = entry.movement;
+            double noise = 1 + (random.nextDouble() - 0.5) * 0.04;
+            double weight = roundToPlate(entry.startWeight * athlete.strength * progress * noise);
+            workout.getExercises().add(new Exercise(entry.name, 2 + random.nextInt(4),
+                    movement.minReps + random.nextInt(movement.maxReps - movement.minReps + 1), weight,
+                    movement.muscleGroup));
+        }
+        return workout;
+    }
+
+    public Stream<Workout> workouts(long count) {
+        return Stream.generate(this::next).limit(count);
+    }
+
+    public Iterator<Workout> iterator(long count) {
+        return workouts(count).iterator();
+    }
+
+    // Through the storage, so every attached index is updated; limited by the indexes, not the generator
+    public long saveTo(WorkoutStorage storage, long count) {
+        long saved = 0;
+        for (long i = 0; i < count; i++) {
+            if (storage.saveWorkout(next())) {
+                saved++;
+            }
+        }
+        return saved;
+    }
+
+    // Writes "<name> (<n>).json" files straight into a directory, each as save would have written it: with an id,
+    // version 1 and a checksum. Generates in order and writes each batch in parallel. Meant for fresh directories:
+    // indexes are built on first use.
+    public long writeJsonFiles(Path directory, long count) throws IOException {
+        Files.createDirectories(directory);
+        WorkoutStorage storage = new WorkoutStorage(directory);
+        Workout[] batch = new Workout[WRITE_BATCH];
+        long written = 0;
+        while (written < count) {
+            int size = (int) Math.min(WRITE_BATCH, count - written);
+            long first = generated;
+            for (int i = 0; i < size; i++) {
+                batch[i] = next();
+            }
+            try {
+                IntStream.range(0, size).parallel().forEach(i -> {
+                    String fileName = batch[i].getName() + " (" + (first + i) + ").json";
+                    // Derived from the file name, so the same seed still writes the same files
+                    batch[i].setId(UUID.nameUUIDFromBytes(fileName.getBytes(StandardCharsets.UTF_8)).toString());
+                    batch[i].setVersion(1);
+                    try {
+                        Files.write(directory.resolve(fileName), storage.encodeRecord(batch[i]));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            written += size;
+        }
+        return written;
+    }
+
+    public long writeCsv(Writer out, List<CsvColumn> columns, long count) throws IOException {
+        return CsvExporter.export(out, columns, iterator(count));
+    }
+
+    private int sample(Category category) {
+        double[] cumulative = cumulativeWeights[category.ordinal()];
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] <= target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return namesByCategory[category.ordinal()][low];
+    }
+
+    private static double roundToPlate(double weight) {
+        return Math.round(weight / 2.5) * 2.5;
+    }
+
+    private void ensureInitialized() {
+        if (catalogue != null) {
+            return;
+        }
+        catalogue = buildCatalogue(new Random(seed), exerciseNameCount);
+
+        List<List<Integer>> byCategory = new ArrayList<>();
+        for (int c = 0; c < Category.values().length; c++) {
+            byCategory.add(new ArrayList<>());
+        }
+        for (int rank = 0; rank < catalogue.size(); rank++) {
+            byCategory.get(catalogue.get(rank).movement.category.ordinal()).add(rank);
+        }
+        cumulativeWeights = new double[Category.values().length][];
+        namesByCategory = new int[Category.values().length][];
+        for (int c = 0; c < byCategory.size(); c++) {
+            List<Integer> ranks = byCategory.get(c);
+            if (ranks.isEmpty()) { // Fewer names than categories: the day draws from the whole catalogue
+                ranks = IntStream.range(0, catalogue.size()).boxed().toList();
+            }
+            cumulativeWeights[c] = new double[ranks.size()];
+            namesByCategory[c] = new int[ranks.size()];
+            double total = 0;
+            for (int i = 0; i < ranks.size(); i++) {
+                total += 1 / Math.pow(ranks.get(i) + 1, skew);
+                cumulativeWeights[c][i] = total;
+                namesByCategory[c][i] = ranks.get(i);
+            }
+        }
+
+        athletes = new Athlete[Math.max(1, athleteCount)];
+        for (int i = 0; i < athletes.length; i++) {
+            // Staggered start dates so athletes are at different points on their curves
+            LocalDate first = start.plusDays(random.nextInt(365));
+            athletes[i] = new Athlete(first, 0.6 + 0.8 * random.nextDouble());
+        }
+    }
+
+    // The plain movements in popularity order, then equipment and variant combinations in seeded order
+    private static List<CatalogueName> buildCatalogue(Random random, int count) {
+        List<CatalogueName> names = new ArrayList<>();
+        for (Movement movement : Movement.values()) {
+            names.add(new CatalogueName(movement.displayName, movement, movement.baseWeight));
+        }
+        List<CatalogueName> combinations = new ArrayList<>();
+        for (Movement movement : Movement.values()) {
+            for (Modifier equipment : Modifier.EQUIPMENT) {
+                combinations.add(new CatalogueName(equipment.label + " " + movement.displayName, movement,
+                        movement.baseWeight * equipment.factor));
+            }
+            for (Modifier variant : Modifier.VARIANTS) {
+                combinations.add(new CatalogueName(variant.label + " " + movement.displayName, movement,
+                        movement.baseWeight * variant.factor));
+                for (Modifier equipment : Modifier.EQUIPMENT) {
+                    combinations.add(new CatalogueName(variant.label + " " + equipment.label + " "
+                            + movement.displayName, movement, movement.baseWeight * variant.factor * equipment.factor));
+                }
+            }
+        }
+        Collections.shuffle(combinations, random);
+        Set<String> seen = new HashSet<>();
+        names.forEach(entry -> seen.add(entry.name));
+        for (CatalogueName combination : combinations) {
+            // "Cable Crunch" is both a movement and Cable + Crunch; keep the first
+            if (seen.add(combination.name)) {
+                names.add(combination);
+            }
+        }
+        List<CatalogueName> catalogue = truncate(names, count);
+        // Each name gets its own starting load around the movement's typical one
+        for (CatalogueName entry : catalogue) {
+            entry.startWeight *= 0.85 + 0.3 * random.nextDouble();
+        }
+        return catalogue;
+    }
+
+    // The first count names, except that every category keeps its most popular one. From thirteen names on, the
+    // first ones already cover every category.
+    private static List<CatalogueName> truncate(List<CatalogueName> names, int count) {
+        int size = Math.min(count, names.size());
+        boolean[] kept = new boolean[names.size()];
+        Set<Category> covered = EnumSet.noneOf(Category.class);
+        int keptCount = 0;
+        for (int i = 0; i < names.size() && keptCount < size; i++) {
+            if (covered.add(names.get(i).movement.category)) {
+                kept[i] = true;
+                keptCount++;
+            }
+        }
+        for (int i = 0; keptCount < size; i++) {
+            if (!kept[i]) {
+                kept[i] = true;
+                keptCount++;
+            }
+        }
+        List<CatalogueName> catalogue = new ArrayList<>(size);
+        for (int i = 0; i < names.size(); i++) {
+            if (kept[i]) {
+                catalogue.add(names.get(i));
+            }
+        }
+        return catalogue;
+    }
+
+    private enum Category {
+        PUSH, PULL, LEGS, CORE
+    }
+
+    private enum Split {
+        PUSH_DAY("Push Day", Category.PUSH), PULL_DAY("Pull Day", Category.PULL), LEG_DAY("Leg Day", Category.LEGS);
+
+        private final String workoutName;
+        private final Category category;
+
+        Split(String workoutName, Category category) {
+            this.workoutName = workoutName;
+            this.category = category;
+        }
+    }
+
+    // Typical working loads in lbs for an intermediate lifter; bodyweight movements start at 0
+    private enum Movement {
+        SQUAT("Squat", Category.LEGS, "quads", 225, 3, 8),
+        BENCH_PRESS("Bench Press", Category.PUSH, "chest", 185, 3, 8),
+        DEADLIFT("Deadlift", Category.PULL, "erectors", 275, 1, 5),
+        OVERHEAD_PRESS("Overhead Press", Category.PUSH, "shoulders", 115, 4, 8),
+        ROW("Row", Category.PULL, "back", 155, 6, 12),
+        PULL_UP("Pull Up", Category.PULL, "lats", 0, 5, 12),
+        LEG_PRESS("Leg Press", Category.LEGS, "quads", 360, 8, 15),
+        ROMANIAN_DEADLIFT("Romanian Deadlift", Category.LEGS, "hamstrings", 185, 6, 10),
+        LAT_PULLDOWN("Lat Pulldown", Category.PULL, "lats", 140, 8, 12),
+        BICEP_CURL("Bicep Curl", Category.PULL, "biceps", 35, 8, 15),
+        LATERAL_RAISE("Lateral Raise", Category.PUSH, "shoulders", 20, 10, 20),
+        TRICEPS_EXTENSION("Triceps Extension", Category.PUSH, "triceps", 50, 8, 15),
+        PLANK("Plank", Category.CORE, "core", 0, 1, 3),
+        CALF_RAISE("Calf Raise", Category.LEGS, "calves", 180, 10, 20),
+        DIP("Dip", Category.PUSH, "triceps", 0, 6, 15),
+        LEG_CURL("Leg Curl", Category.LEGS, "hamstrings", 90, 8, 15),
+        CHEST_FLY("Chest Fly", Category.PUSH, "chest", 40, 10, 15),
+        FACE_PULL("Face Pull", Category.PULL, "back", 50, 12, 20),
+        HIP_THRUST("Hip Thrust", Category.LEGS, "glutes", 225, 8, 12),
+        CRUNCH("Crunch", Category.CORE, "core", 0, 15, 25),
+        LEG_EXTENSION("Leg Extension", Category.LEGS, "quads", 100, 10, 15),
+        HAMMER_CURL("Hammer Curl", Category.PULL, "biceps", 35, 8, 12),
+        SHRUG("Shrug", Category.PULL, "traps", 225, 10, 15),
+        LUNGE("Lunge", Category.LEGS, "quads", 95, 8, 12),
+        CHIN_UP("Chin Up", Category.PULL, "lats", 0, 5, 12),
+        SKULL_CRUSHER("Skull Crusher", Category.PUSH, "triceps", 60, 8, 12),
+        HANGING_LEG_RAISE("Hanging Leg Raise", Category.CORE, "core", 0, 8, 15),
+        SPLIT_SQUAT("Split Squat", Category.LEGS, "quads", 60, 8, 12),
+        ARNOLD_PRESS("Arnold Press", Category.PUSH, "shoulders", 40, 8, 12),
+        REVERSE_FLY("Reverse Fly", Category.PULL, "back", 20, 12, 20),
+        HACK_SQUAT("Hack Squat", Category.LEGS, "quads", 200, 6, 12),
+        CABLE_CRUNCH("Cable Crunch", Category.CORE, "core", 70, 10, 20),
+        CHEST_PRESS("Chest Press", Category.PUSH, "chest", 150, 8, 12),
+        RACK_PULL("Rack Pull", Category.PULL, "erectors", 315, 3, 6),
+        GOOD_MORNING("Good Morning", Category.LEGS, "hamstrings", 115, 8, 12),
+        FRONT_RAISE("Front Raise", Category.PUSH, "shoulders", 20, 10, 15),
+        WRIST_CURL("Wrist Curl", Category.PULL, "forearms", 30, 12, 20),
+        RUSSIAN_TWIST("Russian Twist", Category.CORE, "core", 25, 15, 30),
+        HIP_ADDUCTION("Hip Adduction", Category.LEGS, "adductors", 120, 10, 15),
+        PUSH_UP("Push Up", Category.PUSH, "chest", 0, 10, 25),
+        STEP_UP("Step Up", Category.LEGS, "quads", 50, 8, 12),
+        PALLOF_PRESS("Pallof Press", Category.CORE, "core", 30, 10, 15),
+        HIP_ABDUCTION("Hip Abduction", Category.LEGS, "abductors", 120, 10, 15),
+        PULLOVER("Pullover", Category.PULL, "lats", 60, 8, 12);
+
+        private final String displayName;
+        private final Category category;
+        private final String muscleGroup;
+        private final double baseWeight;
+        private final int minReps;
+        private final int maxReps;
+
+        Movement(String displayName, Category category, String muscleGroup, double baseWeight, int minReps,
+                int maxReps) {
+            this.displayName = displayName;
+            this.category = category;
+            this.muscleGroup = muscleGroup;
+            this.baseWeight = baseWeight;
+            this.minReps = minReps;
+            this.maxReps = maxReps;
+        }
+    }
+
+    private record Modifier(String label, double factor) {
+        private static final Modifier[] EQUIPMENT = { new Modifier("Barbell", 1.0), new Modifier("Dumbbell", 0.4),
+                new Modifier("Cable", 0.5), new Modifier("Machine", 0.9), new Modifier("Smith Machine", 0.85),
+                new Modifier("Kettlebell", 0.35), new Modifier("Band", 0.2), new Modifier("Landmine", 0.5) };
+        private static final Modifier[] VARIANTS = { new Modifier("Incline", 0.85), new Modifier("Decline", 1.0),
+                new Modifier("Paused", 0.85), new Modifier("Tempo", 0.75), new Modifier("Single-Arm", 0.45),
+                new Modifier("Close-Grip", 0.9), new Modifier("Wide-Grip", 0.9), new Modifier("Seated", 0.9),
+                new Modifier("Standing", 1.0), new Modifier("Deficit", 0.9), new Modifier("Banded", 0.8),
+                new Modifier("Pin", 0.95), new Modifier("Half-Kneeling", 0.5), new Modifier("Neutral-Grip", 0.95),
+                new Modifier("Reverse-Grip", 0.85) };
+    }
+
+    private static final class CatalogueName {
+        private final String name;
+        private final Movement movement;
+        private double startWeight;
+
+        private CatalogueName(String name, Movement movement, double startWeight) {
+            this.name = name;
+            this.movement = movement;
+            this.startWeight = startWeight;
+        }
+    }
+
+    private static final class Athlete {
+        private final LocalDate firstDate;
+        private final double strength;
+        private LocalDate nextDate;
+        private int sessions;
+
+        private Athlete(LocalDate firstDate, double strength) {
+            this.firstDate = firstDate;
+            this.strength = strength;
+            this.nextDate = firstDate;
+        }
+    }
+}
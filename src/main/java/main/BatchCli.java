@@ -0,0 +1,527 @@
+package main;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import analytics.AnalyticsCache;
+import analytics.AnalyticsEngine;
+import analytics.ExerciseShare;
+import analytics.HistoryIndexes;
+import analytics.WorkoutAnalytics;
+import analytics.WorkoutComparison;
+import model.Exercise;
+import model.Workout;
+import server.WorkoutServer;
+import storage.CatalogEntry;
+import storage.CsvColumn;
+import storage.CsvExporter;
+import storage.SaveResult;
+import storage.ScrubReport;
+import storage.TenantRegistry;
+import storage.WorkoutQuery;
+import storage.WorkoutStorage;
+import ui.FormatUtils;
+
+// Non-interactive entry point: one JVM and one ObjectMapper handle every file named on the command line
+public class BatchCli {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+    private static final int DEFAULT_PORT = 8080;
+
+    private static final String USAGE = """
+            Usage: lift-metrics [--data <dir>] [--tenant <id>] [--format table|json] <command> [args]
+              import <file.json>...       Save workout files into the data directory
+              list                        List saved workouts
+              show <file>...              Print saved workouts
+              analyze <file>...           Top/bottom exercises and push/pull/legs split
+              compare <fileA> <fileB>     Compare two saved workouts
+              delete <file>...            Delete saved workouts
+              export <dir> [file]...      Copy saved workouts (all by default) to a directory
+              csv <out.csv|-> [options]   One row per exercise; options: --columns a,b,c --exercise <name>
+                                          --muscle-group <group> --category <Push|Pull|Legs|Other>
+                                          --from <yyyy-mm-dd> --to <yyyy-mm-dd>
+              scrub [--threads n] [--remove-leftovers]
+                                          Verify every saved workout's checksum; corrupt files are moved
+                                          to .quarantine in the data directory and temporary files of
+                                          interrupted saves are listed, or removed
+              serve [port]                Serve the HTTP API on localhost (default port 8080)""";
+
+    private enum Format {
+        TABLE, JSON
+    }
+
+    private final WorkoutStorage storage;
+    private final TenantRegistry tenants;
+    private AnalyticsCache analyticsCache;
+    private final PrintStream out;
+    private final PrintStream err;
+    private Format format = Format.TABLE;
+
+    public BatchCli(WorkoutStorage storage, PrintStream out, PrintStream err) {
+        this(storage, new TenantRegistry(storage.getDataDirectory()), out, err);
+    }
+
+    public BatchCli(WorkoutStorage storage, TenantRegistry tenants, PrintStream out, PrintStream err) {
+        this.storage = storage;
+        this.tenants = tenants;
+        this.out = out;
+        this.err = err;
+        // Keep the derived indexes in step with imports and deletes, as the interactive UI does
+        HistoryIndexes.attach(storage);
+    }
+
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Path dataDir = Paths.get("data");
+        List<String> rest = new ArrayList<>(Arrays.asList(args));
+        int dataFlag = rest.indexOf("--data");
+        if (dataFlag >= 0) {
+            if (dataFlag + 1 >= rest.size()) {
+                err.println(USAGE);
+                return EXIT_USAGE;
+            }
+            dataDir = Paths.get(rest.get(dataFlag + 1));
+            rest.subList(dataFlag, dataFlag + 2).clear();
+        }
+        TenantRegistry tenants = new TenantRegistry(dataDir);
+        WorkoutStorage storage = new WorkoutStorage(dataDir);
+        int tenantFlag = rest.indexOf("--tenant");
+        if (tenantFlag >= 0) {
+            storage = tenantFlag + 1 < rest.size() ? tenants.storage(rest.get(tenantFlag + 1)) : null;
+            if (storage == null) {
+                err.println("Tenant ids are 1-64 letters, digits, '-' or '_'");
+                err.println(USAGE);
+                return EXIT_USAGE;
+            }
+            rest.subList(tenantFlag, tenantFlag + 2).clear();
+        }
+        return new BatchCli(storage, tenants, out, err).run(rest);
+    }
+
+    public int run(List<String> args) {
+        List<String> rest = new ArrayList<>(args);
+        format = Format.TABLE;
+        int formatFlag = rest.indexOf("--format");
+        if (formatFlag >= 0) {
+            if (formatFlag + 1 >= rest.size() || !setFormat(rest.get(formatFlag + 1))) {
+                err.println(USAGE);
+                return EXIT_USAGE;
+            }
+            rest.subList(formatFlag, formatFlag + 2).clear();
+        }
+        if (rest.isEmpty()) {
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        String command = rest.get(0);
+        List<String> operands = rest.subList(1, rest.size());
+        try {
+            return switch (command) {
+                case "import" -> requireOperands(operands, 1) ? importFiles(operands) : EXIT_USAGE;
+                case "list" -> list();
+                case "show" -> requireOperands(operands, 1) ? show(operands) : EXIT_USAGE;
+                case "analyze" -> requireOperands(operands, 1) ? analyze(operands) : EXIT_USAGE;
+                case "compare" -> operands.size() == 2 ? compare(operands.get(0), operands.get(1)) : usage();
+                case "delete" -> requireOperands(operands, 1) ? delete(operands) : EXIT_USAGE;
+                case "export" -> requireOperands(operands, 1) ? export(operands) : EXIT_USAGE;
+                case "csv" -> requireOperands(operands, 1) ? csv(operands) : EXIT_USAGE;
+                case "scrub" -> scrub(operands);
+                case "serve" -> operands.size() <= 1 ? serve(operands) : usage();
+                case "help", "--help", "-h" -> {
+                    out.println(USAGE);
+                    yield EXIT_OK;
+                }
+                default -> {
+                    err.println("Unknown command: " + command);
+                    yield usage();
+                }
+            };
+        } catch (IOException e) {
+            err.println("Failed to write output: " + e.getMessage());
+            return EXIT_FAILED;
+        }
+    }
+
+    private int importFiles(List<String> files) throws IOException {
+        Map<String, String> results = new LinkedHashMap<>();
+        boolean failed = false;
+        for (String file : files) {
+            Workout workout = readWorkout(Paths.get(file));
+            SaveResult result = workout == null ? SaveResult.FAILED : storage.save(workout).result();
+            if (result == SaveResult.CONFLICT) {
+                err.println(file + ": the workout was saved since this copy was exported; "
+                        + "export it again and re-apply the changes");
+            }
+            results.put(file, switch (result) {
+                case SAVED -> "imported";
+                case CONFLICT -> "conflict";
+                default -> "failed";
+            });
+            failed |= result != SaveResult.SAVED;
+        }
+        printStatuses(results);
+        return failed ? EXIT_FAILED : EXIT_OK;
+    }
+
+    private int list() throws IOException {
+        List<CatalogEntry> entries = storage.getCatalog().entries();
+        if (format == Format.JSON) {
+            printJson(entries);
+            return EXIT_OK;
+        }
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] { "FILE", "NAME", "DATE", "EXERCISES", "VOLUME" });
+        for (CatalogEntry entry : entries) {
+            rows.add(new String[] { entry.getFileName(), entry.getWorkoutName(), String.valueOf(entry.getDate()),
+                    String.valueOf(entry.getExerciseCount()), FormatUtils.formatNumber(entry.getTotalVolume()) });
+        }
+        printTable(rows);
+        return EXIT_OK;
+    }
+
+    private int show(List<String> files) throws IOException {
+        Map<String, Workout> workouts = loadAll(files);
+        if (format == Format.JSON) {
+            printJson(workouts);
+        } else {
+            for (Map.Entry<String, Workout> entry : workouts.entrySet()) {
+                Workout workout = entry.getValue();
+                out.println(entry.getKey() + ": " + workout.getName() + " (" + workout.getDate() + ")");
+                List<String[]> rows = new ArrayList<>();
+                rows.add(new String[] { "EXERCISE", "SETS", "REPS", "WEIGHT", "MUSCLE GROUP", "VOLUME" });
+                for (Exercise e : workout.getExercises()) {
+                    rows.add(new String[] { e.getName(), String.valueOf(e.getSets()), String.valueOf(e.getReps()),
+                            FormatUtils.formatNumber(e.getWeight()), e.getMuscleGroup(),
+                            FormatUtils.formatNumber(e.calculateTotalVolume()) });
+                }
+                printTable(rows);
+                out.println();
+            }
+        }
+        return workouts.size() == files.size() ? EXIT_OK : EXIT_FAILED;
+    }
+
+    private int analyze(List<String> files) throws IOException {
+        Map<String, WorkoutAnalytics> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Workout> entry : loadAll(files).entrySet()) {
+            results.put(entry.getKey(), analyticsCache().analyze(entry.getValue()));
+        }
+        if (format == Format.JSON) {
+            printJson(results);
+        } else {
+            for (Map.Entry<String, WorkoutAnalytics> entry : results.entrySet()) {
+                WorkoutAnalytics analytics = entry.getValue();
+                var ppl = analytics.getVolumeSplit();
+                out.println(entry.getKey() + ": Push " + FormatUtils.formatPercent(ppl.get("Push"))
+                        + " / Pull " + FormatUtils.formatPercent(ppl.get("Pull"))
+                        + " / Legs " + FormatUtils.formatPercent(ppl.get("Legs")));
+                List<String[]> rows = new ArrayList<>();
+                rows.add(new String[] { "TOP EXERCISE", "VOLUME", "SHARE" });
+                for (ExerciseShare share : analytics.getTopExercises()) {
+                    rows.add(new String[] { share.getName(), FormatUtils.formatNumber(share.getVolume()),
+                            FormatUtils.formatPercent(share.getShare()) });
+                }
+                printTable(rows);
+                out.println();
+            }
+        }
+        return results.size() == files.size() ? EXIT_OK : EXIT_FAILED;
+    }
+
+    private int compare(String fileA, String fileB) throws IOException {
+        Workout a = storage.loadWorkout(fileA);
+        Workout b = storage.loadWorkout(fileB);
+        if (a == null || b == null) {
+            return EXIT_FAILED;
+        }
+        WorkoutComparison result = analyticsCache().compare(a, b);
+        if (format == Format.JSON) {
+            printJson(result);
+            return EXIT_OK;
+        }
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] { "", fileA, fileB });
+        rows.add(new String[] { "Volume", FormatUtils.formatNumber(result.getVolumeA()),
+                FormatUtils.formatNumber(result.getVolumeB()) });
+        rows.add(new String[] { "Unique", String.join(", ", result.getUniqueToA()),
+                String.join(", ", result.getUniqueToB()) });
+        printTable(rows);
+        out.println("Common: " + String.join(", ", result.getCommonExercises()));
+        out.println("Volume difference: " + FormatUtils.formatNumber(result.getVolumeDifference()) + " lbs");
+        return EXIT_OK;
+    }
+
+    private int delete(List<String> files) throws IOException {
+        Map<String, String> results = new LinkedHashMap<>();
+        boolean failed = false;
+        for (String file : files) {
+            boolean deleted = storage.deleteWorkout(file);
+            results.put(file, deleted ? "deleted" : "failed");
+            failed |= !deleted;
+        }
+        printStatuses(results);
+        return failed ? EXIT_FAILED : EXIT_OK;
+    }
+
+    private int export(List<String> operands) throws IOException {
+        Path target = Paths.get(operands.get(0));
+        List<String> files = operands.size() > 1 ? operands.subList(1, operands.size()) : storage.getSavedWorkouts();
+        Files.createDirectories(target);
+
+        Map<String, String> results = new LinkedHashMap<>();
+        boolean failed = false;
+        for (Map.Entry<String, Workout> entry : loadAll(files).entrySet()) {
+            storage.writeJson(target.resolve(entry.getKey()), entry.getValue());
+            results.put(entry.getKey(), "exported");
+        }
+        for (String file : files) {
+            if (!results.containsKey(file)) {
+                results.put(file, "failed");
+                failed = true;
+            }
+        }
+        printStatuses(results);
+        return failed ? EXIT_FAILED : EXIT_OK;
+    }
+
+    private int csv(List<String> operands) throws IOException {
+        String target = operands.get(0);
+        List<CsvColumn> columns = List.of(CsvColumn.values());
+        WorkoutQuery query = WorkoutQuery.all();
+        LocalDate from = null;
+        LocalDate to = null;
+        for (int i = 1; i < operands.size(); i += 2) {
+            if (i + 1 >= operands.size()) {
+                return usage();
+            }
+            String value = operands.get(i + 1);
+            try {
+                switch (operands.get(i)) {
+                    case "--columns" -> columns = CsvColumn.parse(value);
+                    case "--exercise" -> query.exercise(value);
+                    case "--muscle-group" -> query.muscleGroup(value);
+                    case "--category" -> query.category(value);
+                    case "--from" -> from = LocalDate.parse(value);
+                    case "--to" -> to = LocalDate.parse(value);
+                    default -> {
+                        return usage();
+                    }
+                }
+            } catch (DateTimeParseException e) {
+                err.println("Dates must be yyyy-mm-dd: " + value);
+                return EXIT_USAGE;
+            }
+            if (columns == null) {
+                err.println("Unknown column in " + value + "; columns are " + Arrays.stream(CsvColumn.values())
+                        .map(CsvColumn::header).toList());
+                return EXIT_USAGE;
+            }
+        }
+        if (from != null || to != null) {
+            query.between(from, to);
+        }
+
+        CsvExporter exporter = new CsvExporter(storage);
+        if (target.equals("-")) {
+            exporter.export(new OutputStreamWriter(out, StandardCharsets.UTF_8), columns, query);
+            return EXIT_OK;
+        }
+        long rows;
+        try (Writer writer = Files.newBufferedWriter(Paths.get(target), StandardCharsets.UTF_8)) {
+            rows = exporter.export(writer, columns, query);
+        }
+        if (format == Format.JSON) {
+            printJson(Map.of("file", target, "rows", rows));
+        } else {
+            out.println(rows + " rows written to " + target);
+        }
+        return EXIT_OK;
+    }
+
+    private int scrub(List<String> operands) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean removeLeftovers = false;
+        for (int i = 0; i < operands.size(); i++) {
+            switch (operands.get(i)) {
+                case "--remove-leftovers" -> removeLeftovers = true;
+                case "--threads" -> {
+                    if (++i == operands.size()) {
+                        return usage();
+                    }
+                    try {
+                        threads = Integer.parseInt(operands.get(i));
+                    } catch (NumberFormatException e) {
+                        return usage();
+                    }
+                    if (threads < 1) {
+                        return usage();
+                    }
+                }
+                default -> {
+                    return usage();
+                }
+            }
+        }
+        ScrubReport report = storage.scrub(threads, removeLeftovers);
+        if (format == Format.JSON) {
+            printJson(report);
+        } else {
+            out.println(report.getChecked() + " files checked (" + report.getVerified() + " verified, "
+                    + report.getUnchecked() + " without checksums), "
+                    + FormatUtils.formatNumber(report.getMegabytesPerSecond()) + " MB/s");
+            if (!report.getQuarantined().isEmpty()) {
+                out.println(report.getMismatched() + " failed their checksum, " + report.getUnparseable()
+                        + " did not parse");
+                List<String[]> rows = new ArrayList<>();
+                rows.add(new String[] { "QUARANTINED", "REASON" });
+                report.getQuarantined().forEach((file, reason) -> rows.add(new String[] { file, reason }));
+                printTable(rows);
+            }
+            if (!report.getUnreadable().isEmpty()) {
+                List<String[]> rows = new ArrayList<>();
+                rows.add(new String[] { "UNREADABLE", "ERROR" });
+                report.getUnreadable().forEach((file, error) -> rows.add(new String[] { file, error }));
+                printTable(rows);
+            }
+            if (!report.getUnmoved().isEmpty()) {
+                List<String[]> rows = new ArrayList<>();
+                rows.add(new String[] { "CORRUPT, NOT MOVED", "REASON" });
+                report.getUnmoved().forEach((file, reason) -> rows.add(new String[] { file, reason }));
+                printTable(rows);
+            }
+            if (!report.getLeftovers().isEmpty()) {
+                String action = report.isLeftoversRemoved()
+                        ? "removed"
+                        : "found; rerun with --remove-leftovers to remove them";
+                out.println(report.getLeftovers().size() + " temporary files from interrupted saves " + action + ": "
+                        + String.join(", ", report.getLeftovers()));
+            }
+        }
+        return report.isClean() ? EXIT_OK : EXIT_FAILED;
+    }
+
+    // Blocks until the process is stopped
+    private int serve(List<String> operands) throws IOException {
+        int port = DEFAULT_PORT;
+        if (!operands.isEmpty()) {
+            try {
+                port = Integer.parseInt(operands.get(0));
+            } catch (NumberFormatException e) {
+                return usage();
+            }
+        }
+        WorkoutServer server = WorkoutServer.start(storage, tenants, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        out.println("Serving workouts on http://127.0.0.1:" + server.getPort());
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.stop();
+        return EXIT_OK;
+    }
+
+    // Only the commands that analyze workouts pay for the engine
+    private AnalyticsCache analyticsCache() {
+        if (analyticsCache == null) {
+            analyticsCache = new AnalyticsCache(new AnalyticsEngine());
+        }
+        return analyticsCache;
+    }
+
+    private Workout readWorkout(Path file) {
+        try {
+            return storage.readJson(file, Workout.class);
+        } catch (IOException e) {
+            err.println("Failed to read " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, Workout> loadAll(List<String> files) {
+        Map<String, Workout> workouts = new LinkedHashMap<>();
+        for (String file : files) {
+            Workout workout = storage.loadWorkout(file);
+            if (workout != null) {
+                workouts.put(file, workout);
+            }
+        }
+        return workouts;
+    }
+
+    private void printStatuses(Map<String, String> results) throws IOException {
+        if (format == Format.JSON) {
+            printJson(results);
+            return;
+        }
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] { "FILE", "STATUS" });
+        results.forEach((file, status) -> rows.add(new String[] { file, status }));
+        printTable(rows);
+    }
+
+    private void printJson(Object value) throws IOException {
+        out.println(storage.getMapper().writeValueAsString(value));
+    }
+
+    private void printTable(List<String[]> rows) {
+        int[] widths = new int[rows.get(0).length];
+        for (String[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                widths[i] = Math.max(widths[i], row[i].length());
+            }
+        }
+        StringBuilder line = new StringBuilder();
+        for (String[] row : rows) {
+            line.setLength(0);
+            for (int i = 0; i < row.length; i++) {
+                line.append(row[i]);
+                if (i < row.length - 1) {
+                    line.append(" ".repeat(widths[i] - row[i].length() + 2));
+                }
+            }
+            out.println(line);
+        }
+    }
+
+    private boolean setFormat(String value) {
+        switch (value) {
+            case "table" -> format = Format.TABLE;
+            case "json" -> format = Format.JSON;
+            default -> {
+                err.println("Unknown format: " + value);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean requireOperands(List<String> operands, int min) {
+        if (operands.size() < min) {
+            usage();
+            return false;
+        }
+        return true;
+    }
+
+    private int usage() {
+        err.println(USAGE);
+        return EXIT_USAGE;
+    }
+}
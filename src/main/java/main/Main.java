@@ -4,6 +4,9 @@ import ui.UserInterface;
 
 public class Main {
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(BatchCli.run(args, System.out, System.err));
+        }
         UserInterface userInterface = new UserInterface();
         userInterface.start();
     }
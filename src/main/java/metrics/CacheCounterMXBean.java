@@ -0,0 +1,13 @@
+package metrics;
+
+public interface CacheCounterMXBean {
+    String getName();
+
+    long getHits();
+
+    long getMisses();
+
+    double getHitRate();
+
+    void reset();
+}
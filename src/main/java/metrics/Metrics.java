@@ -0,0 +1,83 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Process-wide registry of operation timers and cache counters. Every storage and tenant shares the same timers,
+// so the numbers describe the whole process. Timers are created on first use; JMX export is opt-in because the
+// platform MBean server costs more start-up time than the interactive menu itself.
+public final class Metrics {
+    private static final String DOMAIN = "com.akyro";
+    // Throughput is measured from here, the first time anything is timed, rather than from each timer's creation
+    static final long STARTED_AT = System.nanoTime();
+
+    private static final Map<String, OperationTimer> TIMERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, CacheCounter> CACHES = new ConcurrentSkipListMap<>();
+    private static volatile MBeanServer server;
+
+    private Metrics() {
+    }
+
+    public static OperationTimer timer(String group, String operation) {
+        OperationTimer timer = TIMERS.computeIfAbsent(group + "." + operation,
+                key -> new OperationTimer(group, operation));
+        if (server != null) {
+            register(timer, "type=Operation,group=" + group + ",name=" + operation);
+        }
+        return timer;
+    }
+
+    public static CacheCounter cache(String name) {
+        CacheCounter cache = CACHES.computeIfAbsent(name, CacheCounter::new);
+        if (server != null) {
+            register(cache, "type=Cache,name=" + name);
+        }
+        return cache;
+    }
+
+    // Sorted by group, then operation
+    public static List<OperationTimer> timers() {
+        return new ArrayList<>(TIMERS.values());
+    }
+
+    public static List<CacheCounter> caches() {
+        return new ArrayList<>(CACHES.values());
+    }
+
+    public static void reset() {
+        TIMERS.values().forEach(OperationTimer::reset);
+        CACHES.values().forEach(CacheCounter::reset);
+    }
+
+    // Registers every timer and cache as an MXBean under com.akyro, and any created later as they appear
+    public static synchronized void registerMBeans() {
+        if (server != null) {
+            return;
+        }
+        server = ManagementFactory.getPlatformMBeanServer();
+        TIMERS.values().forEach(timer -> register(timer,
+                "type=Operation,group=" + timer.getGroup() + ",name=" + timer.getOperation()));
+        CACHES.values().forEach(cache -> register(cache, "type=Cache,name=" + cache.getName()));
+    }
+
+    private static synchronized void register(Object bean, String properties) {
+        if (server == null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(bean, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Failed to register metrics MBean: " + e.getMessage());
+        }
+    }
+}
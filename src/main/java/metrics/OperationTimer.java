@@ -0,0 +1,158 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Always-on latency histogram and throughput counter for one operation. Recording only increments LongAdders,
+// which spread contended updates over per-thread cells, so concurrent callers never lock or retry on a shared word.
+//
+// Buckets are log-linear: eight per power of two of nanoseconds, so any percentile is within 12.5% of the true
+// value. Durations past 2^40 ns (about 18 minutes) share the last bucket.
+public class OperationTimer implements OperationTimerMXBean {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final String group;
+    private final String operation;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private volatile long startedAt = Metrics.STARTED_AT;
+
+    OperationTimer(String group, String operation) {
+        this.group = group;
+        this.operation = operation;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    // Pass the System.nanoTime() taken when the operation began
+    public void record(long startNanos, boolean succeeded) {
+        long nanos = Math.max(0, System.nanoTime() - startNanos);
+        buckets[bucket(nanos)].increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (!succeeded) {
+            failures.increment();
+        }
+    }
+
+    public void record(long startNanos) {
+        record(startNanos, true);
+    }
+
+    @Override
+    public String getGroup() {
+        return group;
+    }
+
+    @Override
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        return seconds <= 0 ? 0 : getCount() / seconds;
+    }
+
+    @Override
+    public long getMeanMicros() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / count / 1000;
+    }
+
+    @Override
+    public long getP50Micros() {
+        return percentileNanos(0.50) / 1000;
+    }
+
+    @Override
+    public long getP90Micros() {
+        return percentileNanos(0.90) / 1000;
+    }
+
+    @Override
+    public long getP99Micros() {
+        return percentileNanos(0.99) / 1000;
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return maxNanos.get() / 1000;
+    }
+
+    // Counts are read bucket by bucket, so a reset racing with recording can lose a few in-flight samples
+    @Override
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        failures.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        startedAt = System.nanoTime();
+    }
+
+    // The upper end of the bucket holding the quantile, capped at the largest duration seen
+    long percentileNanos(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
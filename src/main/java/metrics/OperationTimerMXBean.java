@@ -0,0 +1,26 @@
+package metrics;
+
+// Latencies are in microseconds; throughput is operations per second since start-up or the last reset
+public interface OperationTimerMXBean {
+    String getGroup();
+
+    String getOperation();
+
+    long getCount();
+
+    long getFailures();
+
+    double getThroughput();
+
+    long getMeanMicros();
+
+    long getP50Micros();
+
+    long getP90Micros();
+
+    long getP99Micros();
+
+    long getMaxMicros();
+
+    void reset();
+}
@@ -1,6 +1,9 @@
 package model;
 
+import java.util.Locale;
+
 import ui.FormatUtils;
+import ui.ReportWriter;
 
 public class Exercise {
     private String name;
@@ -34,7 +37,7 @@ public class Exercise {
         this.sets = sets;
         this.reps = reps;
         this.weight = weight;
-        this.muscleGroup = muscleGroup.toLowerCase();
+        this.muscleGroup = muscleGroup.toLowerCase(Locale.ROOT);
     }
 
     public String getName() {
@@ -89,7 +92,7 @@ public class Exercise {
         if (muscleGroup == null || muscleGroup.isBlank()) {
             throw new IllegalArgumentException("Muscle group cannot be blank");
         }
-        this.muscleGroup = muscleGroup.toLowerCase();
+        this.muscleGroup = muscleGroup.toLowerCase(Locale.ROOT);
     }
 
     public double calculateTotalVolume() {
@@ -108,6 +111,12 @@ public class Exercise {
 
     }
 
+    // Same text as toString, written straight into a report buffer
+    public void writeTo(ReportWriter report) {
+        report.append(name).append(" - (").append(sets).append('x').append(reps).append(" @ ")
+                .appendNumber(weight).append(" lbs)");
+    }
+
     @Override
     public String toString() {
         return name + " - " + "(" + sets + "x" + reps + " @ " + FormatUtils.formatNumber(weight) + " lbs)";
@@ -0,0 +1,60 @@
+package model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+public class ExerciseNames {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final Map<String, String> ABBREVIATIONS = Map.of(
+            "db", "dumbbell",
+            "bb", "barbell",
+            "kb", "kettlebell",
+            "ohp", "overhead press",
+            "rdl", "romanian deadlift",
+            "bw", "bodyweight");
+
+    private ExerciseNames() {
+
+    }
+
+    // "Bench  Press", "bench press" and "Bench-Presses" all normalize to "bench press". Normalizing a normalized
+    // name returns it unchanged, so keys stored by the catalog and indexes can be compared with fresh ones.
+    public static String normalize(String name) {
+        String normalized = Normalizer.normalize(name, Normalizer.Form.NFKD);
+        normalized = DIACRITICS.matcher(normalized).replaceAll("");
+        normalized = NON_ALPHANUMERIC.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        if (normalized.isEmpty()) {
+            return normalized;
+        }
+
+        StringBuilder canonical = new StringBuilder(normalized.length());
+        for (String token : normalized.split(" ")) {
+            if (canonical.length() > 0) {
+                canonical.append(' ');
+            }
+            // "RDLs" is the plural of an abbreviation, so it expands like "RDL"
+            String singular = singular(token);
+            canonical.append(ABBREVIATIONS.getOrDefault(singular, singular));
+        }
+        return canonical.toString();
+    }
+
+    // False for a key stored under older normalization rules
+    public static boolean isCanonical(String key) {
+        return normalize(key).equals(key);
+    }
+
+    private static String singular(String token) {
+        if (token.length() > 4 && token.endsWith("es") && (token.endsWith("sses") || token.endsWith("shes")
+                || token.endsWith("ches") || token.endsWith("xes"))) {
+            return token.substring(0, token.length() - 2);
+        }
+        if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
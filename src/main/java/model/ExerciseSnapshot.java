@@ -0,0 +1,52 @@
+package model;
+
+// Exercises are mutable, so events carry a copy of the values at the time they happened
+public class ExerciseSnapshot {
+    private final String name;
+    private final int sets;
+    private final int reps;
+    private final double weight;
+    private final String muscleGroup;
+    private final String category;
+
+    private ExerciseSnapshot(Exercise exercise) {
+        this.name = exercise.getName();
+        this.sets = exercise.getSets();
+        this.reps = exercise.getReps();
+        this.weight = exercise.getWeight();
+        this.muscleGroup = exercise.getMuscleGroup();
+        this.category = exercise.classifyExercise();
+    }
+
+    public static ExerciseSnapshot of(Exercise exercise) {
+        return new ExerciseSnapshot(exercise);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSets() {
+        return sets;
+    }
+
+    public int getReps() {
+        return reps;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public String getMuscleGroup() {
+        return muscleGroup;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getVolume() {
+        return weight * (sets * reps);
+    }
+}
@@ -1,10 +1,28 @@
 package model;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import ui.ReportWriter;
+
+// id and version come first in the file so storage can check them without parsing the exercises. The checksum
+// ahead of them belongs to the file, not the workout.
+@JsonIgnoreProperties({ "checksum" })
+@JsonPropertyOrder({ "id", "version" })
 public class Workout {
+    private String id;
+    private long version;
     private ArrayList<Exercise> exercises;
     private String name;
+    private LocalDate date;
+    private transient SubmissionPublisher<WorkoutEvent> publisher;
+    private transient long eventSequence;
 
     public Workout() {
 
@@ -12,13 +30,36 @@ public class Workout {
 
     public Workout(String name) {
         this.name = name;
+        this.date = LocalDate.now();
         this.exercises = new ArrayList<>();
     }
 
+    // Assigned by the first save and kept by every later one
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    // Each save increments it; a save based on an older version is rejected
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
 
+    public LocalDate getDate() {
+        return date;
+    }
+
     public ArrayList<Exercise> getExercises() {
         return exercises;
     }
@@ -31,12 +72,57 @@ public class Workout {
         this.name = name;
     }
 
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
     public void addExercise(Exercise exercise) {
         exercises.add(exercise);
+        publish(WorkoutEvent.Type.ADDED, exercise, null, ExerciseSnapshot.of(exercise));
     }
 
     public boolean removeExercise(Exercise deletedExercise) {
-        return exercises.remove(deletedExercise);
+        boolean removed = exercises.remove(deletedExercise);
+        if (removed) {
+            publish(WorkoutEvent.Type.REMOVED, deletedExercise, ExerciseSnapshot.of(deletedExercise), null);
+        }
+        return removed;
+    }
+
+    // Exercises are edited in place, so editors report the values they replaced
+    public void exerciseEdited(Exercise exercise, ExerciseSnapshot before) {
+        publish(WorkoutEvent.Type.EDITED, exercise, before, ExerciseSnapshot.of(exercise));
+    }
+
+    public synchronized Flow.Publisher<WorkoutEvent> events() {
+        if (publisher == null) {
+            publisher = new SubmissionPublisher<>();
+        }
+        return publisher;
+    }
+
+    public synchronized void closeEvents() {
+        if (publisher != null) {
+            publisher.close();
+            publisher = null;
+        }
+    }
+
+    // The sequence number of the latest change, whether or not anyone was subscribed
+    @JsonIgnore
+    public synchronized long getEventSequence() {
+        return eventSequence;
+    }
+
+    // Never blocks the editor: a subscriber whose buffer is full misses the event instead, and can tell from the
+    // sequence numbers
+    private synchronized void publish(WorkoutEvent.Type type, Exercise exercise, ExerciseSnapshot before,
+            ExerciseSnapshot after) {
+        eventSequence++;
+        if (publisher == null) {
+            return;
+        }
+        publisher.offer(new WorkoutEvent(type, exercise, before, after, eventSequence), null);
     }
 
     public double calculateTotalWorkoutVolume() {
@@ -48,11 +134,18 @@ public class Workout {
     }
 
     public void printWorkout() {
+        printWorkout(new ReportWriter());
+    }
+
+    public void printWorkout(ReportWriter report) {
         int exerciseCounter = 1;
         for (Exercise e : exercises) {
-            System.out.println(exerciseCounter + ". " + e.toString());
+            report.append(exerciseCounter).append(". ");
+            e.writeTo(report);
+            report.newLine();
             exerciseCounter++;
         }
+        report.flush();
     }
 
     public int totalSets() {
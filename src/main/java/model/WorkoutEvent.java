@@ -0,0 +1,45 @@
+package model;
+
+public class WorkoutEvent {
+    public enum Type {
+        ADDED, EDITED, REMOVED
+    }
+
+    private final Type type;
+    private final Exercise exercise;
+    private final ExerciseSnapshot before;
+    private final ExerciseSnapshot after;
+    private final long sequence;
+
+    public WorkoutEvent(Type type, Exercise exercise, ExerciseSnapshot before, ExerciseSnapshot after, long sequence) {
+        this.type = type;
+        this.exercise = exercise;
+        this.before = before;
+        this.after = after;
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // Identity of the exercise the event is about; read values from the snapshots, not from here
+    public Exercise getExercise() {
+        return exercise;
+    }
+
+    // Null for ADDED
+    public ExerciseSnapshot getBefore() {
+        return before;
+    }
+
+    // Null for REMOVED
+    public ExerciseSnapshot getAfter() {
+        return after;
+    }
+
+    // Counts up by one per change to the workout, so a subscriber can tell it missed one
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,141 @@
+package server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import generator.WorkloadGenerator;
+import storage.WorkoutStorage;
+
+// Starts a server on a scratch data directory and drives it from concurrent clients:
+//   java server.LoadTest [clients] [seconds] [writePercent]
+// Reports requests per second and latency percentiles for the mixed read/write workload.
+public class LoadTest {
+    private static final int SEED_WORKOUTS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int writePercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        Path dataDir = Files.createTempDirectory("lift-metrics-load");
+        WorkoutStorage storage = new WorkoutStorage(dataDir);
+        WorkloadGenerator seed = new WorkloadGenerator(1).athletes(4);
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < SEED_WORKOUTS; i++) {
+            files.add(storage.save(seed.next()).fileName());
+        }
+
+        WorkoutServer server = WorkoutServer.start(storage, 0);
+        String base = "http://127.0.0.1:" + server.getPort();
+        System.out.println("Load test: " + clients + " clients, " + seconds + "s, " + writePercent + "% writes, "
+                + SEED_WORKOUTS + " seeded workouts");
+
+        try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+                ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            AtomicLong errors = new AtomicLong();
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int clientId = c;
+                results.add(workers.submit(() -> runClient(client, base, files, clientId, writePercent, deadline,
+                        storage, errors)));
+            }
+
+            long[] latencies = new long[0];
+            for (Future<long[]> result : results) {
+                long[] clientLatencies = result.get();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + clientLatencies.length);
+                System.arraycopy(clientLatencies, 0, latencies, offset, clientLatencies.length);
+            }
+            report(latencies, seconds, errors.get());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static long[] runClient(HttpClient client, String base, List<String> files, int clientId,
+            int writePercent, long deadline, WorkoutStorage storage, AtomicLong errors) throws InterruptedException {
+        Random random = new Random(clientId);
+        WorkloadGenerator generator = new WorkloadGenerator(clientId + 1000);
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = nextRequest(random, generator, base, files, writePercent, storage);
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static HttpRequest nextRequest(Random random, WorkloadGenerator generator, String base, List<String> files,
+            int writePercent, WorkoutStorage storage) {
+        if (random.nextInt(100) < writePercent) {
+            String body;
+            try {
+                body = storage.getMapper().writeValueAsString(generator.next());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return HttpRequest.newBuilder(URI.create(base + "/workouts"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+        String file = encode(files.get(random.nextInt(files.size())));
+        String path = switch (random.nextInt(4)) {
+            case 0 -> "/workouts/" + file;
+            case 1 -> "/workouts/" + file + "/analytics";
+            case 2 -> "/compare?a=" + file + "&b=" + encode(files.get(random.nextInt(files.size())));
+            default -> "/breakdown?period=week";
+        };
+        return HttpRequest.newBuilder(URI.create(base + path)).GET().build();
+    }
+
+    private static void report(long[] latencies, int seconds, long errors) {
+        Arrays.sort(latencies);
+        System.out.println("Requests:   " + latencies.length + " (" + errors + " errors)");
+        System.out.printf("Throughput: %.0f req/s%n", latencies.length / (double) seconds);
+        System.out.printf("Latency:    p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,330 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import analytics.AnalyticsCache;
+import analytics.AnalyticsEngine;
+import analytics.HistoryIndexes;
+import analytics.PeriodRollup;
+import analytics.RollupPeriod;
+import metrics.Metrics;
+import model.Workout;
+import storage.SaveOutcome;
+import storage.TenantRegistry;
+import storage.WorkoutStorage;
+
+// Local HTTP/JSON API over one WorkoutStorage plus any number of tenant storages. Every request runs on its own
+// virtual thread; saves and deletes lock only the stripe of the workout they touch, and each tenant has its own
+// storage and indexes. Every route below is also served under /tenants/{id} for that tenant's data.
+//
+//   GET    /workouts                  catalog entries
+//   POST   /workouts                  save the workout in the body, returns its file name
+//   GET    /workouts/{file}           one workout
+//   DELETE /workouts/{file}
+//   GET    /workouts/{file}/analytics top/bottom exercises and push/pull/legs split
+//   GET    /compare?a={file}&b={file}
+//   GET    /breakdown?period=week|month&limit=n
+public class WorkoutServer {
+    private static final String WORKOUTS = "/workouts";
+    private static final String TENANTS = "/tenants/";
+    private static final String ANALYTICS_SUFFIX = "/analytics";
+    private static final int DEFAULT_BREAKDOWN_PERIODS = 6;
+
+    private final ObjectMapper mapper;
+    private final Tenant defaultTenant;
+    private final TenantRegistry registry;
+    private final AnalyticsCache analyticsCache = new AnalyticsCache(new AnalyticsEngine());
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private WorkoutServer(WorkoutStorage storage, TenantRegistry registry, HttpServer server) {
+        this.mapper = storage.getMapper();
+        this.defaultTenant = new Tenant(storage);
+        this.registry = registry;
+        this.server = server;
+        server.createContext("/", exchange -> route(exchange, defaultTenant, exchange.getRequestURI().getPath()));
+        server.createContext(TENANTS, this::handleTenant);
+        server.setExecutor(executor);
+    }
+
+    // Tenants live under the default storage's data directory
+    public static WorkoutServer start(WorkoutStorage storage, int port) throws IOException {
+        return start(storage, new TenantRegistry(storage.getDataDirectory()), port);
+    }
+
+    // Binds to the loopback interface only; port 0 picks a free port. Operation metrics are exported over JMX.
+    public static WorkoutServer start(WorkoutStorage storage, TenantRegistry registry, int port) throws IOException {
+        Metrics.registerMBeans();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        WorkoutServer workoutServer = new WorkoutServer(storage, registry, server);
+        server.start();
+        return workoutServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handleTenant(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(TENANTS.length());
+        int slash = path.indexOf('/');
+        String tenantId = slash < 0 ? path : path.substring(0, slash);
+        WorkoutStorage storage = registry.storage(tenantId);
+        if (storage == null) {
+            try (exchange) {
+                sendError(exchange, 400, "Invalid tenant id");
+            }
+            return;
+        }
+        route(exchange, new Tenant(storage), slash < 0 ? "/" : path.substring(slash));
+    }
+
+    private void route(HttpExchange exchange, Tenant tenant, String path) throws IOException {
+        try (exchange) {
+            if (path.equals(WORKOUTS) || path.startsWith(WORKOUTS + "/")) {
+                handleWorkouts(exchange, tenant, path);
+            } else if (path.equals("/compare")) {
+                handleCompare(exchange, tenant);
+            } else if (path.equals("/breakdown")) {
+                handleBreakdown(exchange, tenant);
+            } else {
+                sendError(exchange, 404, "No such route: " + path);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Request failed: " + e.getMessage());
+            sendError(exchange, 500, "Internal error");
+        }
+    }
+
+    private void handleWorkouts(HttpExchange exchange, Tenant tenant, String path) throws IOException {
+        WorkoutStorage storage = tenant.storage;
+        String method = exchange.getRequestMethod();
+        if (path.equals(WORKOUTS) || path.equals(WORKOUTS + "/")) {
+            switch (method) {
+                case "GET" -> sendJson(exchange, 200, storage.getCatalog().entries());
+                case "POST" -> saveWorkout(exchange, storage);
+                default -> sendError(exchange, 405, "Method not allowed");
+            }
+            return;
+        }
+
+        String fileName = path.substring(WORKOUTS.length() + 1);
+        boolean analytics = fileName.endsWith(ANALYTICS_SUFFIX);
+        if (analytics) {
+            fileName = fileName.substring(0, fileName.length() - ANALYTICS_SUFFIX.length());
+        }
+        if (!isWorkoutFileName(fileName)) {
+            sendError(exchange, 400, "Invalid workout file name");
+            return;
+        }
+
+        if (analytics && method.equals("GET")) {
+            Workout workout = findWorkout(exchange, storage, fileName);
+            if (workout != null) {
+                sendJson(exchange, 200, analyticsCache.analyze(workout));
+            }
+        } else if (analytics) {
+            sendError(exchange, 405, "Method not allowed");
+        } else if (method.equals("GET")) {
+            Workout workout = findWorkout(exchange, storage, fileName);
+            if (workout != null) {
+                sendJson(exchange, 200, workout);
+            }
+        } else if (method.equals("PUT")) {
+            replaceWorkout(exchange, storage, fileName);
+        } else if (method.equals("DELETE")) {
+            if (storage.deleteWorkout(fileName)) {
+                exchange.sendResponseHeaders(204, -1);
+            } else {
+                sendError(exchange, 404, "No such workout: " + fileName);
+            }
+        } else {
+            sendError(exchange, 405, "Method not allowed");
+        }
+    }
+
+    private void saveWorkout(HttpExchange exchange, WorkoutStorage storage) throws IOException {
+        Workout workout = readWorkout(exchange);
+        if (workout == null) {
+            return;
+        }
+        SaveOutcome outcome = storage.save(workout);
+        switch (outcome.result()) {
+            case SAVED -> sendJson(exchange, 201,
+                    Map.of("fileName", outcome.fileName(), "id", workout.getId(), "version", workout.getVersion()));
+            case CONFLICT -> sendError(exchange, 409, "Workout was changed since version " + workout.getVersion());
+            case NOT_FOUND -> sendError(exchange, 404, "No such workout: " + outcome.fileName());
+            case FAILED -> sendError(exchange, 500, "Could not save workout");
+        }
+    }
+
+    // The body must carry the id and version it was loaded with; 409 means someone else saved the file since
+    private void replaceWorkout(HttpExchange exchange, WorkoutStorage storage, String fileName) throws IOException {
+        Workout workout = readWorkout(exchange);
+        if (workout == null) {
+            return;
+        }
+        if (workout.getId() == null) {
+            sendError(exchange, 400, "Workout id and version are required; load the workout first");
+            return;
+        }
+        switch (storage.replace(fileName, workout)) {
+            case SAVED -> sendJson(exchange, 200,
+                    Map.of("fileName", fileName, "id", workout.getId(), "version", workout.getVersion()));
+            case CONFLICT -> sendError(exchange, 409, "Workout was changed since version " + workout.getVersion());
+            case NOT_FOUND -> sendError(exchange, 404, "No such workout: " + fileName);
+            case FAILED -> sendError(exchange, 500, "Could not save workout");
+        }
+    }
+
+    // Sends a 400 and returns null if the body is not a named workout
+    private Workout readWorkout(HttpExchange exchange) throws IOException {
+        Workout workout;
+        try (InputStream body = exchange.getRequestBody()) {
+            workout = mapper.readValue(body, Workout.class);
+        } catch (JsonProcessingException e) {
+            sendError(exchange, 400, "Invalid workout JSON: " + e.getOriginalMessage());
+            return null;
+        }
+        if (workout.getName() == null || workout.getName().isBlank()) {
+            sendError(exchange, 400, "Workout name is required");
+            return null;
+        }
+        return workout;
+    }
+
+    private void handleCompare(HttpExchange exchange, Tenant tenant) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+        Map<String, String> params = queryParameters(exchange);
+        String fileA = params.get("a");
+        String fileB = params.get("b");
+        if (!isWorkoutFileName(fileA) || !isWorkoutFileName(fileB)) {
+            sendError(exchange, 400, "Parameters a and b must name workout files");
+            return;
+        }
+        Workout a = findWorkout(exchange, tenant.storage, fileA);
+        if (a == null) {
+            return;
+        }
+        Workout b = findWorkout(exchange, tenant.storage, fileB);
+        if (b == null) {
+            return;
+        }
+        sendJson(exchange, 200, analyticsCache.compare(a, b));
+    }
+
+    private void handleBreakdown(HttpExchange exchange, Tenant tenant) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+        Map<String, String> params = queryParameters(exchange);
+        RollupPeriod period = switch (params.getOrDefault("period", "week")) {
+            case "day" -> RollupPeriod.DAY;
+            case "week" -> RollupPeriod.WEEK;
+            case "month" -> RollupPeriod.MONTH;
+            default -> null;
+        };
+        int limit = parseLimit(params.get("limit"));
+        if (period == null || limit < 1) {
+            sendError(exchange, 400, "period must be day, week or month and limit a positive number");
+            return;
+        }
+        Map<String, PeriodRollup> breakdown = new LinkedHashMap<>();
+        tenant.indexes.rollups().latest(period, limit)
+                .forEach(entry -> breakdown.put(entry.getKey(), entry.getValue()));
+        sendJson(exchange, 200, breakdown);
+    }
+
+    private Workout findWorkout(HttpExchange exchange, WorkoutStorage storage, String fileName) throws IOException {
+        if (storage.getCatalog().get(fileName) == null) {
+            sendError(exchange, 404, "No such workout: " + fileName);
+            return null;
+        }
+        Workout workout = storage.loadWorkout(fileName);
+        if (workout == null) {
+            sendError(exchange, 404, "No such workout: " + fileName);
+        }
+        return workout;
+    }
+
+    // File names are resolved against the data directory, so anything that could leave it is rejected
+    private static boolean isWorkoutFileName(String fileName) {
+        return fileName != null && fileName.endsWith(".json") && !fileName.startsWith(".")
+                && !fileName.contains("/") && !fileName.contains("\\") && !fileName.contains("..");
+    }
+
+    private static int parseLimit(String value) {
+        if (value == null) {
+            return DEFAULT_BREAKDOWN_PERIODS;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> params = new LinkedHashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, Map.of("error", message));
+    }
+
+    // The registry keeps each tenant's storage and the storage keeps its indexes, so this holds no state of its own
+    private static final class Tenant {
+        private final WorkoutStorage storage;
+        private final HistoryIndexes indexes;
+
+        private Tenant(WorkoutStorage storage) {
+            this.storage = storage;
+            this.indexes = HistoryIndexes.attach(storage);
+        }
+    }
+}
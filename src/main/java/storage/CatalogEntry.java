@@ -0,0 +1,131 @@
+package storage;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.TreeSet;
+
+import model.Exercise;
+import model.ExerciseNames;
+import model.Workout;
+
+public class CatalogEntry {
+    private String fileName;
+    private String id;
+    private long version;
+    private String workoutName;
+    private LocalDate date;
+    private long savedAt;
+    private double totalVolume;
+    private int exerciseCount;
+    private Set<String> exercises = new TreeSet<>();
+    private Set<String> muscleGroups = new TreeSet<>();
+    private Set<String> categories = new TreeSet<>();
+
+    public CatalogEntry() {
+
+    }
+
+    public CatalogEntry(String fileName, Workout workout, long savedAt) {
+        this.fileName = fileName;
+        this.id = workout.getId();
+        this.version = workout.getVersion();
+        this.workoutName = workout.getName();
+        this.date = workout.getDate();
+        this.savedAt = savedAt;
+        this.totalVolume = workout.calculateTotalWorkoutVolume();
+        this.exerciseCount = workout.size();
+        for (Exercise e : workout.getExercises()) {
+            exercises.add(ExerciseNames.normalize(e.getName()));
+            muscleGroups.add(e.getMuscleGroup());
+            categories.add(e.classifyExercise());
+        }
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getWorkoutName() {
+        return workoutName;
+    }
+
+    public void setWorkoutName(String workoutName) {
+        this.workoutName = workoutName;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    public void setSavedAt(long savedAt) {
+        this.savedAt = savedAt;
+    }
+
+    public double getTotalVolume() {
+        return totalVolume;
+    }
+
+    public void setTotalVolume(double totalVolume) {
+        this.totalVolume = totalVolume;
+    }
+
+    public int getExerciseCount() {
+        return exerciseCount;
+    }
+
+    public void setExerciseCount(int exerciseCount) {
+        this.exerciseCount = exerciseCount;
+    }
+
+    public Set<String> getExercises() {
+        return exercises;
+    }
+
+    public void setExercises(Set<String> exercises) {
+        this.exercises = exercises;
+    }
+
+    public Set<String> getMuscleGroups() {
+        return muscleGroups;
+    }
+
+    public void setMuscleGroups(Set<String> muscleGroups) {
+        this.muscleGroups = muscleGroups;
+    }
+
+    public Set<String> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Set<String> categories) {
+        this.categories = categories;
+    }
+}
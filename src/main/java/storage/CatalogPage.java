@@ -0,0 +1,41 @@
+package storage;
+
+import java.util.List;
+
+public class CatalogPage {
+    private final List<CatalogEntry> entries;
+    private final int page;
+    private final int pageSize;
+    private final int totalMatches;
+
+    public CatalogPage(List<CatalogEntry> entries, int page, int pageSize, int totalMatches) {
+        this.entries = List.copyOf(entries);
+        this.page = page;
+        this.pageSize = pageSize;
+        this.totalMatches = totalMatches;
+    }
+
+    public List<CatalogEntry> getEntries() {
+        return entries;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getTotalMatches() {
+        return totalMatches;
+    }
+
+    public int pageCount() {
+        return Math.max(1, (totalMatches + pageSize - 1) / pageSize);
+    }
+
+    public boolean hasNext() {
+        return page < pageCount() - 1;
+    }
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+}
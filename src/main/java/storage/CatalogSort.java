@@ -0,0 +1,34 @@
+package storage;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+public enum CatalogSort {
+    DATE("date", Comparator.comparing((CatalogEntry e) -> e.getDate() != null ? e.getDate() : LocalDate.MIN)
+            .thenComparingLong(CatalogEntry::getSavedAt)
+            .reversed()),
+    NAME("name", Comparator.comparing((CatalogEntry e) -> e.getWorkoutName(), String.CASE_INSENSITIVE_ORDER)),
+    VOLUME("volume", Comparator.comparingDouble(CatalogEntry::getTotalVolume).reversed());
+
+    private final String label;
+    private final Comparator<CatalogEntry> order;
+
+    CatalogSort(String label, Comparator<CatalogEntry> order) {
+        this.label = label;
+        // File names are unique, so ties never collapse two entries in a sorted set
+        this.order = order.thenComparing(CatalogEntry::getFileName);
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public Comparator<CatalogEntry> order() {
+        return order;
+    }
+
+    public CatalogSort next() {
+        CatalogSort[] sorts = values();
+        return sorts[(ordinal() + 1) % sorts.length];
+    }
+}
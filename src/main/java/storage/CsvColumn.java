@@ -0,0 +1,58 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import model.Exercise;
+import model.Workout;
+
+// The columns CsvExporter can write, in their default order
+public enum CsvColumn {
+    FILE, WORKOUT, DATE, EXERCISE, SETS, REPS, WEIGHT, VOLUME, MUSCLE_GROUP, CATEGORY;
+
+    public String header() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // Parses a comma-separated header list such as "date,exercise,volume"; returns null if any name is unknown
+    public static List<CsvColumn> parse(String headers) {
+        List<CsvColumn> columns = new ArrayList<>();
+        for (String header : headers.split(",")) {
+            CsvColumn column = fromHeader(header.strip());
+            if (column == null) {
+                return null;
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    public static CsvColumn fromHeader(String header) {
+        for (CsvColumn column : values()) {
+            if (column.header().equalsIgnoreCase(header)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    void write(StringBuilder row, String fileName, Workout workout, Exercise exercise) {
+        switch (this) {
+            case FILE -> CsvExporter.appendText(row, fileName);
+            case WORKOUT -> CsvExporter.appendText(row, workout.getName());
+            case DATE -> {
+                if (workout.getDate() != null) {
+                    row.append(workout.getDate());
+                }
+            }
+            case EXERCISE -> CsvExporter.appendText(row, exercise.getName());
+            case SETS -> row.append(exercise.getSets());
+            case REPS -> row.append(exercise.getReps());
+            case WEIGHT -> CsvExporter.appendNumber(row, exercise.getWeight());
+            case VOLUME -> CsvExporter.appendNumber(row, exercise.calculateTotalVolume());
+            case MUSCLE_GROUP -> CsvExporter.appendText(row, exercise.getMuscleGroup());
+            case CATEGORY -> row.append(exercise.classifyExercise());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+
+import model.Exercise;
+import model.Workout;
+
+// Writes one RFC 4180 row per exercise. Workouts are loaded one file at a time and each row is built in a
+// reused buffer, so memory stays flat however many workouts are exported.
+public class CsvExporter {
+    private static final String LINE_END = "\r\n";
+    // Doubles below this print without an exponent through the long path
+    private static final double PLAIN_LONG_LIMIT = 1e15;
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private final WorkoutStorage storage;
+
+    public CsvExporter(WorkoutStorage storage) {
+        this.storage = storage;
+    }
+
+    public long export(Writer out, List<CsvColumn> columns, WorkoutQuery query) throws IOException {
+        Writer writer = buffered(out);
+        StringBuilder row = new StringBuilder(256);
+        writeHeader(writer, row, columns);
+        long rows = 0;
+        // Candidates come from the catalog indexes, so filtered exports only open the files that can match
+        for (String fileName : storage.explain(query).getCandidates()) {
+            Workout workout = storage.loadWorkout(fileName);
+            if (workout != null && query.matches(workout)) {
+                rows += writeRows(writer, row, columns, fileName, workout, query);
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    // Writes workouts that were never saved, such as generated ones; the file column is left empty
+    public static long export(Writer out, List<CsvColumn> columns, Iterator<Workout> workouts) throws IOException {
+        Writer writer = buffered(out);
+        StringBuilder row = new StringBuilder(256);
+        writeHeader(writer, row, columns);
+        long rows = 0;
+        while (workouts.hasNext()) {
+            rows += writeRows(writer, row, columns, null, workouts.next(), null);
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static Writer buffered(Writer out) {
+        return out instanceof BufferedWriter ? out : new BufferedWriter(out, WRITE_BUFFER);
+    }
+
+    private static void writeHeader(Writer writer, StringBuilder row, List<CsvColumn> columns) throws IOException {
+        row.setLength(0);
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            row.append(columns.get(i).header());
+        }
+        writer.append(row).append(LINE_END);
+    }
+
+    private static int writeRows(Writer writer, StringBuilder row, List<CsvColumn> columns, String fileName,
+            Workout workout, WorkoutQuery query) throws IOException {
+        int rows = 0;
+        for (Exercise exercise : workout.getExercises()) {
+            if (query != null && !query.exerciseMatches(exercise)) {
+                continue;
+            }
+            row.setLength(0);
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                columns.get(i).write(row, fileName, workout, exercise);
+            }
+            writer.append(row).append(LINE_END);
+            rows++;
+        }
+        return rows;
+    }
+
+    static void appendText(StringBuilder row, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    // Locale-independent and never in exponent form, so spreadsheets read every value as a number
+    static void appendNumber(StringBuilder row, double value) {
+        if (value == (long) value && Math.abs(value) < PLAIN_LONG_LIMIT) {
+            row.append((long) value);
+        } else if (Double.isFinite(value)) {
+            row.append(BigDecimal.valueOf(value).stripTrailingZeros().toPlainString());
+        }
+    }
+}
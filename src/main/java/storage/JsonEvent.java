@@ -0,0 +1,32 @@
+package storage;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.akyro.Json")
+@Label("JSON (De)serialization")
+@Category({ "Lift Metrics", "JSON" })
+@Description("Jackson reading or writing one workout or index file")
+@StackTrace(false)
+class JsonEvent extends Event {
+    @Label("Direction")
+    String direction;
+
+    @Label("Type")
+    String type;
+
+    @Label("File")
+    String file;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -0,0 +1,41 @@
+package storage;
+
+import java.util.List;
+
+public class QueryPlan {
+    private final List<String> indexesUsed;
+    private final List<String> candidates;
+    private final int catalogSize;
+
+    public QueryPlan(List<String> indexesUsed, List<String> candidates, int catalogSize) {
+        this.indexesUsed = indexesUsed;
+        this.candidates = candidates;
+        this.catalogSize = catalogSize;
+    }
+
+    public List<String> getIndexesUsed() {
+        return indexesUsed;
+    }
+
+    public List<String> getCandidates() {
+        return candidates;
+    }
+
+    public int getCatalogSize() {
+        return catalogSize;
+    }
+
+    public boolean isFullScan() {
+        return indexesUsed.isEmpty();
+    }
+
+    public String explain() {
+        String access = isFullScan() ? "full scan" : "index " + String.join(" + ", indexesUsed);
+        return access + ": " + candidates.size() + " of " + catalogSize + " workouts deserialized";
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+}
@@ -0,0 +1,8 @@
+package storage;
+
+// What a save did, and the file holding the workout; the file name is null when a new workout was not written
+public record SaveOutcome(SaveResult result, String fileName) {
+    public boolean isSaved() {
+        return result == SaveResult.SAVED;
+    }
+}
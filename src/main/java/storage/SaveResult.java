@@ -0,0 +1,9 @@
+package storage;
+
+public enum SaveResult {
+    SAVED,
+    // The file was saved by someone else since the workout was loaded from it, or holds a different workout
+    CONFLICT,
+    NOT_FOUND,
+    FAILED
+}
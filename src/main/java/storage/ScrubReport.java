@@ -0,0 +1,100 @@
+package storage;
+
+import java.util.List;
+import java.util.Map;
+
+public class ScrubReport {
+    private final int checked;
+    private final int verified;
+    private final int unchecked;
+    private final int mismatched;
+    private final int unparseable;
+    private final long bytes;
+    private final long elapsedMillis;
+    // File name -> why it was moved to the quarantine directory
+    private final Map<String, String> quarantined;
+    // File name -> the error reading it; these are left where they are
+    private final Map<String, String> unreadable;
+    // File name -> what is wrong with it and why it could not be quarantined; these are still in place
+    private final Map<String, String> unmoved;
+    private final List<String> leftovers;
+    private final boolean leftoversRemoved;
+
+    public ScrubReport(int checked, int verified, int unchecked, int mismatched, int unparseable, long bytes,
+            long elapsedMillis, Map<String, String> quarantined, Map<String, String> unreadable,
+            Map<String, String> unmoved, List<String> leftovers, boolean leftoversRemoved) {
+        this.checked = checked;
+        this.verified = verified;
+        this.unchecked = unchecked;
+        this.mismatched = mismatched;
+        this.unparseable = unparseable;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+        this.quarantined = quarantined;
+        this.unreadable = unreadable;
+        this.unmoved = unmoved;
+        this.leftovers = leftovers;
+        this.leftoversRemoved = leftoversRemoved;
+    }
+
+    public int getChecked() {
+        return checked;
+    }
+
+    // Files whose checksum matched
+    public int getVerified() {
+        return verified;
+    }
+
+    // Files saved before checksums were written; they were only checked to parse
+    public int getUnchecked() {
+        return unchecked;
+    }
+
+    // Quarantined because the checksum did not match
+    public int getMismatched() {
+        return mismatched;
+    }
+
+    // Quarantined because a file without a checksum did not parse as a workout
+    public int getUnparseable() {
+        return unparseable;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedMillis == 0 ? 0 : bytes / 1e6 / (elapsedMillis / 1e3);
+    }
+
+    public Map<String, String> getQuarantined() {
+        return quarantined;
+    }
+
+    public Map<String, String> getUnreadable() {
+        return unreadable;
+    }
+
+    public Map<String, String> getUnmoved() {
+        return unmoved;
+    }
+
+    // Temporary files of saves that never finished; each workout file still holds the version before that save
+    public List<String> getLeftovers() {
+        return leftovers;
+    }
+
+    public boolean isLeftoversRemoved() {
+        return leftoversRemoved;
+    }
+
+    public boolean isClean() {
+        return quarantined.isEmpty() && unreadable.isEmpty() && unmoved.isEmpty();
+    }
+}
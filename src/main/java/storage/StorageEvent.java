@@ -0,0 +1,40 @@
+package storage;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Only created while Flight Recorder is running, and fields are filled in only after shouldCommit(), so an
+// operation nobody records pays for a flag check
+@Name("com.akyro.Storage")
+@Label("Storage Operation")
+@Category({ "Lift Metrics", "Storage" })
+@Description("A save, load, delete, list or index scan in one data directory")
+@StackTrace(false)
+class StorageEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Data Directory")
+    String directory;
+
+    @Label("File")
+    String fileName;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+
+    @Label("Files")
+    int fileCount;
+
+    @Label("Exercises")
+    int exerciseCount;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -0,0 +1,23 @@
+package storage;
+
+import model.Workout;
+
+// Callbacks run on the saving thread while it holds the listener's monitor. Listeners that rebuild from
+// disk should read through WorkoutStorage.scan(this) from a synchronized method. Every workout passed in, and
+// every one a scan returns, has a date: files saved before workouts were dated get their modification date.
+public interface StorageListener {
+    void workoutSaved(String fileName, Workout workout);
+
+    void workoutDeleted(String fileName, Workout workout);
+
+    // The file was overwritten with a newer version of the same workout
+    default void workoutReplaced(String fileName, Workout previous, Workout workout) {
+        workoutDeleted(fileName, previous);
+        workoutSaved(fileName, workout);
+    }
+
+    // Files changed in ways the listener was not told about, such as a scrub quarantining corrupt ones. Listeners
+    // holding state derived from the files rebuild it from disk.
+    default void rebuild() {
+    }
+}
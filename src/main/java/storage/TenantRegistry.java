@@ -0,0 +1,44 @@
+package storage;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// One WorkoutStorage per athlete, each rooted at <root>/tenants/<id> with its own indexes and lock stripes,
+// so saves, deletes and index rebuilds for different tenants never wait on each other
+public class TenantRegistry {
+    private static final String TENANTS_DIR = "tenants";
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final Path root;
+    private final Map<String, WorkoutStorage> storages = new ConcurrentHashMap<>();
+
+    public TenantRegistry(Path root) {
+        this.root = root;
+    }
+
+    // Returns null for ids that could escape the tenants directory
+    public WorkoutStorage storage(String tenantId) {
+        if (!isValidTenantId(tenantId)) {
+            return null;
+        }
+        return storages.computeIfAbsent(tenantId, id -> new WorkoutStorage(tenantDirectory(id)));
+    }
+
+    public List<String> openTenants() {
+        List<String> tenants = new ArrayList<>(storages.keySet());
+        tenants.sort(null);
+        return tenants;
+    }
+
+    public Path tenantDirectory(String tenantId) {
+        return root.resolve(TENANTS_DIR).resolve(tenantId);
+    }
+
+    public static boolean isValidTenantId(String tenantId) {
+        return tenantId != null && TENANT_ID.matcher(tenantId).matches();
+    }
+}
@@ -0,0 +1,468 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import model.ExerciseNames;
+import model.Workout;
+
+// catalog.json is a snapshot and catalog.journal the changes since, one JSON line each, so a save appends a line
+// instead of rewriting the catalog and saves from two processes add to it rather than overwrite each other. The
+// data directory stays the source of truth: loading checks every file's modification time against its entry,
+// and a read notices the directory's own time moving when files are added or removed behind the catalog's back.
+public class WorkoutCatalog implements StorageListener {
+    private static final String INDEX_FILE = "catalog.json";
+    private static final String JOURNAL_FILE = "catalog.journal";
+    // The journal is folded into a new snapshot once it is longer than this or than the catalog itself
+    private static final int MIN_COMPACTION = 256;
+
+    private final WorkoutStorage storage;
+    private TreeMap<String, CatalogEntry> entries;
+    // The data directory's modification time when the catalog last matched it
+    private FileTime directoryModified;
+    private int journalLength;
+    // Changes the catalog found on disk that no save or delete through this storage reported
+    private long outsideChanges;
+    // How many cataloged files were last modified at each time, for the generation's newest time
+    private final TreeMap<Long, Integer> savedTimes = new TreeMap<>();
+    private final Map<String, String> byId = new HashMap<>();
+    private final Map<String, Set<String>> byExercise = new HashMap<>();
+    private final Map<String, Set<String>> byMuscleGroup = new HashMap<>();
+    private final Map<String, Set<String>> byCategory = new HashMap<>();
+    private final TreeMap<LocalDate, Set<String>> byDate = new TreeMap<>();
+    private final Map<CatalogSort, TreeSet<CatalogEntry>> sorted = new EnumMap<>(CatalogSort.class);
+
+    WorkoutCatalog(WorkoutStorage storage) {
+        this.storage = storage;
+        for (CatalogSort sort : CatalogSort.values()) {
+            sorted.put(sort, new TreeSet<>(sort.order()));
+        }
+    }
+
+    @Override
+    public synchronized void workoutSaved(String fileName, Workout workout) {
+        if (entries == null && load()) {
+            return;
+        }
+        CatalogEntry entry = new CatalogEntry(fileName, workout, lastModified(fileName));
+        index(entry);
+        append(entry);
+        ownChange();
+    }
+
+    @Override
+    public synchronized void workoutDeleted(String fileName, Workout workout) {
+        if (entries == null && load()) {
+            return;
+        }
+        unindex(fileName);
+        appendRemoval(fileName);
+        ownChange();
+    }
+
+    // Indexing a file name replaces its old entry
+    @Override
+    public synchronized void workoutReplaced(String fileName, Workout previous, Workout workout) {
+        workoutSaved(fileName, workout);
+    }
+
+    // The file holding the workout with this id, or null if none does
+    public synchronized String fileFor(String id) {
+        ensureLoaded();
+        return byId.get(id);
+    }
+
+    public synchronized CatalogEntry get(String fileName) {
+        ensureLoaded();
+        return entries.get(fileName);
+    }
+
+    public synchronized List<CatalogEntry> entries() {
+        ensureLoaded();
+        return new ArrayList<>(entries.values());
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return entries.size();
+    }
+
+    // The file count and newest modification time. Indexes derived from the files store it with their own
+    // snapshot and rebuild when it no longer matches, so files written by another process, a generator or by
+    // hand are not missed.
+    public synchronized String generation() {
+        ensureLoaded();
+        return entries.size() + ":" + (savedTimes.isEmpty() ? 0 : savedTimes.lastKey());
+    }
+
+    // Goes up each time the catalog finds files changed behind this storage's back. An index that was current
+    // at one count has missed those changes once it moves.
+    public synchronized long outsideChanges() {
+        ensureLoaded();
+        return outsideChanges;
+    }
+
+    // Before this storage writes: picks up files another process wrote since the last read, which the write
+    // would otherwise hide by moving the directory's time. A catalog not loaded yet checks every file when it is.
+    synchronized void catchUp() {
+        if (entries != null) {
+            ensureLoaded();
+        }
+    }
+
+    // Served from the in-memory sort orders; no workout file is opened or stat'ed. Names starting with the
+    // search text come before names that only contain it.
+    public synchronized CatalogPage page(CatalogSort sort, String search, int page, int pageSize) {
+        ensureLoaded();
+        TreeSet<CatalogEntry> ordered = sorted.get(sort);
+        int offset = page * pageSize;
+        List<CatalogEntry> visible = new ArrayList<>(pageSize);
+        if (search == null || search.isBlank()) {
+            for (CatalogEntry entry : ordered) {
+                if (visible.size() == pageSize) {
+                    break;
+                }
+                if (offset-- <= 0) {
+                    visible.add(entry);
+                }
+            }
+            return new CatalogPage(visible, page, pageSize, ordered.size());
+        }
+
+        String term = search.strip().toLowerCase(Locale.ROOT);
+        int matches = 0;
+        for (boolean prefixPass : new boolean[] { true, false }) {
+            for (CatalogEntry entry : ordered) {
+                String name = entry.getWorkoutName().toLowerCase(Locale.ROOT);
+                boolean prefix = name.startsWith(term);
+                boolean match = prefixPass ? prefix : !prefix && (name.contains(term)
+                        || entry.getFileName().toLowerCase(Locale.ROOT).contains(term));
+                if (!match) {
+                    continue;
+                }
+                if (matches >= offset && visible.size() < pageSize) {
+                    visible.add(entry);
+                }
+                matches++;
+            }
+        }
+        return new CatalogPage(visible, page, pageSize, matches);
+    }
+
+    public synchronized QueryPlan plan(WorkoutQuery query) {
+        ensureLoaded();
+        List<String> indexesUsed = new ArrayList<>();
+        List<Set<String>> candidateSets = new ArrayList<>();
+
+        if (query.getExerciseName() != null) {
+            indexesUsed.add("exercise");
+            candidateSets.add(byExercise.getOrDefault(query.getExerciseName(), Set.of()));
+        }
+        if (query.getMuscleGroup() != null) {
+            indexesUsed.add("muscleGroup");
+            candidateSets.add(byMuscleGroup.getOrDefault(query.getMuscleGroup(), Set.of()));
+        }
+        if (query.getCategory() != null) {
+            indexesUsed.add("category");
+            candidateSets.add(byCategory.getOrDefault(query.getCategory(), Set.of()));
+        }
+        if (query.getFrom() != null || query.getTo() != null) {
+            indexesUsed.add("date");
+            LocalDate from = query.getFrom() != null ? query.getFrom() : LocalDate.MIN;
+            LocalDate to = query.getTo() != null ? query.getTo() : LocalDate.MAX;
+            Set<String> inRange = new HashSet<>();
+            byDate.subMap(from, true, to, true).values().forEach(inRange::addAll);
+            candidateSets.add(inRange);
+        }
+
+        if (candidateSets.isEmpty()) {
+            return new QueryPlan(indexesUsed, new ArrayList<>(entries.keySet()), entries.size());
+        }
+        // Intersect starting from the most selective index
+        candidateSets.sort(Comparator.comparingInt(Set::size));
+        Set<String> candidates = new HashSet<>(candidateSets.get(0));
+        for (int i = 1; i < candidateSets.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(candidateSets.get(i));
+        }
+        List<String> sorted = new ArrayList<>(candidates);
+        sorted.sort(null);
+        return new QueryPlan(indexesUsed, sorted, entries.size());
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        clear();
+        if (!Files.isDirectory(storage.getDataDirectory())) {
+            return;
+        }
+        FileTime modified = directoryModified();
+        storage.scan(this).forEach((fileName, workout) ->
+                index(new CatalogEntry(fileName, workout, lastModified(fileName))));
+        compact();
+        directoryModified = modified;
+        outsideChanges++;
+    }
+
+    private void index(CatalogEntry entry) {
+        unindex(entry.getFileName());
+        String fileName = entry.getFileName();
+        entries.put(fileName, entry);
+        savedTimes.merge(entry.getSavedAt(), 1, Integer::sum);
+        if (entry.getId() != null) {
+            byId.put(entry.getId(), fileName);
+        }
+        sorted.values().forEach(set -> set.add(entry));
+        for (String exercise : entry.getExercises()) {
+            byExercise.computeIfAbsent(exercise, k -> new HashSet<>()).add(fileName);
+        }
+        for (String muscleGroup : entry.getMuscleGroups()) {
+            byMuscleGroup.computeIfAbsent(muscleGroup, k -> new HashSet<>()).add(fileName);
+        }
+        for (String category : entry.getCategories()) {
+            byCategory.computeIfAbsent(category, k -> new HashSet<>()).add(fileName);
+        }
+        if (entry.getDate() != null) {
+            byDate.computeIfAbsent(entry.getDate(), k -> new HashSet<>()).add(fileName);
+        }
+    }
+
+    private void unindex(String fileName) {
+        CatalogEntry entry = entries.remove(fileName);
+        if (entry == null) {
+            return;
+        }
+        savedTimes.computeIfPresent(entry.getSavedAt(), (time, count) -> count == 1 ? null : count - 1);
+        if (entry.getId() != null) {
+            byId.remove(entry.getId(), fileName);
+        }
+        sorted.values().forEach(set -> set.remove(entry));
+        for (String exercise : entry.getExercises()) {
+            remove(byExercise, exercise, fileName);
+        }
+        for (String muscleGroup : entry.getMuscleGroups()) {
+            remove(byMuscleGroup, muscleGroup, fileName);
+        }
+        for (String category : entry.getCategories()) {
+            remove(byCategory, category, fileName);
+        }
+        if (entry.getDate() != null) {
+            remove(byDate, entry.getDate(), fileName);
+        }
+    }
+
+    private static <K> void remove(Map<K, Set<String>> index, K key, String fileName) {
+        Set<String> files = index.get(key);
+        if (files != null) {
+            files.remove(fileName);
+            if (files.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void clear() {
+        entries = new TreeMap<>();
+        savedTimes.clear();
+        byId.clear();
+        byExercise.clear();
+        byMuscleGroup.clear();
+        byCategory.clear();
+        byDate.clear();
+        sorted.values().forEach(TreeSet::clear);
+    }
+
+    private void ensureLoaded() {
+        if (entries == null) {
+            load();
+        } else if (!Objects.equals(directoryModified, directoryModified())) {
+            reconcile();
+        }
+    }
+
+    // Returns true if the catalog had to be rebuilt, which already covers any change being notified
+    private boolean load() {
+        if (Files.exists(indexFile()) || Files.exists(journalFile())) {
+            try {
+                List<CatalogEntry> saved = Files.exists(indexFile())
+                        ? storage.readJson(indexFile(), new TypeReference<List<CatalogEntry>>() {
+                        })
+                        : List.of();
+                // Catalogs written before workouts had ids, or before exercise keys were normalized the way they are
+                // now, are rebuilt once to pick them up
+                if (saved.stream().allMatch(entry -> entry.getId() != null) && canonicalKeys(saved)) {
+                    clear();
+                    saved.forEach(this::index);
+                    replayJournal();
+                    reconcile();
+                    return false;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to read workout catalog, rebuilding: " + e.getMessage());
+            }
+        }
+        rebuild();
+        return true;
+    }
+
+    private static boolean canonicalKeys(List<CatalogEntry> saved) {
+        Set<String> keys = new HashSet<>();
+        saved.forEach(entry -> keys.addAll(entry.getExercises()));
+        return keys.stream().allMatch(ExerciseNames::isCanonical);
+    }
+
+    private void replayJournal() throws IOException {
+        journalLength = 0;
+        if (!Files.exists(journalFile())) {
+            return;
+        }
+        for (String line : Files.readAllLines(journalFile(), StandardCharsets.UTF_8)) {
+            try {
+                JsonNode change = storage.getMapper().readTree(line);
+                if (change.has("removed")) {
+                    unindex(change.get("removed").asText());
+                } else {
+                    index(storage.getMapper().treeToValue(change, CatalogEntry.class));
+                }
+                journalLength++;
+            } catch (JsonProcessingException e) {
+                // A line cut short by a crash; reconciling with the directory restores whatever it held
+            }
+        }
+    }
+
+    // Reads the files that are new or whose modification time moved since they were cataloged, and drops the
+    // ones that are gone. Unchanged files are only stat'ed, never opened.
+    private void reconcile() {
+        FileTime modified = directoryModified();
+        if (modified == null) {
+            directoryModified = null;
+            return;
+        }
+        Set<String> removed = new HashSet<>(entries.keySet());
+        Map<String, Long> changed = new HashMap<>();
+        for (String fileName : storage.getSavedWorkouts()) {
+            removed.remove(fileName);
+            CatalogEntry entry = entries.get(fileName);
+            long fileModified = lastModified(fileName);
+            if (entry == null || entry.getSavedAt() != fileModified) {
+                changed.put(fileName, fileModified);
+            }
+        }
+        // Files this storage is still writing are settled by the scan and reported to the indexes as usual
+        if (!storage.allPending(removed) || !storage.allPending(changed.keySet())) {
+            outsideChanges++;
+        }
+        for (String fileName : removed) {
+            unindex(fileName);
+            appendRemoval(fileName);
+        }
+        if (!changed.isEmpty()) {
+            Map<String, Workout> workouts = storage.scanFiles(this, changed.keySet());
+            changed.forEach((fileName, fileModified) -> {
+                Workout workout = workouts.get(fileName);
+                if (workout != null) {
+                    CatalogEntry entry = new CatalogEntry(fileName, workout, fileModified);
+                    index(entry);
+                    append(entry);
+                } else if (entries.containsKey(fileName)) {
+                    unindex(fileName);
+                    appendRemoval(fileName);
+                }
+            });
+        }
+        directoryModified = modified;
+    }
+
+    // This storage's own write moved the directory's time. A file another process adds in the same instant is
+    // picked up when the directory next changes or the catalog next loads.
+    private void ownChange() {
+        directoryModified = directoryModified();
+    }
+
+    private void append(CatalogEntry entry) {
+        append(storage.getMapper().valueToTree(entry));
+    }
+
+    private void appendRemoval(String fileName) {
+        append(storage.getMapper().createObjectNode().put("removed", fileName));
+    }
+
+    // Each line goes out in a single append, so lines from two processes never interleave
+    private void append(JsonNode change) {
+        try {
+            Files.createDirectories(storage.getIndexDirectory());
+            String line = storage.getMapper().writer().without(SerializationFeature.INDENT_OUTPUT)
+                    .writeValueAsString(change) + "\n";
+            Files.writeString(journalFile(), line, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Failed to save workout catalog: " + e.getMessage());
+        }
+        if (++journalLength > Math.max(MIN_COMPACTION, entries.size())) {
+            compact();
+        }
+    }
+
+    // Writes the whole catalog as the new snapshot and starts an empty journal. A line another process appends
+    // in between is lost from the journal, but not from the directory, so the next load reads that file again.
+    private void compact() {
+        try {
+            Files.createDirectories(storage.getIndexDirectory());
+            Path temporary = indexFile().resolveSibling(INDEX_FILE + ".tmp");
+            storage.writeJson(temporary, entries.values());
+            Files.move(temporary, indexFile(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(journalFile());
+            journalLength = 0;
+        } catch (IOException e) {
+            System.err.println("Failed to save workout catalog: " + e.getMessage());
+        }
+    }
+
+    private FileTime directoryModified() {
+        try {
+            return Files.getLastModifiedTime(storage.getDataDirectory());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private long lastModified(String fileName) {
+        try {
+            return Files.getLastModifiedTime(storage.getDataDirectory().resolve(fileName)).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path indexFile() {
+        return storage.getIndexDirectory().resolve(INDEX_FILE);
+    }
+
+    private Path journalFile() {
+        return storage.getIndexDirectory().resolve(JOURNAL_FILE);
+    }
+}
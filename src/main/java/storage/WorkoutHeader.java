@@ -0,0 +1,55 @@
+package storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+// The id and version at the top of a workout file. Workout writes them before any other field, so parsing stops
+// at the first other field and the exercises are never read. Files saved before workouts had ids have neither.
+// The record checksum ahead of them is skipped; replace checks it when it reads the whole file.
+final class WorkoutHeader {
+    private final String id;
+    private final long version;
+
+    private WorkoutHeader(String id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    static WorkoutHeader read(Path file, JsonFactory factory) throws IOException {
+        String id = null;
+        long version = 0;
+        try (InputStream in = Files.newInputStream(file); JsonParser parser = factory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Workout file " + file.getFileName() + " is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (field.equals("id")) {
+                    id = parser.nextTextValue();
+                } else if (field.equals("version")) {
+                    version = parser.nextLongValue(0);
+                } else if (field.equals("checksum")) {
+                    parser.nextToken();
+                } else {
+                    break;
+                }
+            }
+        }
+        return new WorkoutHeader(id, version);
+    }
+
+    String getId() {
+        return id;
+    }
+
+    long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,122 @@
+package storage;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+import model.Exercise;
+import model.ExerciseNames;
+import model.Workout;
+
+// A workout matches when its date is in range and at least one exercise satisfies every exercise filter
+public class WorkoutQuery {
+    private String exerciseName;
+    private String muscleGroup;
+    private String category;
+    private double minWeight = 0;
+    private double maxWeight = Double.MAX_VALUE;
+    private int minReps = 0;
+    private int maxReps = Integer.MAX_VALUE;
+    private LocalDate from;
+    private LocalDate to;
+
+    public static WorkoutQuery all() {
+        return new WorkoutQuery();
+    }
+
+    public WorkoutQuery exercise(String exerciseName) {
+        this.exerciseName = ExerciseNames.normalize(exerciseName);
+        return this;
+    }
+
+    // For a name that is already a canonical key, such as one from a CatalogEntry or an index
+    public WorkoutQuery exerciseKey(String exerciseKey) {
+        this.exerciseName = exerciseKey;
+        return this;
+    }
+
+    public WorkoutQuery muscleGroup(String muscleGroup) {
+        this.muscleGroup = muscleGroup.toLowerCase(Locale.ROOT);
+        return this;
+    }
+
+    public WorkoutQuery category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    public WorkoutQuery weightBetween(double minWeight, double maxWeight) {
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+        return this;
+    }
+
+    public WorkoutQuery repsBetween(int minReps, int maxReps) {
+        this.minReps = minReps;
+        this.maxReps = maxReps;
+        return this;
+    }
+
+    public WorkoutQuery between(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    public boolean matches(Workout workout) {
+        if (!dateMatches(workout.getDate())) {
+            return false;
+        }
+        if (!hasExerciseFilter()) {
+            return true;
+        }
+        for (Exercise e : workout.getExercises()) {
+            if (exerciseMatches(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean exerciseMatches(Exercise exercise) {
+        return (exerciseName == null || exerciseName.equals(ExerciseNames.normalize(exercise.getName())))
+                && (muscleGroup == null || muscleGroup.equals(exercise.getMuscleGroup()))
+                && (category == null || category.equals(exercise.classifyExercise()))
+                && exercise.getWeight() >= minWeight && exercise.getWeight() <= maxWeight
+                && exercise.getReps() >= minReps && exercise.getReps() <= maxReps;
+    }
+
+    public boolean dateMatches(LocalDate date) {
+        if (from == null && to == null) {
+            return true;
+        }
+        if (date == null) {
+            return false;
+        }
+        return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    public boolean hasExerciseFilter() {
+        return exerciseName != null || muscleGroup != null || category != null
+                || minWeight > 0 || maxWeight < Double.MAX_VALUE || minReps > 0 || maxReps < Integer.MAX_VALUE;
+    }
+
+    public String getExerciseName() {
+        return exerciseName;
+    }
+
+    public String getMuscleGroup() {
+        return muscleGroup;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+}
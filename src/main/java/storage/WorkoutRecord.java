@@ -0,0 +1,182 @@
+package storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+// A workout file is its JSON with a "checksum" field spliced in ahead of the others: the CRC32C of the whole file
+// as eight hex digits, computed with those digits read as '0'. The checksum sits in the same file as the data, so
+// the rename that publishes a save can never separate the two, and the file is still plain JSON.
+final class WorkoutRecord {
+    enum Check {
+        VALID, MISMATCH, UNCHECKED
+    }
+
+    private static final byte[] FIELD = "\"checksum\" : \"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ZEROS = "00000000".getBytes(StandardCharsets.US_ASCII);
+    private static final int DIGITS = ZEROS.length;
+    // Long enough to hold the checksum field after any indentation a writer might use
+    private static final int HEAD = 64;
+
+    private WorkoutRecord() {
+    }
+
+    // json is a JSON object as the storage mapper writes it
+    static byte[] encode(byte[] json) {
+        byte[] newline = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+        boolean empty = true;
+        for (int i = 1; i < json.length && empty; i++) {
+            empty = Character.isWhitespace(json[i]) || json[i] == '}';
+        }
+        byte[] record = new byte[json.length + newline.length + 2 + FIELD.length + DIGITS + (empty ? 1 : 2)];
+        int offset = 0;
+        record[offset++] = '{';
+        System.arraycopy(newline, 0, record, offset, newline.length);
+        offset += newline.length;
+        record[offset++] = ' ';
+        record[offset++] = ' ';
+        System.arraycopy(FIELD, 0, record, offset, FIELD.length);
+        offset += FIELD.length;
+        int digits = offset;
+        System.arraycopy(ZEROS, 0, record, offset, DIGITS);
+        offset += DIGITS;
+        record[offset++] = '"';
+        if (!empty) {
+            record[offset++] = ',';
+        }
+        System.arraycopy(json, 1, record, offset, json.length - 1);
+
+        long crc = checksum(record, digits);
+        for (int i = DIGITS - 1; i >= 0; i--) {
+            record[digits + i] = HEX[(int) (crc & 0xf)];
+            crc >>>= 4;
+        }
+        return record;
+    }
+
+    // UNCHECKED for files written before records had checksums
+    static Check check(byte[] record) {
+        int digits = digitsOffset(record);
+        if (digits < 0) {
+            return Check.UNCHECKED;
+        }
+        return stored(record, digits) == checksum(record, digits) ? Check.VALID : Check.MISMATCH;
+    }
+
+    // Where the checksum digits start, or -1 if the object does not open with a checksum field
+    private static int digitsOffset(byte[] record) {
+        if (record.length == 0 || record[0] != '{') {
+            return -1;
+        }
+        int offset = 1;
+        while (offset < record.length && Character.isWhitespace(record[offset])) {
+            offset++;
+        }
+        if (record.length - offset < FIELD.length + DIGITS + 1) {
+            return -1;
+        }
+        for (int i = 0; i < FIELD.length; i++) {
+            if (record[offset + i] != FIELD[i]) {
+                return -1;
+            }
+        }
+        return offset + FIELD.length;
+    }
+
+    // The stored checksum, or -1 if its digits are not hex
+    private static long stored(byte[] record, int digits) {
+        long stored = 0;
+        for (int i = 0; i < DIGITS; i++) {
+            int digit = Character.digit(record[digits + i], 16);
+            if (digit < 0) {
+                return -1;
+            }
+            stored = stored << 4 | digit;
+        }
+        return stored;
+    }
+
+    // CRC32C is a JVM intrinsic on current x86 and ARM hardware, so this runs far faster than the disk feeds it
+    private static long checksum(byte[] record, int digits) {
+        CRC32C crc = new CRC32C();
+        crc.update(record, 0, digits);
+        crc.update(ZEROS, 0, DIGITS);
+        crc.update(record, digits + DIGITS, record.length - digits - DIGITS);
+        return crc.getValue();
+    }
+
+    // Checksums a record as it is parsed, so loading a workout never holds the whole file in memory. Closing it
+    // leaves the file open for finish(); the caller closes the file.
+    static final class Input extends InputStream {
+        private final InputStream in;
+        private final CRC32C crc = new CRC32C();
+        private final byte[] head;
+        private final boolean checked;
+        private final long stored;
+        private int headPosition;
+
+        Input(InputStream in) throws IOException {
+            this.in = in;
+            head = in.readNBytes(HEAD);
+            int digits = digitsOffset(head);
+            checked = digits >= 0;
+            if (!checked) {
+                stored = 0;
+                return;
+            }
+            stored = stored(head, digits);
+            crc.update(head, 0, digits);
+            crc.update(ZEROS, 0, DIGITS);
+            crc.update(head, digits + DIGITS, head.length - digits - DIGITS);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (headPosition < head.length) {
+                return head[headPosition++] & 0xff;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                crc.update(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (headPosition < head.length) {
+                int n = Math.min(length, head.length - headPosition);
+                System.arraycopy(head, headPosition, buffer, offset, n);
+                headPosition += n;
+                return n;
+            }
+            int n = in.read(buffer, offset, length);
+            if (n > 0) {
+                crc.update(buffer, offset, n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        // Reads whatever the parser left and checks the whole record
+        Check finish() throws IOException {
+            if (!checked) {
+                return Check.UNCHECKED;
+            }
+            headPosition = head.length;
+            int n;
+            while ((n = in.read(head, 0, head.length)) > 0) {
+                crc.update(head, 0, n);
+            }
+            return stored == crc.getValue() ? Check.VALID : Check.MISMATCH;
+        }
+    }
+}
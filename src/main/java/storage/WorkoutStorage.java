@@ -2,87 +2,745 @@ package storage;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+import jdk.jfr.FlightRecorder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import metrics.Metrics;
+import metrics.OperationTimer;
 import model.Workout;
 
 public class WorkoutStorage {
-    private ObjectMapper mapper;
     private static final Pattern ILLEGAL_FILENAME_CHARS = Pattern.compile("[\\\\/:*?\"<>]");
     private static final String DATA_DIR = "data";
+    private static final String INDEX_DIR = ".index";
+    private static final String QUARANTINE_DIR = ".quarantine";
+    private static final int LOCK_STRIPES = 64;
+    // "Leg Day (2).json" shares a stripe with "Leg Day.json" so numbering new copies can't race
+    private static final Pattern COPY_SUFFIX = Pattern.compile("( \\(\\d+\\))*\\.json$");
+    private static final OperationTimer SAVE = Metrics.timer("storage", "save");
+    private static final OperationTimer LOAD = Metrics.timer("storage", "load");
+    private static final OperationTimer DELETE = Metrics.timer("storage", "delete");
+    private static final OperationTimer LIST = Metrics.timer("storage", "list");
+    private static final OperationTimer QUERY = Metrics.timer("storage", "query");
+    private static final OperationTimer SCAN = Metrics.timer("storage", "scan");
+    private static final OperationTimer SCRUB = Metrics.timer("storage", "scrub");
+
+    private final Path dataDir;
+    private final List<StorageListener> listeners = new CopyOnWriteArrayList<>();
+    private final WorkoutCatalog catalog;
+    // Saves and deletes lock only the stripe of the workout's base name, so writes to unrelated workouts run in
+    // parallel and each tenant's storage has its own stripes
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[LOCK_STRIPES];
+    private final Map<String, PendingChange> pending = new ConcurrentHashMap<>();
 
     public WorkoutStorage() {
-        this.mapper = new ObjectMapper();
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this(Paths.get(DATA_DIR));
+    }
+
+    public WorkoutStorage(Path dataDir) {
+        this.dataDir = dataDir;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        this.catalog = new WorkoutCatalog(this);
+        listeners.add(catalog);
+    }
+
+    public void addListener(StorageListener listener) {
+        listeners.add(listener);
+    }
+
+    // Returns the listener of this type already attached, or attaches one made by create. A second instance of an
+    // index would apply every save to the same index files again, so every front end shares the first one.
+    public <T extends StorageListener> T attach(Class<T> type, Function<WorkoutStorage, T> create) {
+        synchronized (listeners) {
+            for (StorageListener listener : listeners) {
+                if (type.isInstance(listener)) {
+                    return type.cast(listener);
+                }
+            }
+            T listener = create.apply(this);
+            listeners.add(listener);
+            return listener;
+        }
     }
 
     public boolean saveWorkout(Workout workout) {
+        return save(workout).isSaved();
+    }
+
+    // A workout that is already stored replaces its file, but only if nobody saved it since it was loaded; a stale
+    // copy comes back as a CONFLICT. New workouts get a new file.
+    public SaveOutcome save(Workout workout) {
+        long start = System.nanoTime();
+        StorageEvent event = beginStorageEvent();
+        SaveOutcome outcome = write(workout);
+        SAVE.record(start, outcome.isSaved());
+        commit(event, "save", outcome.fileName(), workout, outcome.isSaved());
+        return outcome;
+    }
+
+    private SaveOutcome write(Workout workout) {
         if (!createDirectory()) {
-            return false;
+            return new SaveOutcome(SaveResult.FAILED, null);
         }
-        String fileName = uniqueFileName(workout.getName());
-        File file = new File(DATA_DIR, fileName);
+        if (workout.getDate() == null) {
+            workout.setDate(LocalDate.now());
+        }
+        catalog.catchUp();
+        String stored = workout.getId() == null ? null : catalog.fileFor(workout.getId());
+        if (stored != null) {
+            return new SaveOutcome(swap(stored, workout), stored);
+        }
+        String base = sanitizeWorkoutName(workout.getName());
+        ReentrantReadWriteLock stripe = stripe(base + ".json");
+        stripe.writeLock().lock();
+        try {
+            if (workout.getId() == null) {
+                workout.setId(UUID.randomUUID().toString());
+            } else {
+                stored = catalog.fileFor(workout.getId());
+                if (stored != null) { // Another save of this workout got in first
+                    return new SaveOutcome(SaveResult.CONFLICT, stored);
+                }
+            }
+            String fileName = uniqueFileName(base);
+            workout.setVersion(workout.getVersion() + 1);
+            PendingChange change = begin(fileName, workout, null, false);
+
+            try {
+                writeWorkout(dataDir.resolve(fileName), workout);
+            } catch (IOException e) {
+                pending.remove(fileName, change);
+                workout.setVersion(workout.getVersion() - 1);
+                System.err.println("Failed to save workout: " + e.getMessage());
+                return new SaveOutcome(SaveResult.FAILED, null);
+            }
+            notifyListeners(fileName, change);
+            return new SaveOutcome(SaveResult.SAVED, fileName);
+        } finally {
+            stripe.writeLock().unlock();
+        }
+    }
 
+    // Overwrites fileName with the workout if the file still holds the version the workout was loaded at.
+    // Stale copies are turned away after reading only the file's header; an accepted one is written to a
+    // temporary file and moved over the old one, so readers always see one version or the other whole.
+    public SaveResult replace(String fileName, Workout workout) {
+        long start = System.nanoTime();
+        StorageEvent event = beginStorageEvent();
+        SaveResult result = createDirectory() ? swap(fileName, workout) : SaveResult.FAILED;
+        SAVE.record(start, result == SaveResult.SAVED);
+        commit(event, "replace", fileName, workout, result == SaveResult.SAVED);
+        return result;
+    }
+
+    private SaveResult swap(String fileName, Workout workout) {
+        if (workout.getDate() == null) {
+            workout.setDate(LocalDate.now());
+        }
+        catalog.catchUp();
+        Path file = dataDir.resolve(fileName);
+        ReentrantReadWriteLock stripe = stripe(fileName);
+        stripe.writeLock().lock();
         try {
-            mapper.writeValue(file, workout);
-            return true;
-        } catch (IOException e) {
-            System.err.println("Failed to save workout: " + e.getMessage());
-            return false;
+            WorkoutHeader header;
+            try {
+                header = WorkoutHeader.read(file, getMapper().getFactory());
+            } catch (NoSuchFileException e) {
+                return SaveResult.NOT_FOUND;
+            } catch (IOException e) {
+                System.err.println("Failed to read workout file: " + e.getMessage());
+                return SaveResult.FAILED;
+            }
+            String storedId = header.getId() != null ? header.getId() : legacyId(fileName);
+            if (!storedId.equals(workout.getId()) || header.getVersion() != workout.getVersion()) {
+                return SaveResult.CONFLICT;
+            }
+            // Only now is the whole old copy read: the indexes take it back out before adding the new one
+            Workout previous = readWorkout(fileName, true);
+            if (previous == null) {
+                return SaveResult.FAILED;
+            }
+
+            workout.setVersion(header.getVersion() + 1);
+            PendingChange change = begin(fileName, workout, previous, false);
+            Path temporary = dataDir.resolve(fileName + ".tmp");
+            try {
+                writeWorkout(temporary, workout);
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                pending.remove(fileName, change);
+                workout.setVersion(header.getVersion());
+                temporary.toFile().delete();
+                System.err.println("Failed to save workout: " + e.getMessage());
+                return SaveResult.FAILED;
+            }
+            notifyListeners(fileName, change);
+            return SaveResult.SAVED;
+        } finally {
+            stripe.writeLock().unlock();
         }
     }
 
     public Workout loadWorkout(String filename) {
-        Path filePath = Paths.get(DATA_DIR, filename);
+        long start = System.nanoTime();
+        StorageEvent event = beginStorageEvent();
+        Workout workout;
+        ReentrantReadWriteLock stripe = stripe(filename);
+        stripe.readLock().lock();
         try {
-            return mapper.readValue(filePath.toFile(), Workout.class);
+            workout = readWorkout(filename, true);
+        } finally {
+            stripe.readLock().unlock();
+        }
+        LOAD.record(start, workout != null);
+        commit(event, "load", filename, workout, workout != null);
+        return workout;
+    }
+
+    private Workout readWorkout(String filename, boolean reportErrors) {
+        Path filePath = dataDir.resolve(filename);
+        try {
+            Workout workout = readRecord(filePath);
+            if (workout.getDate() == null) { // Files saved before workouts were dated
+                workout.setDate(lastModifiedDate(filePath));
+            }
+            if (workout.getId() == null) { // Files saved before workouts had ids
+                workout.setId(legacyId(filename));
+            }
+            return workout;
         } catch (IOException e) {
-            System.err.println("Failed to load workout file: " + e.getMessage());
+            if (reportErrors) {
+                System.err.println("Failed to load workout file: " + e.getMessage());
+            }
             return null;
         }
     }
 
     public List<Workout> loadAllWorkouts() {
         List<Workout> workouts = new ArrayList<>();
-        Path path = Paths.get(DATA_DIR);
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.json")) {
-            for (Path entry : stream) {
-                String fileName = entry.getFileName().toString();
-                Workout loadedWorkout = loadWorkout(fileName);
-                if (loadedWorkout != null) {
-                    workouts.add(loadedWorkout);
+        for (String fileName : listFiles()) {
+            Workout loadedWorkout = loadWorkout(fileName);
+            if (loadedWorkout != null) {
+                workouts.add(loadedWorkout);
+            }
+        }
+        return workouts;
+    }
+
+    public List<Workout> query(WorkoutQuery query) {
+        long start = System.nanoTime();
+        List<Workout> workouts = new ArrayList<>();
+        for (String fileName : catalog.plan(query).getCandidates()) {
+            Workout workout = loadWorkout(fileName);
+            if (workout != null && query.matches(workout)) {
+                workouts.add(workout);
+            }
+        }
+        QUERY.record(start);
+        return workouts;
+    }
+
+    public QueryPlan explain(WorkoutQuery query) {
+        return catalog.plan(query);
+    }
+
+    // For index rebuilds: reads every workout file as the given listener should see it. Call it while holding
+    // the listener's monitor. Saves and deletes still in flight are settled against the snapshot, so the
+    // listener is told about exactly the changes the snapshot does not already include.
+    public Map<String, Workout> scan(StorageListener index) {
+        return scan(index, null);
+    }
+
+    // Same as scan(index), limited to the workouts matching the query
+    public Map<String, Workout> scan(StorageListener index, WorkoutQuery query) {
+        return scan(index, query, query == null ? listFiles() : catalog.plan(query).getCandidates(), null);
+    }
+
+    // Same as scan(index), limited to the given files, for the catalog to catch up with files changed behind its
+    // back
+    Map<String, Workout> scanFiles(StorageListener index, Set<String> fileNames) {
+        return scan(index, null, fileNames, fileNames);
+    }
+
+    // Whether every one of the files is being written through this storage right now
+    boolean allPending(Collection<String> fileNames) {
+        return pending.keySet().containsAll(fileNames);
+    }
+
+    // Pending changes outside scope were not read, so they are left for the listener to be told about
+    private Map<String, Workout> scan(StorageListener index, WorkoutQuery query, Collection<String> fileNames,
+            Set<String> scope) {
+        long start = System.nanoTime();
+        StorageEvent event = beginStorageEvent();
+        Map<String, Workout> workouts = new TreeMap<>();
+        for (String fileName : fileNames) {
+            Workout workout = readWorkout(fileName, !pending.containsKey(fileName));
+            if (workout != null && (query == null || query.matches(workout))) {
+                workouts.put(fileName, workout);
+            }
+        }
+        for (Map.Entry<String, PendingChange> entry : pending.entrySet()) {
+            PendingChange change = entry.getValue();
+            if (scope != null && !scope.contains(entry.getKey())) {
+                continue;
+            }
+            if (change.deleted) {
+                if (query == null || query.matches(change.workout)) {
+                    workouts.remove(entry.getKey());
+                    change.unnotified.remove(index);
+                }
+            } else if (change.previous != null) {
+                // The snapshot read the old version if the new one was not moved into place yet
+                Workout read = workouts.get(entry.getKey());
+                if (read != null && read.getVersion() == change.workout.getVersion()) {
+                    change.unnotified.remove(index);
                 }
+            } else if (workouts.containsKey(entry.getKey())) {
+                change.unnotified.remove(index);
             }
-        } catch (IOException e) {
-            System.err.println("Failed to load all workouts: " + e.getMessage());
+        }
+        SCAN.record(start);
+        if (shouldCommit(event)) {
+            event.operation = "scan";
+            event.directory = dataDir.toString();
+            event.fileCount = workouts.size();
+            event.succeeded = true;
+            event.commit();
         }
         return workouts;
     }
 
+    // Verifies every workout file on the given number of threads and moves the ones that fail to the quarantine
+    // directory. Checksummed files are only hashed, never parsed, so a full pass runs as fast as the disk reads;
+    // files from before checksums are checked to parse. Listeners rebuild from disk if anything was moved.
+    public ScrubReport scrub(int threads) {
+        return scrub(threads, false);
+    }
+
+    // Also lists the temporary files of saves that died between writing the new copy and moving it into place,
+    // and deletes them if removeLeftovers is set. Files that cannot be read at all are reported and left alone.
+    public ScrubReport scrub(int threads, boolean removeLeftovers) {
+        long start = System.nanoTime();
+        StorageEvent event = beginStorageEvent();
+        List<String> fileNames = Files.isDirectory(dataDir) ? listFiles() : List.of();
+        LongAdder bytes = new LongAdder();
+        LongAdder verified = new LongAdder();
+        LongAdder unchecked = new LongAdder();
+        LongAdder mismatched = new LongAdder();
+        LongAdder unparseable = new LongAdder();
+        Map<String, String> quarantined = new ConcurrentSkipListMap<>();
+        Map<String, String> unreadable = new ConcurrentSkipListMap<>();
+        Map<String, String> unmoved = new ConcurrentSkipListMap<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads))) {
+            for (String fileName : fileNames) {
+                executor.execute(() -> {
+                    byte[] record;
+                    ReentrantReadWriteLock stripe = stripe(fileName);
+                    stripe.readLock().lock();
+                    try {
+                        record = readRecordBytes(fileName);
+                    } catch (IOException e) {
+                        unreadable.put(fileName, firstLine(e));
+                        return;
+                    } finally {
+                        stripe.readLock().unlock();
+                    }
+                    if (record == null) { // Deleted since the listing
+                        return;
+                    }
+                    bytes.add(record.length);
+                    WorkoutRecord.Check check = WorkoutRecord.check(record);
+                    String problem = verify(record, check);
+                    if (problem == null) {
+                        (check == WorkoutRecord.Check.VALID ? verified : unchecked).increment();
+                    } else {
+                        switch (quarantine(fileName, problem, unmoved)) {
+                            case MOVED -> {
+                                quarantined.put(fileName, problem);
+                                (check == WorkoutRecord.Check.MISMATCH ? mismatched : unparseable).increment();
+                            }
+                            case VERIFIED -> verified.increment();
+                            case UNCHECKED -> unchecked.increment();
+                            case GONE, NOT_MOVED -> {
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        List<String> leftovers = Files.isDirectory(dataDir) ? leftovers(removeLeftovers) : List.of();
+        if (!quarantined.isEmpty()) {
+            listeners.forEach(StorageListener::rebuild);
+        }
+        boolean clean = quarantined.isEmpty() && unreadable.isEmpty() && unmoved.isEmpty();
+        SCRUB.record(start, clean);
+        if (shouldCommit(event)) {
+            event.operation = "scrub";
+            event.directory = dataDir.toString();
+            event.fileCount = fileNames.size();
+            event.succeeded = clean;
+            event.commit();
+        }
+        int checked = verified.intValue() + unchecked.intValue() + quarantined.size() + unreadable.size()
+                + unmoved.size();
+        return new ScrubReport(checked, verified.intValue(), unchecked.intValue(), mismatched.intValue(),
+                unparseable.intValue(), bytes.sum(), (System.nanoTime() - start) / 1_000_000, quarantined, unreadable,
+                unmoved, leftovers, removeLeftovers);
+    }
+
+    // A temporary file only exists outside its stripe's write lock if the save that wrote it never finished
+    private List<String> leftovers(boolean remove) {
+        List<String> temporaries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dataDir)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".json.tmp"))
+                    .sorted()
+                    .forEach(temporaries::add);
+        } catch (IOException e) {
+            System.err.println("Error reading data directory: " + e.getMessage());
+        }
+        List<String> leftovers = new ArrayList<>();
+        for (String temporary : temporaries) {
+            ReentrantReadWriteLock stripe = stripe(temporary.substring(0, temporary.length() - ".tmp".length()));
+            stripe.writeLock().lock();
+            try {
+                Path file = dataDir.resolve(temporary);
+                if (!Files.exists(file)) {
+                    continue;
+                }
+                leftovers.add(temporary);
+                if (remove) {
+                    Files.delete(file);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to remove temporary file " + temporary + ": " + e.getMessage());
+            } finally {
+                stripe.writeLock().unlock();
+            }
+        }
+        return leftovers;
+    }
+
+    // Null if the record is sound, otherwise what is wrong with it
+    private String verify(byte[] record, WorkoutRecord.Check check) {
+        return switch (check) {
+            case VALID -> null;
+            case MISMATCH -> "checksum mismatch";
+            case UNCHECKED -> {
+                try {
+                    getMapper().readValue(record, Workout.class);
+                    yield null;
+                } catch (IOException e) {
+                    yield "does not parse: " + firstLine(e);
+                }
+            }
+        };
+    }
+
+    private enum Quarantine {
+        MOVED, VERIFIED, UNCHECKED, GONE, NOT_MOVED
+    }
+
+    // Checks the file again under the write lock, since a save may have rewritten it after it was read. A corrupt
+    // file that cannot be moved is recorded in unmoved with the problem and the error.
+    private Quarantine quarantine(String fileName, String problem, Map<String, String> unmoved) {
+        ReentrantReadWriteLock stripe = stripe(fileName);
+        stripe.writeLock().lock();
+        try {
+            byte[] record = readRecordBytes(fileName);
+            if (record == null) {
+                return Quarantine.GONE;
+            }
+            WorkoutRecord.Check check = WorkoutRecord.check(record);
+            if (verify(record, check) == null) {
+                return check == WorkoutRecord.Check.VALID ? Quarantine.VERIFIED : Quarantine.UNCHECKED;
+            }
+            Path directory = getQuarantineDirectory();
+            Files.createDirectories(directory);
+            Path target = directory.resolve(fileName);
+            if (Files.exists(target)) {
+                target = directory.resolve(fileName + "." + System.currentTimeMillis());
+            }
+            Files.move(dataDir.resolve(fileName), target);
+            System.err.println("Quarantined corrupt workout file " + fileName + " in " + directory);
+            return Quarantine.MOVED;
+        } catch (IOException e) {
+            System.err.println("Failed to quarantine workout file " + fileName + ": " + e.getMessage());
+            unmoved.put(fileName, problem + "; not moved: " + firstLine(e));
+            return Quarantine.NOT_MOVED;
+        } finally {
+            stripe.writeLock().unlock();
+        }
+    }
+
+    // Null if the file no longer exists
+    private byte[] readRecordBytes(String fileName) throws IOException {
+        try {
+            return Files.readAllBytes(dataDir.resolve(fileName));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static String firstLine(IOException e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage().lines().findFirst().orElse("");
+    }
+
     public boolean deleteWorkout(String filename) {
-        File file = new File(DATA_DIR, filename);
-        return file.delete();
+        long start = System.nanoTime();
+        StorageEvent event = beginStorageEvent();
+        // The file is gone by the time the event is committed
+        long size = event != null && event.isEnabled() ? sizeOf(dataDir.resolve(filename)) : 0;
+        boolean deleted = delete(filename);
+        DELETE.record(start, deleted);
+        if (shouldCommit(event)) {
+            event.operation = "delete";
+            event.directory = dataDir.toString();
+            event.fileName = filename;
+            event.fileSize = size;
+            event.succeeded = deleted;
+            event.commit();
+        }
+        return deleted;
+    }
+
+    private boolean delete(String filename) {
+        catalog.catchUp();
+        ReentrantReadWriteLock stripe = stripe(filename);
+        stripe.writeLock().lock();
+        try {
+            Workout deletedWorkout = listeners.isEmpty() ? null : readWorkout(filename, true);
+            File file = dataDir.resolve(filename).toFile();
+            if (deletedWorkout == null) {
+                return file.delete();
+            }
+            PendingChange change = begin(filename, deletedWorkout, null, true);
+            if (!file.delete()) {
+                pending.remove(filename, change);
+                // A rebuild may already have dropped the file on the strength of the pending delete
+                for (StorageListener listener : listeners) {
+                    synchronized (listener) {
+                        if (!change.unnotified.contains(listener)) {
+                            listener.workoutSaved(filename, deletedWorkout);
+                        }
+                    }
+                }
+                return false;
+            }
+            notifyListeners(filename, change);
+            return true;
+        } finally {
+            stripe.writeLock().unlock();
+        }
     }
 
     public List<String> getSavedWorkouts() {
         return listFiles();
     }
 
-    private boolean createDirectory() {
-        Path path = Paths.get(DATA_DIR);
+    public WorkoutCatalog getCatalog() {
+        return catalog;
+    }
 
+    public Path getDataDirectory() {
+        return dataDir;
+    }
+
+    public Path getIndexDirectory() {
+        return dataDir.resolve(INDEX_DIR);
+    }
+
+    // Where scrub moves workout files that failed verification
+    public Path getQuarantineDirectory() {
+        return dataDir.resolve(QUARANTINE_DIR);
+    }
+
+    public ObjectMapper getMapper() {
+        return Json.MAPPER;
+    }
+
+    // Workout and index files are all read and written through these, so each one is a JSON event in a recording
+    public <T> T readJson(Path file, Class<T> type) throws IOException {
+        return readJson(file, getMapper().readerFor(type), type.getSimpleName());
+    }
+
+    public <T> T readJson(Path file, TypeReference<T> type) throws IOException {
+        return readJson(file, getMapper().readerFor(type), type.getType().getTypeName());
+    }
+
+    public void writeJson(Path file, Object value) throws IOException {
+        writeJson(file, value, getMapper().writer());
+    }
+
+    // Without indentation, for files nobody reads by hand
+    public void writeCompactJson(Path file, Object value) throws IOException {
+        writeJson(file, value, getMapper().writer().without(SerializationFeature.INDENT_OUTPUT));
+    }
+
+    private <T> T readJson(Path file, ObjectReader reader, String type) throws IOException {
+        JsonEvent event = beginJsonEvent();
+        boolean succeeded = false;
+        try {
+            T value = reader.readValue(file.toFile());
+            succeeded = true;
+            return value;
+        } finally {
+            commit(event, "read", type, file, succeeded);
+        }
+    }
+
+    private void writeJson(Path file, Object value, ObjectWriter writer) throws IOException {
+        JsonEvent event = beginJsonEvent();
+        boolean succeeded = false;
         try {
-            Files.createDirectories(path);
+            writer.writeValue(file.toFile(), value);
+            succeeded = true;
+        } finally {
+            commit(event, "write", value.getClass().getSimpleName(), file, succeeded);
+        }
+    }
+
+    // Workout files are records with a checksum; a file that does not match it is refused rather than half-trusted
+    private Workout readRecord(Path file) throws IOException {
+        JsonEvent event = beginJsonEvent();
+        boolean succeeded = false;
+        try (InputStream in = Files.newInputStream(file)) {
+            WorkoutRecord.Input record = new WorkoutRecord.Input(in);
+            Workout workout = getMapper().readValue(record, Workout.class);
+            if (record.finish() == WorkoutRecord.Check.MISMATCH) {
+                throw new IOException("Checksum mismatch in " + file.getFileName()
+                        + "; the file is corrupt, run scrub to quarantine it");
+            }
+            succeeded = true;
+            return workout;
+        } finally {
+            commit(event, "read", "Workout", file, succeeded);
+        }
+    }
+
+    // The bytes a save writes for the workout: its JSON with the checksum spliced in. For tools that fill a data
+    // directory without going through save.
+    public byte[] encodeRecord(Workout workout) throws IOException {
+        return WorkoutRecord.encode(getMapper().writeValueAsBytes(workout));
+    }
+
+    private void writeWorkout(Path file, Workout workout) throws IOException {
+        JsonEvent event = beginJsonEvent();
+        boolean succeeded = false;
+        try {
+            Files.write(file, encodeRecord(workout));
+            succeeded = true;
+        } finally {
+            commit(event, "write", "Workout", file, succeeded);
+        }
+    }
+
+    // Null unless Flight Recorder is running: loading the first event class starts and instruments JFR itself, which
+    // takes longer than a whole CLI command on a small machine. A recording started later with jcmd still sees events.
+    private static StorageEvent beginStorageEvent() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        return event;
+    }
+
+    private static JsonEvent beginJsonEvent() {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        JsonEvent event = new JsonEvent();
+        event.begin();
+        return event;
+    }
+
+    private static boolean shouldCommit(StorageEvent event) {
+        if (event == null) {
+            return false;
+        }
+        event.end();
+        return event.shouldCommit();
+    }
+
+    private static boolean shouldCommit(JsonEvent event) {
+        if (event == null) {
+            return false;
+        }
+        event.end();
+        return event.shouldCommit();
+    }
+
+    // Event fields are only filled in, and file sizes only looked up, when a recording wants the event
+    private static void commit(JsonEvent event, String direction, String type, Path file, boolean succeeded) {
+        if (shouldCommit(event)) {
+            event.direction = direction;
+            event.type = type;
+            event.file = file.toString();
+            event.bytes = succeeded ? sizeOf(file) : 0;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    private void commit(StorageEvent event, String operation, String fileName, Workout workout, boolean succeeded) {
+        if (shouldCommit(event)) {
+            event.operation = operation;
+            event.directory = dataDir.toString();
+            event.fileName = fileName;
+            event.fileSize = succeeded ? sizeOf(dataDir.resolve(fileName)) : 0;
+            event.exerciseCount = workout == null ? 0 : workout.getExercises().size();
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private boolean createDirectory() {
+        try {
+            Files.createDirectories(dataDir);
             return true;
         } catch (IOException e) {
             System.err.println("Failed to create data directory: " + e.getMessage());
@@ -90,12 +748,50 @@ public class WorkoutStorage {
         }
     }
 
-    private String uniqueFileName(String workout) {
-        String base = sanitizeWorkoutName(workout);
+    private LocalDate lastModifiedDate(Path filePath) throws IOException {
+        return LocalDate.ofInstant(Files.getLastModifiedTime(filePath).toInstant(), ZoneId.systemDefault());
+    }
+
+    // Files written before workouts had ids are known by one derived from the file name, so loading and saving
+    // one replaces it like any other
+    private static String legacyId(String fileName) {
+        return UUID.nameUUIDFromBytes(fileName.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private ReentrantReadWriteLock stripe(String fileName) {
+        String base = COPY_SUFFIX.matcher(fileName).replaceFirst("");
+        return stripes[Math.floorMod(base.hashCode(), LOCK_STRIPES)];
+    }
+
+    private PendingChange begin(String fileName, Workout workout, Workout previous, boolean deleted) {
+        PendingChange change = new PendingChange(workout, previous, deleted, listeners);
+        pending.put(fileName, change);
+        return change;
+    }
+
+    // Each listener is told under its own monitor, unless a rebuild already picked the change up from disk
+    private void notifyListeners(String fileName, PendingChange change) {
+        for (StorageListener listener : listeners) {
+            synchronized (listener) {
+                if (change.unnotified.remove(listener)) {
+                    if (change.deleted) {
+                        listener.workoutDeleted(fileName, change.workout);
+                    } else if (change.previous != null) {
+                        listener.workoutReplaced(fileName, change.previous, change.workout);
+                    } else {
+                        listener.workoutSaved(fileName, change.workout);
+                    }
+                }
+            }
+        }
+        pending.remove(fileName, change);
+    }
+
+    private String uniqueFileName(String base) {
         String extension = ".json";
 
         String potentialName = base + extension;
-        Path path = Paths.get(DATA_DIR, potentialName);
+        Path path = dataDir.resolve(potentialName);
         if (!Files.exists(path)) {
             return potentialName;
         }
@@ -103,7 +799,7 @@ public class WorkoutStorage {
         int counter = 1;
         while (true) {
             potentialName = base + " (" + counter + ")" + extension;
-            path = Paths.get(DATA_DIR, potentialName);
+            path = dataDir.resolve(potentialName);
             if (!Files.exists(path)) {
                 return potentialName;
             }
@@ -125,18 +821,53 @@ public class WorkoutStorage {
 
     }
 
+    // Loaded on first use: Jackson's class loading dominates start-up, and commands such as help never need it.
+    // ObjectMapper is thread-safe once configured, so every storage and tenant shares this one.
+    private static final class Json {
+        private static final ObjectMapper MAPPER = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    private static final class PendingChange {
+        private final Workout workout;
+        // The version a replace overwrites; null for new files and deletes
+        private final Workout previous;
+        private final boolean deleted;
+        private final Set<StorageListener> unnotified = ConcurrentHashMap.newKeySet();
+
+        private PendingChange(Workout workout, Workout previous, boolean deleted, List<StorageListener> listeners) {
+            this.workout = workout;
+            this.previous = previous;
+            this.deleted = deleted;
+            unnotified.addAll(listeners);
+        }
+    }
+
     private List<String> listFiles() {
-        Path dirPath = Paths.get(DATA_DIR);
+        long start = System.nanoTime();
+        StorageEvent event = beginStorageEvent();
         List<String> workouts = new ArrayList<>();
+        boolean listed = true;
 
-        try (Stream<Path> jsonFiles = Files.list(dirPath)) {
+        try (Stream<Path> jsonFiles = Files.list(dataDir)) {
 
             jsonFiles.filter(Files::isRegularFile)
                     .filter(path -> path.getFileName().toString().endsWith(".json"))
                     .forEach(path -> workouts.add(path.getFileName().toString()));
         } catch (IOException e) {
             System.err.println("Error reading data directory: " + e.getMessage());
+            listed = false;
+        }
+        LIST.record(start, listed);
+        if (shouldCommit(event)) {
+            event.operation = "list";
+            event.directory = dataDir.toString();
+            event.fileCount = workouts.size();
+            event.succeeded = listed;
+            event.commit();
         }
         return workouts;
     }
-}
\ No newline at end of file
+}
@@ -1,105 +1,199 @@
 package ui;
 
-import analytics.AnalyticsEngine;
+import java.util.List;
+import java.util.Map;
+
+import analytics.ExerciseShare;
+import analytics.OneRepMaxFormula;
+import analytics.PeriodRollup;
+import analytics.PersonalRecord;
+import analytics.RollupBucket;
+import analytics.SimilarityMatch;
+import analytics.TrendSeries;
+import analytics.TrendWindow;
+import analytics.WorkoutAnalytics;
 import analytics.WorkoutComparison;
+import analytics.WorkoutSketch;
 import model.Workout;
 import model.Exercise;
 
 public class AnalyticsPrinter {
-    private static final String RED = "\u001B[31m";
-    private static final String GREEN = "\u001B[32m";
-    private static final String YELLOW = "\u001B[33m";
-    private static final String CYAN = "\u001B[36m";
-    private static final String RESET = "\u001B[0m";
-    private final AnalyticsEngine engine;
-
-    public AnalyticsPrinter(AnalyticsEngine engine) {
-        this.engine = engine;
+    private final ReportWriter report;
+
+    public AnalyticsPrinter() {
+        this(new ReportWriter());
     }
 
-    public void printWorkoutAnalytics(Workout workout) {
-        engine.calculateVolumeBreakdown(workout);
+    public AnalyticsPrinter(ReportWriter report) {
+        this.report = report;
+    }
 
-        System.out.println(CYAN + "\n=== Workout Analytics ===" + RESET);
-        var top3 = engine.topNExercises(workout, 3);
-        System.out.println(YELLOW + "Top 3 Exercises by Volume:" + RESET);
-        for (var entry : top3) {
-            System.out.println(" - " + entry.getKey().getName() + ": " + FormatUtils.formatPercent(entry.getValue()));
+    public void printWorkoutAnalytics(WorkoutAnalytics analytics) {
+        report.cyan().append("\n=== Workout Analytics ===").reset().newLine();
+        report.yellow().append("Top 3 Exercises by Volume:").reset().newLine();
+        for (ExerciseShare entry : analytics.getTopExercises()) {
+            printShare(entry);
         }
 
-        var bottom3 = engine.bottomNExercises(workout, 3);
-        System.out.println(YELLOW + "\nBottom 3 Exercises by Volume:" + RESET);
+        var bottom3 = analytics.getBottomExercises();
+        report.yellow().append("\nBottom 3 Exercises by Volume:").reset().newLine();
         if (bottom3.isEmpty()) {
-            System.out.println(RED + "  Not enough exercises to display the bottom 3." + RESET);
+            report.red().append("  Not enough exercises to display the bottom 3.").reset().newLine();
         } else {
-            for (var entry : bottom3) {
-                System.out
-                        .println(" - " + entry.getKey().getName() + ": " + FormatUtils.formatPercent(entry.getValue()));
+            for (ExerciseShare entry : bottom3) {
+                printShare(entry);
             }
         }
 
-        var ppl = engine.volumePercentageSplit();
-        System.out.println(YELLOW + "\nPush / Pull / Legs Split:" + RESET);
-        System.out.println(" - Push: " + FormatUtils.formatPercent(ppl.get("Push")));
-        System.out.println(" - Pull: " + FormatUtils.formatPercent(ppl.get("Pull")));
-        System.out.println(" - Legs: " + FormatUtils.formatPercent(ppl.get("Legs")));
-
-        Exercise highest = engine.getHighestVolumeExercise();
-        System.out.println(YELLOW + "\nHighest Volume Exercise:" + RESET);
-        System.out.println(" - " + GREEN + highest.getName() + RESET +
-                " (" + FormatUtils.formatNumber(highest.calculateTotalVolume()) + " lbs)");
+        var ppl = analytics.getVolumeSplit();
+        report.yellow().append("\nPush / Pull / Legs Split:").reset().newLine();
+        report.append(" - Push: ").appendPercent(ppl.get("Push")).newLine();
+        report.append(" - Pull: ").appendPercent(ppl.get("Pull")).newLine();
+        report.append(" - Legs: ").appendPercent(ppl.get("Legs")).newLine();
+
+        ExerciseShare highest = analytics.getHighestVolumeExercise();
+        if (highest != null) {
+            report.yellow().append("\nHighest Volume Exercise:").reset().newLine();
+            report.append(" - ").green().append(highest.getName()).reset()
+                    .append(" (").appendNumber(highest.getVolume()).append(" lbs)").newLine();
+        }
+        report.flush();
     }
 
     public void printComparison(WorkoutComparison result, Workout a, Workout b) {
         printSummary(a);
-        System.out.println("--------------------------------------------------");
-        System.out.println();
+        report.line("--------------------------------------------------");
+        report.newLine();
         printSummary(b);
 
-        System.out.println(CYAN + "=== " + a.getName() + " V.S " + b.getName() + " ===" + RESET);
+        report.cyan().append("=== ").append(a.getName()).append(" V.S ").append(b.getName()).append(" ===")
+                .reset().newLine();
         printVolumeDifference(result, a, b);
-        System.out.println();
+        report.newLine();
 
-        System.out.println("Common Exercises: ");
+        report.line("Common Exercises: ");
         if (result.getCommonExercises().isEmpty()) {
-            System.out.println(YELLOW + " - None in common" + RESET);
+            report.yellow().append(" - None in common").reset().newLine();
+        }
+
+        result.getCommonExercises().forEach(e -> report.append(" - ").line(e));
+        report.newLine();
+
+        report.append("Unique to ").append(a.getName()).line(":");
+        result.getUniqueToA().forEach(e -> report.append(" - ").line(e));
+        report.newLine();
+
+        report.append("Unique to ").append(b.getName()).line(":");
+        result.getUniqueToB().forEach(e -> report.append(" - ").line(e));
+        report.newLine();
+        report.flush();
+    }
+
+    public void printBreakdown(List<Map.Entry<String, PeriodRollup>> breakdown) {
+        report.cyan().append("\n=== Training Breakdown ===").reset().newLine();
+        for (Map.Entry<String, PeriodRollup> entry : breakdown) {
+            PeriodRollup rollup = entry.getValue();
+            RollupBucket total = rollup.getTotal();
+            report.yellow().append(entry.getKey()).reset()
+                    .append(" (").append(rollup.getWorkouts()).line(" workouts)");
+            report.append(" Total: ").appendNumber(total.getVolume()).append(" lbs, ")
+                    .append(total.getSets()).append(" sets, ").append(total.getReps()).line(" reps");
+            for (Map.Entry<String, RollupBucket> category : rollup.getCategories().entrySet()) {
+                double share = category.getValue().getVolume() / total.getVolume();
+                report.append(" - ").append(category.getKey()).append(": ")
+                        .appendNumber(category.getValue().getVolume()).append(" lbs (")
+                        .appendPercent(share).line(")");
+            }
         }
+        report.flush();
+    }
+
+    public void printPersonalRecords(List<PersonalRecord> records) {
+        report.cyan().append("\n=== Personal Records ===").reset().newLine();
+        for (PersonalRecord record : records) {
+            report.yellow().append(record.getExerciseName()).reset().newLine();
+            report.append(" - Heaviest: ").appendNumber(record.getMaxWeight()).append(" lbs x ")
+                    .append(record.getMaxWeightReps()).newLine();
+            report.append(" - Best volume: ").appendNumber(record.getMaxVolume()).line(" lbs");
+            report.append(" - Estimated 1RM: ")
+                    .appendNumber(record.estimatedOneRepMax(OneRepMaxFormula.EPLEY)).append(" lbs (Epley), ")
+                    .appendNumber(record.estimatedOneRepMax(OneRepMaxFormula.BRZYCKI)).line(" lbs (Brzycki)");
+        }
+        report.flush();
+    }
 
-        result.getCommonExercises().forEach(e -> System.out.println(" - " + e));
-        System.out.println();
+    public void printSimilarWorkouts(List<SimilarityMatch> matches) {
+        report.cyan().append("\n=== Most Similar Past Workouts ===").reset().newLine();
+        for (SimilarityMatch match : matches) {
+            Workout workout = match.getWorkout();
+            report.append(" - ").append(workout.getName()).append(" (").append(workout.getDate()).append("): ")
+                    .appendPercent(match.getSimilarity()).line(" exercise overlap");
+        }
+        report.flush();
+    }
 
-        System.out.println("Unique to " + a.getName() + ":");
-        result.getUniqueToA().forEach(e -> System.out.println(" - " + e));
-        System.out.println();
+    public void printTrends(Map<String, TrendSeries> trends) {
+        report.cyan().append("\n=== Muscle Group Trends ===").reset().newLine();
+        for (Map.Entry<String, TrendSeries> entry : trends.entrySet()) {
+            TrendSeries trend = entry.getValue();
+            report.yellow().append(entry.getKey()).reset()
+                    .append(" (").append(trend.getSessions()).line(" sessions)");
+            report.append(" - Avg volume: ").appendNumber(trend.averageVolume(TrendWindow.ACUTE))
+                    .append(" lbs (last 7), ").appendNumber(trend.averageVolume(TrendWindow.CHRONIC))
+                    .line(" lbs (last 28)");
+            report.append(" - Avg top weight: ")
+                    .appendNumber(trend.averageTopWeight(TrendWindow.ACUTE)).append(" lbs (last 7), ")
+                    .appendNumber(trend.averageTopWeight(TrendWindow.CHRONIC)).line(" lbs (last 28)");
+            double ratio = trend.acuteChronicRatio();
+            report.append(" - Acute:chronic workload: ");
+            if (ratio > 1.5) {
+                report.red();
+            } else {
+                report.green();
+            }
+            report.appendNumber(ratio).reset().newLine();
+        }
+        report.flush();
+    }
+
+    public void printApproximateSummary(WorkoutSketch summary) {
+        report.cyan().append("\n=== History Summary (approximate) ===").reset().newLine();
+        report.append("Workouts: ").append(summary.getWorkouts()).newLine();
+        report.append("Distinct exercises: ~").append(summary.estimateDistinctExercises()).newLine();
+        report.yellow().append("Weight per exercise:").reset().newLine();
+        report.append(" - Median: ").appendNumber(summary.weightQuantile(0.5)).line(" lbs");
+        report.append(" - 90th percentile: ").appendNumber(summary.weightQuantile(0.9)).line(" lbs");
+        report.yellow().append("Volume per exercise:").reset().newLine();
+        report.append(" - Median: ").appendNumber(summary.volumeQuantile(0.5)).line(" lbs");
+        report.append(" - 90th percentile: ").appendNumber(summary.volumeQuantile(0.9)).line(" lbs");
+        report.flush();
+    }
 
-        System.out.println("Unique to " + b.getName() + ":");
-        result.getUniqueToB().forEach(e -> System.out.println(" - " + e));
-        System.out.println();
+    private void printShare(ExerciseShare entry) {
+        report.append(" - ").append(entry.getName()).append(": ").appendPercent(entry.getShare()).newLine();
     }
 
     private void printVolumeDifference(WorkoutComparison result, Workout a, Workout b) {
         double percent = result.volumeDifferenceAsPercent();
-        String volumeDifference = FormatUtils.formatNumber(result.getVolumeDifference());
 
         if (a.calculateTotalWorkoutVolume() > b.calculateTotalWorkoutVolume()) {
-            System.out.println(a.getName() + " volume was greater by +" + volumeDifference
-                    + " lbs (+" + FormatUtils.formatPercent(percent) + ")");
+            report.append(a.getName()).append(" volume was greater by +").appendNumber(result.getVolumeDifference())
+                    .append(" lbs (+").appendPercent(percent).line(")");
         } else if (b.calculateTotalWorkoutVolume() > a.calculateTotalWorkoutVolume()) {
-            System.out.println(b.getName() + " volume was greater by +" + volumeDifference
-                    + " lbs (+" + FormatUtils.formatPercent(percent) + ")");
+            report.append(b.getName()).append(" volume was greater by +").appendNumber(result.getVolumeDifference())
+                    .append(" lbs (+").appendPercent(percent).line(")");
         } else {
-            System.out.println("No difference in volume");
+            report.line("No difference in volume");
         }
     }
 
     private void printSummary(Workout workout) {
-        System.out.println(CYAN + "=== " + workout.getName() + " Summary" + " ===" + RESET);
-        System.out.println("Total Volume: " + FormatUtils.formatNumber(workout.calculateTotalWorkoutVolume()) + " lbs");
-        System.out.println("Exercises:");
+        report.cyan().append("=== ").append(workout.getName()).append(" Summary").append(" ===").reset().newLine();
+        report.append("Total Volume: ").appendNumber(workout.calculateTotalWorkoutVolume()).line(" lbs");
+        report.line("Exercises:");
         for (Exercise e : workout.getExercises()) {
-            System.out
-                    .println(" - " + e.getName() + ": " + FormatUtils.formatNumber(e.calculateTotalVolume()) + " lbs");
+            report.append(" - ").append(e.getName()).append(": ").appendNumber(e.calculateTotalVolume()).line(" lbs");
         }
-        System.out.println();
+        report.newLine();
     }
 }
@@ -49,6 +49,12 @@ public class InputReader {
         }
     }
 
+    // Unlike readNonBlankString, blank input is returned rather than rejected
+    public String readLine(String prompt) {
+        System.out.print(YELLOW + prompt + RESET);
+        return scanner.nextLine().strip();
+    }
+
     public int readPositiveInteger(String prompt) {
         while (true) {
             System.out.print(YELLOW + prompt + RESET);
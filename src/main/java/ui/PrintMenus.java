@@ -19,8 +19,11 @@ public class PrintMenus {
         System.out.println("4: List saved workouts");
         System.out.println("5: Compare two workouts");
         System.out.println("6: Delete workout");
-        System.out.println("7: Help/Reprint commands ");
-        System.out.println("8: Quit main menu");
+        System.out.println("7: Weekly/monthly breakdown");
+        System.out.println("8: Personal records");
+        System.out.println("9: Performance stats");
+        System.out.println("10: Help/Reprint commands ");
+        System.out.println("11: Quit main menu");
 
     }
 
@@ -34,6 +37,7 @@ public class PrintMenus {
         System.out.println("6: Help/Reprint commands ");
         System.out.println("7: View analytics");
         System.out.println("8: Save workout");
-        System.out.println("9: Return to main menu");
+        System.out.println("9: Find similar past workouts");
+        System.out.println("10: Return to main menu");
     }
 }
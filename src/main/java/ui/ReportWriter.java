@@ -0,0 +1,282 @@
+package ui;
+
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+// Builds a whole report in one reusable buffer and writes it with a single flush. Numbers are formatted
+// by hand into the buffer and match FormatUtils character for character; anything the fast path can't
+// reproduce exactly (rounding ties, non-finite values, unusual locales) is handed to FormatUtils.
+public class ReportWriter {
+    private static final String RED = "\u001B[31m";
+    private static final String GREEN = "\u001B[32m";
+    private static final String YELLOW = "\u001B[33m";
+    private static final String CYAN = "\u001B[36m";
+    private static final String RESET = "\u001B[0m";
+
+    private static final String NO_DATA = "No data available";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int INITIAL_CAPACITY = 4096;
+    // Above this, value * 100 loses the precision needed to round to cents safely
+    private static final double FAST_PATH_LIMIT = 1e13;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static volatile NumberSymbols symbols;
+
+    private final PrintStream out;
+    private final boolean color;
+    private final StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+
+    public ReportWriter() {
+        this(System.out, true);
+    }
+
+    public ReportWriter(PrintStream out, boolean color) {
+        this.out = out;
+        this.color = color;
+    }
+
+    public ReportWriter append(String text) {
+        buffer.append(text);
+        return this;
+    }
+
+    public ReportWriter append(char c) {
+        buffer.append(c);
+        return this;
+    }
+
+    public ReportWriter append(long value) {
+        buffer.append(value);
+        return this;
+    }
+
+    public ReportWriter append(Object value) {
+        buffer.append(value);
+        return this;
+    }
+
+    public ReportWriter line(String text) {
+        return append(text).newLine();
+    }
+
+    public ReportWriter newLine() {
+        buffer.append(LINE_SEPARATOR);
+        return this;
+    }
+
+    public ReportWriter red() {
+        return ansi(RED);
+    }
+
+    public ReportWriter green() {
+        return ansi(GREEN);
+    }
+
+    public ReportWriter yellow() {
+        return ansi(YELLOW);
+    }
+
+    public ReportWriter cyan() {
+        return ansi(CYAN);
+    }
+
+    public ReportWriter reset() {
+        return ansi(RESET);
+    }
+
+    // Same output as FormatUtils.formatNumber
+    public ReportWriter appendNumber(double value) {
+        NumberSymbols current = currentSymbols();
+        if (!current.exact || !current.appendNumber(buffer, value)) {
+            buffer.append(FormatUtils.formatNumber(value));
+        }
+        return this;
+    }
+
+    // Same output as FormatUtils.formatPercent
+    public ReportWriter appendPercent(double value) {
+        if (Double.isNaN(value) || value < 0) {
+            buffer.append(NO_DATA);
+            return this;
+        }
+        NumberSymbols current = currentSymbols();
+        if (!current.exact || !current.appendPercent(buffer, value)) {
+            buffer.append(FormatUtils.formatPercent(value));
+        }
+        return this;
+    }
+
+    // Where the next character goes; pass it to alignLeft or alignRight once a column's text is appended
+    public int position() {
+        return buffer.length();
+    }
+
+    // Pads the text appended since start with trailing spaces to at least width characters
+    public ReportWriter alignLeft(int start, int width) {
+        int padding = width - (buffer.length() - start);
+        if (padding > 0) {
+            buffer.append(" ".repeat(padding));
+        }
+        return this;
+    }
+
+    // Pads the text appended since start with leading spaces to at least width characters
+    public ReportWriter alignRight(int start, int width) {
+        int padding = width - (buffer.length() - start);
+        if (padding > 0) {
+            buffer.insert(start, " ".repeat(padding));
+        }
+        return this;
+    }
+
+    public void flush() {
+        if (buffer.length() > 0) {
+            out.print(buffer);
+            buffer.setLength(0);
+        }
+        out.flush();
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    private ReportWriter ansi(String code) {
+        if (color) {
+            buffer.append(code);
+        }
+        return this;
+    }
+
+    private static NumberSymbols currentSymbols() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        NumberSymbols current = symbols;
+        if (current == null || !current.locale.equals(locale)) {
+            current = new NumberSymbols(locale);
+            symbols = current;
+        }
+        return current;
+    }
+
+    // The separators String.format uses for a locale, checked once against String.format itself
+    private static final class NumberSymbols {
+        private static final double[] NUMBER_PROBES = { 0, 7, 1234567, -1234567, 1234567.891, -0.001, 0.125,
+                2.675, 999.995, -98765.4321, 12345678901.25 };
+        private static final double[] PERCENT_PROBES = { 0, 1, 0.5, 0.12345, 1.0 / 3, 12.5, 123.456 };
+
+        private final Locale locale;
+        private final char groupingSeparator;
+        private final char decimalSeparator;
+        private final int groupingSize;
+        private final boolean exact;
+
+        private NumberSymbols(Locale locale) {
+            this.locale = locale;
+            DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance(locale);
+            this.groupingSeparator = dfs.getGroupingSeparator();
+            this.decimalSeparator = dfs.getDecimalSeparator();
+            NumberFormat integerFormat = NumberFormat.getIntegerInstance(locale);
+            this.groupingSize = integerFormat instanceof DecimalFormat df && df.isGroupingUsed()
+                    ? df.getGroupingSize()
+                    : 0;
+            this.exact = dfs.getZeroDigit() == '0' && matchesFormatUtils();
+        }
+
+        private boolean matchesFormatUtils() {
+            StringBuilder probe = new StringBuilder();
+            for (double value : NUMBER_PROBES) {
+                probe.setLength(0);
+                if (appendNumber(probe, value) && !probe.toString().equals(FormatUtils.formatNumber(value))) {
+                    return false;
+                }
+            }
+            for (double value : PERCENT_PROBES) {
+                probe.setLength(0);
+                if (appendPercent(probe, value) && !probe.toString().equals(FormatUtils.formatPercent(value))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Returns false without writing anything when the caller should fall back to FormatUtils
+        private boolean appendNumber(StringBuilder sb, double value) {
+            if (value == (long) value) {
+                return appendInteger(sb, (long) value, groupingSize);
+            }
+            return appendFixed(sb, value, groupingSize);
+        }
+
+        private boolean appendPercent(StringBuilder sb, double value) {
+            double percent = value * 100;
+            boolean written = percent == (long) percent
+                    ? appendInteger(sb, (long) percent, 0)
+                    : appendFixed(sb, percent, 0);
+            if (written) {
+                sb.append('%');
+            }
+            return written;
+        }
+
+        private boolean appendInteger(StringBuilder sb, long value, int groupSize) {
+            if (value == Long.MIN_VALUE) {
+                return false;
+            }
+            if (value < 0) {
+                sb.append('-');
+                value = -value;
+            }
+            appendDigits(sb, value, groupSize);
+            return true;
+        }
+
+        // %.2f rounds the shortest decimal form of the double half-up; that only differs from rounding
+        // value * 100 when the product sits within a few ulps of a .5 tie
+        private boolean appendFixed(StringBuilder sb, double value, int groupSize) {
+            double magnitude = Math.abs(value);
+            if (!(magnitude < FAST_PATH_LIMIT)) {
+                return false;
+            }
+            double scaled = magnitude * 100;
+            long cents = (long) scaled;
+            double fraction = scaled - cents;
+            if (Math.abs(fraction - 0.5) <= 4 * Math.ulp(scaled)) {
+                return false;
+            }
+            if (fraction > 0.5) {
+                cents++;
+            }
+            if (value < 0) {
+                sb.append('-');
+            }
+            appendDigits(sb, cents / 100, groupSize);
+            long remainder = cents % 100;
+            sb.append(decimalSeparator).append((char) ('0' + remainder / 10)).append((char) ('0' + remainder % 10));
+            return true;
+        }
+
+        private void appendDigits(StringBuilder sb, long magnitude, int groupSize) {
+            int digits = 1;
+            while (digits < POWERS_OF_TEN.length && magnitude >= POWERS_OF_TEN[digits]) {
+                digits++;
+            }
+            for (int i = digits; i > 0; i--) {
+                sb.append((char) ('0' + magnitude / POWERS_OF_TEN[i - 1] % 10));
+                if (groupSize > 0 && i > 1 && (i - 1) % groupSize == 0) {
+                    sb.append(groupingSeparator);
+                }
+            }
+        }
+    }
+}
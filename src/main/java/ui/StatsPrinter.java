@@ -0,0 +1,96 @@
+package ui;
+
+import java.util.List;
+
+import metrics.CacheCounter;
+import metrics.OperationTimer;
+
+// Numbers go through ReportWriter like every other report, and the columns are padded around them
+public class StatsPrinter {
+    private static final int NAME_WIDTH = 28;
+    private static final int COUNT_WIDTH = 8;
+    private static final int FAILED_WIDTH = 6;
+    private static final int RATE_WIDTH = 9;
+    private static final int DURATION_WIDTH = 10;
+
+    private final ReportWriter report;
+
+    public StatsPrinter(ReportWriter report) {
+        this.report = report;
+    }
+
+    public void printStats(List<OperationTimer> timers, List<CacheCounter> caches) {
+        report.cyan().append("\n=== Performance Stats ===").reset().newLine();
+        report.yellow();
+        int start = report.position();
+        report.append("Operation").alignLeft(start, NAME_WIDTH);
+        header("Count", COUNT_WIDTH);
+        header("Failed", FAILED_WIDTH);
+        header("Ops/s", RATE_WIDTH);
+        header("p50", DURATION_WIDTH);
+        header("p99", DURATION_WIDTH);
+        header("Max", DURATION_WIDTH);
+        report.reset().newLine();
+        boolean any = false;
+        for (OperationTimer timer : timers) {
+            long count = timer.getCount();
+            if (count == 0) {
+                continue;
+            }
+            any = true;
+            start = report.position();
+            report.append(timer.getGroup()).append('.').append(timer.getOperation()).alignLeft(start, NAME_WIDTH);
+            start = column();
+            report.append(count).alignRight(start, COUNT_WIDTH);
+            start = column();
+            report.append(timer.getFailures()).alignRight(start, FAILED_WIDTH);
+            start = column();
+            report.appendNumber(timer.getThroughput()).alignRight(start, RATE_WIDTH);
+            duration(timer.getP50Micros());
+            duration(timer.getP99Micros());
+            duration(timer.getMaxMicros());
+            report.newLine();
+        }
+        if (!any) {
+            report.red().append("  No operations recorded yet").reset().newLine();
+        }
+
+        report.yellow().append("\nCache hit rates:").reset().newLine();
+        if (caches.isEmpty()) {
+            report.red().append("  No caches in use yet").reset().newLine();
+        }
+        for (CacheCounter cache : caches) {
+            long lookups = cache.getHits() + cache.getMisses();
+            report.append(" - ").append(cache.getName()).append(": ");
+            if (lookups == 0) {
+                report.line("no lookups yet");
+            } else {
+                report.appendPercent(cache.getHitRate()).append(" of ").append(lookups).line(" lookups");
+            }
+        }
+        report.flush();
+    }
+
+    // Starts a column after the one before it, returning where its text begins
+    private int column() {
+        report.append(' ');
+        return report.position();
+    }
+
+    private void header(String title, int width) {
+        int start = column();
+        report.append(title).alignRight(start, width);
+    }
+
+    private void duration(long micros) {
+        int start = column();
+        if (micros < 1000) {
+            report.append(micros).append(" us");
+        } else if (micros < 1_000_000) {
+            report.appendNumber(micros / 1000.0).append(" ms");
+        } else {
+            report.appendNumber(micros / 1_000_000.0).append(" s");
+        }
+        report.alignRight(start, DURATION_WIDTH);
+    }
+}
@@ -1,23 +1,24 @@
 package ui;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import model.Workout;
+import analytics.AnalyticsCache;
 import analytics.AnalyticsEngine;
+import analytics.ExerciseShare;
+import analytics.HistoryIndexes;
+import analytics.LiveAnalytics;
+import analytics.PersonalRecord;
+import analytics.RollupPeriod;
+import analytics.SimilarityMatch;
 import analytics.WorkoutComparison;
+import metrics.Metrics;
 import storage.WorkoutStorage;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-
 public class UserInterface {
 
     // Color Constants
@@ -28,34 +29,91 @@ public class UserInterface {
     private static final String RESET = "\u001B[0m";
 
     private final InputReader inputReader;
-    private final AnalyticsEngine engine = new AnalyticsEngine();
-    private final WorkoutStorage storage = new WorkoutStorage();
+    // Built on first use, so the main menu appears before Jackson, the indexes or the engine are loaded
+    private AnalyticsEngine engine;
+    private AnalyticsCache analyticsCache;
+    private WorkoutStorage storage;
+    private HistoryIndexes indexes;
     private final PrintMenus menuPrinter = new PrintMenus();
     private final WorkoutEditor workoutEditor;
+    private final ReportWriter report = new ReportWriter();
     private final AnalyticsPrinter analyticsPrinter;
+    private final StatsPrinter statsPrinter;
+    private WorkoutPicker workoutPicker;
+    // Runs analytics and loads ahead of the menu choices that need them; one virtual thread per task, so a long
+    // history load never delays a workout's analytics
+    private ExecutorService prefetchExecutor;
     private boolean workoutSaved = true;
 
     public UserInterface() {
         this.inputReader = new InputReader(new Scanner(System.in));
-        this.workoutEditor = new WorkoutEditor(inputReader);
-        this.analyticsPrinter = new AnalyticsPrinter(engine);
+        this.workoutEditor = new WorkoutEditor(inputReader, () -> indexes().exerciseNames());
+        this.analyticsPrinter = new AnalyticsPrinter(report);
+        this.statsPrinter = new StatsPrinter(report);
     }
 
     public void start() {
+        // The platform MBean server takes longer to start than the menu, so it is brought up off the main thread
+        Thread.ofVirtual().name("metrics-jmx").start(Metrics::registerMBeans);
         runMainMenu();
     }
 
+    // The indexes are attached together with the storage so they never miss a save
+    private WorkoutStorage storage() {
+        if (storage == null) {
+            storage = new WorkoutStorage();
+            indexes = HistoryIndexes.attach(storage);
+        }
+        return storage;
+    }
+
+    private HistoryIndexes indexes() {
+        storage();
+        return indexes;
+    }
+
+    private AnalyticsEngine engine() {
+        if (engine == null) {
+            engine = new AnalyticsEngine();
+        }
+        return engine;
+    }
+
+    private AnalyticsCache analyticsCache() {
+        if (analyticsCache == null) {
+            analyticsCache = new AnalyticsCache(engine());
+        }
+        return analyticsCache;
+    }
+
+    private ExecutorService prefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return prefetchExecutor;
+    }
+
+    private WorkoutPicker workoutPicker() {
+        if (workoutPicker == null) {
+            workoutPicker = new WorkoutPicker(inputReader, storage().getCatalog(), report);
+        }
+        return workoutPicker;
+    }
+
     private static final int CREATE_WORKOUT = 1;
     private static final int LOAD_A_WORKOUT = 2;
     private static final int LOAD_ALL_WORKOUTS = 3;
     private static final int LIST_SAVED_WORKOUTS = 4;
     private static final int COMPARE_TWO_WORKOUTS = 5;
     private static final int DELETE_WORKOUT = 6;
-    private static final int REPRINT_COMMANDS_MAIN = 7;
-    private static final int QUIT_MAIN_MENU = 8;
+    private static final int VIEW_BREAKDOWN = 7;
+    private static final int VIEW_PERSONAL_RECORDS = 8;
+    private static final int VIEW_STATS = 9;
+    private static final int REPRINT_COMMANDS_MAIN = 10;
+    private static final int QUIT_MAIN_MENU = 11;
 
     private static final int MAIN_MENU_MIN = 1;
-    private static final int MAIN_MENU_MAX = 8;
+    private static final int MAIN_MENU_MAX = 11;
 
     private void runMainMenu() {
         menuPrinter.printMainMenu();
@@ -84,6 +142,15 @@ public class UserInterface {
                 case DELETE_WORKOUT:
                     deleteWorkout();
                     break;
+                case VIEW_BREAKDOWN:
+                    viewBreakdown();
+                    break;
+                case VIEW_PERSONAL_RECORDS:
+                    viewPersonalRecords();
+                    break;
+                case VIEW_STATS:
+                    viewStats();
+                    break;
                 case REPRINT_COMMANDS_MAIN:
                     menuPrinter.printMainMenu();
                     break;
@@ -101,77 +168,89 @@ public class UserInterface {
         Workout workout = new Workout(workoutName);
         System.out.println();
 
-        loadedWorkoutMenu(workout);
+        try (WorkoutPrefetch prefetch = WorkoutPrefetch.history(storage(), prefetchExecutor())) {
+            loadedWorkoutMenu(workout, prefetch);
+        }
     }
 
     private void loadWorkout() {
-        String fileName = chooseWorkoutFile();
-        if (fileName == null) {
-            return;
+        // The history loads while the picker is showing
+        try (WorkoutPrefetch prefetch = WorkoutPrefetch.history(storage(), prefetchExecutor())) {
+            String fileName = chooseWorkoutFile("Load Workout");
+            if (fileName == null) {
+                return;
+            }
+            Workout loadedWorkout = storage().loadWorkout(fileName);
+            if (loadedWorkout == null) {
+                return;
+            }
+            loadedWorkoutMenu(loadedWorkout, prefetch);
         }
-        Workout loadedWorkout = storage.loadWorkout(fileName);
-        loadedWorkoutMenu(loadedWorkout);
     }
 
+    private static final int TOP_HISTORY_EXERCISES = 5;
+
     private void loadAllWorkouts() {
-        List<Workout> loadedWorkouts = storage.loadAllWorkouts();
+        List<Workout> loadedWorkouts = storage().loadAllWorkouts();
 
         if (loadedWorkouts.isEmpty()) {
             System.out.println(RED + "No saved workouts found" + RESET);
             return;
         }
-        System.out.println(CYAN + "Loaded " + loadedWorkouts.size() + " workouts successfully" + RESET);
+        report.cyan().append("Loaded ").append(loadedWorkouts.size()).append(" workouts successfully").reset()
+                .newLine();
         for (Workout workout : loadedWorkouts) {
-            System.out.println(GREEN + "Loaded: " + workout.getName() + RESET);
+            report.green().append("Loaded: ").append(workout.getName()).reset().newLine();
         }
+        report.cyan().append("Total volume by category:").reset().newLine();
+        engine().historyVolumeByCategory(loadedWorkouts).forEach((category, volume) -> report
+                .append(" - ").append(category).append(": ").appendNumber(volume).line(" lbs"));
+        report.cyan().append("Top exercises by volume:").reset().newLine();
+        engine().volumeByExercise(loadedWorkouts, indexes().exerciseNames()).entrySet().stream()
+                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
+                .limit(TOP_HISTORY_EXERCISES)
+                .forEach(entry -> report.append(" - ").append(entry.getKey()).append(": ")
+                        .appendNumber(entry.getValue()).line(" lbs"));
+        report.flush();
     }
 
     private void listSavedWorkouts() {
-        List<String> workouts = storage.getSavedWorkouts();
-        if (workouts.isEmpty()) {
-            System.out.println(RED + "No saved workouts found" + RESET);
-            return;
-        }
-        System.out.println(CYAN + "=== Saved Workouts ===" + RESET);
-
-        int fileCounter = 1;
-        for (String workoutData : workouts) {
-            System.out.println(fileCounter + ". " + workoutData +
-                    " (Created at: " + fileCreationDate(workoutData) + ")");
-            fileCounter++;
-        }
-
+        workoutPicker().browse("Saved Workouts");
     }
 
     private void compareWorkouts() {
-        if (storage.getSavedWorkouts().size() < 2) {
+        if (storage().getCatalog().size() < 2) {
             System.out.println(RED + "Insufficient workout data, please log 2 workouts minimum to compare");
             return;
         }
-        Workout a = storage.loadWorkout(chooseWorkoutFile());
+        String fileA = chooseWorkoutFile("First Workout");
+        if (fileA == null) {
+            return;
+        }
         System.out.println(YELLOW + "First Workout Selected" + RESET);
-        Workout b = storage.loadWorkout(chooseWorkoutFile());
-        WorkoutComparison result = engine.compareWorkouts(a, b);
+        WorkoutStorage storage = storage();
+        CompletableFuture<Workout> first = CompletableFuture.supplyAsync(() -> storage.loadWorkout(fileA),
+                prefetchExecutor());
+        String fileB = chooseWorkoutFile("Second Workout");
+        if (fileB == null) {
+            first.cancel(false);
+            return;
+        }
+        Workout a = first.join();
+        Workout b = storage.loadWorkout(fileB);
+        if (a == null || b == null) {
+            return;
+        }
+        WorkoutComparison result = analyticsCache().compare(a, b);
         System.out.println();
         analyticsPrinter.printComparison(result, a, b);
     }
 
     private void deleteWorkout() {
-        List<String> workouts = storage.getSavedWorkouts();
-        if (workouts.isEmpty()) {
-            System.out.println(RED + "No saved workouts to delete." + RESET);
+        String workoutToDelete = chooseWorkoutFile("Delete Workout");
+        if (workoutToDelete == null) {
             return;
         }
-        System.out.println(CYAN + "=== Delete Workout ===" + RESET);
-        int fileCounter = 1;
-        for (String workoutData : workouts) {
-            System.out.println(fileCounter + ". " + workoutData);
-            fileCounter++;
-        }
-
-        int cmd = inputReader.readMenuChoice("Choose a workout to delete",
-                1, storage.getSavedWorkouts().size()) - 1;
-        String workoutToDelete = workouts.get(cmd);
 
         String confirm = inputReader.readNonBlankString(YELLOW + "Are you sure you want to delete "
                 + workoutToDelete + "? (y/n): " + RESET);
@@ -181,7 +260,7 @@ public class UserInterface {
             return;
         }
 
-        boolean success = storage.deleteWorkout(workoutToDelete);
+        boolean success = storage().deleteWorkout(workoutToDelete);
         if (success) {
             System.out.println(GREEN + "Workout deleted." + RESET);
         } else {
@@ -189,6 +268,71 @@ public class UserInterface {
         }
     }
 
+    private static final int WEEKLY_BREAKDOWN = 1;
+    private static final int MUSCLE_GROUP_TRENDS = 3;
+    private static final int APPROXIMATE_SUMMARY = 4;
+    private static final int BREAKDOWN_PERIODS_SHOWN = 6;
+
+    private void viewBreakdown() {
+        System.out.println("1: Weekly");
+        System.out.println("2: Monthly");
+        System.out.println("3: Muscle group trends");
+        System.out.println("4: Approximate history summary");
+        int choice = inputReader.readMenuChoice("Breakdown: ", 1, 4);
+        if (choice == MUSCLE_GROUP_TRENDS) {
+            viewTrends();
+            return;
+        }
+        if (choice == APPROXIMATE_SUMMARY) {
+            viewApproximateSummary();
+            return;
+        }
+        RollupPeriod period = choice == WEEKLY_BREAKDOWN ? RollupPeriod.WEEK : RollupPeriod.MONTH;
+
+        var breakdown = indexes().rollups().latest(period, BREAKDOWN_PERIODS_SHOWN);
+        if (breakdown.isEmpty()) {
+            System.out.println(RED + "No saved workouts found" + RESET);
+            return;
+        }
+        analyticsPrinter.printBreakdown(breakdown);
+        System.out.println();
+    }
+
+    private void viewTrends() {
+        var muscleGroups = indexes().trends().muscleGroups();
+        if (muscleGroups.isEmpty()) {
+            System.out.println(RED + "No saved workouts found" + RESET);
+            return;
+        }
+        analyticsPrinter.printTrends(muscleGroups);
+        System.out.println();
+    }
+
+    private void viewApproximateSummary() {
+        var summary = indexes().sketches().summarize();
+        if (summary.getWorkouts() == 0) {
+            System.out.println(RED + "No saved workouts found" + RESET);
+            return;
+        }
+        analyticsPrinter.printApproximateSummary(summary);
+        System.out.println();
+    }
+
+    private void viewPersonalRecords() {
+        List<PersonalRecord> records = indexes().personalRecords().all();
+        if (records.isEmpty()) {
+            System.out.println(RED + "No saved workouts found" + RESET);
+            return;
+        }
+        analyticsPrinter.printPersonalRecords(records);
+        System.out.println();
+    }
+
+    private void viewStats() {
+        statsPrinter.printStats(Metrics.timers(), Metrics.caches());
+        System.out.println();
+    }
+
     private void quit() {
         System.out.println(YELLOW + "Exiting program..." + RESET);
         System.exit(0);
@@ -202,13 +346,16 @@ public class UserInterface {
     private static final int REPRINT_COMMANDS_LOADED = 6;
     private static final int VIEW_ANALYTICS = 7;
     private static final int SAVE_WORKOUT = 8;
-    private static final int QUIT_LOADED_MENU = 9;
+    private static final int FIND_SIMILAR = 9;
+    private static final int QUIT_LOADED_MENU = 10;
 
     private static final int LOADED_WORKOUT_MENU_MIN = 1;
-    private static final int LOADED_WORKOUT_MENU_MAX = 9;
+    private static final int LOADED_WORKOUT_MENU_MAX = 10;
 
-    private void loadedWorkoutMenu(Workout workout) {
+    private void loadedWorkoutMenu(Workout workout, WorkoutPrefetch prefetch) {
         menuPrinter.printLoadedWorkoutMenu(workout);
+        LiveAnalytics live = LiveAnalytics.attach(workout);
+        prefetch.analyze(workout, analyticsCache());
 
         while (true) {
             int cmd = inputReader.readMenuChoice("Command: ",
@@ -217,19 +364,22 @@ public class UserInterface {
             switch (cmd) {
                 case ADD_EXERCISE:
                     addExerciseToWorkout(workout);
+                    prefetch.analyze(workout, analyticsCache());
                     break;
                 case LIST_WORKOUT:
                     printWorkoutList(workout);
                     break;
                 case EDIT_EXERCISE:
                     editExercise(workout);
+                    prefetch.analyze(workout, analyticsCache());
                     break;
                 case DELETE_EXERCISE:
-                    workout.printWorkout();
+                    workout.printWorkout(report);
                     workoutEditor.deleteExercise(workout);
+                    prefetch.analyze(workout, analyticsCache());
                     break;
                 case VIEW_SUMMARY:
-                    viewWorkoutSummary(workout);
+                    viewWorkoutSummary(workout, live);
                     break;
                 case REPRINT_COMMANDS_LOADED:
                     menuPrinter.printLoadedWorkoutMenu(workout);
@@ -240,8 +390,12 @@ public class UserInterface {
                 case SAVE_WORKOUT:
                     saveWorkout(workout);
                     break;
+                case FIND_SIMILAR:
+                    findSimilarWorkouts(workout, prefetch);
+                    break;
                 case QUIT_LOADED_MENU:
                     if (handleQuitLoadedMenu(workout)) {
+                        workout.closeEvents();
                         System.out.println();
                         menuPrinter.printMainMenu();
                         return;
@@ -262,7 +416,7 @@ public class UserInterface {
         if (emptyWorkout(workout)) {
             return;
         }
-        workout.printWorkout();
+        workout.printWorkout(report);
         System.out.println();
     }
 
@@ -270,7 +424,7 @@ public class UserInterface {
         if (emptyWorkout(workout)) {
             return;
         }
-        workout.printWorkout();
+        workout.printWorkout(report);
         workoutEditor.editExercise(workout);
         workoutSaved = false;
 
@@ -278,29 +432,57 @@ public class UserInterface {
         System.out.println();
     }
 
-    private void viewWorkoutSummary(Workout workout) {
+    private void viewWorkoutSummary(Workout workout, LiveAnalytics live) {
         if (emptyWorkout(workout)) {
             return;
         }
 
-        System.out.println(CYAN + "\n=== Workout Summary ===" + RESET);
-        System.out.println("Workout: " + workout.getName());
-        System.out.println("Total Sets: " + workout.totalSets());
-        System.out.println("Total Reps: " + workout.totalReps());
-        System.out.println("Total Volume: " + FormatUtils.formatNumber(workout.calculateTotalWorkoutVolume()) + " lbs");
-        System.out.println();
+        report.cyan().append("\n=== Workout Summary ===").reset().newLine();
+        report.append("Workout: ").line(workout.getName());
+        report.append("Total Sets: ").append(workout.totalSets()).newLine();
+        report.append("Total Reps: ").append(workout.totalReps()).newLine();
+        report.append("Total Volume: ").appendNumber(workout.calculateTotalWorkoutVolume()).line(" lbs");
+
+        var ppl = live.volumePercentageSplit();
+        report.append("Split: Push ").appendPercent(ppl.get("Push"))
+                .append(" / Pull ").appendPercent(ppl.get("Pull"))
+                .append(" / Legs ").appendPercent(ppl.get("Legs")).newLine();
+        for (ExerciseShare top : live.topExercises(1)) {
+            report.append("Top Exercise: ").append(top.getName())
+                    .append(" (").appendNumber(top.getVolume()).line(" lbs)");
+        }
+        report.newLine();
+        report.flush();
     }
 
     private void saveWorkout(Workout workout) {
         if (emptyWorkout(workout)) {
             return;
         }
-        if (storage.saveWorkout(workout)) {
-            System.out.println(GREEN + "Workout Saved!" + RESET);
-            workoutSaved = true;
-        } else {
-            System.out.println(RED + "Could not save workout" + RESET);
+        switch (storage().save(workout).result()) {
+            case SAVED -> {
+                System.out.println(GREEN + "Workout Saved!" + RESET);
+                workoutSaved = true;
+            }
+            case CONFLICT -> System.out.println(RED + "This workout was saved elsewhere since you loaded it; "
+                    + "reload it and re-apply your changes" + RESET);
+            default -> System.out.println(RED + "Could not save workout" + RESET);
+        }
+    }
+
+    private static final int SIMILAR_WORKOUTS_SHOWN = 3;
+
+    private void findSimilarWorkouts(Workout workout, WorkoutPrefetch prefetch) {
+        if (emptyWorkout(workout)) {
+            return;
+        }
+        List<SimilarityMatch> matches = prefetch.mostSimilar(workout, SIMILAR_WORKOUTS_SHOWN);
+        if (matches.isEmpty()) {
+            System.out.println(RED + "No saved workouts to compare against" + RESET);
+            return;
         }
+        analyticsPrinter.printSimilarWorkouts(matches);
+        System.out.println();
     }
 
     private boolean handleQuitLoadedMenu(Workout workout) {
@@ -315,49 +497,12 @@ public class UserInterface {
         return true;
     }
 
-    private String chooseWorkoutFile() {
-        List<String> workouts = storage.getSavedWorkouts();
-        if (workouts.isEmpty()) {
-            System.out.println(RED + "No workouts to load");
-            return null;
-        }
-
-        System.out.println();
-        System.out.println(CYAN + "=== Saved Workouts ===" + RESET);
-
-        int fileCounter = 1;
-        for (String workoutData : workouts) {
-
-            System.out
-                    .println(fileCounter + ". " + workoutData + " (Created at: " + fileCreationDate(workoutData) + ")");
-            fileCounter++;
-        }
-
-        int maxNumberOfWorkouts = workouts.size();
-        int input = inputReader.readMenuChoice("Choose workout to load: ",
-                1, maxNumberOfWorkouts) - 1;
-        System.out.println();
-        String fileName = workouts.get(input);
-
-        return fileName;
-    }
-
-    private String fileCreationDate(String fileName) {
-        try {
-            Path filePath = Paths.get("data/", fileName);
-            BasicFileAttributes attr = Files.readAttributes(filePath, BasicFileAttributes.class);
-            Instant fileCreationTime = attr.creationTime().toInstant();
-            DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
-            LocalDateTime time = LocalDateTime.ofInstant(fileCreationTime, ZoneId.systemDefault());
-            return dateFormat.format(time);
-
-        } catch (IOException e) {
-            return "unknown";
-        }
+    private String chooseWorkoutFile(String title) {
+        return workoutPicker().choose(title);
     }
 
     private void showWorkoutAnalytics(Workout workout) {
-        analyticsPrinter.printWorkoutAnalytics(workout);
+        analyticsPrinter.printWorkoutAnalytics(analyticsCache().analyze(workout));
         System.out.println();
     }
 
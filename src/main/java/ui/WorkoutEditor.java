@@ -1,10 +1,20 @@
 package ui;
 
+import java.util.List;
+import java.util.function.Supplier;
+
+import analytics.ExerciseNameIndex;
 import model.Exercise;
+import model.ExerciseNames;
+import model.ExerciseSnapshot;
 import model.Workout;
 
 public class WorkoutEditor {
+    private static final int NAME_SUGGESTIONS = 3;
+
     private final InputReader inputReader;
+    // Suggests names already in the history as exercises are named; null for an editor with no history
+    private final Supplier<ExerciseNameIndex> exerciseNames;
 
     private static final String RED = "\u001B[31m";
     private static final String GREEN = "\u001B[32m";
@@ -13,7 +23,13 @@ public class WorkoutEditor {
     private static final String RESET = "\u001B[0m";
 
     public WorkoutEditor(InputReader inputReader) {
+        this(inputReader, null);
+    }
+
+    // The index is only asked for once an exercise is named, so it loads when it is first needed
+    public WorkoutEditor(InputReader inputReader, Supplier<ExerciseNameIndex> exerciseNames) {
         this.inputReader = inputReader;
+        this.exerciseNames = exerciseNames;
     }
 
     private final int EDIT_EXERCISE_MENU_MIN = 1;
@@ -46,9 +62,10 @@ public class WorkoutEditor {
         while (true) {
             int editField = inputReader.readMenuChoice("Choose a field to edit: ",
                     EDIT_FIELD_MIN, EDIT_FIELD_MAX);
+            ExerciseSnapshot before = ExerciseSnapshot.of(editedExercise);
 
             switch (editField) {
-                case EDIT_NAME -> editedExercise.setName(inputReader.readNonBlankString("Updated Name: "));
+                case EDIT_NAME -> editedExercise.setName(readExerciseName("Updated Name: "));
                 case EDIT_SETS -> editedExercise.setSets(inputReader.readPositiveInteger("Updated Sets: "));
                 case EDIT_REPS -> editedExercise.setReps(inputReader.readPositiveInteger("Updated Reps: "));
                 case EDIT_WEIGHT -> editedExercise.setWeight(inputReader.readNonNegativeDouble("Updated Weight: "));
@@ -58,11 +75,12 @@ public class WorkoutEditor {
                     return;
                 }
             }
+            workout.exerciseEdited(editedExercise, before);
         }
     }
 
     public void addExerciseToWorkout(Workout workout) {
-        String name = inputReader.readNonBlankString("Name: ");
+        String name = readExerciseName("Name: ");
         int sets = inputReader.readPositiveInteger("Sets: ");
         int reps = inputReader.readPositiveInteger("Reps: ");
         double weight = inputReader.readNonNegativeDouble("Weight: ");
@@ -93,4 +111,31 @@ public class WorkoutEditor {
             System.out.println(RED + "Failed to delete workout." + RESET);
         }
     }
+
+    // A name the history already has, in any spelling that normalizes the same, is written as it was first logged.
+    // Otherwise close matches are offered, so a typo does not start a new exercise in the records and trends.
+    private String readExerciseName(String prompt) {
+        String name = inputReader.readNonBlankString(prompt);
+        if (exerciseNames == null) {
+            return name;
+        }
+        List<String> suggestions = exerciseNames.get().search(name, NAME_SUGGESTIONS);
+        String key = ExerciseNames.normalize(name);
+        for (String suggestion : suggestions) {
+            if (ExerciseNames.normalize(suggestion).equals(key)) {
+                return suggestion;
+            }
+        }
+        if (suggestions.isEmpty()) {
+            return name;
+        }
+
+        System.out.println(YELLOW + "Did you mean:" + RESET);
+        for (int i = 0; i < suggestions.size(); i++) {
+            System.out.println((i + 1) + ": " + suggestions.get(i));
+        }
+        System.out.println((suggestions.size() + 1) + ": Keep \"" + name + "\"");
+        int choice = inputReader.readMenuChoice("Choose a name: ", 1, suggestions.size() + 1);
+        return choice <= suggestions.size() ? suggestions.get(choice - 1) : name;
+    }
 }
@@ -0,0 +1,113 @@
+package ui;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import storage.CatalogEntry;
+import storage.CatalogPage;
+import storage.CatalogSort;
+import storage.WorkoutCatalog;
+
+public class WorkoutPicker {
+    private static final int PAGE_SIZE = 10;
+    private static final DateTimeFormatter SAVED_AT_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    private final InputReader inputReader;
+    private final WorkoutCatalog catalog;
+    private final ReportWriter report;
+    private CatalogSort sort = CatalogSort.DATE;
+
+    public WorkoutPicker(InputReader inputReader, WorkoutCatalog catalog, ReportWriter report) {
+        this.inputReader = inputReader;
+        this.catalog = catalog;
+        this.report = report;
+    }
+
+    // Returns the chosen file name, or null if the user cancels or nothing is saved
+    public String choose(String title) {
+        return page(title, true);
+    }
+
+    // Same paging, search and sorting, without choosing a workout
+    public void browse(String title) {
+        page(title, false);
+    }
+
+    private String page(String title, boolean selectable) {
+        if (catalog.size() == 0) {
+            report.red().append("No saved workouts found").reset().newLine().flush();
+            return null;
+        }
+        String search = null;
+        int page = 0;
+
+        while (true) {
+            CatalogPage current = catalog.page(sort, search, page, PAGE_SIZE);
+            printPage(title, current, search);
+
+            String input = inputReader.readLine(selectable
+                    ? "Number, n/p page, /text search, s sort, q cancel: "
+                    : "n/p page, /text search, s sort, q return: ");
+            if (input.equalsIgnoreCase("q")) {
+                System.out.println();
+                return null;
+            } else if (input.equalsIgnoreCase("n") && current.hasNext()) {
+                page++;
+            } else if (input.equalsIgnoreCase("p") && current.hasPrevious()) {
+                page--;
+            } else if (input.equalsIgnoreCase("s")) {
+                sort = sort.next();
+                page = 0;
+            } else if (input.startsWith("/")) {
+                search = input.substring(1).isBlank() ? null : input.substring(1);
+                page = 0;
+            } else if (selectable && isChoice(input, current)) {
+                System.out.println();
+                return current.getEntries().get(Integer.parseInt(input) - 1).getFileName();
+            } else {
+                report.red().append("Please enter a listed number or command").reset().newLine().flush();
+            }
+        }
+    }
+
+    private void printPage(String title, CatalogPage current, String search) {
+        report.newLine().cyan().append("=== ").append(title).append(" ===").reset().newLine();
+        report.append("Page ").append(current.getPage() + 1).append(" of ").append(current.pageCount())
+                .append(", ").append(current.getTotalMatches()).append(" workouts, sorted by ").append(sort.label());
+        if (search != null) {
+            report.append(", matching \"").append(search).append('"');
+        }
+        report.newLine();
+        if (current.getEntries().isEmpty()) {
+            report.yellow().append(" - No matching workouts").reset().newLine();
+        }
+
+        int number = 1;
+        for (CatalogEntry entry : current.getEntries()) {
+            report.append(number++).append(". ").append(entry.getWorkoutName())
+                    .append(" (").append(entry.getDate()).append(", ").appendNumber(entry.getTotalVolume())
+                    .append(" lbs) - ").append(entry.getFileName())
+                    .append(", saved ").append(savedAt(entry)).newLine();
+        }
+        report.flush();
+    }
+
+    private boolean isChoice(String input, CatalogPage current) {
+        try {
+            int choice = Integer.parseInt(input);
+            return choice >= 1 && choice <= current.getEntries().size();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String savedAt(CatalogEntry entry) {
+        if (entry.getSavedAt() == 0) {
+            return "unknown";
+        }
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getSavedAt()), ZoneId.systemDefault());
+        return SAVED_AT_FORMAT.format(time);
+    }
+}
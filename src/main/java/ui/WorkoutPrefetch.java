@@ -0,0 +1,100 @@
+package ui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import analytics.AnalyticsCache;
+import analytics.SimilarityMatch;
+import analytics.SimilarityMode;
+import analytics.WorkoutSimilarity;
+import model.Workout;
+import storage.CatalogEntry;
+import storage.WorkoutStorage;
+
+// Background work for the workout open in the loaded-workout menu: the index similar workouts are searched in,
+// and the workout's analytics. Closing it cancels whatever has not finished.
+class WorkoutPrefetch implements AutoCloseable {
+    // Past this many workouts MinHash/LSH is used instead of exact Jaccard over every workout
+    private static final int APPROXIMATE_SIMILARITY_THRESHOLD = 5000;
+
+    private final WorkoutStorage storage;
+    private final Executor executor;
+    private final CompletableFuture<History> history;
+    private CompletableFuture<?> analytics;
+
+    // Built from the catalog's exercise names, so no workout file is opened until the matches are known
+    private record History(List<CatalogEntry> entries, WorkoutSimilarity similarity) {
+        static History of(WorkoutStorage storage) {
+            List<CatalogEntry> entries = storage.getCatalog().entries();
+            List<Set<String>> exercises = new ArrayList<>(entries.size());
+            for (CatalogEntry entry : entries) {
+                exercises.add(entry.getExercises());
+            }
+            return new History(entries, WorkoutSimilarity.ofExerciseNames(exercises));
+        }
+    }
+
+    private WorkoutPrefetch(WorkoutStorage storage, CompletableFuture<History> history, Executor executor) {
+        this.storage = storage;
+        this.history = history;
+        this.executor = executor;
+    }
+
+    // The history does not depend on which workout is picked, so it can start before the picker is shown
+    static WorkoutPrefetch history(WorkoutStorage storage, Executor executor) {
+        return new WorkoutPrefetch(storage, CompletableFuture.supplyAsync(() -> History.of(storage), executor),
+                executor);
+    }
+
+    void analyze(Workout workout, AnalyticsCache cache) {
+        if (analytics != null) {
+            analytics.cancel(false);
+        }
+        analytics = workout.size() == 0 ? null : cache.prefetchAnalyze(workout, executor);
+    }
+
+    // The n saved workouts sharing the most exercises with this one, leaving out its own saved copy. Only the
+    // matches' files are read.
+    List<SimilarityMatch> mostSimilar(Workout workout, int n) {
+        History saved = history();
+        SimilarityMode mode = saved.entries().size() > APPROXIMATE_SIMILARITY_THRESHOLD
+                ? SimilarityMode.APPROXIMATE
+                : SimilarityMode.EXACT;
+        List<SimilarityMatch> matches = new ArrayList<>(n);
+        // One extra in case the saved copy is among them
+        for (SimilarityMatch match : saved.similarity().mostSimilar(workout, n + 1, mode)) {
+            CatalogEntry entry = saved.entries().get(match.getIndex());
+            if (matches.size() == n || Objects.equals(entry.getId(), workout.getId())) {
+                continue;
+            }
+            Workout loaded = storage.loadWorkout(entry.getFileName());
+            if (loaded != null) {
+                matches.add(new SimilarityMatch(loaded, match.getIndex(), match.getSimilarity()));
+            }
+        }
+        return matches;
+    }
+
+    // Waits for the history if it is still being indexed, or indexes it here if that failed
+    private History history() {
+        try {
+            return history.join();
+        } catch (CancellationException | CompletionException e) {
+            return History.of(storage);
+        }
+    }
+
+    @Override
+    public void close() {
+        history.cancel(false);
+        if (analytics != null) {
+            analytics.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import analytics.AnalyticsCache;
+import analytics.AnalyticsEngine;
+import analytics.WorkoutAnalytics;
+import model.Exercise;
+import model.Workout;
+
+public class AnalyticsCacheTest {
+    private Workout workout(String name) {
+        Workout workout = new Workout(name);
+        workout.addExercise(new Exercise("Squat", 5, 5, 225, "legs"));
+        workout.addExercise(new Exercise("Deadlift", 5, 5, 405, "pull"));
+        return workout;
+    }
+
+    @Test
+    public void testRepeatedAnalysisIsCached() {
+        AnalyticsCache cache = new AnalyticsCache(new AnalyticsEngine());
+        Workout workout = workout("Test");
+
+        WorkoutAnalytics first = cache.analyze(workout);
+        WorkoutAnalytics second = cache.analyze(workout);
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.hitRate(), .001);
+        assertEquals("Deadlift", first.getTopExercises().get(0).getName());
+    }
+
+    @Test
+    public void testWorkoutsWithCollidingHashesGetTheirOwnResults() {
+        AnalyticsCache cache = new AnalyticsCache(new AnalyticsEngine());
+        // 31 * sets + reps is 103 for both, which a polynomial content hash can't tell apart
+        Workout a = new Workout("Test");
+        a.addExercise(new Exercise("Squat", 3, 10, 100, "legs"));
+        Workout b = new Workout("Test");
+        b.setDate(a.getDate());
+        b.addExercise(new Exercise("Squat", 2, 41, 100, "legs"));
+
+        assertEquals(3000, cache.analyze(a).getHighestVolumeExercise().getVolume(), .001);
+        assertEquals(8200, cache.analyze(b).getHighestVolumeExercise().getVolume(), .001);
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testEditsInvalidate() {
+        AnalyticsCache cache = new AnalyticsCache(new AnalyticsEngine());
+        Workout workout = workout("Test");
+        WorkoutAnalytics before = cache.analyze(workout);
+
+        workout.getExercises().get(0).setWeight(500);
+        WorkoutAnalytics edited = cache.analyze(workout);
+        assertNotSame(before, edited);
+        assertEquals("Squat", edited.getHighestVolumeExercise().getName());
+
+        workout.addExercise(new Exercise("Bench Press", 3, 5, 225, "chest"));
+        cache.analyze(workout);
+        workout.removeExercise(workout.getExercises().get(2));
+        assertSame(edited, cache.analyze(workout));
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testComparisonsAndBound() {
+        AnalyticsCache cache = new AnalyticsCache(new AnalyticsEngine(), 2);
+        Workout a = workout("A");
+        Workout b = workout("B");
+        assertSame(cache.compare(a, b), cache.compare(a, b));
+
+        cache.analyze(a);
+        cache.analyze(b);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testPrefetchedAnalysisIsReused() {
+        AnalyticsCache cache = new AnalyticsCache(new AnalyticsEngine());
+        Workout workout = workout("Test");
+        Queue<Runnable> background = new ArrayDeque<>();
+
+        CompletableFuture<WorkoutAnalytics> prefetched = cache.prefetchAnalyze(workout, background::add);
+        assertSame(prefetched, cache.prefetchAnalyze(workout, background::add));
+        assertEquals(1, background.size());
+        background.poll().run();
+
+        assertSame(prefetched.join(), cache.analyze(workout));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testCancelledPrefetchIsDropped() {
+        AnalyticsCache cache = new AnalyticsCache(new AnalyticsEngine());
+        Workout workout = workout("Test");
+        Queue<Runnable> background = new ArrayDeque<>();
+
+        CompletableFuture<WorkoutAnalytics> prefetched = cache.prefetchAnalyze(workout, background::add);
+        assertTrue(prefetched.cancel(false));
+        assertEquals(0, cache.size());
+        background.poll().run(); // Starts after the cancel and does nothing
+
+        WorkoutAnalytics analytics = cache.analyze(workout);
+        assertEquals("Deadlift", analytics.getTopExercises().get(0).getName());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testPrefetchUsesTheWorkoutAsItWas() {
+        AnalyticsCache cache = new AnalyticsCache(new AnalyticsEngine());
+        Workout workout = workout("Test");
+        Queue<Runnable> background = new ArrayDeque<>();
+
+        CompletableFuture<WorkoutAnalytics> prefetched = cache.prefetchAnalyze(workout, background::add);
+        workout.getExercises().get(0).setWeight(500); // Edited before the prefetch runs
+        background.poll().run();
+
+        assertEquals("Deadlift", prefetched.join().getTopExercises().get(0).getName());
+        WorkoutAnalytics edited = cache.analyze(workout);
+        assertNotSame(prefetched.join(), edited);
+        assertEquals("Squat", edited.getTopExercises().get(0).getName());
+        assertFalse(prefetched.isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,129 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import main.BatchCli;
+import model.Exercise;
+import model.Workout;
+import storage.WorkoutStorage;
+
+public class BatchCliTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private WorkoutStorage storage;
+    private ByteArrayOutputStream out;
+    private BatchCli cli;
+
+    @Before
+    public void setUp() throws Exception {
+        storage = new WorkoutStorage(folder.newFolder("data").toPath());
+        out = new ByteArrayOutputStream();
+        cli = new BatchCli(storage, new PrintStream(out, true), new PrintStream(new ByteArrayOutputStream(), true));
+    }
+
+    private File workoutFile(String name, Exercise... exercises) throws Exception {
+        Workout workout = new Workout(name);
+        workout.setDate(LocalDate.of(2026, 5, 1));
+        for (Exercise e : exercises) {
+            workout.addExercise(e);
+        }
+        File file = folder.newFile(name + ".json");
+        storage.getMapper().writeValue(file, workout);
+        return file;
+    }
+
+    @Test
+    public void testImportManyFilesThenListAsJson() throws Exception {
+        File legs = workoutFile("Legs", new Exercise("Squat", 5, 5, 225, "quads"));
+        File push = workoutFile("Push", new Exercise("Bench", 5, 5, 185, "chest"));
+
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("import", legs.getPath(), push.getPath())));
+        assertEquals(2, storage.getSavedWorkouts().size());
+
+        out.reset();
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("--format", "json", "list")));
+        JsonNode entries = storage.getMapper().readTree(out.toString());
+        assertEquals(2, entries.size());
+        assertEquals("Legs.json", entries.get(0).get("fileName").asText());
+    }
+
+    @Test
+    public void testAnalyzeAndCompare() throws Exception {
+        File a = workoutFile("A", new Exercise("Squat", 5, 5, 200, "quads"),
+                new Exercise("Row", 5, 5, 100, "back"));
+        File b = workoutFile("B", new Exercise("Squat", 5, 5, 100, "quads"));
+        cli.run(List.of("import", a.getPath(), b.getPath()));
+
+        out.reset();
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("--format", "json", "analyze", "A.json")));
+        JsonNode analytics = storage.getMapper().readTree(out.toString()).get("A.json");
+        assertEquals("Squat", analytics.get("topExercises").get(0).get("name").asText());
+
+        out.reset();
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("compare", "A.json", "B.json")));
+        assertTrue(out.toString().contains("Common: Squat"));
+    }
+
+    @Test
+    public void testExportAndDelete() throws Exception {
+        cli.run(List.of("import", workoutFile("Legs", new Exercise("Squat", 5, 5, 225, "quads")).getPath()));
+        File target = new File(folder.getRoot(), "export");
+
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("export", target.getPath())));
+        assertTrue(new File(target, "Legs.json").isFile());
+
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("delete", "Legs.json")));
+        assertFalse(storage.getDataDirectory().resolve("Legs.json").toFile().exists());
+        assertEquals(BatchCli.EXIT_FAILED, cli.run(List.of("delete", "Legs.json")));
+    }
+
+    @Test
+    public void testReimportingAStaleExportIsAConflict() throws Exception {
+        cli.run(List.of("import", workoutFile("Legs", new Exercise("Squat", 5, 5, 225, "quads")).getPath()));
+        File target = new File(folder.getRoot(), "export");
+        cli.run(List.of("export", target.getPath()));
+        String exported = new File(target, "Legs.json").getPath();
+
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("import", exported)));
+        out.reset();
+        assertEquals(BatchCli.EXIT_FAILED, cli.run(List.of("--format", "json", "import", exported)));
+        assertEquals("conflict", storage.getMapper().readTree(out.toString()).get(exported).asText());
+        assertEquals(1, storage.getSavedWorkouts().size());
+    }
+
+    @Test
+    public void testCsvToStdout() throws Exception {
+        cli.run(List.of("import", workoutFile("Legs", new Exercise("Squat", 5, 5, 225, "quads"),
+                new Exercise("Curl", 3, 10, 40, "biceps")).getPath()));
+        out.reset();
+
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("csv", "-", "--columns", "exercise,volume",
+                "--category", "Legs")));
+        assertEquals("exercise,volume\r\nSquat,5625\r\n", out.toString());
+        assertEquals(BatchCli.EXIT_USAGE, cli.run(List.of("csv", "-", "--columns", "nope")));
+        assertEquals(BatchCli.EXIT_USAGE, cli.run(List.of("csv", "-", "--from", "May 1st")));
+    }
+
+    @Test
+    public void testUsageErrors() {
+        assertEquals(BatchCli.EXIT_USAGE, cli.run(List.of("frobnicate")));
+        assertEquals(BatchCli.EXIT_USAGE, cli.run(List.of("compare", "A.json")));
+        assertEquals(BatchCli.EXIT_USAGE, cli.run(List.of("--format", "xml", "list")));
+    }
+}
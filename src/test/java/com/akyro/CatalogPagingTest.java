@@ -0,0 +1,154 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.Exercise;
+import model.Workout;
+import storage.CatalogEntry;
+import storage.CatalogPage;
+import storage.CatalogSort;
+import storage.WorkoutCatalog;
+import storage.WorkoutQuery;
+import storage.WorkoutStorage;
+
+public class CatalogPagingTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private WorkoutStorage storage;
+    private WorkoutCatalog catalog;
+
+    @Before
+    public void setUp() {
+        storage = new WorkoutStorage(folder.getRoot().toPath());
+        String[] names = { "Leg Day", "Push Day", "Pull Day", "Upper Legs", "Arms", "Leg Blast", "Full Body" };
+        for (int i = 0; i < names.length; i++) {
+            Workout workout = new Workout(names[i]);
+            workout.setDate(LocalDate.of(2026, 1, 1 + i));
+            workout.addExercise(new Exercise("Squat", 1, 1, 100 * (i + 1), "quads"));
+            storage.saveWorkout(workout);
+        }
+        catalog = storage.getCatalog();
+    }
+
+    private static List<String> names(CatalogPage page) {
+        return page.getEntries().stream().map(CatalogEntry::getWorkoutName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPagesInDateOrder() {
+        CatalogPage first = catalog.page(CatalogSort.DATE, null, 0, 3);
+        assertEquals(List.of("Full Body", "Leg Blast", "Arms"), names(first));
+        assertEquals(7, first.getTotalMatches());
+        assertEquals(3, first.pageCount());
+        assertTrue(first.hasNext());
+        assertFalse(first.hasPrevious());
+
+        CatalogPage last = catalog.page(CatalogSort.DATE, null, 2, 3);
+        assertEquals(List.of("Leg Day"), names(last));
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    public void testSortsByNameAndVolume() {
+        assertEquals(List.of("Arms", "Full Body"), names(catalog.page(CatalogSort.NAME, null, 0, 2)));
+        assertEquals(List.of("Full Body", "Leg Blast"), names(catalog.page(CatalogSort.VOLUME, null, 0, 2)));
+    }
+
+    @Test
+    public void testSearchListsPrefixMatchesFirst() {
+        CatalogPage page = catalog.page(CatalogSort.NAME, "leg", 0, 10);
+        assertEquals(List.of("Leg Blast", "Leg Day", "Upper Legs"), names(page));
+        assertEquals(3, page.getTotalMatches());
+
+        CatalogPage second = catalog.page(CatalogSort.NAME, "leg", 1, 2);
+        assertEquals(List.of("Upper Legs"), names(second));
+    }
+
+    @Test
+    public void testDeletedWorkoutsLeaveEveryOrder() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        storage.deleteWorkout("Arms.json");
+        for (CatalogSort sort : CatalogSort.values()) {
+            assertEquals(6, storage.getCatalog().page(sort, null, 0, 10).getEntries().size());
+        }
+    }
+
+    @Test
+    public void testFilesChangedBehindTheCatalogsBackAreFound() throws Exception {
+        Path dataDir = folder.getRoot().toPath();
+        assertEquals(7, catalog.size());
+
+        // Another process saving to the same directory, and files added and removed by hand
+        Workout other = new Workout("Other Process");
+        other.addExercise(new Exercise("Row", 1, 1, 100, "back"));
+        new WorkoutStorage(dataDir).saveWorkout(other);
+        Files.writeString(dataDir.resolve("By Hand.json"), "{\"name\":\"By Hand\",\"date\":\"2026-02-01\","
+                + "\"exercises\":[{\"name\":\"Curl\",\"sets\":3,\"reps\":10,\"weight\":30,\"muscleGroup\":\"biceps\"}]}");
+        Files.delete(dataDir.resolve("Arms.json"));
+        assertEquals(8, catalog.size());
+        assertNotNull(catalog.get("Other Process.json"));
+        assertEquals(1, catalog.plan(WorkoutQuery.all().exercise("Curl")).getCandidates().size());
+        assertNull(catalog.get("Arms.json"));
+
+        Workout edited = storage.loadWorkout("Leg Day.json");
+        edited.addExercise(new Exercise("Lunge", 3, 10, 50, "quads"));
+        new WorkoutStorage(dataDir).replace("Leg Day.json", edited);
+        assertEquals(2, catalog.get("Leg Day.json").getExerciseCount());
+
+        // An edit in place leaves the directory alone, but a fresh load checks every file's modification time
+        Path byHand = dataDir.resolve("By Hand.json");
+        Files.writeString(byHand, Files.readString(byHand).replace("\"reps\":10", "\"reps\":12"));
+        Files.setLastModifiedTime(byHand, FileTime.fromMillis(Files.getLastModifiedTime(byHand).toMillis() + 60000));
+        assertEquals(1080, new WorkoutStorage(dataDir).getCatalog().get("By Hand.json").getTotalVolume(), .001);
+    }
+
+    @Test
+    public void testCatalogKeyedByOlderNormalizationIsRebuilt() throws Exception {
+        Path dataDir = folder.newFolder("older").toPath();
+        Workout workout = new Workout("Hinge");
+        workout.addExercise(new Exercise("RDLs", 3, 8, 185, "hamstrings"));
+        WorkoutStorage older = new WorkoutStorage(dataDir);
+        older.saveWorkout(workout);
+        // Plurals of abbreviations used to keep the abbreviation
+        Path snapshot = older.getIndexDirectory().resolve("catalog.json");
+        Files.writeString(snapshot, Files.readString(snapshot).replace("romanian deadlift", "rdl"));
+
+        WorkoutCatalog reloaded = new WorkoutStorage(dataDir).getCatalog();
+        assertEquals(List.of("Hinge.json"), reloaded.plan(WorkoutQuery.all().exercise("RDL")).getCandidates());
+    }
+
+    @Test
+    public void testSavesAppendToTheJournalInsteadOfRewritingTheCatalog() throws Exception {
+        Path indexDir = storage.getIndexDirectory();
+        String snapshot = Files.readString(indexDir.resolve("catalog.json"));
+        // The first save found no catalog and built one; the six after it each appended a line
+        assertEquals(6, Files.readAllLines(indexDir.resolve("catalog.journal")).size());
+
+        storage.deleteWorkout("Arms.json");
+        assertEquals(snapshot, Files.readString(indexDir.resolve("catalog.json")));
+        assertEquals(7, Files.readAllLines(indexDir.resolve("catalog.journal")).size());
+
+        WorkoutCatalog reloaded = new WorkoutStorage(folder.getRoot().toPath()).getCatalog();
+        assertEquals(6, reloaded.size());
+        assertNull(reloaded.get("Arms.json"));
+        assertEquals(names(catalog.page(CatalogSort.NAME, null, 0, 10)),
+                names(reloaded.page(CatalogSort.NAME, null, 0, 10)));
+    }
+}
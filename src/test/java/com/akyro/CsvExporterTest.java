@@ -0,0 +1,76 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.Exercise;
+import model.Workout;
+import storage.CsvColumn;
+import storage.CsvExporter;
+import storage.WorkoutQuery;
+import storage.WorkoutStorage;
+
+public class CsvExporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private WorkoutStorage storage;
+
+    @Before
+    public void setUp() {
+        storage = new WorkoutStorage(folder.getRoot().toPath());
+        Workout legs = new Workout("Legs, \"Heavy\"");
+        legs.setDate(LocalDate.of(2024, 3, 4));
+        legs.addExercise(new Exercise("Squat", 5, 5, 225, "quads"));
+        legs.addExercise(new Exercise("Calf Raise", 3, 12, 62.5, "calves"));
+        storage.saveWorkout(legs);
+
+        Workout push = new Workout("Push");
+        push.setDate(LocalDate.of(2024, 4, 1));
+        push.addExercise(new Exercise("Bench Press", 3, 8, 185, "chest"));
+        storage.saveWorkout(push);
+    }
+
+    private String export(List<CsvColumn> columns, WorkoutQuery query) throws Exception {
+        StringWriter out = new StringWriter();
+        new CsvExporter(storage).export(out, columns, query);
+        return out.toString();
+    }
+
+    @Test
+    public void testOneRowPerExerciseWithQuoting() throws Exception {
+        String csv = export(List.of(CsvColumn.WORKOUT, CsvColumn.DATE, CsvColumn.EXERCISE, CsvColumn.VOLUME,
+                CsvColumn.CATEGORY), WorkoutQuery.all());
+        assertEquals("workout,date,exercise,volume,category\r\n"
+                + "\"Legs, \"\"Heavy\"\"\",2024-03-04,Squat,5625,Legs\r\n"
+                + "\"Legs, \"\"Heavy\"\"\",2024-03-04,Calf Raise,2250,Legs\r\n"
+                + "Push,2024-04-01,Bench Press,4440,Push\r\n", csv);
+    }
+
+    @Test
+    public void testFiltersApplyPerExercise() throws Exception {
+        List<CsvColumn> columns = List.of(CsvColumn.EXERCISE, CsvColumn.WEIGHT);
+        assertEquals("exercise,weight\r\nCalf Raise,62.5\r\n",
+                export(columns, WorkoutQuery.all().muscleGroup("calves")));
+        assertEquals("exercise,weight\r\nBench Press,185\r\n",
+                export(columns, WorkoutQuery.all().between(LocalDate.of(2024, 3, 15), null)));
+        assertEquals("exercise,weight\r\n", export(columns, WorkoutQuery.all().category("Pull")));
+    }
+
+    @Test
+    public void testRowCountAndColumnParsing() throws Exception {
+        StringWriter out = new StringWriter();
+        assertEquals(3, new CsvExporter(storage).export(out, List.of(CsvColumn.values()), WorkoutQuery.all()));
+        assertEquals(List.of(CsvColumn.DATE, CsvColumn.MUSCLE_GROUP), CsvColumn.parse("date, Muscle_Group"));
+        assertNull(CsvColumn.parse("date,bogus"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import analytics.AnalyticsEngine;
+import analytics.ExerciseNameIndex;
+import analytics.WorkoutComparison;
+import metrics.Metrics;
+import metrics.OperationTimer;
+import model.Exercise;
+import model.ExerciseNames;
+import model.Workout;
+import storage.WorkoutStorage;
+
+public class ExerciseNameIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Workout workout(String name, String exercise) {
+        Workout workout = new Workout(name);
+        workout.addExercise(new Exercise(exercise, 3, 10, 100, "legs"));
+        return workout;
+    }
+
+    @Test
+    public void testNormalization() {
+        assertEquals("bench press", ExerciseNames.normalize("Bench Press"));
+        assertEquals("bench press", ExerciseNames.normalize(" bench  press "));
+        assertEquals("bench press", ExerciseNames.normalize("Bench-Presses"));
+        assertEquals("dumbbell curl", ExerciseNames.normalize("DB Curls"));
+        assertEquals("romanian deadlift", ExerciseNames.normalize("RDL"));
+        assertEquals("cafe squat", ExerciseNames.normalize("Café Squats"));
+        assertEquals("romanian deadlift", ExerciseNames.normalize("RDLs"));
+        assertEquals("overhead press", ExerciseNames.normalize("OHPs"));
+        for (String name : List.of("RDLs", "OHPs", "DB Curls", "Bench-Presses", "Glasses", "Boxes", "Café Squats",
+                "Bus", "Lats", "Cable Crunches", "BW Dips")) {
+            String key = ExerciseNames.normalize(name);
+            assertEquals(name, key, ExerciseNames.normalize(key));
+        }
+    }
+
+    @Test
+    public void testFuzzySearch() {
+        ExerciseNameIndex index = new ExerciseNameIndex(new WorkoutStorage(folder.getRoot().toPath()));
+        index.add("Bench Press");
+        index.add("bench  press");
+        index.add("Incline Bench Press");
+        index.add("Back Squat");
+        index.add("Barbell Row");
+
+        assertEquals(4, index.size());
+        assertEquals("Bench Press", index.canonicalName("BENCH PRESS"));
+        assertEquals("Bench Press", index.search("bnch pres", 3).get(0));
+        assertTrue(index.search("bench", 3).contains("Incline Bench Press"));
+        assertEquals(List.of("Back Squat", "Barbell Row"), index.search("ba", 5));
+        assertTrue(index.search("zzzz", 5).isEmpty());
+    }
+
+    @Test
+    public void testIndexFollowsSavedWorkouts() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        ExerciseNameIndex.attach(storage);
+        Workout workout = new Workout("Legs");
+        workout.addExercise(new Exercise("Leg Press", 3, 10, 300, "quads"));
+        storage.saveWorkout(workout);
+
+        ExerciseNameIndex reloaded = new ExerciseNameIndex(new WorkoutStorage(folder.getRoot().toPath()));
+        assertEquals("Leg Press", reloaded.search("leg pres", 1).get(0));
+    }
+
+    @Test
+    public void testNewNamesAreJournaledAndFilesWrittenElsewhereAreIndexed() throws Exception {
+        Path root = folder.getRoot().toPath();
+        WorkoutStorage storage = new WorkoutStorage(root);
+        ExerciseNameIndex index = ExerciseNameIndex.attach(storage);
+        storage.saveWorkout(workout("Legs", "Leg Press"));
+        Path snapshot = storage.getIndexDirectory().resolve("exercise-names.json");
+        String written = Files.readString(snapshot);
+
+        storage.saveWorkout(workout("More Legs", "Hack Squat"));
+        assertEquals(written, Files.readString(snapshot));
+        assertEquals(1, Files.readAllLines(storage.getIndexDirectory().resolve("exercise-names.journal")).size());
+
+        // A save that brings no new name still leaves an index the next process loads without scanning
+        storage.saveWorkout(workout("Legs Again", "leg press"));
+        OperationTimer scans = Metrics.timer("storage", "scan");
+        long before = scans.getCount();
+        assertEquals(2, new ExerciseNameIndex(new WorkoutStorage(root)).size());
+        assertEquals(before, scans.getCount());
+
+        new WorkoutStorage(root).saveWorkout(workout("Hamstrings", "Nordic Curl"));
+        assertEquals("Nordic Curl", index.search("nordic", 1).get(0));
+        ExerciseNameIndex reloaded = new ExerciseNameIndex(new WorkoutStorage(root));
+        assertEquals(3, reloaded.size());
+        assertEquals("Hack Squat", reloaded.search("hack squat", 1).get(0));
+    }
+
+    @Test
+    public void testComparisonGroupsByCanonicalName() {
+        Workout a = new Workout("A");
+        a.addExercise(new Exercise("Bench Press", 3, 5, 225, "chest"));
+        Workout b = new Workout("B");
+        b.addExercise(new Exercise("bench  press", 3, 5, 225, "chest"));
+        b.addExercise(new Exercise("Dips", 3, 10, 0, "triceps"));
+
+        WorkoutComparison comparison = new AnalyticsEngine().compareWorkouts(a, b);
+        assertEquals(List.of("Bench Press"), comparison.getCommonExercises());
+        assertTrue(comparison.getUniqueToA().isEmpty());
+        assertEquals(List.of("Dips"), comparison.getUniqueToB());
+    }
+}
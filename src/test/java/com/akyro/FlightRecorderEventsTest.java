@@ -0,0 +1,131 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import analytics.AnalyticsEngine;
+import model.Exercise;
+import model.Workout;
+import storage.WorkoutStorage;
+
+public class FlightRecorderEventsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Workout workout(String name) {
+        Workout workout = new Workout(name);
+        workout.addExercise(new Exercise("Squat", 5, 5, 225, "quads"));
+        workout.addExercise(new Exercise("Bench Press", 5, 5, 185, "chest"));
+        return workout;
+    }
+
+    private List<RecordedEvent> record(Runnable work, String... eventNames) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : eventNames) {
+                recording.enable(name).withoutThreshold();
+            }
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> matching(List<RecordedEvent> events, String type, String field, String value) {
+        List<RecordedEvent> matching = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(type) && value.equals(event.getString(field))) {
+                matching.add(event);
+            }
+        }
+        return matching;
+    }
+
+    @Test
+    public void testStorageEventsCarryFileDetails() throws IOException {
+        WorkoutStorage storage = new WorkoutStorage(folder.newFolder("data").toPath());
+        String[] fileName = new String[1];
+        List<RecordedEvent> events = record(() -> {
+            fileName[0] = storage.save(workout("Leg Day")).fileName();
+            storage.loadWorkout(fileName[0]);
+            storage.getSavedWorkouts();
+            storage.deleteWorkout(fileName[0]);
+            storage.loadWorkout("Missing.json");
+        }, "com.akyro.Storage");
+
+        RecordedEvent save = matching(events, "com.akyro.Storage", "operation", "save").get(0);
+        assertEquals("Leg Day.json", save.getString("fileName"));
+        assertEquals(2, save.getInt("exerciseCount"));
+        assertTrue(save.getLong("fileSize") > 0);
+        assertTrue(save.getBoolean("succeeded"));
+
+        List<RecordedEvent> loads = matching(events, "com.akyro.Storage", "operation", "load");
+        assertEquals(2, loads.size());
+        assertEquals(2, loads.get(0).getInt("exerciseCount"));
+        assertFalse(loads.get(1).getBoolean("succeeded"));
+
+        assertEquals(1, matching(events, "com.akyro.Storage", "operation", "list").get(0).getInt("fileCount"));
+        RecordedEvent delete = matching(events, "com.akyro.Storage", "operation", "delete").get(0);
+        assertTrue(delete.getBoolean("succeeded"));
+        assertEquals(save.getLong("fileSize"), delete.getLong("fileSize"));
+    }
+
+    @Test
+    public void testJsonEventsCoverWorkoutAndIndexFiles() throws IOException {
+        WorkoutStorage storage = new WorkoutStorage(folder.newFolder("data").toPath());
+        List<RecordedEvent> events = record(() -> {
+            String fileName = storage.save(workout("Push Day")).fileName();
+            storage.loadWorkout(fileName);
+        }, "com.akyro.Json");
+
+        List<RecordedEvent> writes = matching(events, "com.akyro.Json", "direction", "write");
+        List<RecordedEvent> reads = matching(events, "com.akyro.Json", "direction", "read");
+        assertTrue(writes.stream().anyMatch(event -> event.getString("type").equals("Workout")
+                && event.getString("file").endsWith("Push Day.json") && event.getLong("bytes") > 0));
+        // The catalog persists its index on every save
+        assertTrue(writes.stream().anyMatch(event -> event.getString("file").contains(".index")));
+        assertEquals("Workout", reads.get(reads.size() - 1).getString("type"));
+    }
+
+    @Test
+    public void testAnalyticsEventsCountExercises() throws IOException {
+        AnalyticsEngine engine = new AnalyticsEngine();
+        List<RecordedEvent> events = record(() -> {
+            engine.analyze(workout("A"));
+            engine.compareWorkouts(workout("A"), workout("B"));
+            engine.historyVolumeByCategory(List.of(workout("A"), workout("B"), workout("C")));
+        }, "com.akyro.Analytics");
+
+        assertEquals(2, matching(events, "com.akyro.Analytics", "operation", "analyze").get(0).getInt("exerciseCount"));
+        assertEquals(4, matching(events, "com.akyro.Analytics", "operation", "compare").get(0).getInt("exerciseCount"));
+        RecordedEvent history = matching(events, "com.akyro.Analytics", "operation", "historyByCategory").get(0);
+        assertEquals(3, history.getInt("workouts"));
+        assertEquals(6, history.getInt("exerciseCount"));
+    }
+
+    @Test
+    public void testShippedSettingsEnableTheEvents() throws IOException, ParseException {
+        Configuration configuration = Configuration.create(Path.of("scripts", "lift-metrics.jfc"));
+        assertEquals("true", configuration.getSettings().get("com.akyro.Storage#enabled"));
+        assertEquals("true", configuration.getSettings().get("com.akyro.Json#enabled"));
+        assertEquals("20 us", configuration.getSettings().get("com.akyro.Analytics#threshold"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import analytics.AnalyticsEngine;
+import analytics.LiveAnalytics;
+import analytics.WorkoutAnalytics;
+import model.Exercise;
+import model.ExerciseSnapshot;
+import model.Workout;
+
+public class LiveAnalyticsTest {
+    private static void awaitEvents(LiveAnalytics live, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (live.getEventsSeen() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, live.getEventsSeen());
+    }
+
+    @Test
+    public void testSeedsFromExistingExercises() {
+        Workout workout = new Workout("Test");
+        workout.addExercise(new Exercise("Squat", 5, 5, 200, "legs"));
+        workout.addExercise(new Exercise("Bench", 5, 5, 100, "chest"));
+
+        LiveAnalytics live = new LiveAnalytics(workout);
+        assertEquals(7500, live.getTotalVolume(), .001);
+        assertEquals(2 / 3.0, live.volumePercentageSplit().get("Legs"), .001);
+        assertEquals("Squat", live.topExercises(1).get(0).getName());
+    }
+
+    @Test
+    public void testFollowsAddEditAndRemove() throws InterruptedException {
+        Workout workout = new Workout("Test");
+        Exercise squat = new Exercise("Squat", 5, 5, 200, "legs");
+        workout.addExercise(squat);
+        LiveAnalytics live = LiveAnalytics.attach(workout);
+
+        Exercise row = new Exercise("Row", 5, 5, 100, "back");
+        workout.addExercise(row);
+        awaitEvents(live, 1);
+        assertEquals(7500, live.getTotalVolume(), .001);
+        assertEquals(2500, live.categoryVolume("Pull"), .001);
+
+        ExerciseSnapshot before = ExerciseSnapshot.of(row);
+        row.setWeight(400);
+        workout.exerciseEdited(row, before);
+        awaitEvents(live, 2);
+        assertEquals("Row", live.topExercises(1).get(0).getName());
+        assertEquals(10000, live.categoryVolume("Pull"), .001);
+
+        workout.removeExercise(squat);
+        awaitEvents(live, 3);
+        assertEquals(10000, live.getTotalVolume(), .001);
+        assertEquals(0, live.categoryVolume("Legs"), .001);
+        assertEquals(1, live.topExercises(3).size());
+        workout.closeEvents();
+    }
+
+    @Test
+    public void testMultipleSubscribersSeeTheSameStream() throws InterruptedException {
+        Workout workout = new Workout("Test");
+        LiveAnalytics display = LiveAnalytics.attach(workout);
+        LiveAnalytics other = LiveAnalytics.attach(workout);
+
+        workout.addExercise(new Exercise("Bench", 3, 10, 135, "chest"));
+        awaitEvents(display, 1);
+        awaitEvents(other, 1);
+        assertEquals(display.getTotalVolume(), other.getTotalVolume(), .001);
+        assertTrue(display.volumePercentageSplit().get("Push") > .99);
+        workout.closeEvents();
+    }
+
+    @Test
+    public void testSplitMatchesTheEngineRightAfterAnEdit() {
+        Workout workout = new Workout("Test");
+        Exercise squat = new Exercise("Squat", 5, 5, 200, "legs");
+        workout.addExercise(squat);
+        workout.addExercise(new Exercise("Bench", 5, 5, 100, "chest"));
+        workout.addExercise(new Exercise("Plank", 3, 1, 50, "core"));
+        LiveAnalytics live = LiveAnalytics.attach(workout);
+
+        // No waiting for the event: the read itself catches up
+        ExerciseSnapshot before = ExerciseSnapshot.of(squat);
+        squat.setWeight(300);
+        workout.exerciseEdited(squat, before);
+        workout.addExercise(new Exercise("Row", 5, 5, 120, "back"));
+
+        WorkoutAnalytics analytics = new AnalyticsEngine().analyze(workout);
+        for (String category : List.of("Push", "Pull", "Legs")) {
+            assertEquals(analytics.getVolumeSplit().get(category), live.volumePercentageSplit().get(category), 1e-9);
+        }
+        assertEquals(analytics.getTopExercises().get(0).getShare(), live.topExercises(1).get(0).getShare(), 1e-9);
+        workout.closeEvents();
+    }
+
+    @Test
+    public void testMissedEventsAreRecoveredFromTheWorkout() {
+        Workout workout = new Workout("Test");
+        workout.addExercise(new Exercise("Squat", 5, 5, 200, "legs"));
+        // Never subscribed, so it sees none of the edits, just as if they were all dropped
+        LiveAnalytics live = new LiveAnalytics(workout);
+        workout.addExercise(new Exercise("Row", 5, 5, 100, "back"));
+        workout.removeExercise(workout.getExercises().get(0));
+
+        assertEquals(2500, live.getTotalVolume(), .001);
+        assertEquals(1, live.volumePercentageSplit().get("Pull"), .001);
+        assertEquals("Row", live.topExercises(1).get(0).getName());
+    }
+}
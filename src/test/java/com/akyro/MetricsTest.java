@@ -0,0 +1,122 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import analytics.AnalyticsCache;
+import analytics.AnalyticsEngine;
+import metrics.CacheCounter;
+import metrics.Metrics;
+import metrics.OperationTimer;
+import model.Exercise;
+import model.Workout;
+
+public class MetricsTest {
+    // Metrics are process-wide, so every test uses its own timer names
+    private static OperationTimer timer(String operation) {
+        return Metrics.timer("test", operation);
+    }
+
+    private static void recordNanos(OperationTimer timer, long nanos) {
+        timer.record(System.nanoTime() - nanos);
+    }
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        OperationTimer timer = timer("percentiles");
+        for (int i = 1; i <= 1000; i++) {
+            recordNanos(timer, i * 1000L); // 1 us to 1 ms
+        }
+        assertEquals(1000, timer.getCount());
+        assertEquals(500, timer.getP50Micros(), 500 * 0.15);
+        assertEquals(990, timer.getP99Micros(), 990 * 0.15);
+        assertTrue(timer.getMaxMicros() >= 1000);
+        assertTrue(timer.getP99Micros() <= timer.getMaxMicros());
+        assertEquals(500, timer.getMeanMicros(), 500 * 0.15);
+    }
+
+    @Test
+    public void testFailuresAndResetAreCounted() {
+        OperationTimer timer = timer("failures");
+        timer.record(System.nanoTime(), true);
+        timer.record(System.nanoTime(), false);
+        assertEquals(2, timer.getCount());
+        assertEquals(1, timer.getFailures());
+
+        timer.reset();
+        assertEquals(0, timer.getCount());
+        assertEquals(0, timer.getFailures());
+        assertEquals(0, timer.getP99Micros());
+    }
+
+    @Test
+    public void testConcurrentRecordingLosesNothing() throws Exception {
+        OperationTimer timer = timer("concurrent");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    timer.record(System.nanoTime());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertEquals(80_000, timer.getCount());
+    }
+
+    @Test
+    public void testStorageAndAnalyticsOperationsAreTimed() {
+        Workout workout = new Workout("Push Day");
+        workout.addExercise(new Exercise("Bench Press", 5, 5, 185, "chest"));
+        OperationTimer analyze = Metrics.timer("analytics", "analyze");
+        long before = analyze.getCount();
+        new AnalyticsEngine().analyze(workout);
+        assertEquals(before + 1, analyze.getCount());
+        assertTrue(Metrics.timers().contains(Metrics.timer("storage", "save")));
+    }
+
+    @Test
+    public void testCacheHitRateCoversEveryAnalyticsCache() {
+        Workout workout = new Workout("Leg Day");
+        workout.addExercise(new Exercise("Squat", 5, 5, 225, "quads"));
+        CacheCounter counter = Metrics.cache("analytics");
+        long hits = counter.getHits();
+        long misses = counter.getMisses();
+
+        AnalyticsCache first = new AnalyticsCache(new AnalyticsEngine());
+        first.analyze(workout);
+        first.analyze(workout);
+        new AnalyticsCache(new AnalyticsEngine()).analyze(workout);
+
+        assertEquals(hits + 1, counter.getHits());
+        assertEquals(misses + 2, counter.getMisses());
+    }
+
+    @Test
+    public void testTimersAreExportedOverJmx() throws Exception {
+        Metrics.cache("analytics");
+        Metrics.registerMBeans();
+        OperationTimer timer = timer("jmx");
+        timer.record(System.nanoTime());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(1L, server.getAttribute(new ObjectName("com.akyro:type=Operation,group=test,name=jmx"), "Count"));
+        assertTrue(server.isRegistered(new ObjectName("com.akyro:type=Cache,name=analytics")));
+    }
+}
@@ -0,0 +1,166 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import analytics.OneRepMaxFormula;
+import analytics.PersonalRecord;
+import analytics.PersonalRecords;
+import metrics.Metrics;
+import metrics.OperationTimer;
+import model.Exercise;
+import model.Workout;
+import storage.WorkoutStorage;
+
+public class PersonalRecordsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecordsTrackBestLifts() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        PersonalRecords records = PersonalRecords.attach(storage);
+
+        Workout heavy = new Workout("Heavy");
+        heavy.addExercise(new Exercise("Squat", 3, 3, 315, "legs"));
+        Workout volume = new Workout("Volume");
+        volume.addExercise(new Exercise("squat ", 5, 8, 225, "legs"));
+        storage.saveWorkout(heavy);
+        storage.saveWorkout(volume);
+
+        PersonalRecord squat = records.get("SQUAT");
+        assertEquals(315, squat.getMaxWeight(), .001);
+        assertEquals(3, squat.getMaxWeightReps());
+        assertEquals(9000, squat.getMaxVolume(), .001);
+        assertEquals(8, squat.maxRepsAt(200));
+        assertEquals(3, squat.maxRepsAt(300));
+        assertEquals(0, squat.maxRepsAt(400));
+        assertEquals(315 * (1 + 3 / 30.0), squat.estimatedOneRepMax(OneRepMaxFormula.EPLEY), .001);
+        assertEquals(315 * 36 / 34.0, squat.estimatedOneRepMax(OneRepMaxFormula.BRZYCKI), .001);
+        assertNull(records.get("Deadlift"));
+    }
+
+    @Test
+    public void testDeleteRebuildsOnDemand() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        PersonalRecords records = PersonalRecords.attach(storage);
+
+        Workout heavy = new Workout("Heavy");
+        heavy.addExercise(new Exercise("Squat", 3, 3, 315, "legs"));
+        Workout light = new Workout("Light");
+        light.addExercise(new Exercise("Squat", 5, 5, 225, "legs"));
+        storage.saveWorkout(heavy);
+        storage.saveWorkout(light);
+        assertEquals(315, records.get("Squat").getMaxWeight(), .001);
+
+        storage.deleteWorkout("Heavy.json");
+        assertEquals(225, records.get("Squat").getMaxWeight(), .001);
+
+        PersonalRecords reloaded = new PersonalRecords(new WorkoutStorage(folder.getRoot().toPath()));
+        assertEquals(225, reloaded.get("Squat").getMaxWeight(), .001);
+    }
+
+    @Test
+    public void testResaveOnlyRecomputesLoweredRecords() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        PersonalRecords records = PersonalRecords.attach(storage);
+
+        Workout heavy = new Workout("Heavy");
+        heavy.addExercise(new Exercise("Squat", 3, 3, 315, "legs"));
+        heavy.addExercise(new Exercise("Bench", 5, 5, 185, "chest"));
+        Workout light = new Workout("Light");
+        light.addExercise(new Exercise("Squat", 5, 5, 225, "legs"));
+        light.addExercise(new Exercise("Squat", 1, 5, 100, "legs"));
+        String heavyFile = storage.save(heavy).fileName();
+        String lightFile = storage.save(light).fileName();
+        assertEquals(315, records.get("Squat").getMaxWeight(), .001);
+
+        // Neither the changed set nor the added exercise lowers a record, so nothing is read back
+        OperationTimer scans = Metrics.timer("storage", "scan");
+        long before = scans.getCount();
+        Workout edited = storage.loadWorkout(lightFile);
+        edited.getExercises().get(1).setWeight(110);
+        edited.addExercise(new Exercise("Deadlift", 1, 1, 405, "back"));
+        storage.save(edited);
+        assertEquals(before, scans.getCount());
+        assertEquals(405, records.get("Deadlift").getMaxWeight(), .001);
+        assertEquals(315, records.get("Squat").getMaxWeight(), .001);
+
+        // Taking away the heaviest squat recomputes squat alone
+        Workout lighter = storage.loadWorkout(heavyFile);
+        lighter.getExercises().get(0).setWeight(200);
+        storage.save(lighter);
+        assertEquals(before + 1, scans.getCount());
+        assertEquals(225, records.get("Squat").getMaxWeight(), .001);
+        assertEquals(5625, records.get("Squat").getMaxVolume(), .001);
+        assertEquals(185, records.get("Bench").getMaxWeight(), .001);
+
+        // The edits were appended to the journal, so a fresh index replays them instead of scanning again
+        PersonalRecords reloaded = new PersonalRecords(new WorkoutStorage(folder.getRoot().toPath()));
+        assertEquals(225, reloaded.get("Squat").getMaxWeight(), .001);
+        assertEquals(405, reloaded.get("Deadlift").getMaxWeight(), .001);
+        assertEquals(before + 1, scans.getCount());
+    }
+
+    @Test
+    public void testLoweredRecordOfAnAbbreviatedExerciseIsRecomputed() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        PersonalRecords records = PersonalRecords.attach(storage);
+        Workout heavy = new Workout("Heavy");
+        heavy.addExercise(new Exercise("RDLs", 3, 5, 275, "hamstrings"));
+        Workout light = new Workout("Light");
+        light.addExercise(new Exercise("Romanian Deadlift", 3, 8, 185, "hamstrings"));
+        String heavyFile = storage.save(heavy).fileName();
+        storage.save(light);
+
+        Workout lighter = storage.loadWorkout(heavyFile);
+        lighter.getExercises().get(0).setWeight(135);
+        storage.save(lighter);
+        assertEquals(185, records.get("RDL").getMaxWeight(), .001);
+    }
+
+    @Test
+    public void testFilesWrittenOutsideTheIndexAreNotMissed() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        PersonalRecords records = PersonalRecords.attach(storage);
+        Workout light = new Workout("Light");
+        light.addExercise(new Exercise("Squat", 5, 5, 225, "legs"));
+        storage.saveWorkout(light);
+        assertEquals(225, records.get("Squat").getMaxWeight(), .001);
+
+        // A storage without the index, as another process or a generator would write
+        Workout heavy = new Workout("Heavy");
+        heavy.addExercise(new Exercise("Squat", 3, 3, 315, "legs"));
+        new WorkoutStorage(folder.getRoot().toPath()).saveWorkout(heavy);
+
+        assertEquals(315, new PersonalRecords(new WorkoutStorage(folder.getRoot().toPath()))
+                .get("Squat").getMaxWeight(), .001);
+        assertEquals(315, records.get("Squat").getMaxWeight(), .001);
+    }
+
+    @Test
+    public void testTwoIndexedStoragesOnOneDirectoryKeepEachOthersRecords() {
+        WorkoutStorage first = new WorkoutStorage(folder.getRoot().toPath());
+        WorkoutStorage second = new WorkoutStorage(folder.getRoot().toPath());
+        PersonalRecords firstRecords = PersonalRecords.attach(first);
+        PersonalRecords secondRecords = PersonalRecords.attach(second);
+        assertNull(firstRecords.get("Squat"));
+        assertNull(secondRecords.get("Squat"));
+
+        Workout heavy = new Workout("Heavy");
+        heavy.addExercise(new Exercise("Squat", 3, 3, 315, "legs"));
+        first.saveWorkout(heavy);
+        Workout light = new Workout("Light");
+        light.addExercise(new Exercise("Squat", 5, 5, 225, "legs"));
+        second.saveWorkout(light);
+
+        // The second storage's journal line does not overwrite the heavier squat the first one logged
+        assertEquals(315, secondRecords.get("Squat").getMaxWeight(), .001);
+        assertEquals(315, new PersonalRecords(new WorkoutStorage(folder.getRoot().toPath()))
+                .get("Squat").getMaxWeight(), .001);
+    }
+}
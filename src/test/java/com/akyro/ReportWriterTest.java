@@ -0,0 +1,102 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+import model.Exercise;
+import model.Workout;
+import ui.FormatUtils;
+import ui.ReportWriter;
+
+public class ReportWriterTest {
+    private static final double[] EDGE_CASES = { 0, -0.0, 1, -1, 0.5, 0.125, 0.005, 0.015, 1.005, 2.675, 999.995,
+            1234.5, 1234567.891, -1234567.891, 0.001, -0.001, 1e12 + 0.25, 9.99e15, 1e19, Long.MAX_VALUE,
+            (double) Long.MIN_VALUE, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, 1.0 / 3, 2.0 / 3, 0.285, 4.35, 100.0 / 7 };
+
+    private final Locale originalLocale = Locale.getDefault(Locale.Category.FORMAT);
+
+    @After
+    public void restoreLocale() {
+        Locale.setDefault(Locale.Category.FORMAT, originalLocale);
+    }
+
+    private void assertParity(double value) {
+        ReportWriter number = new ReportWriter(new PrintStream(new ByteArrayOutputStream()), false);
+        assertEquals(String.valueOf(value), FormatUtils.formatNumber(value), number.appendNumber(value).toString());
+        ReportWriter percent = new ReportWriter(new PrintStream(new ByteArrayOutputStream()), false);
+        assertEquals(String.valueOf(value), FormatUtils.formatPercent(value), percent.appendPercent(value).toString());
+    }
+
+    private void assertParityAcrossValues() {
+        for (double value : EDGE_CASES) {
+            assertParity(value);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            assertParity(random.nextInt(100000) / 100.0);
+            assertParity((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(14)));
+            assertParity(random.nextInt(2000) / 1000.0 + 0.005);
+        }
+    }
+
+    @Test
+    public void testMatchesFormatUtils() {
+        Locale.setDefault(Locale.Category.FORMAT, Locale.US);
+        assertParityAcrossValues();
+    }
+
+    @Test
+    public void testMatchesFormatUtilsInOtherLocales() {
+        for (Locale locale : new Locale[] { Locale.GERMANY, Locale.FRANCE, Locale.of("de", "CH"),
+                Locale.of("hi", "IN"), Locale.of("ar", "EG") }) {
+            Locale.setDefault(Locale.Category.FORMAT, locale);
+            assertParityAcrossValues();
+        }
+    }
+
+    @Test
+    public void testFlushesOnceAndOmitsColourWhenDisabled() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReportWriter report = new ReportWriter(new PrintStream(bytes), false);
+        Workout workout = new Workout("Test");
+        workout.addExercise(new Exercise("Squat", 5, 5, 225.5, "legs"));
+        workout.addExercise(new Exercise("Bench", 3, 8, 185, "chest"));
+
+        report.cyan().append("Header").reset().newLine();
+        assertEquals(0, bytes.size());
+        workout.printWorkout(report);
+
+        String separator = System.lineSeparator();
+        assertEquals("Header" + separator
+                + "1. " + workout.getExercises().get(0) + separator
+                + "2. " + workout.getExercises().get(1) + separator, bytes.toString());
+        assertEquals("", report.toString());
+    }
+
+    @Test
+    public void testAlignsColumnsAroundFormattedNumbers() {
+        Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+        ReportWriter report = new ReportWriter(new PrintStream(new ByteArrayOutputStream()), false);
+        int start = report.position();
+        report.append("bench").alignLeft(start, 8).append('|');
+        start = report.position();
+        report.appendNumber(1234.5).alignRight(start, 10).append('|');
+        start = report.position();
+        report.append("too long").alignRight(start, 3);
+        assertEquals("bench   |  1.234,50|too long", report.toString());
+    }
+
+    @Test
+    public void testColourCodesWhenEnabled() {
+        ReportWriter report = new ReportWriter(new PrintStream(new ByteArrayOutputStream()), true);
+        assertEquals("\u001B[33mHi\u001B[0m", report.yellow().append("Hi").reset().toString());
+    }
+}
@@ -0,0 +1,147 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import analytics.CountMinSketch;
+import analytics.HyperLogLog;
+import analytics.KllSketch;
+import analytics.SketchStore;
+import analytics.WorkoutSketch;
+import model.Exercise;
+import model.Workout;
+import storage.WorkoutStorage;
+
+public class SketchTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Workout workout(String name, LocalDate date) {
+        Workout workout = new Workout(name);
+        workout.setDate(date);
+        workout.addExercise(new Exercise("Squat", 5, 5, 100, "quads"));
+        return workout;
+    }
+
+    @Test
+    public void testHyperLogLogEstimateAndMerge() {
+        HyperLogLog a = new HyperLogLog();
+        HyperLogLog b = new HyperLogLog();
+        for (int i = 0; i < 20000; i++) {
+            a.add("exercise " + i);
+            b.add("exercise " + (i + 10000));
+        }
+        assertEquals(20000, a.estimate(), 20000 * 0.05);
+        a.merge(b);
+        assertEquals(30000, a.estimate(), 30000 * 0.05);
+        HyperLogLog small = new HyperLogLog();
+        small.add("squat");
+        small.add("squat");
+        small.add("bench press");
+        assertEquals(2, small.estimate());
+    }
+
+    @Test
+    public void testCountMinNeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch();
+        for (int i = 0; i < 5000; i++) {
+            sketch.add("exercise " + (i % 500), 1);
+        }
+        sketch.add("squat", 42);
+        assertTrue(sketch.estimate("squat") >= 42);
+        assertTrue(sketch.estimate("squat") <= 42 + 2 * 5000 / 512);
+    }
+
+    @Test
+    public void testKllQuantilesAfterMerge() {
+        KllSketch a = new KllSketch();
+        KllSketch b = new KllSketch();
+        for (int i = 1; i <= 50000; i++) {
+            a.add(i);
+            b.add(i + 50000);
+        }
+        a.merge(b);
+        assertEquals(100000, a.getCount());
+        assertEquals(1, a.quantile(0), 0);
+        assertEquals(100000, a.quantile(1), 0);
+        assertEquals(50000, a.quantile(0.5), 100000 * 0.02);
+        assertEquals(90000, a.quantile(0.9), 100000 * 0.02);
+        assertTrue(a.getRetainedItems() < 1000);
+    }
+
+    @Test
+    public void testKllStoresOnlyRetainedItems() throws Exception {
+        KllSketch sketch = new KllSketch();
+        for (int i = 1; i <= 10000; i++) {
+            sketch.add(i % 2 == 0 ? i : 10001 - i);
+        }
+        int stored = 0;
+        for (double[] level : sketch.getLevels()) {
+            stored += level.length;
+        }
+        assertEquals(sketch.getRetainedItems(), stored);
+
+        ObjectMapper mapper = new ObjectMapper();
+        KllSketch copy = mapper.readValue(mapper.writeValueAsString(sketch), KllSketch.class);
+        assertEquals(sketch.getRetainedItems(), copy.getRetainedItems());
+        assertEquals(sketch.quantile(0.5), copy.quantile(0.5), 0);
+        copy.add(10001);
+        assertEquals(10001, copy.quantile(1), 0);
+        assertEquals(5000, copy.quantile(0.5), 10000 * 0.02);
+    }
+
+    @Test
+    public void testSketchStoreMergesMonthlySketches() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        SketchStore sketches = SketchStore.attach(storage);
+        for (int month = 1; month <= 3; month++) {
+            Workout workout = new Workout("Month " + month);
+            workout.setDate(LocalDate.of(2026, month, 10));
+            workout.addExercise(new Exercise("Squat", 5, 5, 100 * month, "quads"));
+            workout.addExercise(new Exercise("Exercise " + month, 3, 10, 50, "chest"));
+            storage.saveWorkout(workout);
+        }
+
+        WorkoutSketch all = sketches.summarize();
+        assertEquals(3, all.getWorkouts());
+        assertEquals(4, all.estimateDistinctExercises());
+        assertEquals(3, all.estimateFrequency("squats"));
+        assertEquals(300, all.weightQuantile(1), 0);
+
+        WorkoutSketch february = sketches.summarize(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28));
+        assertEquals(1, february.getWorkouts());
+
+        storage.deleteWorkout("Month 3.json");
+        assertEquals(2, sketches.summarize().getWorkouts());
+        assertEquals(200, sketches.summarize().weightQuantile(1), 0);
+    }
+
+    @Test
+    public void testSketchesCatchUpWithFilesWrittenElsewhere() throws Exception {
+        Path root = folder.getRoot().toPath();
+        WorkoutStorage storage = new WorkoutStorage(root);
+        SketchStore sketches = SketchStore.attach(storage);
+        storage.saveWorkout(workout("January", LocalDate.of(2026, 1, 10)));
+        assertEquals(1, sketches.summarize().getWorkouts());
+
+        new WorkoutStorage(root).saveWorkout(workout("February", LocalDate.of(2026, 2, 10)));
+        assertEquals(2, sketches.summarize().getWorkouts());
+        assertEquals(2, new SketchStore(new WorkoutStorage(root)).summarize().getWorkouts());
+
+        // A rebuild cut short before its marker was written is done again rather than trusted
+        Path sketchDirectory = storage.getIndexDirectory().resolve("sketches");
+        Files.delete(sketchDirectory.resolve("2026-02.json"));
+        Files.delete(sketchDirectory.resolve("generation"));
+        assertEquals(2, new SketchStore(new WorkoutStorage(root)).summarize().getWorkouts());
+    }
+}
@@ -0,0 +1,123 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.Exercise;
+import model.Workout;
+import storage.CatalogEntry;
+import storage.TenantRegistry;
+import storage.WorkoutStorage;
+
+public class TenantStorageTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Workout workout(String name) {
+        Workout workout = new Workout(name);
+        workout.addExercise(new Exercise("Squat", 5, 5, 225, "quads"));
+        return workout;
+    }
+
+    private static Set<String> catalogFiles(WorkoutStorage storage) {
+        Set<String> files = new TreeSet<>();
+        for (CatalogEntry entry : storage.getCatalog().entries()) {
+            files.add(entry.getFileName());
+        }
+        return files;
+    }
+
+    @Test
+    public void testTenantsAreIsolated() {
+        TenantRegistry registry = new TenantRegistry(folder.getRoot().toPath());
+        WorkoutStorage alice = registry.storage("alice");
+        WorkoutStorage bob = registry.storage("bob");
+        assertTrue(alice.saveWorkout(workout("Leg Day")));
+
+        assertEquals(1, alice.getCatalog().size());
+        assertEquals(0, bob.getCatalog().size());
+        assertTrue(bob.getSavedWorkouts().isEmpty());
+        assertEquals(folder.getRoot().toPath().resolve("tenants").resolve("alice"), alice.getDataDirectory());
+        assertTrue(alice == registry.storage("alice"));
+        assertEquals(List.of("alice", "bob"), registry.openTenants());
+    }
+
+    @Test
+    public void testInvalidTenantIds() {
+        TenantRegistry registry = new TenantRegistry(folder.getRoot().toPath());
+        assertNull(registry.storage(".."));
+        assertNull(registry.storage("a/b"));
+        assertNull(registry.storage(""));
+        assertNull(registry.storage(null));
+        assertNull(registry.storage("x".repeat(65)));
+        assertNotNull(registry.storage("Athlete_01-b"));
+    }
+
+    @Test
+    public void testConcurrentCopiesGetDistinctFiles() throws Exception {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        List<Future<String>> saves = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 40; i++) {
+                // "Push (1)" numbers its copies alongside "Push", so both must share a lock
+                String name = i % 2 == 0 ? "Push" : "Push (1)";
+                saves.add(executor.submit(() -> storage.save(workout(name)).fileName()));
+            }
+        }
+        Set<String> files = new TreeSet<>();
+        for (Future<String> save : saves) {
+            assertNotNull(save.get());
+            files.add(save.get());
+        }
+        assertEquals(40, files.size());
+        assertEquals(files, new TreeSet<>(storage.getSavedWorkouts()));
+        assertEquals(files, catalogFiles(storage));
+    }
+
+    @Test
+    public void testRebuildsDuringWritesStayConsistent() throws Exception {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(5)) {
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 60; i++) {
+                        String fileName = storage.save(workout("Thread " + thread + " Session " + i)).fileName();
+                        if (i % 3 == 0) {
+                            storage.deleteWorkout(fileName);
+                        }
+                    }
+                }));
+            }
+            Future<?> rebuilder = executor.submit(() -> {
+                while (writing.get()) {
+                    storage.getCatalog().rebuild();
+                }
+            });
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            rebuilder.get();
+        }
+        assertEquals(160, storage.getSavedWorkouts().size());
+        assertEquals(new TreeSet<>(storage.getSavedWorkouts()), catalogFiles(storage));
+    }
+}
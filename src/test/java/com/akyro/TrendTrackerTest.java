@@ -0,0 +1,153 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import analytics.TrendSeries;
+import analytics.TrendTracker;
+import analytics.TrendWindow;
+import metrics.Metrics;
+import metrics.OperationTimer;
+import model.Exercise;
+import model.Workout;
+import storage.WorkoutStorage;
+
+public class TrendTrackerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMovingAveragesOverRingBuffer() {
+        TrendSeries series = new TrendSeries();
+        LocalDate date = LocalDate.of(2026, 1, 1);
+        for (int i = 1; i <= 40; i++) {
+            series.add(date.plusDays(i), i * 100, i);
+        }
+        // Last 7 sessions are 34..40, last 28 are 13..40
+        assertEquals(3700, series.averageVolume(TrendWindow.ACUTE), .001);
+        assertEquals(2650, series.averageVolume(TrendWindow.CHRONIC), .001);
+        assertEquals(37, series.averageTopWeight(TrendWindow.ACUTE), .001);
+        assertEquals(4000, series.latestVolume(), .001);
+        assertEquals(40, series.getSessions());
+        assertTrue(series.acuteChronicRatio() > 1);
+    }
+
+    @Test
+    public void testSteadyLoadHasRatioOfOne() {
+        TrendSeries series = new TrendSeries();
+        for (int i = 0; i < 3; i++) {
+            series.add(LocalDate.of(2026, 1, 1).plusDays(i), 5000, 225);
+        }
+        assertEquals(5000, series.averageVolume(TrendWindow.CHRONIC), .001);
+        assertEquals(1, series.acuteChronicRatio(), .001);
+    }
+
+    @Test
+    public void testTrackerFollowsStorage() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        TrendTracker trends = TrendTracker.attach(storage);
+        for (int day = 1; day <= 3; day++) {
+            Workout workout = new Workout("Legs " + day);
+            workout.setDate(LocalDate.of(2026, 2, day));
+            workout.addExercise(new Exercise("Squat", 5, 5, 200 + day * 10, "quads"));
+            workout.addExercise(new Exercise("Squats", 1, 5, 100, "quads"));
+            storage.saveWorkout(workout);
+        }
+
+        TrendSeries squat = trends.exercise("squat");
+        assertEquals(3, squat.getSessions());
+        assertEquals(220, squat.averageTopWeight(TrendWindow.ACUTE), .001);
+        assertEquals(3, trends.muscleGroup("quads").getSessions());
+
+        // A backdated session and a delete recompute only the series they touch, and keep the index on disk
+        Path index = storage.getIndexDirectory().resolve("trends.json");
+        Workout backdated = new Workout("Old");
+        backdated.setDate(LocalDate.of(2026, 1, 1));
+        backdated.addExercise(new Exercise("Squat", 5, 5, 100, "quads"));
+        backdated.addExercise(new Exercise("Calf Raise", 3, 15, 90, "calves"));
+        OperationTimer scans = Metrics.timer("storage", "scan");
+        long before = scans.getCount();
+        storage.saveWorkout(backdated);
+        assertEquals(before + 2, scans.getCount());
+        assertEquals(4, trends.exercise("Squat").getSessions());
+        assertEquals(230, trends.exercise("Squat").getTopWeights()[3], .001);
+        assertEquals(1, trends.exercise("Calf Raise").getSessions());
+
+        storage.deleteWorkout("Legs 3.json");
+        assertEquals(before + 4, scans.getCount());
+        assertEquals(3, trends.exercise("Squat").getSessions());
+        assertEquals(1, trends.exercise("Calf Raise").getSessions());
+        assertTrue(Files.exists(index));
+        assertEquals(3, new TrendTracker(new WorkoutStorage(folder.getRoot().toPath())).exercise("Squat")
+                .getSessions());
+        assertEquals(before + 4, scans.getCount());
+    }
+
+    @Test
+    public void testResaveOnlyRecomputesChangedSeries() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        TrendTracker trends = TrendTracker.attach(storage);
+        String[] files = new String[3];
+        for (int day = 1; day <= 3; day++) {
+            Workout workout = new Workout("Legs " + day);
+            workout.setDate(LocalDate.of(2026, 2, day));
+            workout.addExercise(new Exercise("Squat", 5, 5, 200 + day * 10, "quads"));
+            files[day - 1] = storage.save(workout).fileName();
+        }
+        assertEquals(3, trends.exercise("Squat").getSessions());
+
+        // The latest session gains an exercise: its new series just takes the session, nothing is read back
+        OperationTimer scans = Metrics.timer("storage", "scan");
+        long before = scans.getCount();
+        Workout latest = storage.loadWorkout(files[2]);
+        latest.addExercise(new Exercise("Calf Raise", 3, 15, 90, "calves"));
+        storage.save(latest);
+        assertEquals(before, scans.getCount());
+        assertEquals(1, trends.exercise("Calf Raise").getSessions());
+        assertEquals(3, trends.exercise("Squat").getSessions());
+
+        // An earlier session changes: only its squat and quads series are recomputed
+        Workout first = storage.loadWorkout(files[0]);
+        first.getExercises().get(0).setWeight(300);
+        storage.save(first);
+        assertEquals(before + 2, scans.getCount());
+        assertEquals(3, trends.exercise("Squat").getSessions());
+        assertEquals(300, trends.exercise("Squat").getTopWeights()[0], .001);
+        assertEquals(230, trends.exercise("Squat").getTopWeights()[2], .001);
+        assertEquals(1, trends.exercise("Calf Raise").getSessions());
+
+        // Both edits were appended to the journal, so a fresh tracker replays them instead of scanning again
+        TrendTracker reloaded = new TrendTracker(new WorkoutStorage(folder.getRoot().toPath()));
+        assertEquals(300, reloaded.exercise("Squat").getTopWeights()[0], .001);
+        assertEquals(1, reloaded.muscleGroup("calves").getSessions());
+        assertEquals(before + 2, scans.getCount());
+    }
+
+    @Test
+    public void testSessionsWrittenOutsideTheTrackerAreTracked() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        TrendTracker trends = TrendTracker.attach(storage);
+        Workout first = new Workout("Legs 1");
+        first.setDate(LocalDate.of(2026, 2, 1));
+        first.addExercise(new Exercise("Squat", 5, 5, 200, "quads"));
+        storage.saveWorkout(first);
+        assertEquals(1, trends.exercise("Squat").getSessions());
+
+        Workout second = new Workout("Legs 2");
+        second.setDate(LocalDate.of(2026, 2, 3));
+        second.addExercise(new Exercise("Squat", 5, 5, 220, "quads"));
+        new WorkoutStorage(folder.getRoot().toPath()).saveWorkout(second);
+
+        TrendTracker reloaded = new TrendTracker(new WorkoutStorage(folder.getRoot().toPath()));
+        assertEquals(2, reloaded.exercise("Squat").getSessions());
+        assertEquals(2, trends.muscleGroup("quads").getSessions());
+    }
+}
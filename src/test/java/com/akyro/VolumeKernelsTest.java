@@ -0,0 +1,71 @@
+package com.akyro;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import analytics.ExerciseColumns;
+import analytics.OneRepMaxFormula;
+import analytics.VolumeKernels;
+import model.Exercise;
+import model.Workout;
+
+public class VolumeKernelsTest {
+    private ExerciseColumns randomColumns(int size) {
+        Random random = new Random(42);
+        double[] weights = new double[size];
+        int[] sets = new int[size];
+        int[] reps = new int[size];
+        int[] categories = new int[size];
+        for (int i = 0; i < size; i++) {
+            weights[i] = random.nextInt(400) + random.nextInt(4) * 0.25;
+            sets[i] = 1 + random.nextInt(6);
+            reps[i] = 1 + random.nextInt(40);
+            categories[i] = random.nextInt(ExerciseColumns.CATEGORY_COUNT);
+        }
+        return new ExerciseColumns(weights, sets, reps, categories);
+    }
+
+    @Test
+    public void testKernelsMatchScalarLoop() {
+        VolumeKernels scalar = VolumeKernels.scalar();
+        VolumeKernels best = VolumeKernels.best();
+
+        for (int size : new int[] { 0, 1, 7, 1001 }) {
+            ExerciseColumns columns = randomColumns(size);
+            double expected = scalar.totalVolume(columns);
+            assertEquals(expected, best.totalVolume(columns), 1e-9 * Math.max(1, expected));
+            assertArrayEquals(scalar.categoryVolumes(columns), best.categoryVolumes(columns),
+                    1e-9 * Math.max(1, expected));
+
+            for (OneRepMaxFormula formula : OneRepMaxFormula.values()) {
+                double[] scalarOut = new double[size];
+                double[] bestOut = new double[size];
+                scalar.estimateOneRepMax(columns, formula, scalarOut);
+                best.estimateOneRepMax(columns, formula, bestOut);
+                assertArrayEquals(scalarOut, bestOut, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testColumnsFromWorkouts() {
+        Workout workout = new Workout("Test Workout");
+        workout.addExercise(new Exercise("Squat", 5, 5, 225, "legs"));
+        workout.addExercise(new Exercise("Deadlift", 5, 5, 225, "pull"));
+        workout.addExercise(new Exercise("Bench Press", 5, 5, 225, "chest"));
+        workout.addExercise(new Exercise("Plank", 3, 1, 0, "core"));
+
+        double[] volumes = VolumeKernels.best().categoryVolumes(ExerciseColumns.from(List.of(workout)));
+        assertEquals(5625, volumes[ExerciseColumns.PUSH], .001);
+        assertEquals(5625, volumes[ExerciseColumns.PULL], .001);
+        assertEquals(5625, volumes[ExerciseColumns.LEGS], .001);
+        assertEquals(0, volumes[ExerciseColumns.OTHER], .001);
+        assertEquals(workout.calculateTotalWorkoutVolume(),
+                VolumeKernels.best().totalVolume(ExerciseColumns.from(List.of(workout))), .001);
+    }
+}
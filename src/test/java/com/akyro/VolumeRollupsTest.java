@@ -0,0 +1,133 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import analytics.PeriodRollup;
+import analytics.RollupPeriod;
+import analytics.VolumeRollups;
+import model.Exercise;
+import model.Workout;
+import storage.WorkoutStorage;
+
+public class VolumeRollupsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Workout workout(String name, LocalDate date) {
+        Workout workout = new Workout(name);
+        workout.setDate(date);
+        workout.addExercise(new Exercise("Squat", 5, 5, 200, "legs"));
+        workout.addExercise(new Exercise("Bench Press", 3, 10, 100, "chest"));
+        return workout;
+    }
+
+    @Test
+    public void testRollupsUpdatedOnSaveAndDelete() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        VolumeRollups rollups = VolumeRollups.attach(storage);
+
+        storage.saveWorkout(workout("Day A", LocalDate.of(2026, 3, 2)));
+        storage.saveWorkout(workout("Day B", LocalDate.of(2026, 3, 16)));
+
+        List<Map.Entry<String, PeriodRollup>> months = rollups.latest(RollupPeriod.MONTH, 12);
+        assertEquals(1, months.size());
+        assertEquals("2026-03", months.get(0).getKey());
+        PeriodRollup march = months.get(0).getValue();
+        assertEquals(2, march.getWorkouts());
+        assertEquals(2 * 8000.0, march.getTotal().getVolume(), .001);
+        assertEquals(16, march.getTotal().getSets());
+        assertEquals(2 * 55, march.getTotal().getReps());
+        assertEquals(2 * 5000.0, march.getCategories().get("Legs").getVolume(), .001);
+        assertEquals(2 * 3000.0, march.getMuscleGroups().get("chest").getVolume(), .001);
+
+        assertEquals(2, rollups.range(RollupPeriod.WEEK,
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)).size());
+
+        storage.deleteWorkout("Day A.json");
+        march = rollups.latest(RollupPeriod.MONTH, 1).get(0).getValue();
+        assertEquals(1, march.getWorkouts());
+        assertEquals(8000.0, march.getTotal().getVolume(), .001);
+        assertEquals(1, rollups.range(RollupPeriod.WEEK,
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)).size());
+    }
+
+    @Test
+    public void testRollupsPersistAndRebuild() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        VolumeRollups.attach(storage);
+        storage.saveWorkout(workout("Day A", LocalDate.of(2026, 1, 5)));
+
+        assertTrue(storage.getIndexDirectory().resolve("rollups.json").toFile().exists());
+        VolumeRollups reloaded = new VolumeRollups(new WorkoutStorage(folder.getRoot().toPath()));
+        assertEquals(8000.0, reloaded.latest(RollupPeriod.DAY, 1).get(0).getValue().getTotal().getVolume(), .001);
+
+        storage.getIndexDirectory().resolve("rollups.json").toFile().delete();
+        VolumeRollups rebuilt = new VolumeRollups(new WorkoutStorage(folder.getRoot().toPath()));
+        assertEquals("2026-01", rebuilt.latest(RollupPeriod.MONTH, 1).get(0).getKey());
+    }
+
+    @Test
+    public void testSavesAppendToTheJournalInsteadOfRewritingTheIndex() throws Exception {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        VolumeRollups.attach(storage);
+        storage.saveWorkout(workout("Day A", LocalDate.of(2026, 1, 5)));
+        Path indexDir = storage.getIndexDirectory();
+        String snapshot = Files.readString(indexDir.resolve("rollups.json"));
+
+        // The first save found no index and built one; the two after it each appended a line
+        storage.saveWorkout(workout("Day B", LocalDate.of(2026, 1, 6)));
+        storage.deleteWorkout("Day A.json");
+        assertEquals(snapshot, Files.readString(indexDir.resolve("rollups.json")));
+        assertEquals(2, Files.readAllLines(indexDir.resolve("rollups.journal")).size());
+
+        VolumeRollups reloaded = new VolumeRollups(new WorkoutStorage(folder.getRoot().toPath()));
+        List<Map.Entry<String, PeriodRollup>> days = reloaded.latest(RollupPeriod.DAY, 12);
+        assertEquals(1, days.size());
+        assertEquals("2026-01-06", days.get(0).getKey());
+        assertEquals(1, reloaded.latest(RollupPeriod.MONTH, 1).get(0).getValue().getWorkouts());
+    }
+
+    @Test
+    public void testFilesWrittenOutsideTheIndexAreRolledUp() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        VolumeRollups rollups = VolumeRollups.attach(storage);
+        storage.saveWorkout(workout("Day A", LocalDate.of(2026, 3, 2)));
+        assertEquals(1, rollups.latest(RollupPeriod.MONTH, 1).get(0).getValue().getWorkouts());
+
+        new WorkoutStorage(folder.getRoot().toPath()).saveWorkout(workout("Day B", LocalDate.of(2026, 3, 16)));
+
+        VolumeRollups reloaded = new VolumeRollups(new WorkoutStorage(folder.getRoot().toPath()));
+        assertEquals(2, reloaded.latest(RollupPeriod.MONTH, 1).get(0).getValue().getWorkouts());
+        assertEquals(2, rollups.latest(RollupPeriod.MONTH, 1).get(0).getValue().getWorkouts());
+    }
+
+    @Test
+    public void testUndatedFilesAreRolledUpUnderTheirModificationDate() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("Old.json");
+        Files.writeString(file, "{\"name\":\"Old\",\"exercises\":[{\"name\":\"Squat\",\"sets\":5,\"reps\":5,"
+                + "\"weight\":200,\"muscleGroup\":\"legs\"}]}");
+        LocalDate modified = LocalDate.of(2025, 6, 10);
+        Files.setLastModifiedTime(file, FileTime.from(modified.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        VolumeRollups rollups = VolumeRollups.attach(storage);
+        assertEquals("2025-06", rollups.latest(RollupPeriod.MONTH, 1).get(0).getKey());
+
+        // Deleting takes it back out of the same month rather than one dated by when the delete ran
+        storage.deleteWorkout("Old.json");
+        assertTrue(rollups.latest(RollupPeriod.MONTH, 12).isEmpty());
+    }
+}
@@ -0,0 +1,137 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import generator.WorkloadGenerator;
+import model.Exercise;
+import model.Workout;
+import storage.CsvColumn;
+import storage.WorkoutStorage;
+
+public class WorkloadGeneratorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new WorkoutStorage().getMapper();
+
+    private String json(WorkloadGenerator generator, int count) throws Exception {
+        return mapper.writeValueAsString(generator.workouts(count).toList());
+    }
+
+    @Test
+    public void testSameSeedSameWorkouts() throws Exception {
+        assertEquals(json(new WorkloadGenerator(7).athletes(3), 200), json(new WorkloadGenerator(7).athletes(3), 200));
+        assertNotEquals(json(new WorkloadGenerator(7), 50), json(new WorkloadGenerator(8), 50));
+    }
+
+    @Test
+    public void testPopularityIsSkewedAcrossManyNames() {
+        WorkloadGenerator generator = new WorkloadGenerator(1).exerciseNames(5000);
+        assertEquals(5000, new HashSet<>(generator.exerciseNameCatalogue()).size());
+
+        Map<String, Integer> counts = new HashMap<>();
+        generator.workouts(20_000).forEach(w -> w.getExercises()
+                .forEach(e -> counts.merge(e.getName(), 1, Integer::sum)));
+        assertTrue(counts.size() > 1000);
+        List<String> catalogue = generator.exerciseNameCatalogue();
+        assertTrue(counts.get(catalogue.get(0)) > 20 * counts.getOrDefault(catalogue.get(1000), 0));
+    }
+
+    @Test
+    public void testSmallCataloguesStillGenerate() {
+        for (int names = 1; names <= 13; names++) {
+            WorkloadGenerator generator = new WorkloadGenerator(4).exerciseNames(names);
+            assertEquals(names, generator.exerciseNameCatalogue().size());
+            Set<String> catalogue = new HashSet<>(generator.exerciseNameCatalogue());
+            generator.workouts(30).forEach(w -> w.getExercises()
+                    .forEach(e -> assertTrue(e.getName(), catalogue.contains(e.getName()))));
+        }
+        // From four names on, every category keeps its most popular movement
+        assertTrue(new WorkloadGenerator(4).exerciseNames(4).exerciseNameCatalogue().contains("Plank"));
+        assertEquals(new WorkloadGenerator(4).exerciseNameCatalogue().subList(0, 13),
+                new WorkloadGenerator(4).exerciseNames(13).exerciseNameCatalogue());
+
+        try {
+            new WorkloadGenerator(4).exerciseNames(0);
+            fail("Expected Illegal Argument Exception for an empty catalogue");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testSplitsCoverPushPullAndLegs() {
+        Map<String, Integer> categories = new HashMap<>();
+        new WorkloadGenerator(2).workouts(300).forEach(w -> w.getExercises()
+                .forEach(e -> categories.merge(e.classifyExercise(), 1, Integer::sum)));
+        for (String category : List.of("Push", "Pull", "Legs", "Other")) {
+            assertTrue(category, categories.getOrDefault(category, 0) > 0);
+        }
+        int total = categories.values().stream().mapToInt(Integer::intValue).sum();
+        assertTrue(categories.get("Legs") > total / 5);
+    }
+
+    @Test
+    public void testWeightsProgressOverYears() {
+        WorkloadGenerator generator = new WorkloadGenerator(3);
+        String squat = generator.exerciseNameCatalogue().get(0);
+        double firstYear = 0;
+        int firstCount = 0;
+        double laterYear = 0;
+        int laterCount = 0;
+        for (int i = 0; i < 1000; i++) {
+            Workout workout = generator.next();
+            for (Exercise e : workout.getExercises()) {
+                if (e.getName().equals(squat)) {
+                    if (i < 150) {
+                        firstYear += e.getWeight();
+                        firstCount++;
+                    } else if (i >= 850) {
+                        laterYear += e.getWeight();
+                        laterCount++;
+                    }
+                }
+            }
+        }
+        assertTrue(laterYear / laterCount > 1.2 * (firstYear / firstCount));
+    }
+
+    @Test
+    public void testSinks() throws Exception {
+        Path dir = folder.newFolder("generated").toPath();
+        assertEquals(5000, new WorkloadGenerator(4).writeJsonFiles(dir, 5000));
+        WorkoutStorage storage = new WorkoutStorage(dir);
+        assertEquals(5000, storage.getCatalog().size());
+        Set<String> expected = new HashSet<>();
+        new WorkloadGenerator(4).workouts(5000).forEach(w -> expected.add(w.getName()));
+        assertEquals(expected, new HashSet<>(storage.getCatalog().entries().stream()
+                .map(entry -> entry.getWorkoutName()).toList()));
+        // Written as save writes them, so loading pays for the same checksum verification
+        assertTrue(storage.getCatalog().entries().stream().allMatch(entry -> entry.getId() != null));
+        assertEquals(5000, storage.scrub(4).getVerified());
+
+        StringWriter csv = new StringWriter();
+        long rows = new WorkloadGenerator(4).writeCsv(csv, List.of(CsvColumn.WORKOUT, CsvColumn.EXERCISE), 10);
+        assertEquals(rows + 1, csv.toString().split("\r\n").length);
+
+        WorkoutStorage saved = new WorkoutStorage(folder.newFolder("saved").toPath());
+        assertEquals(20, new WorkloadGenerator(4).saveTo(saved, 20));
+        assertEquals(20, saved.getSavedWorkouts().size());
+    }
+}
@@ -0,0 +1,174 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import analytics.PersonalRecords;
+import main.BatchCli;
+import model.Exercise;
+import model.Workout;
+import storage.SaveResult;
+import storage.ScrubReport;
+import storage.WorkoutStorage;
+
+public class WorkoutChecksumTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path dataDir;
+    private WorkoutStorage storage;
+
+    @Before
+    public void setUp() {
+        dataDir = folder.getRoot().toPath();
+        storage = new WorkoutStorage(dataDir);
+    }
+
+    private String save(String name, String exercise, double weight) {
+        Workout workout = new Workout(name);
+        workout.addExercise(new Exercise(exercise, 5, 5, weight, "quads"));
+        return storage.save(workout).fileName();
+    }
+
+    @Test
+    public void testSavedFilesCarryAVerifiedChecksum() throws Exception {
+        String fileName = save("Leg Day", "Squat", 225);
+        String json = Files.readString(dataDir.resolve(fileName));
+        assertTrue(json.matches("(?s)\\{\\s*\"checksum\" : \"[0-9a-f]{8}\",.*"));
+
+        Workout loaded = storage.loadWorkout(fileName);
+        assertEquals(225, loaded.getExercises().get(0).getWeight(), 0);
+        assertEquals(SaveResult.SAVED, storage.replace(fileName, loaded));
+        assertNotNull(storage.loadWorkout(fileName));
+
+        ScrubReport report = storage.scrub(2);
+        assertEquals(1, report.getChecked());
+        assertEquals(1, report.getVerified());
+        assertTrue(report.isClean());
+    }
+
+    @Test
+    public void testCorruptionThatStillParsesIsCaught() throws Exception {
+        String fileName = save("Leg Day", "Squat", 225);
+        Path file = dataDir.resolve(fileName);
+        Files.writeString(file, Files.readString(file).replace("225", "255"));
+
+        assertNull(storage.loadWorkout(fileName));
+        ScrubReport report = storage.scrub(2);
+        assertEquals("checksum mismatch", report.getQuarantined().get(fileName));
+        assertTrue(Files.exists(storage.getQuarantineDirectory().resolve(fileName)));
+        assertEquals(List.of(), storage.getSavedWorkouts());
+    }
+
+    @Test
+    public void testBadFilesAreQuarantinedAndDroppedFromIndexes() throws Exception {
+        Files.writeString(dataDir.resolve("Old.json"),
+                "{\"name\":\"Old\",\"date\":\"2024-01-05\",\"exercises\":[{\"name\":\"Row\",\"sets\":3,"
+                        + "\"reps\":10,\"weight\":100,\"muscleGroup\":\"back\"}]}");
+        PersonalRecords records = PersonalRecords.attach(storage);
+        String legs = save("Leg Day", "Squat", 225);
+        String pull = save("Pull Day", "Deadlift", 315);
+        assertEquals(3, storage.getCatalog().size());
+        assertEquals(3, records.all().size());
+        Path file = dataDir.resolve(pull);
+        String json = Files.readString(file);
+        Files.writeString(file, json.substring(0, json.length() / 2));
+
+        ScrubReport report = storage.scrub(4);
+        assertEquals(3, report.getChecked());
+        assertEquals(1, report.getVerified());
+        assertEquals(1, report.getUnchecked());
+        assertEquals(List.of(pull), List.copyOf(report.getQuarantined().keySet()));
+        assertTrue(report.getBytes() > 0);
+
+        assertEquals(2, storage.getCatalog().size());
+        assertNull(storage.getCatalog().get(pull));
+        assertNotNull(storage.getCatalog().get(legs));
+        assertEquals(2, records.all().size());
+        assertTrue(storage.scrub(1).isClean());
+    }
+
+    @Test
+    public void testScrubCommandFailsWhenAnythingWasQuarantined() throws Exception {
+        save("Leg Day", "Squat", 225);
+        String pull = save("Pull Day", "Deadlift", 315);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchCli cli = new BatchCli(storage, new PrintStream(out, true),
+                new PrintStream(new ByteArrayOutputStream(), true));
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("scrub", "--threads", "2")));
+
+        Files.writeString(dataDir.resolve(pull), "{\"checksum\" : \"00000000\"}");
+        out.reset();
+        assertEquals(BatchCli.EXIT_FAILED, cli.run(List.of("--format", "json", "scrub")));
+        assertEquals("checksum mismatch",
+                storage.getMapper().readTree(out.toString()).path("quarantined").path(pull).asText());
+        assertEquals(BatchCli.EXIT_USAGE, cli.run(List.of("scrub", "--threads", "0")));
+    }
+
+    @Test
+    public void testParseFailuresAreReportedApartFromMismatches() throws Exception {
+        String legs = save("Leg Day", "Squat", 225);
+        Path file = dataDir.resolve(legs);
+        Files.writeString(file, Files.readString(file).replace("225", "255"));
+        Files.writeString(dataDir.resolve("Old.json"), "{\"name\":\"Old\",\"exercises\":[");
+
+        ScrubReport report = storage.scrub(2);
+        assertEquals(1, report.getMismatched());
+        assertEquals(1, report.getUnparseable());
+        assertEquals("checksum mismatch", report.getQuarantined().get(legs));
+        assertTrue(report.getQuarantined().get("Old.json").startsWith("does not parse: "));
+        assertTrue(report.getUnreadable().isEmpty());
+    }
+
+    @Test
+    public void testLeftoverTemporaryFilesAreListedAndRemovedOnRequest() throws Exception {
+        String legs = save("Leg Day", "Squat", 225);
+        // A save that died after writing its new copy but before moving it into place
+        Path temporary = dataDir.resolve(legs + ".tmp");
+        Files.writeString(temporary, "{\"checksum\" : \"0000");
+
+        ScrubReport report = storage.scrub(1);
+        assertTrue(report.isClean());
+        assertEquals(List.of(legs + ".tmp"), report.getLeftovers());
+        assertTrue(Files.exists(temporary));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchCli cli = new BatchCli(storage, new PrintStream(out, true),
+                new PrintStream(new ByteArrayOutputStream(), true));
+        assertEquals(BatchCli.EXIT_OK, cli.run(List.of("scrub", "--remove-leftovers", "--threads", "1")));
+        assertTrue(out.toString().contains("1 temporary files from interrupted saves removed"));
+        assertTrue(Files.notExists(temporary));
+        assertEquals(List.of(), storage.scrub(1).getLeftovers());
+        assertNotNull(storage.loadWorkout(legs));
+    }
+
+    @Test
+    public void testCorruptFilesThatCannotBeMovedAreStillReported() throws Exception {
+        String legs = save("Leg Day", "Squat", 225);
+        Path file = dataDir.resolve(legs);
+        Files.writeString(file, Files.readString(file).replace("225", "255"));
+        // A plain file where the quarantine directory should go makes every move fail
+        Files.writeString(storage.getQuarantineDirectory(), "");
+
+        ScrubReport report = storage.scrub(1);
+        assertFalse(report.isClean());
+        assertEquals(1, report.getChecked());
+        assertTrue(report.getQuarantined().isEmpty());
+        assertTrue(report.getUnmoved().get(legs).startsWith("checksum mismatch; not moved: "));
+        assertTrue(Files.exists(file));
+    }
+}
@@ -4,14 +4,21 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.Scanner;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import analytics.ExerciseNameIndex;
 import model.Exercise;
 import model.Workout;
+import storage.WorkoutStorage;
 import ui.InputReader;
 import ui.WorkoutEditor;
 
 public class WorkoutEditorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void addExerciseToWorkoutTest() {
         String fakeInput = String.join("\n",
@@ -91,4 +98,30 @@ public class WorkoutEditorTest {
         assertEquals(0, workout.size());
 
     }
+
+    @Test
+    public void exerciseNamesComeFromTheHistoryTest() {
+        WorkoutStorage storage = new WorkoutStorage(folder.getRoot().toPath());
+        Workout saved = new Workout("Push");
+        saved.addExercise(new Exercise("Bench Press", 3, 10, 135, "chest"));
+        storage.saveWorkout(saved);
+        ExerciseNameIndex names = ExerciseNameIndex.attach(storage);
+
+        String fakeInput = String.join("\n",
+                // Another spelling of a known name is written the known way
+                "bench presses", "3", "10", "135", "chest",
+                // A typo is offered the known name
+                "Bnch Press", "1", "3", "8", "155", "chest",
+                // A new exercise keeps its name
+                "Zercher Squat", "3", "5", "185", "quads");
+        WorkoutEditor editor = new WorkoutEditor(new InputReader(new Scanner(fakeInput)), () -> names);
+        Workout workout = new Workout("Test");
+        for (int i = 0; i < 3; i++) {
+            editor.addExerciseToWorkout(workout);
+        }
+
+        assertEquals("Bench Press", workout.getExercises().get(0).getName());
+        assertEquals("Bench Press", workout.getExercises().get(1).getName());
+        assertEquals("Zercher Squat", workout.getExercises().get(2).getName());
+    }
 }
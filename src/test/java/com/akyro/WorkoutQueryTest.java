@@ -0,0 +1,107 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.Exercise;
+import model.Workout;
+import storage.QueryPlan;
+import storage.WorkoutQuery;
+import storage.WorkoutStorage;
+
+public class WorkoutQueryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private WorkoutStorage storage;
+
+    private void save(String name, LocalDate date, Exercise... exercises) {
+        Workout workout = new Workout(name);
+        workout.setDate(date);
+        for (Exercise e : exercises) {
+            workout.addExercise(e);
+        }
+        storage.saveWorkout(workout);
+    }
+
+    @Before
+    public void setUp() {
+        storage = new WorkoutStorage(folder.getRoot().toPath());
+        save("Heavy Legs", LocalDate.of(2026, 3, 3),
+                new Exercise("Squat", 3, 3, 315, "quads"),
+                new Exercise("Leg Curl", 3, 12, 90, "hamstrings"));
+        save("Light Legs", LocalDate.of(2026, 3, 10),
+                new Exercise("squats", 5, 5, 225, "quads"),
+                new Exercise("Bench Press", 3, 5, 315, "chest"));
+        save("April Legs", LocalDate.of(2026, 4, 2),
+                new Exercise("Squat", 3, 3, 335, "quads"));
+        save("Push", LocalDate.of(2026, 3, 12),
+                new Exercise("Bench Press", 3, 5, 225, "chest"));
+    }
+
+    @Test
+    public void testMuscleGroupsIgnoreTheDefaultLocale() {
+        Locale original = Locale.getDefault();
+        // Lower-casing "I" under Turkish rules gives a dotless "ı"
+        Locale.setDefault(Locale.of("tr", "TR"));
+        try {
+            save("Arms", LocalDate.of(2026, 3, 14), new Exercise("Curl", 3, 10, 40, "BICEPS"));
+            assertEquals("Arms", storage.query(WorkoutQuery.all().muscleGroup("biceps")).get(0).getName());
+            assertEquals(1, storage.query(WorkoutQuery.all().muscleGroup("HAMSTRINGS")).size());
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+
+    @Test
+    public void testSquatsOver300InMarch() {
+        WorkoutQuery query = WorkoutQuery.all()
+                .exercise("Squat")
+                .weightBetween(300, Double.MAX_VALUE)
+                .between(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31));
+
+        List<Workout> results = storage.query(query);
+        assertEquals(1, results.size());
+        assertEquals("Heavy Legs", results.get(0).getName());
+
+        QueryPlan plan = storage.explain(query);
+        assertEquals(List.of("exercise", "date"), plan.getIndexesUsed());
+        assertEquals(2, plan.getCandidates().size());
+        assertEquals(4, plan.getCatalogSize());
+        assertEquals("index exercise + date: 2 of 4 workouts deserialized", plan.explain());
+    }
+
+    @Test
+    public void testFiltersApplyToTheSameExercise() {
+        // Light Legs has a 315 lb lift and a squat, but not a 315 lb squat
+        List<Workout> results = storage.query(WorkoutQuery.all().exercise("Squat").weightBetween(300, 400));
+        assertEquals(2, results.size());
+
+        assertEquals(3, storage.query(WorkoutQuery.all().muscleGroup("QUADS")).size());
+        assertEquals(1, storage.query(WorkoutQuery.all().category("Push").repsBetween(5, 5)
+                .weightBetween(0, 250)).size());
+    }
+
+    @Test
+    public void testFullScanAndDeletes() {
+        QueryPlan plan = storage.explain(WorkoutQuery.all().repsBetween(10, 20));
+        assertTrue(plan.isFullScan());
+        assertEquals(1, storage.query(WorkoutQuery.all().repsBetween(10, 20)).size());
+
+        storage.deleteWorkout("Heavy Legs.json");
+        assertEquals(3, storage.getCatalog().size());
+        assertEquals(0, storage.explain(WorkoutQuery.all().muscleGroup("hamstrings")).getCandidates().size());
+
+        WorkoutStorage reopened = new WorkoutStorage(folder.getRoot().toPath());
+        assertEquals(2, reopened.query(WorkoutQuery.all().exercise("Squat")).size());
+    }
+}
@@ -0,0 +1,211 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import analytics.SketchStore;
+import main.BatchCli;
+import model.Exercise;
+import model.Workout;
+import server.WorkoutServer;
+import storage.TenantRegistry;
+import storage.WorkoutStorage;
+
+public class WorkoutServerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private WorkoutStorage storage;
+    private WorkoutServer server;
+    private HttpClient client;
+    private ObjectMapper mapper;
+
+    @Before
+    public void setUp() throws Exception {
+        storage = new WorkoutStorage(folder.getRoot().toPath());
+        mapper = storage.getMapper();
+        server = WorkoutServer.start(storage, 0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+
+    private String post(String name, Exercise... exercises) throws Exception {
+        Workout workout = new Workout(name);
+        for (Exercise e : exercises) {
+            workout.addExercise(e);
+        }
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/workouts"))
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(workout))));
+        assertEquals(201, response.statusCode());
+        return mapper.readTree(response.body()).get("fileName").asText();
+    }
+
+    @Test
+    public void testSaveLoadAnalyzeAndDelete() throws Exception {
+        String file = post("Leg Day", new Exercise("Squat", 5, 5, 225, "quads"),
+                new Exercise("Curl", 3, 10, 40, "biceps"));
+        assertEquals("Leg Day.json", file);
+
+        JsonNode list = mapper.readTree(send(HttpRequest.newBuilder(uri("/workouts"))).body());
+        assertEquals(1, list.size());
+
+        JsonNode workout = mapper.readTree(send(HttpRequest.newBuilder(uri("/workouts/Leg%20Day.json"))).body());
+        assertEquals("Leg Day", workout.get("name").asText());
+
+        JsonNode analytics = mapper.readTree(
+                send(HttpRequest.newBuilder(uri("/workouts/Leg%20Day.json/analytics"))).body());
+        assertEquals("Squat", analytics.get("topExercises").get(0).get("name").asText());
+
+        assertEquals(204, send(HttpRequest.newBuilder(uri("/workouts/Leg%20Day.json")).DELETE()).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/workouts/Leg%20Day.json"))).statusCode());
+    }
+
+    @Test
+    public void testCompareAndBreakdown() throws Exception {
+        post("A", new Exercise("Squat", 5, 5, 200, "quads"));
+        post("B", new Exercise("Squat", 5, 5, 100, "quads"), new Exercise("Row", 5, 5, 100, "back"));
+
+        JsonNode comparison = mapper.readTree(send(HttpRequest.newBuilder(uri("/compare?a=A.json&b=B.json"))).body());
+        assertEquals("Row", comparison.get("uniqueToB").get(0).asText());
+
+        JsonNode breakdown = mapper.readTree(send(HttpRequest.newBuilder(uri("/breakdown?period=month"))).body());
+        JsonNode month = breakdown.elements().next();
+        assertEquals(2, month.get("workouts").asInt());
+    }
+
+    @Test
+    public void testRejectsBadRequests() throws Exception {
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/workouts/..%2Fsecret.json"))).statusCode());
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/workouts"))
+                .POST(HttpRequest.BodyPublishers.ofString("{not json"))).statusCode());
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/breakdown?period=year"))).statusCode());
+        assertEquals(405, send(HttpRequest.newBuilder(uri("/compare?a=A.json&b=B.json")).DELETE()).statusCode());
+    }
+
+    @Test
+    public void testPutRejectsStaleVersions() throws Exception {
+        String file = post("Push Day", new Exercise("Bench Press", 5, 5, 185, "chest"));
+        String loaded = send(HttpRequest.newBuilder(uri("/workouts/" + file.replace(" ", "%20")))).body();
+
+        Workout first = mapper.readValue(loaded, Workout.class);
+        first.getExercises().get(0).setWeight(195);
+        HttpResponse<String> saved = send(HttpRequest.newBuilder(uri("/workouts/" + file.replace(" ", "%20")))
+                .PUT(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(first))));
+        assertEquals(200, saved.statusCode());
+        assertEquals(2, mapper.readTree(saved.body()).get("version").asLong());
+
+        Workout stale = mapper.readValue(loaded, Workout.class);
+        HttpResponse<String> conflict = send(HttpRequest.newBuilder(uri("/workouts/" + file.replace(" ", "%20")))
+                .PUT(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(stale))));
+        assertEquals(409, conflict.statusCode());
+        // Posting the stale copy back is the same conflict, not a failed save
+        HttpResponse<String> reposted = send(HttpRequest.newBuilder(uri("/workouts"))
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(stale))));
+        assertEquals(409, reposted.statusCode());
+        assertEquals(195, storage.loadWorkout(file).getExercises().get(0).getWeight(), 0);
+        assertEquals(1, storage.getSavedWorkouts().size());
+    }
+
+    @Test
+    public void testConcurrentSavesGetDistinctFiles() throws Exception {
+        int clients = 8;
+        int savesPerClient = 10;
+        List<Future<List<String>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                results.add(executor.submit(() -> {
+                    List<String> files = new ArrayList<>();
+                    for (int i = 0; i < savesPerClient; i++) {
+                        files.add(post("Same Name", new Exercise("Squat", 5, 5, 225, "quads")));
+                    }
+                    return files;
+                }));
+            }
+        }
+        Set<String> files = new HashSet<>();
+        for (Future<List<String>> result : results) {
+            files.addAll(result.get());
+        }
+        assertEquals(clients * savesPerClient, files.size());
+        assertEquals(clients * savesPerClient, storage.getCatalog().size());
+        assertTrue(files.contains("Same Name.json"));
+    }
+
+    @Test
+    public void testTenantRoutes() throws Exception {
+        Workout workout = new Workout("Pull Day");
+        workout.addExercise(new Exercise("Row", 3, 8, 155, "back"));
+        HttpResponse<String> saved = send(HttpRequest.newBuilder(uri("/tenants/alice/workouts"))
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(workout))));
+        assertEquals(201, saved.statusCode());
+
+        assertEquals(200, send(HttpRequest.newBuilder(uri("/tenants/alice/workouts/Pull%20Day.json"))).statusCode());
+        assertEquals(1, mapper.readTree(send(HttpRequest.newBuilder(uri("/tenants/alice/workouts"))).body()).size());
+        assertEquals(0, mapper.readTree(send(HttpRequest.newBuilder(uri("/tenants/bob/workouts"))).body()).size());
+        assertEquals(0, mapper.readTree(send(HttpRequest.newBuilder(uri("/workouts"))).body()).size());
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/workouts/Pull%20Day.json"))).statusCode());
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/tenants/a.b/workouts"))).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/tenants/alice/unknown"))).statusCode());
+    }
+
+    @Test
+    public void testServeCountsEachSaveOnceInTheIndexes() throws Exception {
+        // serve runs inside a BatchCli, which has attached the indexes to the storage already
+        WorkoutStorage served = new WorkoutStorage(folder.newFolder("served").toPath());
+        TenantRegistry registry = new TenantRegistry(served.getDataDirectory());
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream(), true);
+        new BatchCli(served, registry, quiet, quiet);
+        WorkoutServer cliServer = WorkoutServer.start(served, registry, 0);
+        try {
+            Workout workout = new Workout("Leg Day");
+            workout.addExercise(new Exercise("Squat", 5, 5, 225, "quads"));
+            String body = mapper.writeValueAsString(workout);
+            for (String path : List.of("/workouts", "/tenants/alice/workouts", "/tenants/alice/workouts")) {
+                HttpResponse<String> response = send(HttpRequest.newBuilder(
+                        URI.create("http://127.0.0.1:" + cliServer.getPort() + path))
+                        .POST(HttpRequest.BodyPublishers.ofString(body)));
+                assertEquals(201, response.statusCode());
+            }
+        } finally {
+            cliServer.stop();
+        }
+        // Read back what was persisted, not what an attached instance has in memory
+        assertEquals(1, new SketchStore(served).summarize().getWorkouts());
+        assertEquals(2, new SketchStore(registry.storage("alice")).summarize().getWorkouts());
+    }
+}
@@ -0,0 +1,87 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import analytics.SimilarityMatch;
+import analytics.SimilarityMode;
+import analytics.WorkoutSimilarity;
+import model.Exercise;
+import model.Workout;
+
+public class WorkoutSimilarityTest {
+    private Workout workout(String name, String... exercises) {
+        Workout workout = new Workout(name);
+        for (String exercise : exercises) {
+            workout.addExercise(new Exercise(exercise, 3, 10, 100, "chest"));
+        }
+        return workout;
+    }
+
+    @Test
+    public void testExactSimilarity() {
+        Workout push = workout("Push", "Bench Press", "Overhead Press", "Dips");
+        Workout pushB = workout("Push B", "Bench Press", "Overhead Press", "Flyes");
+        Workout pull = workout("Pull", "Deadlift", "Row");
+        WorkoutSimilarity similarity = new WorkoutSimilarity(List.of(push, pushB, pull));
+
+        List<SimilarityMatch> matches = similarity.mostSimilar(workout("Today", "Bench Press", "Dips"), 2,
+                SimilarityMode.EXACT);
+        assertEquals(2, matches.size());
+        assertSame(push, matches.get(0).getWorkout());
+        assertEquals(2.0 / 3, matches.get(0).getSimilarity(), .001);
+        assertEquals(1.0 / 4, matches.get(1).getSimilarity(), .001);
+        // Names the history never logged still count towards the union, on every search
+        for (int i = 0; i < 2; i++) {
+            assertEquals(2.0 / 4, similarity.mostSimilar(workout("Today", "Bench Press", "Dips", "Zercher Squat"), 1,
+                    SimilarityMode.EXACT).get(0).getSimilarity(), .001);
+        }
+
+        double[][] matrix = similarity.similarityMatrix(SimilarityMode.EXACT);
+        assertEquals(1, matrix[0][0], .001);
+        assertEquals(2.0 / 4, matrix[0][1], .001);
+        assertEquals(matrix[0][1], matrix[1][0], .001);
+        assertEquals(0, matrix[0][2], .001);
+    }
+
+    @Test
+    public void testApproximateSimilarityFindsNearDuplicates() {
+        Workout a = workout("A", "Squat", "Leg Press", "Lunge", "Leg Curl", "Calf Raise", "Hip Thrust");
+        Workout b = workout("B", "Squat", "Leg Press", "Lunge", "Leg Curl", "Calf Raise", "Hip Thrust");
+        Workout c = workout("C", "Bench Press", "Row");
+        WorkoutSimilarity similarity = new WorkoutSimilarity(List.of(a, b, c));
+
+        List<SimilarityMatch> matches = similarity.mostSimilar(a, 1, SimilarityMode.APPROXIMATE);
+        assertSame(b, matches.get(0).getWorkout());
+        assertEquals(1.0, matches.get(0).getSimilarity(), .001);
+
+        double[][] matrix = similarity.similarityMatrix(SimilarityMode.APPROXIMATE);
+        assertTrue(matrix[0][2] < 0.2);
+    }
+
+    @Test
+    public void testSearchesExerciseNamesWithoutWorkouts() {
+        // As the catalog stores them: normalized names, one set per saved file
+        WorkoutSimilarity similarity = WorkoutSimilarity.ofExerciseNames(List.of(
+                Set.of("deadlift", "row"), Set.of("bench press", "dip", "overhead press"), Set.of("bench press")));
+
+        List<SimilarityMatch> matches = similarity.mostSimilar(workout("Today", "Bench Press", "Dips"), 2,
+                SimilarityMode.EXACT);
+        assertEquals(1, matches.get(0).getIndex());
+        assertEquals(2.0 / 3, matches.get(0).getSimilarity(), .001);
+        assertEquals(2, matches.get(1).getIndex());
+        assertNull(matches.get(0).getWorkout());
+
+        // The stored keys are matched as they are, the target's names normalized once
+        WorkoutSimilarity abbreviated = WorkoutSimilarity.ofExerciseNames(List.of(Set.of("romanian deadlift")));
+        assertEquals(1.0, abbreviated.mostSimilar(workout("Today", "RDLs"), 1, SimilarityMode.EXACT).get(0)
+                .getSimilarity(), .001);
+    }
+}
@@ -0,0 +1,147 @@
+package com.akyro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.Exercise;
+import model.Workout;
+import storage.SaveOutcome;
+import storage.SaveResult;
+import storage.WorkoutQuery;
+import storage.WorkoutStorage;
+
+public class WorkoutVersioningTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private WorkoutStorage storage;
+
+    @Before
+    public void setUp() {
+        storage = new WorkoutStorage(folder.getRoot().toPath());
+    }
+
+    private static Workout workout(String name) {
+        Workout workout = new Workout(name);
+        workout.addExercise(new Exercise("Squat", 5, 5, 225, "quads"));
+        return workout;
+    }
+
+    @Test
+    public void testSavingALoadedWorkoutUpdatesItInPlace() {
+        Workout created = workout("Leg Day");
+        String fileName = storage.save(created).fileName();
+        assertNotNull(created.getId());
+        assertEquals(1, created.getVersion());
+
+        Workout loaded = storage.loadWorkout(fileName);
+        assertEquals(created.getId(), loaded.getId());
+        loaded.addExercise(new Exercise("Leg Press", 3, 10, 400, "quads"));
+        assertEquals(fileName, storage.save(loaded).fileName());
+        assertEquals(2, loaded.getVersion());
+
+        assertEquals(List.of(fileName), storage.getSavedWorkouts());
+        assertEquals(2, storage.loadWorkout(fileName).size());
+        assertEquals(fileName, storage.getCatalog().fileFor(created.getId()));
+        assertEquals(1, storage.query(WorkoutQuery.all().exercise("Leg Press")).size());
+    }
+
+    @Test
+    public void testStaleSaveIsRejected() {
+        String fileName = storage.save(workout("Leg Day")).fileName();
+        Workout first = storage.loadWorkout(fileName);
+        Workout second = storage.loadWorkout(fileName);
+
+        first.getExercises().get(0).setWeight(245);
+        assertEquals(SaveResult.SAVED, storage.replace(fileName, first));
+        second.getExercises().get(0).setWeight(235);
+        assertEquals(SaveResult.CONFLICT, storage.replace(fileName, second));
+        assertEquals(new SaveOutcome(SaveResult.CONFLICT, fileName), storage.save(second));
+
+        assertEquals(245, storage.loadWorkout(fileName).getExercises().get(0).getWeight(), 0);
+        assertEquals(1, second.getVersion());
+        assertEquals(1, storage.getSavedWorkouts().size());
+    }
+
+    @Test
+    public void testConflictsAreDecidedFromTheHeader() throws Exception {
+        String fileName = storage.save(workout("Leg Day")).fileName();
+        Workout stale = storage.loadWorkout(fileName);
+        assertEquals(SaveResult.SAVED, storage.replace(fileName, storage.loadWorkout(fileName)));
+
+        // Cut off inside the first exercise: the rest would not parse, but it is never read
+        Path file = folder.getRoot().toPath().resolve(fileName);
+        String json = Files.readString(file);
+        Files.writeString(file, json.substring(0, json.indexOf("\"sets\"")));
+        assertEquals(SaveResult.CONFLICT, storage.replace(fileName, stale));
+        assertEquals(SaveResult.NOT_FOUND, storage.replace("Missing.json", stale));
+    }
+
+    @Test
+    public void testFilesWithoutIdsAreReplacedInPlace() throws Exception {
+        Files.writeString(folder.getRoot().toPath().resolve("Old.json"),
+                "{\"name\":\"Old\",\"date\":\"2024-01-05\",\"exercises\":[{\"name\":\"Row\",\"sets\":3,"
+                        + "\"reps\":10,\"weight\":100,\"muscleGroup\":\"back\"}]}");
+
+        Workout loaded = storage.loadWorkout("Old.json");
+        assertNotNull(loaded.getId());
+        assertEquals(0, loaded.getVersion());
+        loaded.addExercise(new Exercise("Curl", 3, 10, 30, "biceps"));
+        assertEquals("Old.json", storage.save(loaded).fileName());
+        assertEquals(List.of("Old.json"), storage.getSavedWorkouts());
+        assertEquals(1, storage.loadWorkout("Old.json").getVersion());
+    }
+
+    @Test
+    public void testConcurrentEditorsLoseNoUpdates() throws Exception {
+        String fileName = storage.save(workout("Leg Day")).fileName();
+        int editors = 8;
+        List<Future<?>> edits = new ArrayList<>();
+        AtomicBoolean editing = new AtomicBoolean(true);
+        try (ExecutorService executor = Executors.newFixedThreadPool(editors + 1)) {
+            // A rebuild racing the replaces must end up with each version exactly once
+            Future<?> rebuilder = executor.submit(() -> {
+                while (editing.get()) {
+                    storage.getCatalog().rebuild();
+                }
+            });
+            for (int i = 0; i < editors; i++) {
+                String exercise = "Accessory " + i;
+                edits.add(executor.submit(() -> {
+                    while (true) { // Reload and retry on conflict
+                        Workout workout = storage.loadWorkout(fileName);
+                        workout.addExercise(new Exercise(exercise, 3, 10, 50, "quads"));
+                        if (storage.replace(fileName, workout) == SaveResult.SAVED) {
+                            return;
+                        }
+                    }
+                }));
+            }
+            for (Future<?> edit : edits) {
+                edit.get();
+            }
+            editing.set(false);
+            rebuilder.get();
+        }
+        Workout result = storage.loadWorkout(fileName);
+        assertEquals(1 + editors, result.size());
+        assertEquals(1 + editors, result.getVersion());
+        assertEquals(1, storage.getCatalog().size());
+        assertEquals(1 + editors, storage.getCatalog().get(fileName).getExerciseCount());
+        assertEquals(1 + editors, storage.getCatalog().get(fileName).getVersion());
+    }
+}
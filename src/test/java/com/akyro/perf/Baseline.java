@@ -0,0 +1,9 @@
+package com.akyro.perf;
+
+import java.util.List;
+
+record Baseline(String recordedOn, String javaVersion, List<Measurement> measurements) {
+    int javaFeature() {
+        return Integer.parseInt(javaVersion.split("[.+-]")[0]);
+    }
+}
@@ -0,0 +1,109 @@
+package com.akyro.perf;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Side-by-side comparison of a run against the baseline, one line per scenario and metric
+final class GateReport {
+    // Allocation changes below this many bytes per operation are noise from JIT and TLAB effects
+    private static final double ALLOCATION_SLACK_BYTES = 64;
+
+    private final double throughputTolerance;
+    private final double allocationTolerance;
+    private final Set<String> onDisk;
+    private final List<String> lines = new ArrayList<>();
+    private int regressions;
+
+    // throughputTolerance 0.3 fails a scenario whose relative throughput dropped by more than 30%;
+    // allocationTolerance 0.15 fails one allocating more than 15% more per operation. The throughput of the
+    // onDisk scenarios is reported but never fails the gate.
+    GateReport(double throughputTolerance, double allocationTolerance, Set<String> onDisk) {
+        this.throughputTolerance = throughputTolerance;
+        this.allocationTolerance = allocationTolerance;
+        this.onDisk = onDisk;
+    }
+
+    boolean regressed(Measurement before, Measurement now) {
+        return (slower(before, now) && !onDisk.contains(now.scenario())) || allocatesMore(before, now);
+    }
+
+    GateReport compare(Baseline baseline, List<Measurement> current) {
+        Map<String, Measurement> recorded = new LinkedHashMap<>();
+        for (Measurement measurement : baseline.measurements()) {
+            recorded.put(measurement.scenario(), measurement);
+        }
+        lines.add(String.format("Baseline recorded %s on Java %s", baseline.recordedOn(), baseline.javaVersion()));
+        lines.add(String.format("Limits: throughput -%.0f%% (file-system scenarios not gated), allocation +%.0f%%",
+                throughputTolerance * 100, allocationTolerance * 100));
+        lines.add(String.format("%-30s %-12s %14s %14s %9s %7s  %s",
+                "Scenario", "Metric", "Baseline", "Current", "Change", "Spread", "Status"));
+
+        for (Measurement now : current) {
+            Measurement before = recorded.remove(now.scenario());
+            if (before == null) {
+                row(now.scenario(), "rel. ops/s", Double.NaN, now.relativeThroughput(), now.spread(), "NEW");
+                row("", "bytes/op", Double.NaN, now.bytesPerOp(), Double.NaN, "NEW");
+                continue;
+            }
+            boolean faster = now.relativeThroughput() > before.relativeThroughput() * (1 + throughputTolerance);
+            String throughput = onDisk.contains(now.scenario())
+                    ? (slower(before, now) ? "slower, not gated" : faster ? "improved" : "ok")
+                    : status(slower(before, now), faster);
+            row(now.scenario(), "rel. ops/s", before.relativeThroughput(), now.relativeThroughput(), now.spread(),
+                    throughput);
+
+            boolean allocatesLess = now.bytesPerOp()
+                    < before.bytesPerOp() * (1 - allocationTolerance) - ALLOCATION_SLACK_BYTES;
+            row("", "bytes/op", before.bytesPerOp(), now.bytesPerOp(), Double.NaN,
+                    status(allocatesMore(before, now), allocatesLess));
+        }
+        for (String missing : recorded.keySet()) {
+            lines.add(String.format("%-30s %-12s %14s %14s %9s %7s  %s", missing, "", "", "", "", "", "NOT RUN"));
+        }
+        lines.add(regressions == 0 ? "No regressions"
+                : regressions + " regression(s); if intended, re-record with -Dperf.record=true");
+        return this;
+    }
+
+    boolean hasRegressions() {
+        return regressions > 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(System.lineSeparator(), lines) + System.lineSeparator();
+    }
+
+    private boolean slower(Measurement before, Measurement now) {
+        return now.relativeThroughput() < before.relativeThroughput() * (1 - throughputTolerance);
+    }
+
+    private boolean allocatesMore(Measurement before, Measurement now) {
+        return now.bytesPerOp() > before.bytesPerOp() * (1 + allocationTolerance) + ALLOCATION_SLACK_BYTES;
+    }
+
+    private String status(boolean regressed, boolean improved) {
+        if (regressed) {
+            regressions++;
+            return "REGRESSED";
+        }
+        return improved ? "improved" : "ok";
+    }
+
+    private void row(String scenario, String metric, double before, double now, double spread, String status) {
+        String change = Double.isNaN(before) || before == 0 ? "" : String.format("%+.1f%%", (now / before - 1) * 100);
+        String samples = Double.isNaN(spread) ? "" : String.format("%.0f%%", spread * 100);
+        lines.add(String.format("%-30s %-12s %14s %14s %9s %7s  %s",
+                scenario, metric, format(before), format(now), change, samples, status));
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "-";
+        }
+        return value >= 100 ? String.format("%,.0f", value) : String.format("%.4f", value);
+    }
+}
@@ -0,0 +1,15 @@
+package com.akyro.perf;
+
+// relativeThroughput is opsPerSecond over the calibration loop's rate on the same run, which is what the gate
+// compares: it cancels most of the difference between the machine that recorded the baseline and this one.
+// Allocation per operation does not depend on the machine and is compared as is. spread is how far apart the
+// fastest and slowest samples of the run were, relative to its median.
+record Measurement(String scenario, double opsPerSecond, double relativeThroughput, double bytesPerOp,
+        double spread) {
+    // The faster and leaner of two runs of the same scenario
+    Measurement best(Measurement other) {
+        Measurement faster = other.relativeThroughput > relativeThroughput ? other : this;
+        return new Measurement(scenario, faster.opsPerSecond, faster.relativeThroughput,
+                Math.min(bytesPerOp, other.bytesPerOp), faster.spread);
+    }
+}
@@ -0,0 +1,58 @@
+package com.akyro.perf;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+// Times an operation in-process: a warm-up period, then fixed-length samples whose median rate is reported along
+// with their spread, the gap between the fastest and slowest sample as a fraction of the median.
+// Allocation is read from the current thread's allocation counter, so operations must run on the calling thread.
+// The lowest per-sample allocation is reported: until the JIT finishes escape analysis and vector intrinsics a
+// sample can allocate many times the steady-state amount.
+final class PerfHarness {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final long warmupNanos;
+    private final long sampleNanos;
+    private final int samples;
+    private volatile int sink;
+
+    PerfHarness(long warmupMillis, long sampleMillis, int samples) {
+        this.warmupNanos = warmupMillis * 1_000_000;
+        this.sampleNanos = sampleMillis * 1_000_000;
+        this.samples = samples;
+    }
+
+    // Rate in operations per second, bytes allocated per operation and the spread of the rates
+    double[] measure(Callable<Object> operation) throws Exception {
+        long warmupEnd = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < warmupEnd) {
+            consume(operation.call());
+        }
+
+        double[] rates = new double[samples];
+        double bytesPerOp = Double.MAX_VALUE;
+        for (int i = 0; i < samples; i++) {
+            long count = 0;
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                consume(operation.call());
+                count++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < sampleNanos);
+            long allocated = THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            bytesPerOp = Math.min(bytesPerOp, (double) allocated / count);
+            rates[i] = count / (elapsed / 1e9);
+        }
+        Arrays.sort(rates);
+        double median = rates[samples / 2];
+        return new double[] { median, bytesPerOp, (rates[samples - 1] - rates[0]) / median };
+    }
+
+    private void consume(Object result) {
+        sink += System.identityHashCode(result);
+    }
+}
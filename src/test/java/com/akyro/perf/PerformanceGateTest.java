@@ -0,0 +1,116 @@
+package com.akyro.perf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// Runs only under mvn -Pperf-gate test. Times every scenario, writes target/perf-gate/results.json and report.txt,
+// and fails if any scenario regressed past the tolerances against src/test/resources/perf/baseline.json.
+// Scenarios bound by file-system I/O are gated on allocation only; their throughput and every scenario's sample
+// spread are reported so that a slowdown is still visible.
+//
+//   -Dperf.record=true                re-record the baseline from this run instead of comparing
+//   -Dperf.throughputTolerance=0.30   allowed drop in relative throughput
+//   -Dperf.allocationTolerance=0.15   allowed growth in bytes allocated per operation
+//   -Dperf.scenarios=storage\..*      run only the matching scenarios
+//   -Dperf.attempts=3                 runs per scenario when recording, and to confirm an apparent regression
+//   -Dperf.warmupMillis, -Dperf.sampleMillis, -Dperf.samples
+//   -Dperf.javaRelease=25             the Java release the build targets, set by the profile; both recording and
+//                                     comparing need the JVM and the baseline to be on it
+public class PerformanceGateTest {
+    private static final Path OUTPUT = Paths.get("target", "perf-gate");
+    // Re-measured before every scenario so that CPU frequency or neighbour load changes during the run cancel out
+    private static final PerfHarness CALIBRATION_HARNESS = new PerfHarness(200, 200, 3);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Test
+    public void testNoScenarioRegressed() throws Exception {
+        Path baselineFile = Paths.get(System.getProperty("perf.baseline", "src/test/resources/perf/baseline.json"));
+        boolean record = Boolean.getBoolean("perf.record");
+        assertTrue("No baseline at " + baselineFile + "; record one with -Dperf.record=true",
+                record || Files.exists(baselineFile));
+        Baseline baseline = record ? null : mapper.readValue(baselineFile.toFile(), Baseline.class);
+        // JIT and library changes between feature releases move the numbers more than the tolerances allow
+        int release = Integer.getInteger("perf.javaRelease", Runtime.version().feature());
+        assertEquals("Run the gate on Java " + release + ", the release the build targets, not Java "
+                + System.getProperty("java.version"), release, Runtime.version().feature());
+        if (baseline != null) {
+            assertEquals("The baseline was recorded on Java " + baseline.javaVersion() + "; re-record it on Java "
+                    + release + " with -Dperf.record=true", release, baseline.javaFeature());
+        }
+        Map<String, Measurement> recorded = new HashMap<>();
+        if (baseline != null) {
+            baseline.measurements().forEach(measurement -> recorded.put(measurement.scenario(), measurement));
+        }
+
+        Pattern selected = Pattern.compile(System.getProperty("perf.scenarios", ".*"));
+        int attempts = Integer.getInteger("perf.attempts", 3);
+        PerfHarness harness = new PerfHarness(Long.getLong("perf.warmupMillis", 2000),
+                Long.getLong("perf.sampleMillis", 1000), Integer.getInteger("perf.samples", 7));
+        Set<String> onDisk = Scenarios.all().stream().filter(Scenario::onDisk).map(Scenario::name)
+                .collect(Collectors.toSet());
+        GateReport report = new GateReport(Double.parseDouble(System.getProperty("perf.throughputTolerance", "0.30")),
+                Double.parseDouble(System.getProperty("perf.allocationTolerance", "0.15")), onDisk);
+        Callable<Object> calibration = Scenarios.CALIBRATION.preparer().prepare(null);
+
+        List<Measurement> measurements = new ArrayList<>();
+        for (Scenario scenario : Scenarios.all()) {
+            if (!selected.matcher(scenario.name()).matches()) {
+                continue;
+            }
+            Callable<Object> operation = scenario.preparer().prepare(folder.newFolder().toPath());
+            Measurement before = recorded.get(scenario.name());
+            Measurement best = null;
+            for (int attempt = 0; attempt < attempts; attempt++) {
+                double reference = CALIBRATION_HARNESS.measure(calibration)[0];
+                double[] result = harness.measure(operation);
+                Measurement now = new Measurement(scenario.name(), result[0], result[0] / reference, result[1],
+                        result[2]);
+                best = best == null ? now : best.best(now);
+                // Comparing runs stop at the first one within limits; recording keeps the best of all attempts
+                if (!record && (before == null || !report.regressed(before, best))) {
+                    break;
+                }
+            }
+            measurements.add(best);
+        }
+        Baseline run = new Baseline(LocalDate.now().toString(), System.getProperty("java.version"), measurements);
+        Files.createDirectories(OUTPUT);
+        mapper.writeValue(OUTPUT.resolve("results.json").toFile(), run);
+
+        if (record) {
+            Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+            mapper.writeValue(baselineFile.toFile(), run);
+            System.out.println("Recorded performance baseline " + baselineFile);
+            return;
+        }
+        report.compare(baseline, measurements);
+        Files.writeString(OUTPUT.resolve("report.txt"), report.toString());
+        System.out.print(report);
+        assertFalse("Performance regression:" + System.lineSeparator() + report, report.hasRegressions());
+    }
+}
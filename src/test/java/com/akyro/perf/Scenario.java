@@ -0,0 +1,18 @@
+package com.akyro.perf;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+// One operation the gate times. prepare() builds its data in a scratch directory, outside the measurement, and
+// returns the operation; whatever the operation returns is consumed so the JIT can't drop the work.
+// onDisk marks operations bound by file-system I/O, whose throughput varies between runs more than the gate's
+// tolerance allows; the gate reports their throughput but fails them only on allocation.
+record Scenario(String name, boolean onDisk, Preparer preparer) {
+    Scenario(String name, Preparer preparer) {
+        this(name, false, preparer);
+    }
+
+    interface Preparer {
+        Callable<Object> prepare(Path directory) throws Exception;
+    }
+}
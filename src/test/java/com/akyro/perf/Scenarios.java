@@ -0,0 +1,105 @@
+package com.akyro.perf;
+
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import analytics.AnalyticsEngine;
+import generator.WorkloadGenerator;
+import model.Workout;
+import storage.CsvColumn;
+import storage.CsvExporter;
+import storage.WorkoutQuery;
+import storage.WorkoutStorage;
+
+// The fixed scenario set. Every data set comes from a seeded generator, so each run times the same work; change a
+// scenario's data or operation only together with a new baseline.
+final class Scenarios {
+    private static final long SEED = 47;
+    private static final int HISTORY = 300;
+    private static final int IN_MEMORY_HISTORY = 5000;
+    private static final int WORKOUT_POOL = 64;
+
+    // A CPU and allocation mix that touches no project code. Throughput is compared relative to it, so a faster
+    // or slower machine moves every scenario and the calibration together.
+    static final Scenario CALIBRATION = new Scenario("calibration", directory -> {
+        long[] values = new SplittableRandom(SEED).longs(4096).toArray();
+        return () -> {
+            long[] sorted = values.clone();
+            Arrays.sort(sorted);
+            Map<String, Long> byName = new HashMap<>();
+            for (int i = 0; i < 512; i++) {
+                byName.put(Long.toString(sorted[i], 36), sorted[i]);
+            }
+            return byName;
+        };
+    });
+
+    private Scenarios() {
+    }
+
+    static List<Scenario> all() {
+        return List.of(
+                new Scenario("storage.loadAllWorkouts", true, directory -> {
+                    WorkoutStorage storage = historyOnDisk(directory);
+                    return storage::loadAllWorkouts;
+                }),
+                new Scenario("storage.queryByExercise", true, directory -> {
+                    WorkoutStorage storage = historyOnDisk(directory);
+                    WorkoutQuery query = WorkoutQuery.all()
+                            .exercise(storage.loadAllWorkouts().get(0).getExercises().get(0).getName());
+                    return () -> storage.query(query);
+                }),
+                new Scenario("storage.saveAndDelete", true, directory -> {
+                    WorkoutStorage storage = historyOnDisk(directory);
+                    Workout[] pool = pool(SEED + 1);
+                    int[] next = new int[1];
+                    return () -> {
+                        String fileName = storage.save(pool[next[0]++ % pool.length]).fileName();
+                        storage.deleteWorkout(fileName);
+                        return fileName;
+                    };
+                }),
+                new Scenario("analytics.analyze", directory -> {
+                    AnalyticsEngine engine = new AnalyticsEngine();
+                    Workout[] pool = pool(SEED + 2);
+                    int[] next = new int[1];
+                    return () -> engine.analyze(pool[next[0]++ % pool.length]);
+                }),
+                new Scenario("analytics.compare", directory -> {
+                    AnalyticsEngine engine = new AnalyticsEngine();
+                    Workout[] pool = pool(SEED + 3);
+                    int[] next = new int[1];
+                    return () -> {
+                        int i = next[0]++;
+                        return engine.compareWorkouts(pool[i % pool.length], pool[(i + 1) % pool.length]);
+                    };
+                }),
+                new Scenario("analytics.historyByCategory", directory -> {
+                    AnalyticsEngine engine = new AnalyticsEngine();
+                    List<Workout> history = new WorkloadGenerator(SEED + 4).workouts(IN_MEMORY_HISTORY).toList();
+                    return () -> engine.historyVolumeByCategory(history);
+                }),
+                new Scenario("csv.export", directory -> {
+                    List<Workout> history = new WorkloadGenerator(SEED + 5).workouts(HISTORY).toList();
+                    List<CsvColumn> columns = List.copyOf(EnumSet.allOf(CsvColumn.class));
+                    return () -> CsvExporter.export(Writer.nullWriter(), columns, history.iterator());
+                }));
+    }
+
+    private static WorkoutStorage historyOnDisk(Path directory) throws Exception {
+        new WorkloadGenerator(SEED).writeJsonFiles(directory, HISTORY);
+        WorkoutStorage storage = new WorkoutStorage(directory);
+        storage.getCatalog().size(); // Builds the catalog before timing starts
+        return storage;
+    }
+
+    private static Workout[] pool(long seed) {
+        return new WorkloadGenerator(seed).workouts(WORKOUT_POOL).toArray(Workout[]::new);
+    }
+}